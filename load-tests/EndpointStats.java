@@ -0,0 +1,87 @@
+package com.psyche.platform.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика одной цели. Две гистограммы задержек:
+ * <ul>
+ *   <li>corrected — от запланированного момента отправки до ответа. В открытой модели запрос
+ *       ждет своего момента независимо от предыдущих, поэтому задержка, набежавшая на стороне
+ *       генератора или в очереди сервиса, попадает в замер (поправка на coordinated omission);</li>
+ *   <li>service — от фактической отправки до ответа, для сравнения.</li>
+ * </ul>
+ * Recorder позволяет писать из любых потоков без блокировок; interval() сливает
+ * накопленное в итоговые гистограммы и вызывается одним потоком отчета.
+ */
+final class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LoadTarget target;
+    private final Recorder correctedRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder serviceRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram corrected = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram service = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram correctedInterval;
+    private Histogram serviceInterval;
+
+    // 2xx; 429/503 — отказ лимитеров шлюза или перегрузка сервиса; прочее, включая таймауты
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    EndpointStats(LoadTarget target) {
+        this.target = target;
+    }
+
+    void record(long intendedNanos, long sentNanos, long completedNanos, int status) {
+        correctedRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos));
+        serviceRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+        if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status == 429 || status == 503) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Сливает интервал в итог и возвращает его (скорректированные задержки, мкс)
+     */
+    Histogram interval() {
+        correctedInterval = correctedRecorder.getIntervalHistogram(correctedInterval);
+        serviceInterval = serviceRecorder.getIntervalHistogram(serviceInterval);
+        corrected.add(correctedInterval);
+        service.add(serviceInterval);
+        return correctedInterval;
+    }
+
+    LoadTarget target() {
+        return target;
+    }
+
+    Histogram corrected() {
+        return corrected;
+    }
+
+    Histogram service() {
+        return service;
+    }
+
+    long ok() {
+        return ok.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+}
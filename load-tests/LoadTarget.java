@@ -0,0 +1,78 @@
+package com.psyche.platform.loadtest;
+
+import com.psyche.platform.prediction.service.PredictionService;
+import com.psyche.platform.prediction.strategy.EnsembleMBTIStrategy;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Нагружаемые эндпоинты prediction-service (через маршрут шлюза /api/predictions/**)
+ */
+enum LoadTarget {
+
+    CALCULATE("calculate") {
+        @Override
+        HttpRequest request(URI gateway, LoadTestData data, long sequence, Duration timeout) {
+            return post(gateway.resolve("/api/predictions/calculate"), data, sequence, timeout);
+        }
+    },
+
+    CALCULATE_ADVANCED("advanced") {
+        @Override
+        HttpRequest request(URI gateway, LoadTestData data, long sequence, Duration timeout) {
+            String strategy = STRATEGIES[(int) (sequence % STRATEGIES.length)];
+            return post(gateway.resolve("/api/predictions/calculate-advanced?strategy=" + strategy), data, sequence, timeout);
+        }
+    },
+
+    HISTORY("history") {
+        @Override
+        HttpRequest request(URI gateway, LoadTestData data, long sequence, Duration timeout) {
+            String user = data.user(sequence);
+            return HttpRequest.newBuilder(gateway.resolve("/api/predictions/history/" + user + "?limit=20"))
+                .timeout(timeout)
+                .header("X-User-Id", user)
+                .header("X-API-Key", user)
+                .GET()
+                .build();
+        }
+    };
+
+    // Режимы calculate-advanced перебираются по очереди
+    private static final String[] STRATEGIES = {
+        PredictionService.DEFAULT_STRATEGY, "BEHAVIORAL_MBTI_STRATEGY", EnsembleMBTIStrategy.NAME
+    };
+
+    private final String label;
+
+    LoadTarget(String label) {
+        this.label = label;
+    }
+
+    abstract HttpRequest request(URI gateway, LoadTestData data, long sequence, Duration timeout);
+
+    String label() {
+        return label;
+    }
+
+    static LoadTarget of(String label) {
+        for (LoadTarget target : values()) {
+            if (target.label.equals(label)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная цель " + label);
+    }
+
+    private static HttpRequest post(URI uri, LoadTestData data, long sequence, Duration timeout) {
+        return HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header("X-User-Id", data.payloadUser(sequence))
+            .header("X-API-Key", data.payloadUser(sequence))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(data.payload(sequence)))
+            .build();
+    }
+}
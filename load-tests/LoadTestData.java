@@ -0,0 +1,86 @@
+package com.psyche.platform.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psyche.platform.prediction.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Заранее сериализованные тела запросов: генерация и JSON не попадают в замер.
+ * Тело i принадлежит пользователю i % users, поэтому расчеты наполняют историю,
+ * которую затем читает цель history
+ */
+final class LoadTestData {
+
+    private static final long SEED = 42L;
+    private static final int PAYLOADS = 4096;
+
+    private final byte[][] payloads;
+    private final String[] payloadUsers;
+    private final int users;
+
+    LoadTestData(int users, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.users = users;
+        this.payloads = new byte[PAYLOADS][];
+        this.payloadUsers = new String[PAYLOADS];
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        SchoolType[] schoolTypes = SchoolType.values();
+        FamilyEnvironment[] familyEnvironments = FamilyEnvironment.values();
+        for (int i = 0; i < PAYLOADS; i++) {
+            ParentsGeneticData parents = new ParentsGeneticData();
+            parents.setFatherExtraversion(random.nextDouble());
+            parents.setFatherIntuition(random.nextDouble());
+            parents.setFatherThinking(random.nextDouble());
+            parents.setFatherJudging(random.nextDouble());
+            parents.setMotherExtraversion(random.nextDouble());
+            parents.setMotherIntuition(random.nextDouble());
+            parents.setMotherThinking(random.nextDouble());
+            parents.setMotherJudging(random.nextDouble());
+
+            EnvironmentData environment = new EnvironmentData();
+            environment.setBirthOrder(1 + random.nextInt(4));
+            environment.setSchoolType(schoolTypes[i % schoolTypes.length]);
+            environment.setFamilyEnvironment(familyEnvironments[i % familyEnvironments.length]);
+            environment.setFriendsInfluence(random.nextDouble());
+            environment.setHasSiblings(random.nextBoolean());
+
+            PredictionRequest request = new PredictionRequest();
+            request.setUserId(user(i));
+            request.setParents(parents);
+            request.setEnvironment(environment);
+            payloads[i] = objectMapper.writeValueAsBytes(request);
+            payloadUsers[i] = request.getUserId();
+        }
+    }
+
+    byte[] payload(long sequence) {
+        return payloads[(int) (sequence % PAYLOADS)];
+    }
+
+    /**
+     * Пользователь тела payload(sequence)
+     */
+    String payloadUser(long sequence) {
+        return payloadUsers[(int) (sequence % PAYLOADS)];
+    }
+
+    String user(long sequence) {
+        return "load-user-" + (sequence % users);
+    }
+
+    /**
+     * Все пользователи нагрузки; каждый выступает и как выданный шлюзом API-ключ,
+     * чтобы лимит частоты считался по пользователю, а не по общему адресу loopback
+     */
+    static List<String> allUsers(int users) {
+        List<String> all = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            all.add("load-user-" + i);
+        }
+        return all;
+    }
+}
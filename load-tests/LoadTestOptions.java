@@ -0,0 +1,117 @@
+package com.psyche.platform.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Параметры командной строки нагрузочного теста
+ */
+record LoadTestOptions(double rate,
+                       Duration duration,
+                       Duration warmup,
+                       Map<LoadTarget, Integer> mix,
+                       int users,
+                       Duration timeout,
+                       URI target,
+                       Path workDir,
+                       List<String> jvmOptions,
+                       List<String> serviceProperties,
+                       List<String> gatewayProperties) {
+
+    static final String USAGE = """
+        Использование: LoadTestRunner [параметры]
+          --rate        <n>             запросов в секунду (открытая модель), по умолчанию 200
+          --duration    <сек>           длительность замера, по умолчанию 60
+          --warmup      <сек>           нагрузка до замера, в отчет не входит, по умолчанию 15
+          --mix         <цель=вес,...>  calculate, advanced, history; по умолчанию calculate=6,advanced=3,history=1
+          --users       <n>             число пользователей (X-User-Id и история), по умолчанию 1000
+          --timeout     <сек>           предел ожидания ответа, по умолчанию 30
+          --target      <url>           нагружать уже запущенный шлюз вместо локального стенда
+          --work-dir    <каталог>       журналы и данные локального стенда, по умолчанию временный каталог
+          --jvm-opts    "<опции>"       опции JVM сервисов стенда, по умолчанию "-Xmx1g"
+          --service-property <k=v>      дополнительное свойство prediction-service (можно повторять)
+          --gateway-property <k=v>      дополнительное свойство шлюза (можно повторять)
+        """;
+
+    static LoadTestOptions parse(String[] args) {
+        double rate = 200;
+        int durationSeconds = 60;
+        int warmupSeconds = 15;
+        Map<LoadTarget, Integer> mix = parseMix("calculate=6,advanced=3,history=1");
+        int users = 1000;
+        int timeoutSeconds = 30;
+        URI target = null;
+        Path workDir = null;
+        List<String> jvmOptions = List.of("-Xmx1g");
+        List<String> serviceProperties = new ArrayList<>();
+        List<String> gatewayProperties = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Нет значения для " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--duration" -> durationSeconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--mix" -> mix = parseMix(value);
+                case "--users" -> users = Integer.parseInt(value);
+                case "--timeout" -> timeoutSeconds = Integer.parseInt(value);
+                case "--target" -> target = URI.create(value);
+                case "--work-dir" -> workDir = Path.of(value);
+                case "--jvm-opts" -> jvmOptions = List.of(value.trim().split("\\s+"));
+                case "--service-property" -> serviceProperties.add(property(name, value));
+                case "--gateway-property" -> gatewayProperties.add(property(name, value));
+                default -> throw new IllegalArgumentException("Неизвестный параметр " + name);
+            }
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("--rate должен быть больше нуля");
+        }
+        if (durationSeconds < 1 || warmupSeconds < 0 || timeoutSeconds < 1) {
+            throw new IllegalArgumentException("--duration и --timeout должны быть больше нуля, --warmup — не меньше нуля");
+        }
+        if (users < 1) {
+            throw new IllegalArgumentException("--users должен быть больше нуля");
+        }
+        return new LoadTestOptions(rate, Duration.ofSeconds(durationSeconds), Duration.ofSeconds(warmupSeconds),
+            mix, users, Duration.ofSeconds(timeoutSeconds), target, workDir, jvmOptions,
+            List.copyOf(serviceProperties), List.copyOf(gatewayProperties));
+    }
+
+    private static Map<LoadTarget, Integer> parseMix(String value) {
+        Map<LoadTarget, Integer> mix = new EnumMap<>(LoadTarget.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("--mix: ожидается цель=вес, получено " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("--mix: вес не может быть отрицательным");
+            }
+            if (weight > 0) {
+                mix.put(LoadTarget.of(pair[0].trim().toLowerCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix: нужна хотя бы одна цель с ненулевым весом");
+        }
+        return mix;
+    }
+
+    private static String property(String name, String value) {
+        if (value.indexOf('=') <= 0) {
+            throw new IllegalArgumentException(name + ": ожидается ключ=значение");
+        }
+        return value;
+    }
+}
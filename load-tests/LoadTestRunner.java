@@ -0,0 +1,128 @@
+package com.psyche.platform.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест шлюза и prediction-service на одной машине.
+ * Поднимает локальный стенд (LocalStack) либо нагружает готовый шлюз (--target),
+ * подает нагрузку с постоянной интенсивностью (OpenModelDriver) на /calculate,
+ * /calculate-advanced и /history/{userId} и печатает пропускную способность
+ * и перцентили задержки с поправкой на coordinated omission.
+ */
+public final class LoadTestRunner {
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestOptions options;
+    private final Map<LoadTarget, EndpointStats> stats = new EnumMap<>(LoadTarget.class);
+
+    LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+        for (LoadTarget target : options.mix().keySet()) {
+            stats.put(target, new EndpointStats(target));
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            new LoadTestRunner(options).run();
+        } catch (Exception e) {
+            System.err.println("Нагрузочный тест прерван: " + e);
+            System.exit(1);
+        }
+    }
+
+    void run() throws Exception {
+        LoadTestData data = new LoadTestData(options.users(), new ObjectMapper());
+        try (LocalStack stack = options.target() == null ? LocalStack.start(options) : null) {
+            URI gateway = stack != null ? stack.gatewayUri() : options.target();
+            if (stack != null) {
+                System.out.printf("Стенд готов: шлюз %s, журналы в %s%n", gateway, stack.workDir());
+            }
+
+            OpenModelDriver driver = new OpenModelDriver(gateway, data, options, stats);
+            ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+            long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            progress.scheduleAtFixedRate(() -> printProgress(driver, start),
+                PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            try {
+                driver.run(start);
+            } finally {
+                progress.shutdown();
+                progress.awaitTermination(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            }
+            for (EndpointStats endpoint : stats.values()) {
+                endpoint.interval();
+            }
+            printReport(driver);
+        }
+    }
+
+    private void printProgress(OpenModelDriver driver, long start) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        String phase = elapsed < options.warmup().toSeconds() ? "прогрев" : "замер";
+        StringBuilder line = new StringBuilder(String.format("[%4d с, %s] отправлено %d, в полете %d",
+            elapsed, phase, driver.dispatched(), driver.inFlight()));
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram interval = endpoint.interval();
+            if (interval.getTotalCount() > 0) {
+                line.append(String.format(", %s p99 %.1f мс", endpoint.target().label(),
+                    interval.getValueAtPercentile(99) / MICROS_PER_MILLI));
+            }
+        }
+        System.out.println(line);
+    }
+
+    private void printReport(OpenModelDriver driver) {
+        double seconds = options.duration().toNanos() / 1e9;
+        System.out.printf("%nИнтенсивность %.0f запр/с, замер %d с после прогрева %d с, смесь %s%n",
+            options.rate(), options.duration().toSeconds(), options.warmup().toSeconds(), options.mix());
+        System.out.println("Задержка в мс от запланированного момента отправки (с поправкой на coordinated omission);");
+        System.out.println("в скобках — от фактической отправки (без поправки)");
+        System.out.printf("%-10s %9s %9s %9s %9s %10s %17s %17s %17s %17s%n",
+            "цель", "всего", "2xx", "429/503", "ошибки", "2xx/с", "p50", "p99", "p99.9", "max");
+
+        long totalOk = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram corrected = endpoint.corrected();
+            Histogram service = endpoint.service();
+            totalOk += endpoint.ok();
+            System.out.printf("%-10s %9d %9d %9d %9d %10.1f %17s %17s %17s %17s%n",
+                endpoint.target().label(), corrected.getTotalCount(), endpoint.ok(), endpoint.rejected(),
+                endpoint.failed(), endpoint.ok() / seconds,
+                percentile(corrected, service, 50), percentile(corrected, service, 99),
+                percentile(corrected, service, 99.9), max(corrected, service));
+        }
+        System.out.printf("Итого 2xx: %.1f запр/с из запланированных %.0f%n", totalOk / seconds, options.rate());
+        System.out.printf("Наибольшее отставание генератора от расписания: %.1f мс%n",
+            driver.maxLag().toNanos() / 1e6);
+    }
+
+    private static String percentile(Histogram corrected, Histogram service, double percentile) {
+        return String.format("%.2f (%.2f)", corrected.getValueAtPercentile(percentile) / MICROS_PER_MILLI,
+            service.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private static String max(Histogram corrected, Histogram service) {
+        return String.format("%.2f (%.2f)", corrected.getMaxValue() / MICROS_PER_MILLI,
+            service.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
@@ -0,0 +1,192 @@
+package com.psyche.platform.loadtest;
+
+import com.psyche.platform.apigateway.ApiGatewayApplication;
+import com.psyche.platform.prediction.PredictionServiceApplication;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный стенд на одной машине без сети (только loopback):
+ * <ul>
+ *   <li>prediction-service и шлюз — настоящие приложения, каждое в отдельной JVM, чтобы
+ *       генератор нагрузки и сервисы не делили кучу и GC, а шлюз (WebFlux) и сервис (MVC)
+ *       не спорили о типе веб-приложения;</li>
+ *   <li>discovery — SimpleDiscoveryClient из Spring Cloud Commons: адреса экземпляров
+ *       передаются шлюзу свойствами spring.cloud.discovery.client.simple.instances.*,
+ *       поэтому маршруты lb:// работают без Eureka;</li>
+ *   <li>user-service и analytics-service, которых нет в репозитории, — заглушки в JVM теста.</li>
+ * </ul>
+ * Журналы сервисов пишутся в рабочий каталог, история предсказаний — в его подкаталог.
+ */
+final class LocalStack implements AutoCloseable {
+
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private static final long POLL_MILLIS = 250;
+
+    private final Path workDir;
+    private final List<StubService> stubs = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+    private URI gatewayUri;
+
+    private LocalStack(Path workDir) {
+        this.workDir = workDir;
+    }
+
+    static LocalStack start(LoadTestOptions options) throws IOException, InterruptedException {
+        Path workDir = options.workDir() != null
+            ? Files.createDirectories(options.workDir())
+            : Files.createTempDirectory("psyche-loadtest");
+        LocalStack stack = new LocalStack(workDir);
+        try {
+            stack.boot(options);
+            return stack;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            stack.close();
+            throw e;
+        }
+    }
+
+    private void boot(LoadTestOptions options) throws IOException, InterruptedException {
+        StubService users = StubService.start("user-service", "/api/users", "{\"id\":\"stub\",\"name\":\"stub\"}");
+        stubs.add(users);
+        StubService analytics = StubService.start("analytics-service", "/api/analytics", "{\"items\":[]}");
+        stubs.add(analytics);
+
+        // Прогрев сервиса (prediction.warmup) идет до старта Tomcat, поэтому готовность =
+        // ответ его собственного эндпоинта; лимит ожидания учитывает prediction.warmup.max-duration
+        int predictionPort = freePort();
+        List<String> predictionArgs = new ArrayList<>(List.of(
+            "--server.port=" + predictionPort,
+            "--server.address=" + LOOPBACK,
+            "--spring.application.name=prediction-service",
+            "--eureka.client.enabled=false",
+            "--prediction.history.directory=" + workDir.resolve("history")));
+        predictionArgs.addAll(arguments(options.serviceProperties()));
+        Process prediction = launch("prediction-service", PredictionServiceApplication.class, options, predictionArgs);
+        awaitReady(prediction, "prediction-service", URI.create(url(predictionPort) + "/api/predictions/startup"));
+
+        int gatewayPort = freePort();
+        List<String> gatewayArgs = new ArrayList<>(List.of(
+            "--server.port=" + gatewayPort,
+            "--server.address=" + LOOPBACK,
+            "--spring.application.name=api-gateway",
+            "--spring.main.web-application-type=reactive",
+            "--eureka.client.enabled=false",
+            instance("prediction-service", predictionPort),
+            instance(users.name(), users.port()),
+            instance(analytics.name(), analytics.port()),
+            "--gateway.rate-limit.api-keys=" + String.join(",", LoadTestData.allUsers(options.users()))));
+        gatewayArgs.addAll(arguments(options.gatewayProperties()));
+        Process gateway = launch("api-gateway", ApiGatewayApplication.class, options, gatewayArgs);
+        // Через маршрут шлюза к заглушке: проверяет и шлюз, и разрешение lb:// через discovery
+        awaitReady(gateway, "api-gateway", URI.create(url(gatewayPort) + "/api/users/ready"));
+
+        gatewayUri = URI.create(url(gatewayPort));
+    }
+
+    URI gatewayUri() {
+        return gatewayUri;
+    }
+
+    Path workDir() {
+        return workDir;
+    }
+
+    private Process launch(String name, Class<?> mainClass, LoadTestOptions options, List<String> args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.jvmOptions());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(args);
+
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(workDir.resolve(name + ".log").toFile())
+            .start();
+        processes.add(process);
+        return process;
+    }
+
+    private void awaitReady(Process process, String name, URI probe) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            HttpRequest request = HttpRequest.newBuilder(probe).timeout(Duration.ofSeconds(5)).GET().build();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " завершился при старте (код " + process.exitValue()
+                        + "), см. " + workDir.resolve(name + ".log"));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // порт еще не открыт
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        }
+        throw new IllegalStateException(name + " не стал готов за " + STARTUP_TIMEOUT
+            + ", см. " + workDir.resolve(name + ".log"));
+    }
+
+    /**
+     * Сервисы останавливаются в обратном порядке: сначала шлюз, затем prediction-service
+     */
+    @Override
+    public void close() {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            Process process = processes.get(i);
+            process.destroy();
+            try {
+                if (!process.waitFor(SHUTDOWN_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        for (StubService stub : stubs) {
+            stub.close();
+        }
+    }
+
+    private static String instance(String serviceId, int port) {
+        return "--spring.cloud.discovery.client.simple.instances." + serviceId + "[0].uri=" + url(port);
+    }
+
+    private static List<String> arguments(List<String> properties) {
+        return properties.stream().map(property -> "--" + property).toList();
+    }
+
+    private static String url(int port) {
+        return "http://" + LOOPBACK + ":" + port;
+    }
+
+    /**
+     * Свободный порт loopback; между закрытием сокета и стартом сервиса его теоретически
+     * может занять другой процесс — тогда сервис не стартует и тест сообщит об этом
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.psyche.platform.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки по открытой модели: запрос i отправляется в момент start + i / rate
+ * независимо от того, ответили ли предыдущие. Каждый запрос получает свой виртуальный поток,
+ * поэтому медленные ответы не задерживают расписание (в отличие от закрытой модели
+ * "N клиентов в цикле", которая при деградации сервиса сама снижает нагрузку и скрывает хвосты).
+ * Запросы, запланированные до конца прогрева, отправляются, но не попадают в статистику.
+ */
+final class OpenModelDriver {
+
+    private final URI gateway;
+    private final LoadTestData data;
+    private final LoadTestOptions options;
+    private final Map<LoadTarget, EndpointStats> stats;
+    private final LoadTarget[] wheel;
+
+    private final AtomicLong inFlight = new AtomicLong();
+    // Пишет только поток расписания
+    private volatile long dispatched;
+    private volatile long maxLagNanos;
+
+    OpenModelDriver(URI gateway, LoadTestData data, LoadTestOptions options, Map<LoadTarget, EndpointStats> stats) {
+        this.gateway = gateway;
+        this.data = data;
+        this.options = options;
+        this.stats = stats;
+
+        // Цели по весам смеси: запрос i идет в wheel[i % wheel.length]
+        List<LoadTarget> slots = new ArrayList<>();
+        options.mix().forEach((target, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(target);
+            }
+        });
+        this.wheel = slots.toArray(LoadTarget[]::new);
+    }
+
+    /**
+     * Выполняет прогрев и замер; возвращается после получения всех ответов
+     */
+    void run(long startNanos) {
+        long measureStart = startNanos + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+        double intervalNanos = 1_000_000_000.0 / options.rate();
+
+        try (HttpClient client = HttpClient.newBuilder()
+                 .version(HttpClient.Version.HTTP_1_1)
+                 .connectTimeout(options.timeout())
+                 .executor(Executors.newVirtualThreadPerTaskExecutor())
+                 .build();
+             ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0; ; sequence++) {
+                // Момент считается от начала, а не от предыдущего запроса, чтобы ошибка не накапливалась
+                long intended = startNanos + (long) (sequence * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                maxLagNanos = Math.max(maxLagNanos, now - intended);
+
+                LoadTarget target = wheel[(int) (sequence % wheel.length)];
+                EndpointStats targetStats = intended >= measureStart ? stats.get(target) : null;
+                long requestSequence = sequence;
+                inFlight.incrementAndGet();
+                senders.execute(() -> send(client, target, requestSequence, intended, targetStats));
+                dispatched = sequence + 1;
+            }
+        }
+    }
+
+    private void send(HttpClient client, LoadTarget target, long sequence, long intended, EndpointStats targetStats) {
+        try {
+            HttpRequest request = target.request(gateway, data, sequence, options.timeout());
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1; // таймаут или обрыв соединения
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (targetStats != null) {
+                targetStats.record(intended, sent, System.nanoTime(), status);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    long inFlight() {
+        return inFlight.get();
+    }
+
+    long dispatched() {
+        return dispatched;
+    }
+
+    /**
+     * Наибольшее отставание отправки от расписания на стороне генератора
+     */
+    Duration maxLag() {
+        return Duration.ofNanos(maxLagNanos);
+    }
+}
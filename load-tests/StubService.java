@@ -0,0 +1,58 @@
+package com.psyche.platform.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Заглушка сервиса, которого нет в репозитории (user-service, analytics-service):
+ * на любой запрос под своим префиксом отвечает 200 с фиксированным JSON.
+ * Нужна, чтобы маршруты шлюза разрешались и шлюз можно было проверить на готовность
+ */
+final class StubService implements AutoCloseable {
+
+    private final String name;
+    private final HttpServer server;
+
+    private StubService(String name, HttpServer server) {
+        this.name = name;
+        this.server = server;
+    }
+
+    static StubService start(String name, String pathPrefix, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(pathPrefix, exchange -> respond(exchange, body));
+        server.start();
+        return new StubService(name, server);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.psyche.platform.prediction.benchmark;
+
+import com.psyche.platform.prediction.model.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированные входные данные для бенчмарков: все типы школ и семей,
+ * разные порядки рождения, оценки родителей в диапазоне 0.0 - 1.0
+ */
+final class BenchmarkData {
+    
+    private static final long SEED = 42L;
+    
+    private BenchmarkData() {
+    }
+    
+    static PredictionRequest[] requests(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        SchoolType[] schoolTypes = SchoolType.values();
+        FamilyEnvironment[] familyEnvironments = FamilyEnvironment.values();
+        
+        PredictionRequest[] requests = new PredictionRequest[count];
+        for (int i = 0; i < count; i++) {
+            ParentsGeneticData parents = new ParentsGeneticData();
+            parents.setFatherExtraversion(random.nextDouble());
+            parents.setFatherIntuition(random.nextDouble());
+            parents.setFatherThinking(random.nextDouble());
+            parents.setFatherJudging(random.nextDouble());
+            parents.setMotherExtraversion(random.nextDouble());
+            parents.setMotherIntuition(random.nextDouble());
+            parents.setMotherThinking(random.nextDouble());
+            parents.setMotherJudging(random.nextDouble());
+            
+            EnvironmentData environment = new EnvironmentData();
+            environment.setBirthOrder(1 + random.nextInt(4));
+            environment.setSchoolType(schoolTypes[i % schoolTypes.length]);
+            environment.setFamilyEnvironment(familyEnvironments[i % familyEnvironments.length]);
+            environment.setFriendsInfluence(random.nextDouble());
+            environment.setHasSiblings(random.nextBoolean());
+            
+            PredictionRequest request = new PredictionRequest();
+            request.setParents(parents);
+            request.setEnvironment(environment);
+            requests[i] = request;
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск всех бенчмарков модуля с профилировщиком GC (скорость выделения памяти, gc.alloc.rate.norm).
+ * Аргумент — необязательный regex для выбора бенчмарков, например "StrategyBenchmark"
+ */
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com.psyche.platform.prediction.benchmark.*";
+        
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .shouldFailOnError(true)
+            .build();
+        
+        new Runner(options).run();
+    }
+}
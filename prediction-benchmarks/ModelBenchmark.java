@@ -0,0 +1,55 @@
+package com.psyche.platform.prediction.benchmark;
+
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.shared.model.PersonalityTrait;
+import com.psyche.platform.shared.model.TraitVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость построения моделей: Lombok-билдер результата и черты из каталога TraitCatalog
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    
+    private final TraitVector traits = new TraitVector(0.72, 0.41, 0.66, 0.58);
+    
+    @Benchmark
+    public MBTIResult resultBuilder() {
+        return MBTIResult.builder()
+            .typeCode(traits.packedType())
+            .traitScores(traits)
+            .confidence(0.6)
+            .bullyingRisk(0.3)
+            .strategyUsed("GENETIC_MBTI_STRATEGY")
+            .build();
+    }
+    
+    @Benchmark
+    public PersonalityTrait[] mbtiTraits() {
+        PersonalityTrait[] result = new PersonalityTrait[8];
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            TraitVector.Dichotomy dichotomy = TraitVector.Dichotomy.byIndex(d);
+            result[d * 2] = PersonalityTrait.mbtiPole(traits, dichotomy);
+            result[d * 2 + 1] = PersonalityTrait.mbtiOpposite(traits, dichotomy);
+        }
+        return result;
+    }
+    
+    @Benchmark
+    public PersonalityTrait[] mbtiTraitsByCode() {
+        PersonalityTrait[] result = new PersonalityTrait[8];
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            TraitVector.Dichotomy dichotomy = TraitVector.Dichotomy.byIndex(d);
+            result[d * 2] = PersonalityTrait.createMBTITrait(dichotomy.getPoleCode(), traits.get(dichotomy));
+            result[d * 2 + 1] = PersonalityTrait.createMBTITrait(dichotomy.getOppositeCode(), traits.getOpposite(dichotomy));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+package com.psyche.platform.prediction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psyche.platform.prediction.PredictionController;
+import com.psyche.platform.prediction.analysis.AnalysisRenderer;
+import com.psyche.platform.prediction.analytics.AnalyticsProperties;
+import com.psyche.platform.prediction.analytics.PopulationAnalytics;
+import com.psyche.platform.prediction.cache.PredictionCache;
+import com.psyche.platform.prediction.cache.PredictionCacheConfig;
+import com.psyche.platform.prediction.cache.PredictionCacheProperties;
+import com.psyche.platform.prediction.codec.PredictionBinaryCodec;
+import com.psyche.platform.prediction.history.HistoryStoreProperties;
+import com.psyche.platform.prediction.history.PredictionHistoryStore;
+import com.psyche.platform.prediction.metrics.PredictionMetrics;
+import com.psyche.platform.prediction.metrics.PredictionMetricsProperties;
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import com.psyche.platform.prediction.service.AsyncPredictionProperties;
+import com.psyche.platform.prediction.service.AsyncPredictionService;
+import com.psyche.platform.prediction.service.PredictionService;
+import com.psyche.platform.prediction.strategy.*;
+import com.psyche.platform.prediction.uncertainty.UncertaintyEstimator;
+import com.psyche.platform.prediction.uncertainty.UncertaintyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный путь контроллера: JSON запроса -> PredictionRequest -> расчет -> JSON результата.
+ * Параметры: стратегия, рендеринг анализа вкл/выкл, кэш вкл/выкл
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictionRoundTripBenchmark {
+    
+    private static final int RECORDS = 256;
+    
+    @Param({"GENETIC_MBTI_STRATEGY", "BEHAVIORAL_MBTI_STRATEGY"})
+    public String strategyName;
+    
+    @Param({"false", "true"})
+    public boolean includeAnalysis;
+    
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+    
+    // 0 — замер фаз выключен; сравнение показывает цену выборочного профилирования
+    @Param({"0", "0.05"})
+    public double metricsSampleRate;
+    
+    private ObjectMapper objectMapper;
+    private PredictionController controller;
+    private AsyncPredictionService asyncService;
+    private PopulationAnalytics analytics;
+    private UncertaintyEstimator uncertaintyEstimator;
+    private PredictionMetrics metrics;
+    private List<String> include;
+    private byte[][] requestBodies;
+    private MBTIResult sampleResult;
+    private byte[] sampleResultBody;
+    private byte[] sampleResultBinary;
+    private ByteArrayOutputStream binaryBuffer;
+    private int next;
+    
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        
+        PredictionCacheProperties cacheProperties = new PredictionCacheProperties();
+        cacheProperties.setEnabled(cacheEnabled);
+        PredictionCache cache = new PredictionCache(new PredictionCacheConfig().cacheManager(cacheProperties), cacheProperties);
+        StrategyRegistry registry = new StrategyRegistry(
+            List.of(new GeneticMBTIStrategy(), new BehavioralMBTIStrategy()), new EnsembleProperties());
+        // История в бенчмарке не пишется: хранилище не запущено, append ничего не делает
+        HistoryStoreProperties historyProperties = new HistoryStoreProperties();
+        historyProperties.setEnabled(false);
+        // Аналитика включена: ее стоимость входит в измеряемый путь запроса
+        analytics = new PopulationAnalytics(new AnalyticsProperties(), registry);
+        analytics.afterPropertiesSet();
+        uncertaintyEstimator = new UncertaintyEstimator(new UncertaintyProperties());
+        PredictionMetricsProperties metricsProperties = new PredictionMetricsProperties();
+        metricsProperties.setSampleRate(metricsSampleRate);
+        metrics = new PredictionMetrics(new SimpleMeterRegistry(), metricsProperties);
+        PredictionService service = new PredictionService(registry, new AnalysisRenderer(), cache,
+            new PredictionHistoryStore(historyProperties), List.of(analytics),
+            uncertaintyEstimator, metrics);
+        asyncService = new AsyncPredictionService(service, new AsyncPredictionProperties());
+        controller = new PredictionController(service, asyncService, objectMapper, cache, analytics, metrics);
+        include = includeAnalysis ? List.of("analysis") : null;
+        
+        PredictionRequest[] requests = BenchmarkData.requests(RECORDS);
+        requestBodies = new byte[RECORDS][];
+        for (int i = 0; i < RECORDS; i++) {
+            requestBodies[i] = objectMapper.writeValueAsBytes(requests[i]);
+        }
+        sampleResult = controller.calculateAdvanced(requests[0], strategyName, include, null, null).join();
+        sampleResultBody = objectMapper.writeValueAsBytes(sampleResult);
+        binaryBuffer = new ByteArrayOutputStream(512);
+        PredictionBinaryCodec.writeResult(sampleResult, new DataOutputStream(binaryBuffer));
+        sampleResultBinary = binaryBuffer.toByteArray();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        asyncService.destroy();
+        analytics.destroy();
+        uncertaintyEstimator.destroy();
+    }
+    
+    @Benchmark
+    public byte[] roundTrip() throws IOException {
+        byte[] body = requestBodies[next];
+        next = (next + 1) % RECORDS;
+        // Как в PredictionMetricsInterceptor: замер открывается до чтения тела и закрывается после записи
+        PredictionSample sample = metrics.start();
+        PredictionRequest request = objectMapper.readValue(body, PredictionRequest.class);
+        // join: в сервисе ответ пишется по завершении future, переход на виртуальный поток входит в замер
+        MBTIResult result = controller.calculateAdvanced(request, strategyName, include, null, sample).join();
+        byte[] response = objectMapper.writeValueAsBytes(result);
+        sample.mark(PredictionPhase.SERIALIZATION);
+        sample.finish();
+        return response;
+    }
+    
+    @Benchmark
+    public PredictionRequest deserializeRequest() throws IOException {
+        byte[] body = requestBodies[next];
+        next = (next + 1) % RECORDS;
+        return objectMapper.readValue(body, PredictionRequest.class);
+    }
+    
+    @Benchmark
+    public byte[] serializeResult() throws IOException {
+        return objectMapper.writeValueAsBytes(sampleResult);
+    }
+    
+    @Benchmark
+    public MBTIResult deserializeResult() throws IOException {
+        return objectMapper.readValue(sampleResultBody, MBTIResult.class);
+    }
+    
+    @Benchmark
+    public int serializeResultBinary() throws IOException {
+        binaryBuffer.reset();
+        PredictionBinaryCodec.writeResult(sampleResult, new DataOutputStream(binaryBuffer));
+        return binaryBuffer.size();
+    }
+    
+    @Benchmark
+    public MBTIResult deserializeResultBinary() throws IOException {
+        return PredictionBinaryCodec.readResult(new DataInputStream(new ByteArrayInputStream(sampleResultBinary)));
+    }
+}
@@ -0,0 +1,71 @@
+package com.psyche.platform.prediction.benchmark;
+
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import com.psyche.platform.prediction.strategy.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость стратегий: одиночный predict против колоночного scoreBatch на том же наборе записей.
+ * Результаты нормированы на одну запись (@OperationsPerInvocation)
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+    
+    private static final int RECORDS = 1024;
+    
+    @Param({"GENETIC_MBTI_STRATEGY", "BEHAVIORAL_MBTI_STRATEGY", "ENSEMBLE"})
+    public String strategyName;
+    
+    private MBTIPredictionStrategy strategy;
+    private PredictionRequest[] requests;
+    private PredictionBatch batch;
+    
+    @Setup
+    public void setUp() {
+        StrategyRegistry registry = new StrategyRegistry(
+            List.of(new GeneticMBTIStrategy(), new BehavioralMBTIStrategy()), new EnsembleProperties());
+        strategy = registry.resolve(strategyName);
+        requests = BenchmarkData.requests(RECORDS);
+        batch = new PredictionBatch(RECORDS);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void single(Blackhole blackhole) {
+        for (PredictionRequest request : requests) {
+            MBTIResult result = strategy.predict(request.getParents(), request.getEnvironment());
+            blackhole.consume(result);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void batch(Blackhole blackhole) {
+        batch.clear();
+        for (PredictionRequest request : requests) {
+            batch.add(request.getParents(), request.getEnvironment());
+        }
+        strategy.scoreBatch(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            blackhole.consume(batch.toResult(i, strategyName));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void traitsOnly(Blackhole blackhole) {
+        for (PredictionRequest request : requests) {
+            blackhole.consume(strategy.calculateTraits(request.getParents(), request.getEnvironment()));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.psyche.platform.prediction.analysis;
+
+import com.psyche.platform.prediction.analysis.AnalysisTemplate.Slot;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Рендеринг текстового анализа по запросу (?include=analysis).
+ * Шаблоны для всех пар (код типа MBTI, полоса риска) компилируются один раз при старте,
+ * на запрос подставляются только числовые значения.
+ */
+@Component
+public class AnalysisRenderer {
+    
+    private final AnalysisTemplate[][] templates;
+    
+    public AnalysisRenderer() {
+        RiskBand[] bands = RiskBand.values();
+        this.templates = new AnalysisTemplate[MBTITypeCode.COUNT][bands.length];
+        for (MBTIType type : MBTIType.values()) {
+            for (RiskBand band : bands) {
+                templates[type.getCode()][band.ordinal()] = compile(type, band);
+            }
+        }
+    }
+    
+    public String render(MBTIPredictionStrategy strategy, MBTIResult result) {
+        String fixedAnalysis = strategy.getFixedAnalysis();
+        if (fixedAnalysis != null) {
+            return fixedAnalysis;
+        }
+        
+        TraitVector traits = result.getTraitScores();
+        double bullyingRisk = result.getBullyingRisk();
+        
+        double[] values = new double[Slot.COUNT];
+        values[Slot.CONFIDENCE.ordinal()] = result.getConfidence();
+        values[Slot.E.ordinal()] = traits.extraversion();
+        values[Slot.I.ordinal()] = traits.introversion();
+        values[Slot.N.ordinal()] = traits.intuition();
+        values[Slot.S.ordinal()] = traits.sensing();
+        values[Slot.T.ordinal()] = traits.thinking();
+        values[Slot.F.ordinal()] = traits.feeling();
+        values[Slot.J.ordinal()] = traits.judging();
+        values[Slot.P.ordinal()] = traits.perceiving();
+        values[Slot.BULLYING_RISK.ordinal()] = bullyingRisk;
+        
+        return templates[result.getTypeCode()][RiskBand.of(bullyingRisk).ordinal()].render(values);
+    }
+    
+    /**
+     * Сборка шаблона детального анализа для пары (тип, полоса риска)
+     */
+    private AnalysisTemplate compile(MBTIType type, RiskBand band) {
+        AnalysisTemplate.Builder template = AnalysisTemplate.builder()
+            .text("🎭 ДЕТАЛЬНЫЙ АНАЛИЗ ЛИЧНОСТИ\n\n")
+            .text("Тип MBTI: ").text(type.name()).text("\n")
+            .text("Уверенность предсказания: ").slot(Slot.CONFIDENCE).text("%\n\n")
+            
+            // Анализ по дихотомиям
+            .text("📊 РАСПРЕДЕЛЕНИЕ ЧЕРТ:\n")
+            .text("• Экстраверсия (E): ").slot(Slot.E).text("% / Интроверсия (I): ").slot(Slot.I).text("%\n")
+            .text("• Интуиция (N): ").slot(Slot.N).text("% / Сенсорика (S): ").slot(Slot.S).text("%\n")
+            .text("• Мышление (T): ").slot(Slot.T).text("% / Чувство (F): ").slot(Slot.F).text("%\n")
+            .text("• Суждение (J): ").slot(Slot.J).text("% / Восприятие (P): ").slot(Slot.P).text("%\n\n")
+            
+            // Анализ риска буллинга
+            .text("⚠️  АНАЛИЗ РИСКОВ:\n");
+        
+        switch (band) {
+            case HIGH -> template
+                .text("• ВЫСОКИЙ РИСК БУЛЛИНГА (").slot(Slot.BULLYING_RISK).text("%)\n")
+                .text("• Может проявлять агрессию к сверстникам\n")
+                .text("• Склонен к доминированию в группе\n")
+                .text("🎯 Рекомендации: развитие эмпатии, командный спорт, работа с психологом\n");
+            case MEDIUM -> template
+                .text("• СРЕДНИЙ РИСК БУЛЛИНГА (").slot(Slot.BULLYING_RISK).text("%)\n")
+                .text("• В конфликтных ситуациях может проявлять агрессию\n")
+                .text("🎯 Рекомендации: учить конструктивному разрешению конфликтов\n");
+            case LOW -> template
+                .text("• НИЗКИЙ РИСК БУЛЛИНГА (").slot(Slot.BULLYING_RISK).text("%)\n")
+                .text("• Скорее всего, будет мирно взаимодействовать со сверстниками\n");
+        }
+        
+        // Особенности типа
+        template.text("\n💫 ОСОБЕННОСТИ ТИПА ").text(type.name()).text(":\n")
+            .text(getTypeDescription(type));
+        
+        return template.build();
+    }
+    
+    private String getTypeDescription(MBTIType type) {
+        return switch (type) {
+            case ENTJ -> "• Прирожденный лидер, стратег\n• Решителен, любит challenges\n• Может быть слишком критичным";
+            case ENFJ -> "• Вдохновитель, харизматичный\n• Чуткий к эмоциям других\n• Старается угодить всем";
+            case INTJ -> "• Стратег, независимый мыслитель\n• Целеустремленный, перфекционист\n• Может быть отстраненным";
+            case ENTP -> "• Новатор, любит дебаты\n• Быстро думает, предприимчивый\n• Может быть противоречивым";
+            case ESTJ -> "• Организатор, практичный\n• Ответственный, традиционный\n• Может быть жестким";
+            case ESFJ -> "• Заботливый, популярный\n• Ответственный, гармоничный\n• Чувствителен к критике";
+            case ISTJ -> "• Ответственный, реалистичный\n• Трудолюбивый, традиционный\n• Может сопротивляться изменениям";
+            case ISFJ -> "• Защитник, преданный\n• Теплый, практичный\n• Избегает конфликтов";
+            default -> "• Уникальное сочетание черт личности";
+        };
+    }
+}
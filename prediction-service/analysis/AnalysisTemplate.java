@@ -0,0 +1,76 @@
+package com.psyche.platform.prediction.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Предкомпилированный шаблон текста анализа: неизменяемые фрагменты текста,
+ * между которыми стоят числовые слоты (проценты). Рендеринг — только
+ * конкатенация фрагментов и целых чисел, без разбора формата на каждый вызов.
+ */
+final class AnalysisTemplate {
+
+    /**
+     * Числовые слоты шаблона; значения передаются в render в порядке ordinal
+     */
+    enum Slot {
+        CONFIDENCE, E, I, N, S, T, F, J, P, BULLYING_RISK;
+
+        static final int COUNT = values().length;
+    }
+
+    private final String[] fragments;
+    private final Slot[] slots;
+    private final int estimatedLength;
+
+    private AnalysisTemplate(String[] fragments, Slot[] slots) {
+        this.fragments = fragments;
+        this.slots = slots;
+        int length = slots.length * 3;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.estimatedLength = length;
+    }
+
+    /**
+     * @param values значения слотов в долях (0.0 - 1.0), индексированные по Slot.ordinal()
+     */
+    String render(double[] values) {
+        StringBuilder out = new StringBuilder(estimatedLength);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(fragments[i]);
+            out.append(Math.round(values[slots[i].ordinal()] * 100));
+        }
+        out.append(fragments[slots.length]);
+        return out.toString();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final List<String> fragments = new ArrayList<>();
+        private final List<Slot> slots = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+
+        Builder text(String text) {
+            current.append(text);
+            return this;
+        }
+
+        Builder slot(Slot slot) {
+            fragments.add(current.toString());
+            current.setLength(0);
+            slots.add(slot);
+            return this;
+        }
+
+        AnalysisTemplate build() {
+            List<String> allFragments = new ArrayList<>(fragments);
+            allFragments.add(current.toString());
+            return new AnalysisTemplate(allFragments.toArray(new String[0]), slots.toArray(new Slot[0]));
+        }
+    }
+}
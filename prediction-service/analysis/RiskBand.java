@@ -0,0 +1,23 @@
+package com.psyche.platform.prediction.analysis;
+
+/**
+ * Полоса риска буллинга, определяющая текст раздела рисков в анализе
+ */
+public enum RiskBand {
+    LOW,
+    MEDIUM,
+    HIGH;
+    
+    private static final double HIGH_BULLYING_RISK_THRESHOLD = 0.7;
+    private static final double MEDIUM_BULLYING_RISK_THRESHOLD = 0.4;
+    
+    public static RiskBand of(double bullyingRisk) {
+        if (bullyingRisk > HIGH_BULLYING_RISK_THRESHOLD) {
+            return HIGH;
+        }
+        if (bullyingRisk > MEDIUM_BULLYING_RISK_THRESHOLD) {
+            return MEDIUM;
+        }
+        return LOW;
+    }
+}
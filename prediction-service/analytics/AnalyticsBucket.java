@@ -0,0 +1,46 @@
+package com.psyche.platform.prediction.analytics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики одного шага временной шкалы.
+ * LongAdder/DoubleAdder распределяют инкременты по ячейкам потоков, поэтому
+ * параллельные запросы не конкурируют за одну строку кэша; цена — сложение ячеек при чтении.
+ */
+final class AnalyticsBucket {
+
+    // Номер шага (время / длительность шага), которому принадлежат счетчики
+    private volatile long epoch = Long.MIN_VALUE;
+
+    final LongAdder[] counters;
+    final DoubleAdder[] confidenceSums;
+
+    AnalyticsBucket(int counterCount, int strategyCount) {
+        this.counters = new LongAdder[counterCount];
+        for (int i = 0; i < counterCount; i++) {
+            counters[i] = new LongAdder();
+        }
+        this.confidenceSums = new DoubleAdder[strategyCount];
+        for (int i = 0; i < strategyCount; i++) {
+            confidenceSums[i] = new DoubleAdder();
+        }
+    }
+
+    /**
+     * Подготовка шага к повторному использованию; вызывается только потоком обслуживания
+     */
+    void reset(long newEpoch) {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+        for (DoubleAdder sum : confidenceSums) {
+            sum.reset();
+        }
+        epoch = newEpoch;
+    }
+
+    long epoch() {
+        return epoch;
+    }
+}
@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.analytics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки популяционной аналитики (prediction.analytics.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.analytics")
+public class AnalyticsProperties {
+    
+    private boolean enabled = true;
+    
+    // Шаг временной шкалы: окна запросов должны быть кратны ему
+    private Duration bucketDuration = Duration.ofSeconds(10);
+    
+    // Сколько истории держится в памяти (максимальное окно запроса)
+    private Duration retention = Duration.ofHours(1);
+}
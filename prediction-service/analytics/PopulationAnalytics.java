@@ -0,0 +1,298 @@
+package com.psyche.platform.prediction.analytics;
+
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.prediction.service.PredictionListener;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Живая аналитика по всем рассчитанным предсказаниям.
+ * Время разбито на шаги фиксированной длительности, счетчики шагов лежат в кольцевом буфере.
+ * Запись — несколько инкрементов LongAdder в текущем шаге без блокировок и без аллокаций;
+ * следующий шаг заранее обнуляет поток обслуживания, так что горячий путь никогда не чистит счетчики.
+ * Скользящее окно — сумма последних шагов, фиксированные (tumbling) окна — суммы шагов,
+ * выровненных по границам окна.
+ */
+@Component
+public class PopulationAnalytics implements PredictionListener, InitializingBean, DisposableBean {
+
+    public static final int HISTOGRAM_BINS = 20;
+
+    private static final MBTIType[] TYPES = MBTIType.values();
+    private static final MBTIType.RiskLevel[] RISK_LEVELS = MBTIType.RiskLevel.values();
+
+    // Раскладка счетчиков шага: типы, уровни риска, гистограмма риска, гистограммы уверенности по стратегиям
+    private static final int TYPE_OFFSET = 0;
+    private static final int RISK_LEVEL_OFFSET = TYPE_OFFSET + MBTITypeCode.COUNT;
+    private static final int RISK_HISTOGRAM_OFFSET = RISK_LEVEL_OFFSET + RISK_LEVELS.length;
+    private static final int CONFIDENCE_OFFSET = RISK_HISTOGRAM_OFFSET + HISTOGRAM_BINS;
+
+    private final AnalyticsProperties properties;
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final int historyBuckets;
+    private final AnalyticsBucket[] buckets;
+    private final String[] strategyNames;
+    private final Map<String, Integer> strategyIndex;
+    private ScheduledExecutorService maintenance;
+
+    public PopulationAnalytics(AnalyticsProperties properties, StrategyRegistry strategyRegistry) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled();
+        this.bucketMillis = properties.getBucketDuration().toMillis();
+        if (bucketMillis <= 0) {
+            throw new IllegalStateException("prediction.analytics.bucket-duration должен быть больше нуля");
+        }
+        this.historyBuckets = (int) Math.max(1, properties.getRetention().toMillis() / bucketMillis);
+
+        this.strategyNames = strategyRegistry.getStrategyNames().stream().sorted().toArray(String[]::new);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < strategyNames.length; i++) {
+            index.put(strategyNames[i], i);
+        }
+        this.strategyIndex = Map.copyOf(index);
+
+        // +1 текущий неполный шаг, +1 шаг, заранее подготовленный к следующему интервалу
+        int counterCount = CONFIDENCE_OFFSET + strategyNames.length * HISTOGRAM_BINS;
+        this.buckets = new AnalyticsBucket[historyBuckets + 2];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new AnalyticsBucket(counterCount, strategyNames.length);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        rotate();
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prediction-analytics-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, bucketMillis / 2);
+        maintenance.scheduleAtFixedRate(this::rotate, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onPrediction(MBTIResult result, SchoolType schoolType, FamilyEnvironment familyEnvironment) {
+        if (!enabled) {
+            return;
+        }
+        int typeCode = result.getTypeCode();
+        AnalyticsBucket bucket = buckets[slot(currentEpoch())];
+        LongAdder[] counters = bucket.counters;
+
+        counters[TYPE_OFFSET + typeCode].increment();
+        counters[RISK_LEVEL_OFFSET + MBTITypeCode.riskLevel(typeCode).ordinal()].increment();
+        counters[RISK_HISTOGRAM_OFFSET + bin(result.getBullyingRisk())].increment();
+
+        Integer strategy = strategyIndex.get(result.getStrategyUsed());
+        if (strategy != null) {
+            double confidence = result.getConfidence();
+            counters[CONFIDENCE_OFFSET + strategy * HISTOGRAM_BINS + bin(confidence)].increment();
+            bucket.confidenceSums[strategy].add(confidence);
+        }
+    }
+
+    /**
+     * Скользящее окно, заканчивающееся сейчас (текущий шаг входит частично)
+     */
+    public PopulationSnapshot getSliding(Duration window) {
+        int steps = stepsOf(window);
+        if (steps > historyBuckets) {
+            throw new InvalidAnalyticsQueryException("Окно больше хранимой истории " + properties.getRetention());
+        }
+        long now = System.currentTimeMillis();
+        long epoch = now / bucketMillis;
+        long firstEpoch = epoch - steps + 1;
+        return aggregate(firstEpoch, epoch + 1, Instant.ofEpochMilli(firstEpoch * bucketMillis), Instant.ofEpochMilli(now));
+    }
+
+    /**
+     * Последние count завершенных окон, выровненных по границам длительности окна, от старых к новым
+     */
+    public List<PopulationSnapshot> getTumbling(Duration window, int count) {
+        int steps = stepsOf(window);
+        if (count < 1 || (long) steps * count > historyBuckets) {
+            throw new InvalidAnalyticsQueryException("count окон длительностью " + window
+                + " должен быть от 1 до размера хранимой истории " + properties.getRetention());
+        }
+        long currentWindow = Math.floorDiv(currentEpoch(), steps);
+        List<PopulationSnapshot> snapshots = new ArrayList<>(count);
+        for (long w = currentWindow - count; w < currentWindow; w++) {
+            long firstEpoch = w * steps;
+            long endEpoch = firstEpoch + steps;
+            snapshots.add(aggregate(firstEpoch, endEpoch,
+                Instant.ofEpochMilli(firstEpoch * bucketMillis), Instant.ofEpochMilli(endEpoch * bucketMillis)));
+        }
+        return snapshots;
+    }
+
+    private PopulationSnapshot aggregate(long firstEpoch, long endEpoch, Instant from, Instant to) {
+        long[] totals = new long[buckets[0].counters.length];
+        double[] confidenceSums = new double[strategyNames.length];
+        for (long epoch = firstEpoch; epoch < endEpoch; epoch++) {
+            AnalyticsBucket bucket = buckets[slot(epoch)];
+            if (bucket.epoch() != epoch) {
+                continue; // шаг еще не наступил или уже переиспользован
+            }
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += bucket.counters[i].sum();
+            }
+            for (int s = 0; s < confidenceSums.length; s++) {
+                confidenceSums[s] += bucket.confidenceSums[s].sum();
+            }
+        }
+
+        long total = 0;
+        Map<MBTIType, Long> types = new EnumMap<>(MBTIType.class);
+        for (MBTIType type : TYPES) {
+            long count = totals[TYPE_OFFSET + type.getCode()];
+            types.put(type, count);
+            total += count;
+        }
+        Map<MBTIType.RiskLevel, Long> riskLevels = new EnumMap<>(MBTIType.RiskLevel.class);
+        for (MBTIType.RiskLevel level : RISK_LEVELS) {
+            riskLevels.put(level, totals[RISK_LEVEL_OFFSET + level.ordinal()]);
+        }
+        Map<String, StrategyConfidence> confidence = new LinkedHashMap<>();
+        for (int s = 0; s < strategyNames.length; s++) {
+            confidence.put(strategyNames[s],
+                confidenceOf(totals, CONFIDENCE_OFFSET + s * HISTOGRAM_BINS, confidenceSums[s]));
+        }
+
+        return PopulationSnapshot.builder()
+            .from(from)
+            .to(to)
+            .total(total)
+            .types(types)
+            .riskLevels(riskLevels)
+            .bullyingRiskHistogram(histogram(totals, RISK_HISTOGRAM_OFFSET))
+            .confidenceByStrategy(confidence)
+            .build();
+    }
+
+    private static StrategyConfidence confidenceOf(long[] totals, int offset, double sum) {
+        long[] histogram = histogram(totals, offset);
+        long count = 0;
+        for (long bin : histogram) {
+            count += bin;
+        }
+        return StrategyConfidence.builder()
+            .count(count)
+            .mean(count > 0 ? sum / count : 0.0)
+            .p50(percentile(histogram, count, 0.5))
+            .p90(percentile(histogram, count, 0.9))
+            .histogram(histogram)
+            .build();
+    }
+
+    private static long[] histogram(long[] totals, int offset) {
+        long[] histogram = new long[HISTOGRAM_BINS];
+        System.arraycopy(totals, offset, histogram, 0, HISTOGRAM_BINS);
+        return histogram;
+    }
+
+    private static double percentile(long[] histogram, long count, double quantile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long target = (long) Math.ceil(quantile * count);
+        long cumulative = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= target) {
+                return (double) (i + 1) / HISTOGRAM_BINS;
+            }
+        }
+        return 1.0;
+    }
+
+    /**
+     * Сброс всех накопленных шагов (например, после синтетического прогрева).
+     * Выполняется потоком обслуживания, как и любое обнуление шагов
+     */
+    public void clear() {
+        if (maintenance == null) {
+            return;
+        }
+        try {
+            maintenance.submit(() -> {
+                for (AnalyticsBucket bucket : buckets) {
+                    bucket.reset(Long.MIN_VALUE);
+                }
+                rotate();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось сбросить аналитику", e.getCause());
+        }
+    }
+
+    /**
+     * Обслуживание: текущий шаг должен быть помечен своим номером, следующий — обнулен заранее
+     */
+    private void rotate() {
+        long epoch = currentEpoch();
+        prepare(epoch);
+        prepare(epoch + 1);
+    }
+
+    private void prepare(long epoch) {
+        AnalyticsBucket bucket = buckets[slot(epoch)];
+        if (bucket.epoch() != epoch) {
+            bucket.reset(epoch);
+        }
+    }
+
+    private int stepsOf(Duration window) {
+        long millis = window.toMillis();
+        if (millis <= 0 || millis % bucketMillis != 0) {
+            throw new InvalidAnalyticsQueryException("Окно должно быть положительным и кратным "
+                + properties.getBucketDuration());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, millis / bucketMillis);
+    }
+
+    private long currentEpoch() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) buckets.length);
+    }
+
+    private static int bin(double value) {
+        return (int) Math.max(0, Math.min(HISTOGRAM_BINS - 1, value * HISTOGRAM_BINS));
+    }
+
+    @Override
+    public void destroy() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.analytics;
+
+import com.psyche.platform.shared.model.MBTIType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Агрегаты популяции за окно [from, to)
+ */
+@Data
+@Builder
+public class PopulationSnapshot {
+    private Instant from;
+    private Instant to;
+    private long total;
+    private Map<MBTIType, Long> types;
+    private Map<MBTIType.RiskLevel, Long> riskLevels;
+    // Гистограмма bullyingRisk: равные интервалы на [0, 1]
+    private long[] bullyingRiskHistogram;
+    private Map<String, StrategyConfidence> confidenceByStrategy;
+}
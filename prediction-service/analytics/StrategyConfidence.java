@@ -0,0 +1,18 @@
+package com.psyche.platform.prediction.analytics;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Распределение уверенности предсказаний одной стратегии за окно
+ */
+@Data
+@Builder
+public class StrategyConfidence {
+    private long count;
+    private double mean;
+    // Оценки по гистограмме: верхняя граница интервала, в который попал перцентиль
+    private double p50;
+    private double p90;
+    private long[] histogram;
+}
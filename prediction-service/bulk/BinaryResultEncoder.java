@@ -0,0 +1,43 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.codec.PredictionBinaryCodec;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.shared.model.MBTITypeCode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Последовательность результатов в формате PredictionBinaryCodec
+ * (application/x-psyche-prediction), читается PredictionBinaryCodec.readResult.
+ * Некорректная запись дает на своем месте заглушку PredictionBinaryCodec.writeInvalid
+ * (readResult вернет null), поэтому i-й результат соответствует i-й записи входа
+ */
+final class BinaryResultEncoder implements ResultEncoder {
+
+    private final byte[] strategy;
+
+    BinaryResultEncoder(String strategyName) {
+        this.strategy = strategyName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] header() {
+        return new byte[0];
+    }
+
+    @Override
+    public void encode(PredictionBatch batch, int row, ChunkBuffer out) throws IOException {
+        double e = batch.extraversion(row);
+        double n = batch.intuition(row);
+        double t = batch.thinking(row);
+        double j = batch.judging(row);
+        PredictionBinaryCodec.writeScores(out.data(), MBTITypeCode.of(e, n, t, j), e, n, t, j,
+            batch.confidence(row), batch.bullyingRisk(row), strategy);
+    }
+
+    @Override
+    public void invalid(ChunkBuffer out) throws IOException {
+        PredictionBinaryCodec.writeInvalid(out.data());
+    }
+}
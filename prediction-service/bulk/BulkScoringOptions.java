@@ -0,0 +1,79 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.service.PredictionService;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Параметры командной строки пакетного расчета
+ */
+record BulkScoringOptions(Path input,
+                          Path output,
+                          InputFormat inputFormat,
+                          OutputFormat outputFormat,
+                          String strategy,
+                          int threads,
+                          int chunkSize) {
+
+    enum InputFormat { CSV, NDJSON }
+
+    enum OutputFormat { CSV, BINARY }
+
+    static final String USAGE = """
+        Использование: BulkScoringRunner --input <файл> --output <файл> [параметры]
+          --input-format  csv|ndjson    по умолчанию по расширению (.ndjson, .jsonl — NDJSON)
+          --output-format csv|binary    по умолчанию по расширению (.bin — двоичный формат)
+          --strategy      <имя>         по умолчанию %s
+          --threads       <n>           потоки расчета, по умолчанию число ядер
+          --chunk-mb      <n>           размер отображаемого блока, МиБ, по умолчанию 16
+        """.formatted(PredictionService.DEFAULT_STRATEGY);
+
+    private static final int MAX_CHUNK_MB = 1024;
+
+    static BulkScoringOptions parse(String[] args) {
+        Path input = null;
+        Path output = null;
+        InputFormat inputFormat = null;
+        OutputFormat outputFormat = null;
+        String strategy = PredictionService.DEFAULT_STRATEGY;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkMb = 16;
+
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Нет значения для " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--input" -> input = Path.of(value);
+                case "--output" -> output = Path.of(value);
+                case "--input-format" -> inputFormat = InputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--output-format" -> outputFormat = OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--strategy" -> strategy = value;
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--chunk-mb" -> chunkMb = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр " + name);
+            }
+        }
+        if (input == null || output == null) {
+            throw new IllegalArgumentException("--input и --output обязательны");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads должен быть больше нуля");
+        }
+        if (chunkMb < 1 || chunkMb > MAX_CHUNK_MB) {
+            throw new IllegalArgumentException("--chunk-mb должен быть от 1 до " + MAX_CHUNK_MB);
+        }
+        if (inputFormat == null) {
+            String name = input.getFileName().toString().toLowerCase(Locale.ROOT);
+            inputFormat = name.endsWith(".ndjson") || name.endsWith(".jsonl") ? InputFormat.NDJSON : InputFormat.CSV;
+        }
+        if (outputFormat == null) {
+            String name = output.getFileName().toString().toLowerCase(Locale.ROOT);
+            outputFormat = name.endsWith(".bin") ? OutputFormat.BINARY : OutputFormat.CSV;
+        }
+        return new BulkScoringOptions(input, output, inputFormat, outputFormat, strategy, threads, chunkMb << 20);
+    }
+}
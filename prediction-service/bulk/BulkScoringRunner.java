@@ -0,0 +1,172 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.strategy.BehavioralMBTIStrategy;
+import com.psyche.platform.prediction.strategy.EnsembleProperties;
+import com.psyche.platform.prediction.strategy.GeneticMBTIStrategy;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Автономный пакетный расчет больших выгрузок (CSV/NDJSON) без запуска Spring.
+ * Конвейер из трех стадий:
+ * <ul>
+ *   <li>чтение — основной поток отображает файл в память блоками по границам строк;</li>
+ *   <li>расчет — пул потоков по числу ядер разбирает блок без выделения памяти на строку,
+ *       считает его колоночно через MBTIPredictionStrategy.scoreBatch и кодирует результат;</li>
+ *   <li>запись — отдельный поток пишет готовые блоки строго в порядке входа.</li>
+ * </ul>
+ * Очередь между стадиями ограничена, поэтому медленный диск притормаживает чтение,
+ * а не копит блоки в памяти. В конце печатается отчет о пропускной способности.
+ */
+public final class BulkScoringRunner {
+
+    private static final long PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+    private static final double MIB = 1024.0 * 1024.0;
+
+    private final BulkScoringOptions options;
+
+    // Маркер конца входа в очереди между чтением и записью
+    private static final Future<ChunkScorer.Result> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+    // Счетчики пишет только поток записи
+    private volatile long records;
+    private volatile long invalid;
+    private volatile long inputBytes;
+    private volatile long outputBytes;
+    private volatile Throwable failure;
+
+    BulkScoringRunner(BulkScoringOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        BulkScoringOptions options;
+        try {
+            options = BulkScoringOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(BulkScoringOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            new BulkScoringRunner(options).run();
+        } catch (Exception e) {
+            System.err.println("Пакетный расчет прерван: " + e);
+            System.exit(1);
+        }
+    }
+
+    void run() throws Exception {
+        StrategyRegistry registry = new StrategyRegistry(
+            List.of(new GeneticMBTIStrategy(), new BehavioralMBTIStrategy()), new EnsembleProperties());
+        ExecutorService scorers = Executors.newFixedThreadPool(options.threads());
+        long started = System.nanoTime();
+        try (MappedChunkReader reader = new MappedChunkReader(options.input(), options.chunkSize());
+             FileChannel output = FileChannel.open(options.output(), StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            MBTIPredictionStrategy strategy = registry.resolve(options.strategy());
+            RecordParser parser = options.inputFormat() == BulkScoringOptions.InputFormat.NDJSON
+                ? new NdjsonRecordParser()
+                : new CsvRecordParser();
+            outputBytes += write(output, ByteBuffer.wrap(encoder(strategy).header()));
+
+            BlockingQueue<Future<ChunkScorer.Result>> pending = new ArrayBlockingQueue<>(options.threads() * 2);
+            Thread writer = new Thread(() -> drain(pending, output, reader.size()), "bulk-writer");
+            writer.start();
+
+            boolean first = true;
+            ByteBuffer chunk;
+            while (failure == null && (chunk = reader.next()) != null) {
+                pending.put(scorers.submit(new ChunkScorer(chunk, first, parser, encoder(strategy), strategy)));
+                first = false;
+            }
+            pending.put(END_OF_INPUT);
+            writer.join();
+            if (failure != null) {
+                throw new IOException("Ошибка расчета или записи", failure);
+            }
+            output.force(false);
+        } finally {
+            scorers.shutdownNow();
+            registry.destroy();
+        }
+        report(System.nanoTime() - started);
+    }
+
+    private ResultEncoder encoder(MBTIPredictionStrategy strategy) {
+        return options.outputFormat() == BulkScoringOptions.OutputFormat.BINARY
+            ? new BinaryResultEncoder(strategy.getStrategyName())
+            : new CsvResultEncoder();
+    }
+
+    /**
+     * Стадия записи: блоки берутся в порядке постановки, ожидание — только готовности очередного.
+     * После ошибки очередь дочитывается до конца входа с отменой задач, чтобы чтение не зависло
+     */
+    private void drain(BlockingQueue<Future<ChunkScorer.Result>> pending, FileChannel output, long totalBytes) {
+        long lastProgress = System.nanoTime();
+        try {
+            Future<ChunkScorer.Result> next;
+            while ((next = pending.take()) != END_OF_INPUT) {
+                if (failure != null) {
+                    next.cancel(true);
+                    continue;
+                }
+                try {
+                    ChunkScorer.Result result = next.get();
+                    outputBytes += write(output, result.output().toByteBuffer());
+                    records += result.records();
+                    invalid += result.invalid();
+                    inputBytes += result.inputBytes();
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    continue;
+                } catch (IOException e) {
+                    failure = e;
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    System.err.printf("%.1f%%: %d записей%n", 100.0 * inputBytes / Math.max(1, totalBytes), records);
+                }
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int write(FileChannel output, ByteBuffer bytes) throws IOException {
+        int written = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            output.write(bytes);
+        }
+        return written;
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        System.out.printf("Записей: %d (некорректных: %d), стратегия %s, потоков %d%n",
+            records, invalid, options.strategy(), options.threads());
+        System.out.printf("Вход: %.1f МиБ, выход: %.1f МиБ (%s), время: %.2f с%n",
+            inputBytes / MIB, outputBytes / MIB, options.outputFormat(), seconds);
+        System.out.printf("Пропускная способность: %.0f записей/с, %.1f МиБ/с входа%n",
+            records / seconds, inputBytes / MIB / seconds);
+    }
+}
@@ -0,0 +1,55 @@
+package com.psyche.platform.prediction.bulk;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Растущий буфер вывода одного блока. В отличие от ByteArrayOutputStream методы не синхронизированы:
+ * буфер заполняется одним потоком расчета и затем целиком передается потоку записи.
+ */
+final class ChunkBuffer extends OutputStream {
+
+    private byte[] bytes;
+    private int size;
+    private final DataOutputStream data = new DataOutputStream(this);
+
+    ChunkBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(64, initialCapacity)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(size + 1);
+        bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    /**
+     * Представление DataOutput для двоичного кодека
+     */
+    DataOutputStream data() {
+        return data;
+    }
+
+    ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+}
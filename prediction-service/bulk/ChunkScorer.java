@@ -0,0 +1,125 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Разбор, расчет и кодирование одного блока входа.
+ * Строки раскладываются в колоночный PredictionBatch, стратегия считает его целиком,
+ * результаты кодируются в буфер блока в порядке входных строк.
+ */
+final class ChunkScorer implements Callable<ChunkScorer.Result> {
+
+    static final int BATCH_SIZE = 4096;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final ByteBuffer chunk;
+    private final boolean firstChunk;
+    private final RecordParser parser;
+    private final ResultEncoder encoder;
+    private final MBTIPredictionStrategy strategy;
+
+    // Некорректные записи: позиция строки блока в batch, перед которой они стояли
+    private int[] invalidBefore = new int[64];
+    private int invalidCount;
+
+    ChunkScorer(ByteBuffer chunk, boolean firstChunk, RecordParser parser, ResultEncoder encoder,
+                MBTIPredictionStrategy strategy) {
+        this.chunk = chunk;
+        this.firstChunk = firstChunk;
+        this.parser = parser;
+        this.encoder = encoder;
+        this.strategy = strategy;
+    }
+
+    record Result(ChunkBuffer output, long records, long invalid, long inputBytes) {
+    }
+
+    @Override
+    public Result call() throws IOException {
+        int limit = chunk.limit();
+        ChunkBuffer out = new ChunkBuffer(limit);
+        PredictionBatch batch = new PredictionBatch(BATCH_SIZE);
+        RecordFields fields = new RecordFields();
+        long records = 0;
+        long invalid = 0;
+
+        int position = 0;
+        if (firstChunk) {
+            position = skipBom(limit);
+        }
+        boolean checkHeader = firstChunk;
+        while (position < limit) {
+            int end = position;
+            while (end < limit && chunk.get(end) != '\n') {
+                end++;
+            }
+            int lineEnd = FieldParsers.trimEnd(chunk, position, end);
+            if (lineEnd > position) {
+                if (checkHeader && parser.isHeader(chunk, position, lineEnd)) {
+                    checkHeader = false;
+                } else {
+                    checkHeader = false;
+                    records++;
+                    if (parser.parse(chunk, position, lineEnd, fields)) {
+                        fields.appendTo(batch);
+                        if (batch.isFull()) {
+                            flush(batch, out);
+                        }
+                    } else {
+                        invalid++;
+                        markInvalid(batch.size());
+                    }
+                }
+            }
+            position = end + 1;
+        }
+        flush(batch, out);
+        return new Result(out, records, invalid, limit);
+    }
+
+    private void flush(PredictionBatch batch, ChunkBuffer out) throws IOException {
+        int size = batch.size();
+        if (size > 0) {
+            strategy.scoreBatch(batch);
+        }
+        int nextInvalid = 0;
+        for (int row = 0; row < size; row++) {
+            while (nextInvalid < invalidCount && invalidBefore[nextInvalid] == row) {
+                encoder.invalid(out);
+                nextInvalid++;
+            }
+            encoder.encode(batch, row, out);
+        }
+        for (; nextInvalid < invalidCount; nextInvalid++) {
+            encoder.invalid(out);
+        }
+        invalidCount = 0;
+        batch.clear();
+    }
+
+    private void markInvalid(int row) {
+        if (invalidCount == invalidBefore.length) {
+            invalidBefore = Arrays.copyOf(invalidBefore, invalidCount * 2);
+        }
+        invalidBefore[invalidCount++] = row;
+    }
+
+    private int skipBom(int limit) {
+        if (limit < UTF8_BOM.length) {
+            return 0;
+        }
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (chunk.get(i) != UTF8_BOM[i]) {
+                return 0;
+            }
+        }
+        return UTF8_BOM.length;
+    }
+}
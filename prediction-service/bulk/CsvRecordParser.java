@@ -0,0 +1,75 @@
+package com.psyche.platform.prediction.bulk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CSV с фиксированным порядком колонок:
+ * <pre>
+ * fatherExtraversion,fatherIntuition,fatherThinking,fatherJudging,
+ * motherExtraversion,motherIntuition,motherThinking,motherJudging,
+ * schoolType,familyEnvironment,birthOrder,hasSiblings,friendsInfluence
+ * </pre>
+ * Необязательные колонки могут быть пустыми или отсутствовать, лишние колонки игнорируются.
+ * Значения могут быть в кавычках; запятые внутри значений не поддерживаются — в этих полях их нет.
+ * Первая строка считается заголовком, если начинается с буквы.
+ */
+final class CsvRecordParser implements RecordParser {
+
+    private static final int SCHOOL_TYPE = 8;
+    private static final int FAMILY_ENVIRONMENT = 9;
+    private static final int BIRTH_ORDER = 10;
+    private static final int HAS_SIBLINGS = 11;
+    private static final int FRIENDS_INFLUENCE = 12;
+
+    @Override
+    public boolean parse(ByteBuffer buffer, int from, int to, RecordFields fields) {
+        fields.reset();
+        int column = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && buffer.get(i) != ',') {
+                continue;
+            }
+            int fieldStart = FieldParsers.trimStart(buffer, start, i);
+            int fieldEnd = FieldParsers.trimEnd(buffer, fieldStart, i);
+            if (fieldEnd - fieldStart >= 2 && buffer.get(fieldStart) == '"' && buffer.get(fieldEnd - 1) == '"') {
+                fieldStart++;
+                fieldEnd--;
+            }
+            if (!field(column, buffer, fieldStart, fieldEnd, fields)) {
+                return false;
+            }
+            column++;
+            start = i + 1;
+        }
+        return fields.isComplete();
+    }
+
+    private static boolean field(int column, ByteBuffer buffer, int from, int to, RecordFields fields) {
+        if (column < RecordFields.PARENT_SCORES) {
+            return fields.parent(column, FieldParsers.parseDouble(buffer, from, to));
+        }
+        switch (column) {
+            case SCHOOL_TYPE -> fields.schoolType(FieldParsers.parseSchoolType(buffer, from, to));
+            case FAMILY_ENVIRONMENT -> fields.familyEnvironment(FieldParsers.parseFamilyEnvironment(buffer, from, to));
+            case BIRTH_ORDER -> fields.birthOrder(FieldParsers.parseInt(buffer, from, to, 0));
+            case HAS_SIBLINGS -> fields.siblings(FieldParsers.parseSiblings(buffer, from, to));
+            case FRIENDS_INFLUENCE -> fields.friendsInfluence(FieldParsers.parseDouble(buffer, from, to));
+            default -> { }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isHeader(ByteBuffer buffer, int from, int to) {
+        from = FieldParsers.trimStart(buffer, from, to);
+        if (from < to && buffer.get(from) == '"') {
+            from++;
+        }
+        if (from >= to) {
+            return false;
+        }
+        byte c = buffer.get(from);
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
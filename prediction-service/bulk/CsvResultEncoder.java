@@ -0,0 +1,94 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.shared.model.MBTITypeCode;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV: mbtiType,E,N,T,J,confidence,bullyingRisk — строка i соответствует i-й записи входа,
+ * некорректная запись дает строку INVALID с пустыми значениями.
+ * Числа пишутся с 6 знаками после точки прямо в байты, без Double.toString
+ */
+final class CsvResultEncoder implements ResultEncoder {
+
+    private static final byte[] HEADER = "mbtiType,E,N,T,J,confidence,bullyingRisk\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INVALID = "INVALID,,,,,,\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] TYPE_NAMES = new byte[MBTITypeCode.COUNT][];
+
+    private static final int FRACTION_DIGITS = 6;
+    private static final double SCALE = 1_000_000.0;
+    private static final double MAX_FAST_VALUE = 1e12;
+
+    static {
+        for (int code = 0; code < MBTITypeCode.COUNT; code++) {
+            TYPE_NAMES[code] = MBTITypeCode.name(code).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // Строка собирается в локальном массиве и уходит в буфер одной копией
+    private final byte[] line = new byte[256];
+
+    @Override
+    public byte[] header() {
+        return HEADER;
+    }
+
+    @Override
+    public void encode(PredictionBatch batch, int row, ChunkBuffer out) {
+        double e = batch.extraversion(row);
+        double n = batch.intuition(row);
+        double t = batch.thinking(row);
+        double j = batch.judging(row);
+        byte[] type = TYPE_NAMES[MBTITypeCode.of(e, n, t, j)];
+        System.arraycopy(type, 0, line, 0, type.length);
+        int position = type.length;
+        position = number(e, position);
+        position = number(n, position);
+        position = number(t, position);
+        position = number(j, position);
+        position = number(batch.confidence(row), position);
+        position = number(batch.bullyingRisk(row), position);
+        line[position++] = '\n';
+        out.write(line, 0, position);
+    }
+
+    @Override
+    public void invalid(ChunkBuffer out) {
+        out.write(INVALID, 0, INVALID.length);
+    }
+
+    private int number(double value, int position) {
+        line[position++] = ',';
+        if (Double.isNaN(value) || Math.abs(value) >= MAX_FAST_VALUE) {
+            byte[] text = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, line, position, text.length);
+            return position + text.length;
+        }
+        long scaled = Math.round(Math.abs(value) * SCALE);
+        if (value < 0 && scaled != 0) {
+            line[position++] = '-';
+        }
+        long integer = scaled / (long) SCALE;
+        long fraction = scaled % (long) SCALE;
+        position = digits(integer, position);
+        line[position++] = '.';
+        for (int d = FRACTION_DIGITS - 1; d >= 0; d--) {
+            line[position + d] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return position + FRACTION_DIGITS;
+    }
+
+    private int digits(long value, int position) {
+        int length = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            length++;
+        }
+        for (int d = length - 1; d >= 0; d--) {
+            line[position + d] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + length;
+    }
+}
@@ -0,0 +1,257 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.prediction.model.SiblingStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разбор значений прямо из байтов блока, без создания строк.
+ * Медленный путь через String остается только для редких форм:
+ * числа с экспонентой или более чем 18 значащими цифрами, синонимы не в верхнем регистре.
+ */
+final class FieldParsers {
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final byte[][] SCHOOL_TOKENS;
+    private static final SchoolType[] SCHOOL_VALUES;
+    private static final byte[][] FAMILY_TOKENS;
+    private static final FamilyEnvironment[] FAMILY_VALUES;
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+
+        SchoolType[] schoolTypes = SchoolType.values();
+        SCHOOL_TOKENS = new byte[schoolTypes.length * 2][];
+        SCHOOL_VALUES = new SchoolType[schoolTypes.length * 2];
+        for (int i = 0; i < schoolTypes.length; i++) {
+            SCHOOL_TOKENS[2 * i] = schoolTypes[i].name().getBytes(StandardCharsets.UTF_8);
+            SCHOOL_TOKENS[2 * i + 1] = schoolTypes[i].getRussianName().getBytes(StandardCharsets.UTF_8);
+            SCHOOL_VALUES[2 * i] = schoolTypes[i];
+            SCHOOL_VALUES[2 * i + 1] = schoolTypes[i];
+        }
+
+        FamilyEnvironment[] families = FamilyEnvironment.values();
+        FAMILY_TOKENS = new byte[families.length * 2][];
+        FAMILY_VALUES = new FamilyEnvironment[families.length * 2];
+        for (int i = 0; i < families.length; i++) {
+            FAMILY_TOKENS[2 * i] = families[i].name().getBytes(StandardCharsets.UTF_8);
+            FAMILY_TOKENS[2 * i + 1] = families[i].getRussianName().getBytes(StandardCharsets.UTF_8);
+            FAMILY_VALUES[2 * i] = families[i];
+            FAMILY_VALUES[2 * i + 1] = families[i];
+        }
+    }
+
+    private FieldParsers() {
+    }
+
+    /**
+     * Десятичное число; NaN для пустого или некорректного значения.
+     * Мантисса до 2^53 делится на точную степень десяти — результат округлен так же, как Double.parseDouble
+     */
+    static double parseDouble(ByteBuffer buffer, int from, int to) {
+        from = trimStart(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (from == to) {
+            return Double.NaN;
+        }
+        int i = from;
+        boolean negative = false;
+        byte c = buffer.get(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean digits = false;
+        for (; i < to; i++) {
+            c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (significant == 18) {
+                    return slowParseDouble(buffer, from, to);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    significant++;
+                }
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                return slowParseDouble(buffer, from, to);
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return slowParseDouble(buffer, from, to);
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Целое число; defaultValue для пустого или некорректного значения
+     */
+    static int parseInt(ByteBuffer buffer, int from, int to, int defaultValue) {
+        from = trimStart(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (from == to) {
+            return defaultValue;
+        }
+        int i = from;
+        boolean negative = buffer.get(i) == '-';
+        if (negative || buffer.get(i) == '+') {
+            i++;
+        }
+        if (i == to || to - i > 9) {
+            return defaultValue;
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9') {
+                return defaultValue;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * true/false/1/0 (регистр не важен); пустое или другое значение — UNKNOWN
+     */
+    static SiblingStatus parseSiblings(ByteBuffer buffer, int from, int to) {
+        from = trimStart(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        if (equalsIgnoreCase(buffer, from, to, "true") || equalsIgnoreCase(buffer, from, to, "1")) {
+            return SiblingStatus.YES;
+        }
+        if (equalsIgnoreCase(buffer, from, to, "false") || equalsIgnoreCase(buffer, from, to, "0")) {
+            return SiblingStatus.NO;
+        }
+        return SiblingStatus.UNKNOWN;
+    }
+
+    /**
+     * Те же значения и синонимы, что SchoolType.parse; неизвестное — OTHER
+     */
+    static SchoolType parseSchoolType(ByteBuffer buffer, int from, int to) {
+        from = trimStart(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        int match = match(buffer, from, to, SCHOOL_TOKENS);
+        if (match >= 0) {
+            return SCHOOL_VALUES[match];
+        }
+        return hasNonAscii(buffer, from, to) ? SchoolType.parse(string(buffer, from, to)) : SchoolType.OTHER;
+    }
+
+    /**
+     * Те же значения и синонимы, что FamilyEnvironment.parse; неизвестное — NEUTRAL
+     */
+    static FamilyEnvironment parseFamilyEnvironment(ByteBuffer buffer, int from, int to) {
+        from = trimStart(buffer, from, to);
+        to = trimEnd(buffer, from, to);
+        int match = match(buffer, from, to, FAMILY_TOKENS);
+        if (match >= 0) {
+            return FAMILY_VALUES[match];
+        }
+        return hasNonAscii(buffer, from, to)
+            ? FamilyEnvironment.parse(string(buffer, from, to))
+            : FamilyEnvironment.NEUTRAL;
+    }
+
+    static boolean equalsIgnoreCase(ByteBuffer buffer, int from, int to, String ascii) {
+        if (to - from != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (toUpper(buffer.get(from + i)) != toUpper((byte) ascii.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String string(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int trimStart(ByteBuffer buffer, int from, int to) {
+        while (from < to && isBlank(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    static int trimEnd(ByteBuffer buffer, int from, int to) {
+        while (to > from && isBlank(buffer.get(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isBlank(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * Индекс токена, совпавшего с диапазоном (латиница без учета регистра); -1 если нет
+     */
+    private static int match(ByteBuffer buffer, int from, int to, byte[][] tokens) {
+        int length = to - from;
+        for (int t = 0; t < tokens.length; t++) {
+            byte[] token = tokens[t];
+            if (token.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && toUpper(buffer.get(from + i)) == token[i]) {
+                i++;
+            }
+            if (i == length) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private static byte toUpper(byte c) {
+        return c >= 'a' && c <= 'z' ? (byte) (c - 32) : c;
+    }
+
+    private static boolean hasNonAscii(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double slowParseDouble(ByteBuffer buffer, int from, int to) {
+        try {
+            return Double.parseDouble(string(buffer, from, to));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
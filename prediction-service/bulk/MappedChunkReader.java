@@ -0,0 +1,67 @@
+package com.psyche.platform.prediction.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение входного файла блоками, отображенными в память.
+ * Каждый блок заканчивается на границе строки, поэтому блоки разбираются независимо
+ * и параллельно. Строка не может быть длиннее блока.
+ */
+final class MappedChunkReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long size;
+    private final int chunkSize;
+    private long position;
+
+    MappedChunkReader(Path input, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(input, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Следующий блок целых строк; null в конце файла
+     */
+    ByteBuffer next() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        int length = (int) Math.min(chunkSize, size - position);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        int end = length;
+        if (position + length < size) {
+            end = lastNewline(mapped, length) + 1;
+            if (end == 0) {
+                throw new IOException("Строка длиннее блока " + chunkSize + " байт, смещение " + position);
+            }
+        }
+        position += end;
+        mapped.limit(end);
+        return mapped;
+    }
+
+    private static int lastNewline(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
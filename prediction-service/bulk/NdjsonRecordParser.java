@@ -0,0 +1,189 @@
+package com.psyche.platform.prediction.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * NDJSON в форме тела PredictionRequest: {"userId":..,"parents":{..},"environment":{..}}.
+ * Строка просматривается один раз: ключи сравниваются с известными именами полей как байты,
+ * значения разбираются на месте. Имена полей parents и environment не пересекаются,
+ * поэтому вложенность отслеживать не нужно; неизвестные ключи и их значения пропускаются.
+ */
+final class NdjsonRecordParser implements RecordParser {
+
+    // Порядок совпадает с индексами RecordFields: сначала 8 оценок родителей
+    private static final String[] FIELD_NAMES = {
+        "fatherExtraversion", "fatherIntuition", "fatherThinking", "fatherJudging",
+        "motherExtraversion", "motherIntuition", "motherThinking", "motherJudging",
+        "schoolType", "familyEnvironment", "birthOrder", "hasSiblings", "friendsInfluence"
+    };
+    private static final byte[][] FIELDS = new byte[FIELD_NAMES.length][];
+
+    private static final int SCHOOL_TYPE = 8;
+    private static final int FAMILY_ENVIRONMENT = 9;
+    private static final int BIRTH_ORDER = 10;
+    private static final int HAS_SIBLINGS = 11;
+    private static final int FRIENDS_INFLUENCE = 12;
+
+    static {
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            FIELDS[i] = FIELD_NAMES[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Override
+    public boolean parse(ByteBuffer buffer, int from, int to, RecordFields fields) {
+        fields.reset();
+        int i = from;
+        while (i < to) {
+            if (buffer.get(i) != '"') {
+                i++;
+                continue;
+            }
+            int end = stringEnd(buffer, i + 1, to);
+            if (end < 0) {
+                return false;
+            }
+            int next = FieldParsers.trimStart(buffer, end + 1, to);
+            if (next >= to || buffer.get(next) != ':') {
+                i = end + 1; // строковое значение неизвестного ключа
+                continue;
+            }
+            int field = fieldIndex(buffer, i + 1, end);
+            i = FieldParsers.trimStart(buffer, next + 1, to);
+            if (field >= 0) {
+                i = value(field, buffer, i, to, fields);
+                if (i < 0) {
+                    return false;
+                }
+            }
+        }
+        return fields.isComplete();
+    }
+
+    /**
+     * Разбор значения известного поля; индекс после значения или -1 для некорректной записи
+     */
+    private static int value(int field, ByteBuffer buffer, int from, int to, RecordFields fields) {
+        int valueStart;
+        int valueEnd;
+        int next;
+        boolean escaped = false;
+        if (from < to && buffer.get(from) == '"') {
+            valueStart = from + 1;
+            valueEnd = stringEnd(buffer, valueStart, to);
+            if (valueEnd < 0) {
+                return -1;
+            }
+            for (int i = valueStart; i < valueEnd && !escaped; i++) {
+                escaped = buffer.get(i) == '\\';
+            }
+            next = valueEnd + 1;
+        } else {
+            valueStart = from;
+            valueEnd = from;
+            while (valueEnd < to && !isDelimiter(buffer.get(valueEnd))) {
+                valueEnd++;
+            }
+            next = valueEnd;
+            if (FieldParsers.equalsIgnoreCase(buffer, valueStart, valueEnd, "null")) {
+                valueEnd = valueStart; // null равносилен отсутствию поля
+            }
+        }
+
+        if (field < RecordFields.PARENT_SCORES) {
+            if (valueStart == valueEnd) {
+                return next; // полнота записи проверяется в конце
+            }
+            return fields.parent(field, FieldParsers.parseDouble(buffer, valueStart, valueEnd)) ? next : -1;
+        }
+        if (escaped) {
+            // Экранированные строки (например, \\u-последовательности) — редкий медленный путь
+            ByteBuffer decoded = ByteBuffer.wrap(unescape(buffer, valueStart, valueEnd).getBytes(StandardCharsets.UTF_8));
+            return value(field, decoded, 0, decoded.limit(), fields) >= 0 ? next : -1;
+        }
+        switch (field) {
+            case SCHOOL_TYPE -> fields.schoolType(FieldParsers.parseSchoolType(buffer, valueStart, valueEnd));
+            case FAMILY_ENVIRONMENT -> fields.familyEnvironment(FieldParsers.parseFamilyEnvironment(buffer, valueStart, valueEnd));
+            case BIRTH_ORDER -> fields.birthOrder(FieldParsers.parseInt(buffer, valueStart, valueEnd, 0));
+            case HAS_SIBLINGS -> fields.siblings(FieldParsers.parseSiblings(buffer, valueStart, valueEnd));
+            case FRIENDS_INFLUENCE -> fields.friendsInfluence(FieldParsers.parseDouble(buffer, valueStart, valueEnd));
+            default -> { }
+        }
+        return next;
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * Индекс закрывающей кавычки строки, начинающейся с from; -1 если строка не закрыта
+     */
+    private static int stringEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte c = buffer.get(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int fieldIndex(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        for (int f = 0; f < FIELDS.length; f++) {
+            byte[] name = FIELDS[f];
+            if (name.length != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && buffer.get(from + i) == name[i]) {
+                i++;
+            }
+            if (i == length) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private static String unescape(ByteBuffer buffer, int from, int to) {
+        String raw = FieldParsers.string(buffer, from, to);
+        StringBuilder result = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 == raw.length()) {
+                result.append(c);
+                continue;
+            }
+            char escape = raw.charAt(++i);
+            switch (escape) {
+                case 'u' -> {
+                    int code = i + 4 < raw.length() ? Character.digit(raw.charAt(i + 1), 16) << 12
+                        | Character.digit(raw.charAt(i + 2), 16) << 8
+                        | Character.digit(raw.charAt(i + 3), 16) << 4
+                        | Character.digit(raw.charAt(i + 4), 16) : -1;
+                    if (code >= 0) {
+                        result.append((char) code);
+                        i += 4;
+                    }
+                }
+                case 'n' -> result.append('\n');
+                case 't' -> result.append('\t');
+                case 'r' -> result.append('\r');
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                default -> result.append(escape);
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean isHeader(ByteBuffer buffer, int from, int to) {
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.model.BirthOrderBucket;
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.prediction.model.SiblingStatus;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+
+/**
+ * Поля одной входной записи в примитивах. Экземпляр переиспользуется для всех строк блока,
+ * разбор строки ничего не выделяет.
+ */
+final class RecordFields {
+
+    // Оценки родителей: отец E, N, T, J, мать E, N, T, J
+    static final int PARENT_SCORES = 8;
+    private static final int ALL_PARENTS = (1 << PARENT_SCORES) - 1;
+
+    private final double[] parents = new double[PARENT_SCORES];
+    private int parentMask;
+    private SchoolType schoolType;
+    private FamilyEnvironment familyEnvironment;
+    private int birthOrder;
+    private SiblingStatus siblings;
+    private double friendsInfluence;
+
+    void reset() {
+        parentMask = 0;
+        schoolType = SchoolType.OTHER;
+        familyEnvironment = FamilyEnvironment.NEUTRAL;
+        birthOrder = 0;
+        siblings = SiblingStatus.UNKNOWN;
+        friendsInfluence = 0.0;
+    }
+
+    /**
+     * false для нечислового значения: запись считается некорректной
+     */
+    boolean parent(int index, double score) {
+        if (Double.isNaN(score)) {
+            return false;
+        }
+        parents[index] = score;
+        parentMask |= 1 << index;
+        return true;
+    }
+
+    void schoolType(SchoolType value) {
+        schoolType = value;
+    }
+
+    void familyEnvironment(FamilyEnvironment value) {
+        familyEnvironment = value;
+    }
+
+    void birthOrder(int value) {
+        birthOrder = value;
+    }
+
+    void siblings(SiblingStatus value) {
+        siblings = value;
+    }
+
+    void friendsInfluence(double value) {
+        friendsInfluence = Double.isNaN(value) ? 0.0 : value;
+    }
+
+    /**
+     * Все восемь оценок родителей заданы (как и в REST, остальные поля необязательны)
+     */
+    boolean isComplete() {
+        return parentMask == ALL_PARENTS;
+    }
+
+    void appendTo(PredictionBatch batch) {
+        batch.add(
+            (parents[0] + parents[4]) / 2,
+            (parents[1] + parents[5]) / 2,
+            (parents[2] + parents[6]) / 2,
+            (parents[3] + parents[7]) / 2,
+            PredictionBatch.environmentCell(schoolType, familyEnvironment, BirthOrderBucket.of(birthOrder), siblings),
+            friendsInfluence);
+    }
+}
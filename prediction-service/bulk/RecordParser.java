@@ -0,0 +1,21 @@
+package com.psyche.platform.prediction.bulk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Разбор одной строки входного файла в RecordFields
+ */
+interface RecordParser {
+
+    /**
+     * @param from начало строки
+     * @param to   конец строки без перевода строки
+     * @return false если запись некорректна (нет оценок родителей или они не числа)
+     */
+    boolean parse(ByteBuffer buffer, int from, int to, RecordFields fields);
+
+    /**
+     * Является ли первая строка файла заголовком
+     */
+    boolean isHeader(ByteBuffer buffer, int from, int to);
+}
@@ -0,0 +1,23 @@
+package com.psyche.platform.prediction.bulk;
+
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+
+import java.io.IOException;
+
+/**
+ * Кодирование результатов блока в выходной формат
+ */
+interface ResultEncoder {
+
+    /**
+     * Заголовок файла (пишется один раз перед первым блоком)
+     */
+    byte[] header();
+
+    void encode(PredictionBatch batch, int row, ChunkBuffer out) throws IOException;
+
+    /**
+     * Некорректная входная запись
+     */
+    void invalid(ChunkBuffer out) throws IOException;
+}
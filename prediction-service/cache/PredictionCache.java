@@ -0,0 +1,83 @@
+package com.psyche.platform.prediction.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.psyche.platform.prediction.model.EnvironmentData;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.ParentsGeneticData;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш предсказаний для входов на сетке квантования.
+ * Анкеты родителей дают лишь несколько различных значений (ступени сетки), поэтому
+ * повторный запрос не запускает стратегию вовсе. В кэш попадают только входы точно
+ * на сетке: результат из кэша совпадает с точным расчетом, и ответ не зависит от того,
+ * прошел ли запрос через кэш. Входы между ступенями считаются без кэша.
+ * Для каждой стратегии заводится свой кэш "predictions:<стратегия>" со своей статистикой.
+ */
+@Component
+public class PredictionCache {
+    
+    private static final String CACHE_PREFIX = "predictions:";
+    
+    private final CacheManager cacheManager;
+    private final PredictionCacheProperties properties;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    
+    public PredictionCache(CacheManager cacheManager, PredictionCacheProperties properties) {
+        if (properties.getParentScoreSteps() < 1 || properties.getParentScoreSteps() > PredictionKey.MAX_STEPS
+            || properties.getFriendsInfluenceSteps() < 1 || properties.getFriendsInfluenceSteps() > PredictionKey.MAX_STEPS) {
+            throw new IllegalStateException("prediction.cache: число ступеней квантования должно быть от 1 до "
+                + PredictionKey.MAX_STEPS);
+        }
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+    }
+    
+    public MBTIResult getOrCompute(String strategyName, ParentsGeneticData parents, EnvironmentData environment,
+                                   Supplier<MBTIResult> computation) {
+        if (!properties.isEnabled()) {
+            return computation.get();
+        }
+        PredictionKey key = PredictionKey.of(parents, environment,
+            properties.getParentScoreSteps(), properties.getFriendsInfluenceSteps());
+        if (key == null) {
+            return computation.get();
+        }
+        return cacheFor(strategyName).get(key, computation::get);
+    }
+    
+    public List<PredictionCacheStats> getStats() {
+        List<PredictionCacheStats> stats = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            if (!cacheName.startsWith(CACHE_PREFIX)) {
+                continue;
+            }
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats nativeStats = caffeineCache.getNativeCache().stats();
+                stats.add(PredictionCacheStats.builder()
+                    .strategy(cacheName.substring(CACHE_PREFIX.length()))
+                    .hits(nativeStats.hitCount())
+                    .misses(nativeStats.missCount())
+                    .evictions(nativeStats.evictionCount())
+                    .hitRate(nativeStats.hitRate())
+                    .size(caffeineCache.getNativeCache().estimatedSize())
+                    .build());
+            }
+        }
+        return stats;
+    }
+    
+    private Cache cacheFor(String strategyName) {
+        return caches.computeIfAbsent(strategyName, name -> cacheManager.getCache(CACHE_PREFIX + name));
+    }
+}
@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Менеджер кэшей для @EnableCaching: Caffeine (W-TinyLFU — вытеснение с учетом частоты)
+ * с ограничением размера, TTL и сбором статистики для каждого кэша
+ */
+@Configuration
+public class PredictionCacheConfig {
+    
+    @Bean
+    public CacheManager cacheManager(PredictionCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getTimeToLive())
+            .recordStats());
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
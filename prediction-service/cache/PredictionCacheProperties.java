@@ -0,0 +1,27 @@
+package com.psyche.platform.prediction.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша предсказаний (prediction.cache.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.cache")
+public class PredictionCacheProperties {
+    
+    private boolean enabled = true;
+    
+    // Ограничения на каждую стратегию отдельно
+    private long maximumSize = 10_000;
+    private Duration timeToLive = Duration.ofMinutes(10);
+    
+    // Сетка кэшируемых входов: число ступеней на отрезке 0.0 - 1.0 (не больше 254);
+    // должна совпадать со шкалой анкет, иначе запросы идут мимо кэша
+    private int parentScoreSteps = 20;
+    private int friendsInfluenceSteps = 10;
+}
@@ -0,0 +1,18 @@
+package com.psyche.platform.prediction.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Статистика кэша предсказаний одной стратегии
+ */
+@Data
+@Builder
+public class PredictionCacheStats {
+    private String strategy;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private long size;
+}
@@ -0,0 +1,66 @@
+package com.psyche.platform.prediction.cache;
+
+import com.psyche.platform.prediction.model.EnvironmentData;
+import com.psyche.platform.prediction.model.ParentsGeneticData;
+
+/**
+ * Ключ кэша: ступени входов на сетке квантования, упакованные в примитивы.
+ * Восемь оценок родителей по 8 бит занимают один long, категории среды
+ * и ступень влияния друзей — один int. Стратегия задается именем кэша.
+ * Ключ есть только у входа, лежащего точно на сетке (значения анкет): такой вход
+ * однозначно восстанавливается из ключа, поэтому закэшированный результат совпадает
+ * с точным расчетом. Прочие входы считаются без кэша.
+ */
+record PredictionKey(long parents, int environment) {
+    
+    static final int MAX_STEPS = 254;
+    private static final int MISSING = 255;
+    private static final int OFF_GRID = -1;
+    
+    /**
+     * Ключ входа или null, если какое-то значение не лежит на сетке
+     */
+    static PredictionKey of(ParentsGeneticData parents, EnvironmentData environment,
+                            int parentScoreSteps, int friendsInfluenceSteps) {
+        Double[] scores = {
+            parents.getFatherExtraversion(), parents.getFatherIntuition(),
+            parents.getFatherThinking(), parents.getFatherJudging(),
+            parents.getMotherExtraversion(), parents.getMotherIntuition(),
+            parents.getMotherThinking(), parents.getMotherJudging()
+        };
+        long packedParents = 0;
+        for (Double score : scores) {
+            int step = step(score, parentScoreSteps);
+            if (step == OFF_GRID) {
+                return null;
+            }
+            packedParents = (packedParents << 8) | step;
+        }
+        int friendsStep = step(environment.getFriendsInfluence(), friendsInfluenceSteps);
+        if (friendsStep == OFF_GRID) {
+            return null;
+        }
+        
+        int packedEnvironment = environment.getSchoolType().ordinal();
+        packedEnvironment = (packedEnvironment << 4) | environment.getFamilyEnvironment().ordinal();
+        packedEnvironment = (packedEnvironment << 4) | environment.getBirthOrderBucket().ordinal();
+        packedEnvironment = (packedEnvironment << 4) | environment.getSiblingStatus().ordinal();
+        packedEnvironment = (packedEnvironment << 8) | friendsStep;
+        
+        return new PredictionKey(packedParents, packedEnvironment);
+    }
+    
+    /**
+     * Номер ступени значения; OFF_GRID, если значение вне [0, 1] или между ступенями
+     */
+    private static int step(Double value, int steps) {
+        if (value == null) {
+            return MISSING; // отдельная ступень для отсутствующего значения
+        }
+        if (!(value >= 0.0 && value <= 1.0)) {
+            return OFF_GRID;
+        }
+        int step = (int) Math.round(value * steps);
+        return (double) step / steps == value ? step : OFF_GRID;
+    }
+}
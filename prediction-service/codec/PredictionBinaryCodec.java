@@ -0,0 +1,315 @@
+package com.psyche.platform.prediction.codec;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Компактный двоичный формат PredictionRequest/MBTIResult для внутренних вызовов.
+ * Все поля на фиксированных позициях, числа — big-endian IEEE 754, отсутствующее
+ * число кодируется NaN. Черты хранятся только полюсами E, N, T, J (противоположные = 1 - x).
+ * <pre>
+ * MBTIResult:
+ *   u8  версия
+ *   u8  флаги: биты 0-3 — код типа (E=8, N=4, T=2, J=1), 4 — есть черты,
+ *       5 — есть analysis, 6 — есть uncertainty, 7 — заглушка некорректной записи
+ *       (остальные биты 0, дальше ничего нет)
+ *   [f64 x 4 черты] f64 confidence, f64 bullyingRisk
+ *   u8 длина + UTF-8 strategyUsed
+ *   [u32 длина + UTF-8 analysis]
+ *   [uncertainty: i32 запрошено, i32 посчитано, f64 уровень,
+ *    u8 число интервалов + (f64 mean, lower, upper) по E, N, T, J,
+ *    u8 число типов + (u8 код типа, f64 вероятность)]
+ *
+ * PredictionRequest:
+ *   u8  версия
+ *   u8  флаги: 0 — userId, 1 — birthOrder, 2 — hasSiblings задан, 3 — hasSiblings
+ *   f64 x 8: отец E, N, T, J, мать E, N, T, J
+ *   u8 schoolType, u8 familyEnvironment, f64 friendsInfluence
+ *   [i32 birthOrder] [u16 длина + UTF-8 userId]
+ * </pre>
+ * Кодек пишет в DataOutput и читает из DataInput поверх потоков тела HTTP,
+ * без промежуточного дерева объектов или текстового представления.
+ */
+public final class PredictionBinaryCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int RESULT_HAS_TRAITS = 1 << 4;
+    private static final int RESULT_HAS_ANALYSIS = 1 << 5;
+    private static final int RESULT_HAS_UNCERTAINTY = 1 << 6;
+    private static final int RESULT_INVALID = 1 << 7;
+    private static final int TYPE_MASK = 0x0F;
+
+    private static final int REQUEST_HAS_USER = 1;
+    private static final int REQUEST_HAS_BIRTH_ORDER = 1 << 1;
+    private static final int REQUEST_HAS_SIBLINGS = 1 << 2;
+    private static final int REQUEST_SIBLINGS = 1 << 3;
+
+    private static final String[] POLES = {"E", "N", "T", "J"};
+    private static final SchoolType[] SCHOOL_TYPES = SchoolType.values();
+    private static final FamilyEnvironment[] FAMILY_ENVIRONMENTS = FamilyEnvironment.values();
+
+    private PredictionBinaryCodec() {
+    }
+
+    public static void writeResult(MBTIResult result, DataOutput out) throws IOException {
+        TraitVector traits = result.getTraitScores();
+        int flags = result.getTypeCode();
+        if (!MBTITypeCode.isValid(flags)) {
+            throw new IOException("Тип MBTI не определен");
+        }
+        if (traits != null) {
+            flags |= RESULT_HAS_TRAITS;
+        }
+        if (result.getAnalysis() != null) {
+            flags |= RESULT_HAS_ANALYSIS;
+        }
+        if (result.getUncertainty() != null) {
+            flags |= RESULT_HAS_UNCERTAINTY;
+        }
+        out.writeByte(VERSION);
+        out.writeByte(flags);
+        if (traits != null) {
+            out.writeDouble(traits.extraversion());
+            out.writeDouble(traits.intuition());
+            out.writeDouble(traits.thinking());
+            out.writeDouble(traits.judging());
+        }
+        writeNullable(out, result.getConfidence());
+        writeNullable(out, result.getBullyingRisk());
+        writeShortString(out, result.getStrategyUsed());
+        if (result.getAnalysis() != null) {
+            byte[] analysis = result.getAnalysis().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(analysis.length);
+            out.write(analysis);
+        }
+        if (result.getUncertainty() != null) {
+            writeUncertainty(out, result.getUncertainty());
+        }
+    }
+
+    /**
+     * Результат из примитивов в том же формате, что writeResult (с чертами, без analysis и uncertainty);
+     * для потоковой записи без сборки MBTIResult. strategyUtf8 — имя стратегии в UTF-8, не длиннее 255 байт
+     */
+    public static void writeScores(DataOutput out, int typeCode, double extraversion, double intuition,
+                                   double thinking, double judging, double confidence, double bullyingRisk,
+                                   byte[] strategyUtf8) throws IOException {
+        out.writeByte(VERSION);
+        out.writeByte((typeCode & TYPE_MASK) | RESULT_HAS_TRAITS);
+        out.writeDouble(extraversion);
+        out.writeDouble(intuition);
+        out.writeDouble(thinking);
+        out.writeDouble(judging);
+        out.writeDouble(confidence);
+        out.writeDouble(bullyingRisk);
+        out.writeByte(strategyUtf8.length);
+        out.write(strategyUtf8);
+    }
+
+    /**
+     * Заглушка на месте некорректной входной записи в последовательности результатов:
+     * сохраняет соответствие i-й записи выхода i-й записи входа
+     */
+    public static void writeInvalid(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeByte(RESULT_INVALID);
+    }
+
+    /**
+     * @return результат или null для заглушки некорректной записи (writeInvalid)
+     */
+    public static MBTIResult readResult(DataInput in) throws IOException {
+        checkVersion(in.readUnsignedByte());
+        int flags = in.readUnsignedByte();
+        if ((flags & RESULT_INVALID) != 0) {
+            return null;
+        }
+        MBTIResult.MBTIResultBuilder result = MBTIResult.builder()
+            .typeCode((byte) (flags & TYPE_MASK));
+        if ((flags & RESULT_HAS_TRAITS) != 0) {
+            result.traitScores(new TraitVector(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        result.confidence(readNullable(in))
+            .bullyingRisk(readNullable(in))
+            .strategyUsed(readShortString(in));
+        if ((flags & RESULT_HAS_ANALYSIS) != 0) {
+            byte[] analysis = new byte[in.readInt()];
+            in.readFully(analysis);
+            result.analysis(new String(analysis, StandardCharsets.UTF_8));
+        }
+        if ((flags & RESULT_HAS_UNCERTAINTY) != 0) {
+            result.uncertainty(readUncertainty(in));
+        }
+        return result.build();
+    }
+
+    public static void writeRequest(PredictionRequest request, DataOutput out) throws IOException {
+        EnvironmentData environment = request.getEnvironment();
+        ParentsGeneticData parents = request.getParents();
+        byte[] userId = request.getUserId() != null ? request.getUserId().getBytes(StandardCharsets.UTF_8) : null;
+        if (userId != null && userId.length > 0xFFFF) {
+            throw new IOException("userId длиннее 65535 байт");
+        }
+
+        int flags = 0;
+        if (userId != null) {
+            flags |= REQUEST_HAS_USER;
+        }
+        if (environment.getBirthOrder() != null) {
+            flags |= REQUEST_HAS_BIRTH_ORDER;
+        }
+        if (environment.getHasSiblings() != null) {
+            flags |= REQUEST_HAS_SIBLINGS;
+            if (environment.getHasSiblings()) {
+                flags |= REQUEST_SIBLINGS;
+            }
+        }
+        out.writeByte(VERSION);
+        out.writeByte(flags);
+        writeNullable(out, parents.getFatherExtraversion());
+        writeNullable(out, parents.getFatherIntuition());
+        writeNullable(out, parents.getFatherThinking());
+        writeNullable(out, parents.getFatherJudging());
+        writeNullable(out, parents.getMotherExtraversion());
+        writeNullable(out, parents.getMotherIntuition());
+        writeNullable(out, parents.getMotherThinking());
+        writeNullable(out, parents.getMotherJudging());
+        out.writeByte(environment.getSchoolType().ordinal());
+        out.writeByte(environment.getFamilyEnvironment().ordinal());
+        writeNullable(out, environment.getFriendsInfluence());
+        if (environment.getBirthOrder() != null) {
+            out.writeInt(environment.getBirthOrder());
+        }
+        if (userId != null) {
+            out.writeShort(userId.length);
+            out.write(userId);
+        }
+    }
+
+    public static PredictionRequest readRequest(DataInput in) throws IOException {
+        checkVersion(in.readUnsignedByte());
+        int flags = in.readUnsignedByte();
+
+        ParentsGeneticData parents = new ParentsGeneticData();
+        parents.setFatherExtraversion(readNullable(in));
+        parents.setFatherIntuition(readNullable(in));
+        parents.setFatherThinking(readNullable(in));
+        parents.setFatherJudging(readNullable(in));
+        parents.setMotherExtraversion(readNullable(in));
+        parents.setMotherIntuition(readNullable(in));
+        parents.setMotherThinking(readNullable(in));
+        parents.setMotherJudging(readNullable(in));
+
+        EnvironmentData environment = new EnvironmentData();
+        environment.setSchoolType(SCHOOL_TYPES[checkOrdinal(in.readUnsignedByte(), SCHOOL_TYPES.length)]);
+        environment.setFamilyEnvironment(FAMILY_ENVIRONMENTS[checkOrdinal(in.readUnsignedByte(), FAMILY_ENVIRONMENTS.length)]);
+        environment.setFriendsInfluence(readNullable(in));
+        if ((flags & REQUEST_HAS_BIRTH_ORDER) != 0) {
+            environment.setBirthOrder(in.readInt());
+        }
+        if ((flags & REQUEST_HAS_SIBLINGS) != 0) {
+            environment.setHasSiblings((flags & REQUEST_SIBLINGS) != 0);
+        }
+
+        PredictionRequest request = new PredictionRequest();
+        request.setParents(parents);
+        request.setEnvironment(environment);
+        if ((flags & REQUEST_HAS_USER) != 0) {
+            byte[] userId = new byte[in.readUnsignedShort()];
+            in.readFully(userId);
+            request.setUserId(new String(userId, StandardCharsets.UTF_8));
+        }
+        return request;
+    }
+
+    private static void writeUncertainty(DataOutput out, UncertaintyReport report) throws IOException {
+        out.writeInt(report.getSamplesRequested());
+        out.writeInt(report.getSamplesUsed());
+        out.writeDouble(report.getLevel());
+        Map<String, TraitInterval> traits = report.getTraits();
+        boolean hasTraits = traits != null && traits.size() == POLES.length;
+        out.writeByte(hasTraits ? POLES.length : 0);
+        if (hasTraits) {
+            for (String pole : POLES) {
+                TraitInterval interval = traits.get(pole);
+                out.writeDouble(interval.getMean());
+                out.writeDouble(interval.getLower());
+                out.writeDouble(interval.getUpper());
+            }
+        }
+        Map<MBTIType, Double> probabilities = report.getTypeProbabilities();
+        out.writeByte(probabilities != null ? probabilities.size() : 0);
+        if (probabilities != null) {
+            for (Map.Entry<MBTIType, Double> entry : probabilities.entrySet()) {
+                out.writeByte(entry.getKey().getCode());
+                out.writeDouble(entry.getValue());
+            }
+        }
+    }
+
+    private static UncertaintyReport readUncertainty(DataInput in) throws IOException {
+        UncertaintyReport.UncertaintyReportBuilder report = UncertaintyReport.builder()
+            .samplesRequested(in.readInt())
+            .samplesUsed(in.readInt())
+            .level(in.readDouble());
+        Map<String, TraitInterval> traits = new LinkedHashMap<>();
+        int intervals = in.readUnsignedByte();
+        for (int i = 0; i < intervals; i++) {
+            traits.put(POLES[checkOrdinal(i, POLES.length)],
+                new TraitInterval(in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        Map<MBTIType, Double> probabilities = new LinkedHashMap<>();
+        int types = in.readUnsignedByte();
+        for (int i = 0; i < types; i++) {
+            probabilities.put(MBTITypeCode.toType(in.readUnsignedByte() & TYPE_MASK), in.readDouble());
+        }
+        return report.traits(traits).typeProbabilities(probabilities).build();
+    }
+
+    private static void writeNullable(DataOutput out, Double value) throws IOException {
+        out.writeDouble(value != null ? value : Double.NaN);
+    }
+
+    private static Double readNullable(DataInput in) throws IOException {
+        double value = in.readDouble();
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static void writeShortString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > 0xFF) {
+            throw new IOException("Строка длиннее 255 байт: " + value);
+        }
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readShortString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return bytes.length > 0 ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private static void checkVersion(int version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного формата: " + version);
+        }
+    }
+
+    private static int checkOrdinal(int ordinal, int count) throws IOException {
+        if (ordinal >= count) {
+            throw new IOException("Значение вне диапазона: " + ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,59 @@
+package com.psyche.platform.prediction.codec;
+
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Двоичный формат PredictionBinaryCodec для Content-Type/Accept application/x-psyche-prediction.
+ * Добавляется после JSON-конвертера, поэтому клиенты без явного Accept получают JSON.
+ */
+public class PredictionBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    
+    public static final String MEDIA_TYPE_VALUE = "application/x-psyche-prediction";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+    
+    public PredictionBinaryHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == PredictionRequest.class || clazz == MBTIResult.class;
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream in = new DataInputStream(inputMessage.getBody());
+        try {
+            Object value = clazz == PredictionRequest.class
+                ? PredictionBinaryCodec.readRequest(in)
+                : PredictionBinaryCodec.readResult(in);
+            if (value == null) {
+                throw new IOException("заглушка некорректной записи вместо результата");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Некорректное двоичное тело: " + e.getMessage(), e, inputMessage);
+        }
+    }
+    
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputMessage.getBody());
+        if (value instanceof PredictionRequest request) {
+            PredictionBinaryCodec.writeRequest(request, out);
+        } else {
+            PredictionBinaryCodec.writeResult((MBTIResult) value, out);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,19 @@
+package com.psyche.platform.prediction.codec;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Двоичный конвертер регистрируется последним: JSON остается форматом по умолчанию
+ */
+@Configuration
+public class PredictionCodecConfig implements WebMvcConfigurer {
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new PredictionBinaryHttpMessageConverter());
+    }
+}
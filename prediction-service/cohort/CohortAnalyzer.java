@@ -0,0 +1,271 @@
+package com.psyche.platform.prediction.cohort;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Попарный анализ риска буллинга в классе.
+ * <ul>
+ *   <li>индивидуальные предсказания считаются колоночными блоками, из них строятся
+ *       примитивные колонки черт и производные «доминирование»/«уязвимость»;</li>
+ *   <li>верхний треугольник матрицы N x N режется на плитки TILE x TILE: колонки двух плиток
+ *       помещаются в кэш процессора, а плитки считаются параллельно в отдельном пуле;</li>
+ *   <li>каждая плитка ведет свою top-k кучу и локальную систему множеств для кластеров,
+ *       поэтому без includeMatrix память не зависит от N².</li>
+ * </ul>
+ * Риск пары: max(доминирование_i * уязвимость_j, доминирование_j * уязвимость_i),
+ * усиленный различием черт (контраст).
+ */
+@Component
+public class CohortAnalyzer implements DisposableBean {
+
+    static final int TILE = 256;
+
+    private static final int SCORE_CHUNK_SIZE = 1024;
+
+    // Вклад группы риска типа (MBTIType.getBullyingRisk) в доминирование
+    private static final double[] TYPE_DOMINANCE = {0.0, 0.5, 1.0};
+
+    private final CohortProperties properties;
+    private final ForkJoinPool pool;
+
+    public CohortAnalyzer(CohortProperties properties) {
+        this.properties = properties;
+        int parallelism = properties.getParallelism() > 0
+            ? properties.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("prediction-cohort-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Колонки класса, по которым считается попарный риск
+     */
+    private record Columns(double[] extraversion, double[] intuition, double[] thinking, double[] judging,
+                           double[] dominance, double[] vulnerability) {
+    }
+
+    /**
+     * Итог плитки: лучшие пары и связи для кластеров (участник → корень его множества в плитке)
+     */
+    private record TileResult(PairRiskHeap top, int[] members, int[] roots) {
+    }
+
+    public CohortReport analyze(CohortRequest request, MBTIPredictionStrategy strategy) {
+        List<CohortMember> members = request.getMembers();
+        int size = members.size();
+        int topK = request.getTopK() != null ? request.getTopK() : properties.getDefaultTopK();
+        double threshold = request.getClusterThreshold() != null
+            ? request.getClusterThreshold() : properties.getDefaultClusterThreshold();
+        validate(request, size, topK);
+
+        MBTIResult[] results = new MBTIResult[size];
+        Columns columns = score(members, strategy, results);
+
+        float[][] matrix = request.isIncludeMatrix() ? new float[size][size] : null;
+        int tiles = (size + TILE - 1) / TILE;
+        List<ForkJoinTask<TileResult>> tasks = new ArrayList<>(tiles * (tiles + 1) / 2);
+        for (int rowTile = 0; rowTile < tiles; rowTile++) {
+            for (int colTile = rowTile; colTile < tiles; colTile++) {
+                int rowStart = rowTile * TILE;
+                int colStart = colTile * TILE;
+                int rowEnd = Math.min(size, rowStart + TILE);
+                int colEnd = Math.min(size, colStart + TILE);
+                tasks.add(pool.submit(() ->
+                    scoreTile(columns, rowStart, rowEnd, colStart, colEnd, topK, threshold, matrix)));
+            }
+        }
+
+        PairRiskHeap top = new PairRiskHeap(topK);
+        UnionFind clusters = new UnionFind(size);
+        for (ForkJoinTask<TileResult> task : tasks) {
+            TileResult tile = task.join();
+            top.addAll(tile.top());
+            for (int i = 0; i < tile.members().length; i++) {
+                clusters.union(tile.members()[i], tile.roots()[i]);
+            }
+        }
+
+        Map<String, MBTIResult> byId = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            byId.put(members.get(i).getId(), results[i]);
+        }
+        return CohortReport.builder()
+            .strategyUsed(strategy.getStrategyName())
+            .size(size)
+            .members(byId)
+            .topPairs(topPairs(top, members))
+            .clusterThreshold(threshold)
+            .clusters(clusters(clusters, members))
+            .matrix(matrix)
+            .build();
+    }
+
+    private void validate(CohortRequest request, int size, int topK) {
+        if (size > properties.getMaxMembers()) {
+            throw new InvalidCohortRequestException("В классе больше " + properties.getMaxMembers() + " участников");
+        }
+        if (request.isIncludeMatrix() && size > properties.getMaxMatrixMembers()) {
+            throw new InvalidCohortRequestException("Полная матрица доступна для классов до "
+                + properties.getMaxMatrixMembers() + " участников; запросите только topK");
+        }
+        if (topK < 0 || topK > properties.getMaxTopK()) {
+            throw new InvalidCohortRequestException("topK должен быть от 0 до " + properties.getMaxTopK());
+        }
+        Set<String> ids = new HashSet<>(size * 2);
+        for (CohortMember member : request.getMembers()) {
+            if (!ids.add(member.getId())) {
+                throw new InvalidCohortRequestException("Повторяющийся id участника: " + member.getId());
+            }
+        }
+    }
+
+    private Columns score(List<CohortMember> members, MBTIPredictionStrategy strategy, MBTIResult[] results) {
+        int size = members.size();
+        Columns columns = new Columns(new double[size], new double[size], new double[size], new double[size],
+            new double[size], new double[size]);
+        PredictionBatch batch = new PredictionBatch(Math.min(size, SCORE_CHUNK_SIZE));
+
+        int start = 0;
+        for (int i = 0; i < size; i++) {
+            CohortMember member = members.get(i);
+            strategy.validateInput(member.getParents(), member.getEnvironment());
+            batch.add(member.getParents(), member.getEnvironment());
+            if (batch.isFull() || i == size - 1) {
+                strategy.scoreBatch(batch);
+                for (int row = 0; row < batch.size(); row++) {
+                    fill(columns, start + row, batch, row, strategy.getStrategyName(), results);
+                }
+                start += batch.size();
+                batch.clear();
+            }
+        }
+        return columns;
+    }
+
+    private static void fill(Columns columns, int index, PredictionBatch batch, int row,
+                             String strategyName, MBTIResult[] results) {
+        MBTIResult result = batch.toResult(row, strategyName);
+        results[index] = result;
+
+        double e = batch.extraversion(row);
+        double t = batch.thinking(row);
+        columns.extraversion()[index] = e;
+        columns.intuition()[index] = batch.intuition(row);
+        columns.thinking()[index] = t;
+        columns.judging()[index] = batch.judging(row);
+
+        MBTIType.RiskLevel typeRisk = MBTITypeCode.riskLevel(result.getTypeCode());
+        columns.dominance()[index] = 0.5 * TYPE_DOMINANCE[typeRisk.ordinal()] + 0.25 * e + 0.25 * t;
+        columns.vulnerability()[index] = 0.5 * result.getBullyingRisk() + 0.25 * (1 - e) + 0.25 * (1 - t);
+    }
+
+    private static TileResult scoreTile(Columns columns, int rowStart, int rowEnd, int colStart, int colEnd,
+                                        int topK, double threshold, float[][] matrix) {
+        double[] e = columns.extraversion();
+        double[] n = columns.intuition();
+        double[] t = columns.thinking();
+        double[] j = columns.judging();
+        double[] dominance = columns.dominance();
+        double[] vulnerability = columns.vulnerability();
+
+        PairRiskHeap top = new PairRiskHeap(topK);
+        int rows = rowEnd - rowStart;
+        UnionFind local = new UnionFind(rows + colEnd - colStart);
+        boolean diagonal = rowStart == colStart;
+
+        for (int a = rowStart; a < rowEnd; a++) {
+            double eA = e[a];
+            double nA = n[a];
+            double tA = t[a];
+            double jA = j[a];
+            double dominanceA = dominance[a];
+            double vulnerabilityA = vulnerability[a];
+            for (int b = diagonal ? a + 1 : colStart; b < colEnd; b++) {
+                double directed = Math.max(dominanceA * vulnerability[b], dominance[b] * vulnerabilityA);
+                double distance = (Math.abs(eA - e[b]) + Math.abs(nA - n[b])
+                    + Math.abs(tA - t[b]) + Math.abs(jA - j[b])) * 0.25;
+                double risk = directed * (0.5 + 0.5 * Math.min(1.0, distance * 2));
+
+                if (matrix != null) {
+                    matrix[a][b] = (float) risk;
+                    matrix[b][a] = (float) risk;
+                }
+                if (risk > top.threshold()) {
+                    top.offer(risk, a, b);
+                }
+                if (risk >= threshold) {
+                    local.union(a - rowStart, rows + b - colStart);
+                }
+            }
+        }
+
+        // Связи плитки переводятся в глобальные индексы: участник → корень его множества
+        int[] linked = new int[local.count()];
+        int[] roots = new int[local.count()];
+        int count = 0;
+        for (int x = 0; x < local.count(); x++) {
+            int root = local.find(x);
+            if (root != x) {
+                linked[count] = x < rows ? rowStart + x : colStart + x - rows;
+                roots[count] = root < rows ? rowStart + root : colStart + root - rows;
+                count++;
+            }
+        }
+        return new TileResult(top, Arrays.copyOf(linked, count), Arrays.copyOf(roots, count));
+    }
+
+    private static List<RiskPair> topPairs(PairRiskHeap top, List<CohortMember> members) {
+        int count = top.size();
+        double[] risks = new double[count];
+        int[] firsts = new int[count];
+        int[] seconds = new int[count];
+        top.drainDescending(risks, firsts, seconds);
+        List<RiskPair> pairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pairs.add(new RiskPair(members.get(firsts[i]).getId(), members.get(seconds[i]).getId(), risks[i]));
+        }
+        return pairs;
+    }
+
+    private static List<List<String>> clusters(UnionFind clusters, List<CohortMember> members) {
+        Map<Integer, List<String>> groups = new HashMap<>();
+        for (int i = 0; i < clusters.count(); i++) {
+            groups.computeIfAbsent(clusters.find(i), root -> new ArrayList<>()).add(members.get(i).getId());
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (List<String> group : groups.values()) {
+            if (group.size() > 1) {
+                result.add(group);
+            }
+        }
+        result.sort(Comparator.comparingInt((List<String> group) -> group.size()).reversed());
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
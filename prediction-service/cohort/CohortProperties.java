@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.cohort;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки анализа класса (prediction.cohort.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.cohort")
+public class CohortProperties {
+    
+    private int maxMembers = 5_000;
+    
+    // Полная матрица возвращается только для классов не больше этого размера
+    private int maxMatrixMembers = 1_000;
+    
+    private int defaultTopK = 50;
+    private int maxTopK = 1_000;
+    private double defaultClusterThreshold = 0.35;
+    
+    // Потоки пула попарного расчета (0 — все ядра)
+    private int parallelism = 0;
+}
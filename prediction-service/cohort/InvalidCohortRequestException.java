@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.cohort;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCohortRequestException extends RuntimeException {
+    
+    public InvalidCohortRequestException(String message) {
+        super(message);
+    }
+}
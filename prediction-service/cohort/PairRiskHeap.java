@@ -0,0 +1,110 @@
+package com.psyche.platform.prediction.cohort;
+
+/**
+ * Ограниченная min-куча пар на примитивных массивах: держит k пар с наибольшим риском.
+ * Корень — самая слабая из отобранных пар, поэтому отсев остальных — одно сравнение.
+ */
+final class PairRiskHeap {
+
+    private final int capacity;
+    private final double[] risks;
+    private final int[] firsts;
+    private final int[] seconds;
+    private int size;
+
+    PairRiskHeap(int capacity) {
+        this.capacity = capacity;
+        this.risks = new double[capacity];
+        this.firsts = new int[capacity];
+        this.seconds = new int[capacity];
+    }
+
+    /**
+     * Порог входа в кучу: пары с риском не выше него можно не предлагать
+     */
+    double threshold() {
+        if (capacity == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return size < capacity ? Double.NEGATIVE_INFINITY : risks[0];
+    }
+
+    void offer(double risk, int first, int second) {
+        if (size < capacity) {
+            int i = size++;
+            set(i, risk, first, second);
+            siftUp(i);
+        } else if (risk > threshold()) {
+            set(0, risk, first, second);
+            siftDown(0);
+        }
+    }
+
+    void addAll(PairRiskHeap other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.risks[i], other.firsts[i], other.seconds[i]);
+        }
+    }
+
+    /**
+     * Извлечение всех пар по убыванию риска; куча после вызова пуста
+     */
+    int drainDescending(double[] risksOut, int[] firstsOut, int[] secondsOut) {
+        int count = size;
+        for (int out = count - 1; out >= 0; out--) {
+            risksOut[out] = risks[0];
+            firstsOut[out] = firsts[0];
+            secondsOut[out] = seconds[0];
+            size--;
+            if (size > 0) {
+                set(0, risks[size], firsts[size], seconds[size]);
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (risks[parent] <= risks[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && risks[left + 1] < risks[left] ? left + 1 : left;
+            if (risks[i] <= risks[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void set(int i, double risk, int first, int second) {
+        risks[i] = risk;
+        firsts[i] = first;
+        seconds[i] = second;
+    }
+
+    private void swap(int a, int b) {
+        double risk = risks[a];
+        int first = firsts[a];
+        int second = seconds[a];
+        set(a, risks[b], firsts[b], seconds[b]);
+        set(b, risk, first, second);
+    }
+}
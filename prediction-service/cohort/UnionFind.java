@@ -0,0 +1,51 @@
+package com.psyche.platform.prediction.cohort;
+
+/**
+ * Система непересекающихся множеств со сжатием путей и объединением по размеру
+ */
+final class UnionFind {
+
+    private final int[] parent;
+    private final int[] size;
+
+    UnionFind(int count) {
+        this.parent = new int[count];
+        this.size = new int[count];
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+
+    int count() {
+        return parent.length;
+    }
+}
@@ -0,0 +1,232 @@
+package com.psyche.platform.prediction.facts;
+
+import com.psyche.platform.prediction.model.FactDimension;
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Выполнение плана над блоками. Работа идет порциями по BATCH строк через вектор выбора
+ * (номера подходящих строк): каждый фильтр и каждая колонка обрабатываются отдельным
+ * плотным циклом по порции, без ветвлений по измерениям внутри цикла.
+ * <ul>
+ *   <li>запечатанный блок — кандидаты из пересечения объединений битмапов по измерениям;</li>
+ *   <li>активный блок — сканирование колонок с масками допустимых значений.</li>
+ * </ul>
+ * Агрегаты лежат в плотных массивах по ключу группы; один экземпляр — один поток.
+ */
+final class FactAggregator {
+
+    static final int BATCH = 1024;
+
+    private final FactQueryPlan plan;
+    private final int[] selection = new int[BATCH];
+    private final int[] keys = new int[BATCH];
+    private final long[] counts;
+    private final double[][] sums;
+    private long matched;
+    private int blocksScanned;
+    private int blocksSkipped;
+
+    FactAggregator(FactQueryPlan plan) {
+        this.plan = plan;
+        this.counts = new long[plan.groupCount()];
+        this.sums = new double[FactBlock.MEASURES][plan.groupCount()];
+    }
+
+    void scan(FactBlock block) {
+        int rows = block.size();
+        if (rows == 0 || plan.isEmpty()) {
+            blocksSkipped++;
+            return;
+        }
+        if (!block.isSealed()) {
+            scanColumns(block, rows);
+            return;
+        }
+
+        // Время строк запечатанного блока известно: блок целиком вне периода не читается,
+        // целиком внутри — читается без проверки времени по строкам
+        boolean checkTime = plan.timeFiltered();
+        if (checkTime) {
+            if (block.maxTimestamp() < plan.from() || block.minTimestamp() > plan.to()) {
+                blocksSkipped++;
+                return;
+            }
+            checkTime = block.minTimestamp() < plan.from() || block.maxTimestamp() > plan.to();
+        }
+
+        RoaringBitmap candidates = null;
+        for (FactDimension dimension : plan.filtered()) {
+            RoaringBitmap matching = union(block, dimension);
+            candidates = candidates == null ? matching : RoaringBitmap.and(candidates, matching);
+            if (candidates.isEmpty()) {
+                blocksSkipped++;
+                return;
+            }
+        }
+        blocksScanned++;
+
+        if (candidates == null) {
+            for (int start = 0; start < rows; start += BATCH) {
+                int n = fillRange(start, Math.min(rows, start + BATCH));
+                accumulate(block, n, checkTime);
+            }
+        } else {
+            BatchIterator iterator = candidates.getBatchIterator();
+            while (iterator.hasNext()) {
+                accumulate(block, iterator.nextBatch(selection), checkTime);
+            }
+        }
+    }
+
+    private RoaringBitmap union(FactBlock block, FactDimension dimension) {
+        boolean[] allowed = plan.allowed(dimension);
+        RoaringBitmap[] members = new RoaringBitmap[allowed.length];
+        int count = 0;
+        for (int value = 0; value < allowed.length; value++) {
+            if (allowed[value]) {
+                members[count++] = block.index(dimension, value);
+            }
+        }
+        if (count == 1) {
+            return members[0];
+        }
+        RoaringBitmap[] used = new RoaringBitmap[count];
+        System.arraycopy(members, 0, used, 0, count);
+        return FastAggregation.or(used);
+    }
+
+    private void scanColumns(FactBlock block, int rows) {
+        blocksScanned++;
+        for (int start = 0; start < rows; start += BATCH) {
+            int n = fillRange(start, Math.min(rows, start + BATCH));
+            for (FactDimension dimension : plan.filtered()) {
+                n = filterDimension(block.column(dimension), plan.schema().valueMap(dimension),
+                    plan.allowed(dimension), n);
+            }
+            accumulate(block, n, plan.timeFiltered());
+        }
+    }
+
+    private int fillRange(int start, int end) {
+        int n = end - start;
+        for (int i = 0; i < n; i++) {
+            selection[i] = start + i;
+        }
+        return n;
+    }
+
+    private int filterDimension(byte[] column, int[] valueMap, boolean[] allowed, int n) {
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            int row = selection[i];
+            selection[kept] = row;
+            kept += allowed[valueMap[column[row]]] ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private int filterTime(long[] timestamps, int n) {
+        long from = plan.from();
+        long to = plan.to();
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            int row = selection[i];
+            long timestamp = timestamps[row];
+            selection[kept] = row;
+            kept += timestamp >= from && timestamp <= to ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private int filterRisk(float[] risk, int n) {
+        float min = plan.minRisk();
+        float max = plan.maxRisk();
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            int row = selection[i];
+            float value = risk[row];
+            selection[kept] = row;
+            kept += value >= min && value <= max ? 1 : 0;
+        }
+        return kept;
+    }
+
+    /**
+     * Диапазонные фильтры по порции и накопление агрегатов: сначала ключи групп
+     * колонка за колонкой, затем счетчики и суммы мера за мерой
+     */
+    private void accumulate(FactBlock block, int n, boolean checkTime) {
+        if (checkTime) {
+            n = filterTime(block.timestamps(), n);
+        }
+        if (plan.riskFiltered()) {
+            n = filterRisk(block.measure(FactBlock.BULLYING_RISK), n);
+        }
+        if (n == 0) {
+            return;
+        }
+        matched += n;
+
+        FactDimension[] groupBy = plan.groupBy();
+        int[] strides = plan.strides();
+        for (int i = 0; i < n; i++) {
+            keys[i] = 0;
+        }
+        for (int k = 0; k < groupBy.length; k++) {
+            byte[] column = block.column(groupBy[k]);
+            int[] valueMap = plan.schema().valueMap(groupBy[k]);
+            int stride = strides[k];
+            for (int i = 0; i < n; i++) {
+                keys[i] += valueMap[column[selection[i]]] * stride;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            counts[keys[i]]++;
+        }
+        for (int m = 0; m < FactBlock.MEASURES; m++) {
+            float[] column = block.measure(m);
+            double[] sum = sums[m];
+            for (int i = 0; i < n; i++) {
+                sum[keys[i]] += column[selection[i]];
+            }
+        }
+    }
+
+    FactAggregator merge(FactAggregator other) {
+        for (int g = 0; g < counts.length; g++) {
+            counts[g] += other.counts[g];
+        }
+        for (int m = 0; m < FactBlock.MEASURES; m++) {
+            for (int g = 0; g < counts.length; g++) {
+                sums[m][g] += other.sums[m][g];
+            }
+        }
+        matched += other.matched;
+        blocksScanned += other.blocksScanned;
+        blocksSkipped += other.blocksSkipped;
+        return this;
+    }
+
+    long count(int group) {
+        return counts[group];
+    }
+
+    double sum(int measure, int group) {
+        return sums[measure][group];
+    }
+
+    long matched() {
+        return matched;
+    }
+
+    int blocksScanned() {
+        return blocksScanned;
+    }
+
+    int blocksSkipped() {
+        return blocksSkipped;
+    }
+}
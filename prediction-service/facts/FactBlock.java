@@ -0,0 +1,181 @@
+package com.psyche.platform.prediction.facts;
+
+import com.psyche.platform.prediction.model.FactDimension;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Блок фактов фиксированной емкости в колоночном виде: категории — byte-колонки,
+ * меры — float-колонки, время — long-колонка.
+ * Активный блок дописывается только потоком загрузки; граница читаемых строк — volatile size,
+ * которая пишется после колонок. При заполнении блок запечатывается: колонки больше не меняются,
+ * по каждому значению каждого измерения строится сжатый битовый индекс номеров строк.
+ */
+final class FactBlock {
+
+    // 2^16 строк — ровно один контейнер RoaringBitmap на значение измерения
+    static final int CAPACITY = 1 << 16;
+
+    static final int EXTRAVERSION = 0;
+    static final int INTUITION = 1;
+    static final int THINKING = 2;
+    static final int JUDGING = 3;
+    static final int CONFIDENCE = 4;
+    static final int BULLYING_RISK = 5;
+    static final int MEASURES = 6;
+
+    private static final FactDimension[] DIMENSIONS = FactDimension.values();
+
+    private final long[] timestamps = new long[CAPACITY];
+    private final byte[] typeCodes = new byte[CAPACITY];
+    private final byte[] strategies = new byte[CAPACITY];
+    private final byte[] schoolTypes = new byte[CAPACITY];
+    private final byte[] familyEnvironments = new byte[CAPACITY];
+    private final float[][] measures = new float[MEASURES][CAPACITY];
+
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private volatile int size;
+
+    // [измерение][значение] -> строки; null пока блок активен. Публикуется целиком после построения,
+    // так что читатель старого снимка видит либо готовые индексы, либо сканирует колонки
+    private volatile RoaringBitmap[][] indexes;
+
+    /**
+     * Дописывает строку; вызывается только потоком загрузки и только до seal
+     */
+    void append(PredictionFact fact) {
+        int row = size;
+        timestamps[row] = fact.timestamp();
+        typeCodes[row] = fact.typeCode();
+        strategies[row] = fact.strategy();
+        schoolTypes[row] = fact.schoolType();
+        familyEnvironments[row] = fact.familyEnvironment();
+        measures[EXTRAVERSION][row] = fact.extraversion();
+        measures[INTUITION][row] = fact.intuition();
+        measures[THINKING][row] = fact.thinking();
+        measures[JUDGING][row] = fact.judging();
+        measures[CONFIDENCE][row] = fact.confidence();
+        measures[BULLYING_RISK][row] = fact.bullyingRisk();
+        minTimestamp = Math.min(minTimestamp, fact.timestamp());
+        maxTimestamp = Math.max(maxTimestamp, fact.timestamp());
+        size = row + 1;
+    }
+
+    boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    /**
+     * Построение индексов за один проход по категориальным колонкам.
+     * Уровень риска не хранится отдельной колонкой: его битмапы — объединения битмапов типов
+     *
+     * @param cardinalities число значений каждого измерения (по ordinal FactDimension)
+     * @param riskOfType уровень риска (ordinal) для каждого кода типа
+     */
+    void seal(int[] cardinalities, int[] riskOfType) {
+        int rows = size;
+        RoaringBitmap[][] built = new RoaringBitmap[DIMENSIONS.length][];
+        for (FactDimension dimension : DIMENSIONS) {
+            RoaringBitmap[] bitmaps = new RoaringBitmap[cardinalities[dimension.ordinal()]];
+            for (int v = 0; v < bitmaps.length; v++) {
+                bitmaps[v] = new RoaringBitmap();
+            }
+            built[dimension.ordinal()] = bitmaps;
+        }
+
+        RoaringBitmap[] byType = built[FactDimension.MBTI_TYPE.ordinal()];
+        RoaringBitmap[] byStrategy = built[FactDimension.STRATEGY.ordinal()];
+        RoaringBitmap[] bySchool = built[FactDimension.SCHOOL_TYPE.ordinal()];
+        RoaringBitmap[] byFamily = built[FactDimension.FAMILY_ENVIRONMENT.ordinal()];
+        // Строки идут по возрастанию, поэтому add дописывает в конец контейнера без поиска
+        for (int row = 0; row < rows; row++) {
+            byType[typeCodes[row]].add(row);
+            byStrategy[strategies[row]].add(row);
+            bySchool[schoolTypes[row]].add(row);
+            byFamily[familyEnvironments[row]].add(row);
+        }
+
+        RoaringBitmap[] byRisk = built[FactDimension.RISK_LEVEL.ordinal()];
+        for (int risk = 0; risk < byRisk.length; risk++) {
+            List<RoaringBitmap> members = new ArrayList<>();
+            for (int type = 0; type < byType.length; type++) {
+                if (riskOfType[type] == risk) {
+                    members.add(byType[type]);
+                }
+            }
+            byRisk[risk] = members.isEmpty() ? new RoaringBitmap() : FastAggregation.or(members.iterator());
+        }
+
+        for (RoaringBitmap[] bitmaps : built) {
+            for (RoaringBitmap bitmap : bitmaps) {
+                bitmap.runOptimize();
+            }
+        }
+        indexes = built;
+    }
+
+    /**
+     * Битмап строк с данным значением измерения; только для запечатанного блока
+     */
+    RoaringBitmap index(FactDimension dimension, int value) {
+        return indexes[dimension.ordinal()][value];
+    }
+
+    boolean isSealed() {
+        return indexes != null;
+    }
+
+    /**
+     * Колонка, из которой берется значение измерения (для уровня риска — колонка типов)
+     */
+    byte[] column(FactDimension dimension) {
+        return switch (dimension) {
+            case MBTI_TYPE, RISK_LEVEL -> typeCodes;
+            case STRATEGY -> strategies;
+            case SCHOOL_TYPE -> schoolTypes;
+            case FAMILY_ENVIRONMENT -> familyEnvironments;
+        };
+    }
+
+    float[] measure(int measure) {
+        return measures[measure];
+    }
+
+    long[] timestamps() {
+        return timestamps;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Для активного блока читать после size(): запись идет до публикации size
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    long columnBytes() {
+        return (long) CAPACITY * (Long.BYTES + 4 + MEASURES * Float.BYTES);
+    }
+
+    long indexBytes() {
+        if (indexes == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (RoaringBitmap[] bitmaps : indexes) {
+            for (RoaringBitmap bitmap : bitmaps) {
+                bytes += bitmap.getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,185 @@
+package com.psyche.platform.prediction.facts;
+
+import com.psyche.platform.prediction.model.FactDimension;
+import com.psyche.platform.prediction.model.FactQuery;
+import com.psyche.platform.shared.model.MBTITypeCode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Запрос, разобранный в коды измерений: маски допустимых значений, границы диапазонов
+ * и шаги смешанного основания для плотного ключа группы.
+ * Измерение, в котором разрешены все значения, из фильтров выбрасывается.
+ */
+final class FactQueryPlan {
+
+    private final FactSchema schema;
+    private final FactDimension[] filtered;
+    private final boolean[][] allowed;
+    private final boolean empty;
+
+    private final boolean timeFiltered;
+    private final long from;
+    private final long to;
+
+    private final boolean riskFiltered;
+    private final float minRisk;
+    private final float maxRisk;
+
+    private final FactDimension[] groupBy;
+    private final int[] strides;
+    private final int groupCount;
+
+    private FactQueryPlan(FactSchema schema, FactQuery query) {
+        this.schema = schema;
+        this.allowed = new boolean[FactDimension.values().length][];
+
+        boolean noMatches = false;
+        noMatches |= restrict(FactDimension.MBTI_TYPE, query.getMbtiTypes(), FactQueryPlan::parseType);
+        noMatches |= restrict(FactDimension.RISK_LEVEL, query.getRiskLevels(), Enum::ordinal);
+        noMatches |= restrict(FactDimension.STRATEGY, query.getStrategies(), this::parseStrategy);
+        noMatches |= restrict(FactDimension.SCHOOL_TYPE, query.getSchoolTypes(), Enum::ordinal);
+        noMatches |= restrict(FactDimension.FAMILY_ENVIRONMENT, query.getFamilyEnvironments(), Enum::ordinal);
+        List<FactDimension> filteredDimensions = new ArrayList<>();
+        for (FactDimension dimension : FactDimension.values()) {
+            if (allowed[dimension.ordinal()] != null) {
+                filteredDimensions.add(dimension);
+            }
+        }
+        this.filtered = filteredDimensions.toArray(FactDimension[]::new);
+        this.empty = noMatches;
+
+        this.timeFiltered = query.getFrom() != null || query.getTo() != null;
+        this.from = query.getFrom() != null ? query.getFrom().toEpochMilli() : Long.MIN_VALUE;
+        this.to = query.getTo() != null ? query.getTo().toEpochMilli() : Long.MAX_VALUE;
+        if (from > to) {
+            throw new InvalidFactQueryException("Начало периода позже его конца");
+        }
+
+        this.riskFiltered = query.getMinBullyingRisk() != null || query.getMaxBullyingRisk() != null;
+        this.minRisk = query.getMinBullyingRisk() != null ? query.getMinBullyingRisk().floatValue() : Float.NEGATIVE_INFINITY;
+        this.maxRisk = query.getMaxBullyingRisk() != null ? query.getMaxBullyingRisk().floatValue() : Float.POSITIVE_INFINITY;
+        if (minRisk > maxRisk) {
+            throw new InvalidFactQueryException("minBullyingRisk больше maxBullyingRisk");
+        }
+
+        List<FactDimension> dimensions = query.getGroupBy() != null ? query.getGroupBy() : List.of();
+        Set<FactDimension> seen = EnumSet.noneOf(FactDimension.class);
+        for (FactDimension dimension : dimensions) {
+            if (dimension == null || !seen.add(dimension)) {
+                throw new InvalidFactQueryException("Измерения группировки должны быть заданы и не повторяться");
+            }
+        }
+        this.groupBy = dimensions.toArray(FactDimension[]::new);
+        this.strides = new int[groupBy.length];
+        int count = 1;
+        for (int k = groupBy.length - 1; k >= 0; k--) {
+            strides[k] = count;
+            count *= schema.cardinality(groupBy[k]);
+        }
+        this.groupCount = count;
+    }
+
+    static FactQueryPlan compile(FactSchema schema, FactQuery query) {
+        return new FactQueryPlan(schema, query);
+    }
+
+    /**
+     * Маска допустимых значений измерения; true, если фильтр не пропускает ничего
+     */
+    private <T> boolean restrict(FactDimension dimension, Collection<T> values, ToIntFunction<T> encoder) {
+        if (values == null || values.isEmpty()) {
+            return false;
+        }
+        boolean[] mask = new boolean[schema.cardinality(dimension)];
+        int distinct = 0;
+        for (T value : values) {
+            if (value == null) {
+                throw new InvalidFactQueryException("Пустое значение в фильтре " + dimension);
+            }
+            int code = encoder.applyAsInt(value);
+            if (!mask[code]) {
+                mask[code] = true;
+                distinct++;
+            }
+        }
+        if (distinct < mask.length) {
+            allowed[dimension.ordinal()] = mask;
+        }
+        return distinct == 0;
+    }
+
+    private static int parseType(String name) {
+        try {
+            return MBTITypeCode.parse(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFactQueryException(e.getMessage());
+        }
+    }
+
+    private int parseStrategy(String name) {
+        int code = schema.strategyCode(name.toUpperCase(Locale.ROOT));
+        if (code < 0) {
+            throw new InvalidFactQueryException("Неизвестная стратегия: " + name);
+        }
+        return code;
+    }
+
+    FactSchema schema() {
+        return schema;
+    }
+
+    FactDimension[] filtered() {
+        return filtered;
+    }
+
+    boolean[] allowed(FactDimension dimension) {
+        return allowed[dimension.ordinal()];
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    boolean timeFiltered() {
+        return timeFiltered;
+    }
+
+    long from() {
+        return from;
+    }
+
+    long to() {
+        return to;
+    }
+
+    boolean riskFiltered() {
+        return riskFiltered;
+    }
+
+    float minRisk() {
+        return minRisk;
+    }
+
+    float maxRisk() {
+        return maxRisk;
+    }
+
+    FactDimension[] groupBy() {
+        return groupBy;
+    }
+
+    int[] strides() {
+        return strides;
+    }
+
+    int groupCount() {
+        return groupCount;
+    }
+}
@@ -0,0 +1,92 @@
+package com.psyche.platform.prediction.facts;
+
+import com.psyche.platform.prediction.model.FactDimension;
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Кодирование измерений: число значений, словарь стратегий и отображение
+ * значения колонки в значение измерения (тождественное, для уровня риска — тип -> риск)
+ */
+final class FactSchema {
+
+    private static final FactDimension[] DIMENSIONS = FactDimension.values();
+    private static final MBTIType.RiskLevel[] RISK_LEVELS = MBTIType.RiskLevel.values();
+    private static final SchoolType[] SCHOOL_TYPES = SchoolType.values();
+    private static final FamilyEnvironment[] FAMILY_ENVIRONMENTS = FamilyEnvironment.values();
+
+    private final String[] strategyNames;
+    private final Map<String, Integer> strategyIndex;
+    private final int[] cardinalities = new int[DIMENSIONS.length];
+    private final int[][] valueMaps = new int[DIMENSIONS.length][];
+
+    FactSchema(Collection<String> strategies) {
+        this.strategyNames = strategies.stream().sorted().toArray(String[]::new);
+        if (strategyNames.length > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Стратегий больше, чем помещается в byte-колонку: " + strategyNames.length);
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < strategyNames.length; i++) {
+            index.put(strategyNames[i], i);
+        }
+        this.strategyIndex = Map.copyOf(index);
+
+        cardinalities[FactDimension.MBTI_TYPE.ordinal()] = MBTITypeCode.COUNT;
+        cardinalities[FactDimension.RISK_LEVEL.ordinal()] = RISK_LEVELS.length;
+        cardinalities[FactDimension.STRATEGY.ordinal()] = strategyNames.length;
+        cardinalities[FactDimension.SCHOOL_TYPE.ordinal()] = SCHOOL_TYPES.length;
+        cardinalities[FactDimension.FAMILY_ENVIRONMENT.ordinal()] = FAMILY_ENVIRONMENTS.length;
+
+        for (FactDimension dimension : DIMENSIONS) {
+            int columnValues = dimension == FactDimension.RISK_LEVEL ? MBTITypeCode.COUNT : cardinality(dimension);
+            int[] map = new int[columnValues];
+            for (int v = 0; v < map.length; v++) {
+                map[v] = dimension == FactDimension.RISK_LEVEL ? MBTITypeCode.riskLevel(v).ordinal() : v;
+            }
+            valueMaps[dimension.ordinal()] = map;
+        }
+    }
+
+    int cardinality(FactDimension dimension) {
+        return cardinalities[dimension.ordinal()];
+    }
+
+    int[] cardinalities() {
+        return cardinalities;
+    }
+
+    /**
+     * Значение колонки -> значение измерения
+     */
+    int[] valueMap(FactDimension dimension) {
+        return valueMaps[dimension.ordinal()];
+    }
+
+    int[] riskOfType() {
+        return valueMaps[FactDimension.RISK_LEVEL.ordinal()];
+    }
+
+    /**
+     * Код стратегии или -1 для незарегистрированной
+     */
+    int strategyCode(String name) {
+        Integer code = name != null ? strategyIndex.get(name) : null;
+        return code != null ? code : -1;
+    }
+
+    String label(FactDimension dimension, int value) {
+        return switch (dimension) {
+            case MBTI_TYPE -> MBTITypeCode.name(value);
+            case RISK_LEVEL -> RISK_LEVELS[value].name();
+            case STRATEGY -> strategyNames[value];
+            case SCHOOL_TYPE -> SCHOOL_TYPES[value].name();
+            case FAMILY_ENVIRONMENT -> FAMILY_ENVIRONMENTS[value].name();
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.facts;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки колоночного хранилища фактов (prediction.facts.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.facts")
+public class FactStoreProperties {
+    
+    private boolean enabled = true;
+    
+    // Блоки, все строки которых старше, удаляются целиком
+    private Duration retention = Duration.ofDays(90);
+    
+    // Предел строк в памяти (~40 байт на строку с индексами); сверх него удаляются самые старые блоки
+    private long maxRows = 10_000_000;
+    
+    private int ingestQueueCapacity = 100_000;
+}
@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.facts;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFactQueryException extends RuntimeException {
+    
+    public InvalidFactQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.psyche.platform.prediction.facts;
+
+/**
+ * Строка факта, переданная из потока запроса в поток загрузки; категории уже закодированы
+ */
+record PredictionFact(long timestamp,
+                      byte typeCode,
+                      byte strategy,
+                      byte schoolType,
+                      byte familyEnvironment,
+                      float extraversion,
+                      float intuition,
+                      float thinking,
+                      float judging,
+                      float confidence,
+                      float bullyingRisk) {
+}
@@ -0,0 +1,272 @@
+package com.psyche.platform.prediction.facts;
+
+import com.psyche.platform.prediction.model.FactDimension;
+import com.psyche.platform.prediction.model.FactGroup;
+import com.psyche.platform.prediction.model.FactQuery;
+import com.psyche.platform.prediction.model.FactQueryResult;
+import com.psyche.platform.prediction.model.FactStoreStats;
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.prediction.service.PredictionListener;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Колоночное хранилище фактов о предсказаниях в памяти для аналитических запросов
+ * с фильтрами, группировкой и агрегатами.
+ * <ul>
+ *   <li>запись — поток запроса только кладет закодированную строку в очередь,
+ *       дописывает в активный блок один поток загрузки;</li>
+ *   <li>заполненный блок запечатывается и получает битовые индексы по всем измерениям;</li>
+ *   <li>запрос — пересечение битмапов и сканирование колонок порциями, блоки
+ *       обрабатываются параллельно, частичные агрегаты складываются;</li>
+ *   <li>срок хранения и предел строк соблюдаются удалением самых старых блоков целиком.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PredictionFactStore implements PredictionListener, InitializingBean, DisposableBean {
+
+    // Маркер очистки: обрабатывается по порядку, поэтому отбрасывает и уже стоящие в очереди строки
+    private static final PredictionFact CLEAR = new PredictionFact(0, MBTITypeCode.UNKNOWN,
+        (byte) 0, (byte) 0, (byte) 0, 0f, 0f, 0f, 0f, 0f, 0f);
+
+    /**
+     * Согласованный снимок блоков; заменяется целиком при запечатывании и удалении блоков
+     */
+    private record StoreState(List<FactBlock> sealed, FactBlock active, long sealedRows) {
+    }
+
+    private final FactStoreProperties properties;
+    private final FactSchema schema;
+    private final BlockingQueue<PredictionFact> queue;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile StoreState state = new StoreState(List.of(), new FactBlock(), 0);
+    private volatile boolean running;
+    private Thread loader;
+
+    public PredictionFactStore(FactStoreProperties properties, StrategyRegistry strategyRegistry) {
+        this.properties = properties;
+        this.schema = new FactSchema(strategyRegistry.getStrategyNames());
+        this.queue = new ArrayBlockingQueue<>(properties.getIngestQueueCapacity());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        loader = new Thread(this::loadLoop, "prediction-facts-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Постановка строки в очередь. Не блокирует: при переполненной очереди строка отбрасывается
+     */
+    @Override
+    public void onPrediction(MBTIResult result, SchoolType schoolType, FamilyEnvironment familyEnvironment) {
+        if (!running) {
+            return;
+        }
+        int strategy = schema.strategyCode(result.getStrategyUsed());
+        if (strategy < 0 || !MBTITypeCode.isValid(result.getTypeCode())) {
+            return;
+        }
+        TraitVector traits = result.getTraitScores();
+        PredictionFact fact = new PredictionFact(System.currentTimeMillis(), result.getTypeCode(),
+            (byte) strategy, (byte) schoolType.ordinal(), (byte) familyEnvironment.ordinal(),
+            (float) traits.extraversion(), (float) traits.intuition(),
+            (float) traits.thinking(), (float) traits.judging(),
+            result.getConfidence().floatValue(), result.getBullyingRisk().floatValue());
+        if (!queue.offer(fact)) {
+            long total = dropped.incrementAndGet();
+            if (Long.bitCount(total) == 1) {
+                log.warn("Очередь фактов переполнена, отброшено строк: {}", total);
+            }
+        }
+    }
+
+    /**
+     * Выполнение запроса; группы возвращаются по убыванию числа строк
+     */
+    public FactQueryResult query(FactQuery query) {
+        long startedAt = System.nanoTime();
+        FactQueryPlan plan = FactQueryPlan.compile(schema, query);
+
+        StoreState current = state;
+        List<FactBlock> blocks = new ArrayList<>(current.sealed().size() + 1);
+        blocks.addAll(current.sealed());
+        blocks.add(current.active());
+        FactAggregator total = blocks.parallelStream()
+            .collect(() -> new FactAggregator(plan), FactAggregator::scan, FactAggregator::merge);
+
+        FactDimension[] groupBy = plan.groupBy();
+        int[] strides = plan.strides();
+        List<FactGroup> groups = new ArrayList<>();
+        for (int group = 0; group < plan.groupCount(); group++) {
+            long count = total.count(group);
+            if (count == 0) {
+                continue;
+            }
+            Map<FactDimension, String> key = new LinkedHashMap<>();
+            for (int k = 0; k < groupBy.length; k++) {
+                key.put(groupBy[k], schema.label(groupBy[k], group / strides[k] % schema.cardinality(groupBy[k])));
+            }
+            groups.add(FactGroup.builder()
+                .key(key)
+                .count(count)
+                .meanExtraversion(total.sum(FactBlock.EXTRAVERSION, group) / count)
+                .meanIntuition(total.sum(FactBlock.INTUITION, group) / count)
+                .meanThinking(total.sum(FactBlock.THINKING, group) / count)
+                .meanJudging(total.sum(FactBlock.JUDGING, group) / count)
+                .meanConfidence(total.sum(FactBlock.CONFIDENCE, group) / count)
+                .meanBullyingRisk(total.sum(FactBlock.BULLYING_RISK, group) / count)
+                .build());
+        }
+        groups.sort(Comparator.comparingLong(FactGroup::getCount).reversed());
+
+        return FactQueryResult.builder()
+            .groups(groups)
+            .matched(total.matched())
+            .blocksScanned(total.blocksScanned())
+            .blocksSkipped(total.blocksSkipped())
+            .elapsedMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt))
+            .build();
+    }
+
+    public FactStoreStats getStats() {
+        StoreState current = state;
+        FactBlock active = current.active();
+        int activeRows = active.size();
+        long columnBytes = active.columnBytes();
+        long indexBytes = 0;
+        long oldest = activeRows > 0 ? active.minTimestamp() : Long.MAX_VALUE;
+        long newest = activeRows > 0 ? active.maxTimestamp() : Long.MIN_VALUE;
+        for (FactBlock block : current.sealed()) {
+            columnBytes += block.columnBytes();
+            indexBytes += block.indexBytes();
+            oldest = Math.min(oldest, block.minTimestamp());
+            newest = Math.max(newest, block.maxTimestamp());
+        }
+        return FactStoreStats.builder()
+            .rows(current.sealedRows() + activeRows)
+            .blocks(current.sealed().size() + 1)
+            .columnBytes(columnBytes)
+            .indexBytes(indexBytes)
+            .dropped(dropped.get())
+            .oldest(oldest != Long.MAX_VALUE ? Instant.ofEpochMilli(oldest) : null)
+            .newest(newest != Long.MIN_VALUE ? Instant.ofEpochMilli(newest) : null)
+            .build();
+    }
+
+    /**
+     * Сброс всех фактов (например, после прогрева синтетическими запросами).
+     * Выполняется потоком загрузки после строк, уже стоящих в очереди
+     */
+    public void clear() {
+        if (!running) {
+            return;
+        }
+        try {
+            queue.put(CLEAR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------------------------------------------------------- загрузка
+
+    private void loadLoop() {
+        List<PredictionFact> pending = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PredictionFact first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.add(first);
+                    queue.drainTo(pending, 1024);
+                    load(pending);
+                    pending.clear();
+                }
+                enforceLimits(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Ошибка загрузки фактов предсказаний", e);
+                pending.clear();
+            }
+        }
+    }
+
+    private void load(List<PredictionFact> facts) {
+        for (PredictionFact fact : facts) {
+            if (fact == CLEAR) {
+                state = new StoreState(List.of(), new FactBlock(), 0);
+                continue;
+            }
+            StoreState current = state;
+            current.active().append(fact);
+            if (current.active().isFull()) {
+                seal(current);
+            }
+        }
+    }
+
+    private void seal(StoreState current) {
+        FactBlock full = current.active();
+        full.seal(schema.cardinalities(), schema.riskOfType());
+        List<FactBlock> sealed = new ArrayList<>(current.sealed());
+        sealed.add(full);
+        state = new StoreState(List.copyOf(sealed), new FactBlock(), current.sealedRows() + full.size());
+    }
+
+    /**
+     * Удаление самых старых блоков: целиком вышедших за срок хранения и сверх предела строк
+     */
+    private void enforceLimits(long now) {
+        StoreState current = state;
+        List<FactBlock> sealed = current.sealed();
+        long cutoff = now - properties.getRetention().toMillis();
+        long rows = current.sealedRows() + current.active().size();
+        long removedRows = 0;
+        int removed = 0;
+        while (removed < sealed.size()
+            && (sealed.get(removed).maxTimestamp() < cutoff || rows - removedRows > properties.getMaxRows())) {
+            removedRows += sealed.get(removed).size();
+            removed++;
+        }
+        if (removed > 0) {
+            state = new StoreState(List.copyOf(sealed.subList(removed, sealed.size())), current.active(),
+                current.sealedRows() - removedRows);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!running) {
+            return;
+        }
+        running = false;
+        loader.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
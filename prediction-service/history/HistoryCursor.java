@@ -0,0 +1,34 @@
+package com.psyche.platform.prediction.history;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор страницы истории: время последней отданной записи и число
+ * уже отданных записей с тем же временем. Не зависит от позиций в сегментах,
+ * поэтому остается верным после сжатия хранилища.
+ */
+public record HistoryCursor(long timestamp, int skip) {
+    
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(timestamp).putInt(skip);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+    
+    public static HistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES + Integer.BYTES) {
+                throw new InvalidHistoryQueryException("Некорректный курсор");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new HistoryCursor(buffer.getLong(), buffer.getInt());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidHistoryQueryException("Некорректный курсор");
+        }
+    }
+}
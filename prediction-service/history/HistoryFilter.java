@@ -0,0 +1,68 @@
+package com.psyche.platform.prediction.history;
+
+import com.psyche.platform.shared.model.MBTITypeCode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Фильтр чтения истории. Проверяется прямо по заголовку записи в отображенном сегменте,
+ * до разбора остальных полей
+ */
+public final class HistoryFilter {
+    
+    private static final int ANY_TYPE = -1;
+    
+    private final int typeOrdinal;
+    private final byte[] strategy;
+    private final long fromMillis;
+    private final long toMillis;
+    
+    private HistoryFilter(int typeOrdinal, byte[] strategy, long fromMillis, long toMillis) {
+        this.typeOrdinal = typeOrdinal;
+        this.strategy = strategy;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+    
+    public static HistoryFilter of(String mbtiType, String strategy, Instant from, Instant to) {
+        int typeOrdinal = ANY_TYPE;
+        if (mbtiType != null) {
+            try {
+                typeOrdinal = HistoryRecordCodec.ordinalOf(MBTITypeCode.parse(mbtiType));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidHistoryQueryException("Неизвестный тип MBTI: " + mbtiType);
+            }
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidHistoryQueryException("Начало периода позже конца");
+        }
+        return new HistoryFilter(typeOrdinal,
+            strategy != null ? strategy.getBytes(StandardCharsets.UTF_8) : null,
+            from != null ? from.toEpochMilli() : Long.MIN_VALUE,
+            to != null ? to.toEpochMilli() : Long.MAX_VALUE);
+    }
+    
+    public static HistoryFilter none() {
+        return new HistoryFilter(ANY_TYPE, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    
+    long fromMillis() {
+        return fromMillis;
+    }
+    
+    long toMillis() {
+        return toMillis;
+    }
+    
+    /**
+     * Совпадение по типу и стратегии (период проверяется отдельно, по порядку записей)
+     */
+    boolean matchesHeader(ByteBuffer buffer, int offset) {
+        if (typeOrdinal != ANY_TYPE && HistoryRecordCodec.typeOrdinal(buffer, offset) != typeOrdinal) {
+            return false;
+        }
+        return strategy == null || HistoryRecordCodec.strategyEquals(buffer, offset, strategy);
+    }
+}
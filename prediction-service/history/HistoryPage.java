@@ -0,0 +1,16 @@
+package com.psyche.platform.prediction.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница истории; nextCursor == null — дальше записей нет
+ */
+@Data
+@AllArgsConstructor
+public class HistoryPage {
+    private List<PredictionHistoryEntry> items;
+    private String nextCursor;
+}
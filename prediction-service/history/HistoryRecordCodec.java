@@ -0,0 +1,194 @@
+package com.psyche.platform.prediction.history;
+
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Бинарный формат записи истории в сегменте.
+ * <pre>
+ * int    длина записи (без этого поля)
+ * long   время, epoch millis          (+4)
+ * byte   тип MBTI, ordinal MBTIType   (+12)
+ * byte   длина имени стратегии        (+13)
+ * bytes  имя стратегии, UTF-8         (+14)
+ * short  длина userId
+ * bytes  userId, UTF-8
+ * double E, N, T, J, confidence, bullyingRisk
+ * int    CRC32C всего, что между полем длины и этим полем
+ * </pre>
+ * Поля заголовка лежат на фиксированных смещениях, чтобы фильтры читались без разбора всей записи.
+ * Контрольная сумма проверяется при восстановлении сегмента: запись, длина которой успела
+ * попасть на диск, а содержимое нет, не проходит проверку и обрывает сегмент.
+ * Тип в записи остается порядковым номером MBTIType, как в уже записанных сегментах;
+ * с упакованным кодом MBTITypeCode он переводится таблицами в обе стороны.
+ */
+final class HistoryRecordCodec {
+
+    static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int TIMESTAMP_OFFSET = 4;
+    private static final int TYPE_OFFSET = 12;
+    private static final int STRATEGY_LENGTH_OFFSET = 13;
+    private static final int STRATEGY_OFFSET = 14;
+    private static final int SCORES_SIZE = 6 * Double.BYTES;
+    private static final int CRC_SIZE = Integer.BYTES;
+
+    private static final MBTIType[] TYPES = MBTIType.values();
+    private static final byte[] ORDINAL_BY_CODE = buildOrdinalTable();
+
+    private HistoryRecordCodec() {
+    }
+
+    static int encodedSize(byte[] strategy, byte[] userId) {
+        return encodedSize(strategy.length, userId.length);
+    }
+
+    private static int encodedSize(int strategyLength, int userIdLength) {
+        return LENGTH_SIZE + Long.BYTES + 2 + strategyLength + Short.BYTES + userIdLength + SCORES_SIZE + CRC_SIZE;
+    }
+
+    static void encode(PredictionHistoryEntry entry, byte[] strategy, byte[] userId, ByteBuffer out) {
+        int recordLength = encodedSize(strategy, userId) - LENGTH_SIZE;
+        TraitVector traits = entry.getTraitScores();
+
+        int start = out.position();
+        out.putInt(recordLength);
+        out.putLong(entry.getTimestamp().toEpochMilli());
+        out.put(ORDINAL_BY_CODE[entry.getTypeCode()]);
+        out.put((byte) strategy.length);
+        out.put(strategy);
+        out.putShort((short) userId.length);
+        out.put(userId);
+        out.putDouble(traits.extraversion());
+        out.putDouble(traits.intuition());
+        out.putDouble(traits.thinking());
+        out.putDouble(traits.judging());
+        out.putDouble(entry.getConfidence());
+        out.putDouble(entry.getBullyingRisk());
+        out.putInt(checksum(out, start, out.position()));
+    }
+
+    /**
+     * Длина записи вместе с полем длины; 0 если по смещению записи нет (конец или хвост после сбоя)
+     */
+    static int recordSize(ByteBuffer buffer, int offset, int limit) {
+        if (offset + LENGTH_SIZE > limit) {
+            return 0;
+        }
+        int recordLength = buffer.getInt(offset);
+        if (recordLength <= STRATEGY_OFFSET || recordLength > limit - offset - LENGTH_SIZE) {
+            return 0;
+        }
+        return LENGTH_SIZE + recordLength;
+    }
+
+    /**
+     * Как recordSize, но дополнительно проверяет структуру и контрольную сумму записи;
+     * используется при открытии сегмента, когда содержимое файла еще не проверено
+     */
+    static int verifiedRecordSize(ByteBuffer buffer, int offset, int limit) {
+        int size = recordSize(buffer, offset, limit);
+        if (size == 0) {
+            return 0;
+        }
+        int type = typeOrdinal(buffer, offset);
+        int strategyLength = buffer.get(offset + STRATEGY_LENGTH_OFFSET);
+        int userIdLengthOffset = offset + STRATEGY_OFFSET + strategyLength;
+        if (type < 0 || type >= TYPES.length || strategyLength < 0
+            || userIdLengthOffset + Short.BYTES > offset + size) {
+            return 0;
+        }
+        int userIdLength = buffer.getShort(userIdLengthOffset);
+        if (userIdLength < 0 || size != encodedSize(strategyLength, userIdLength)) {
+            return 0;
+        }
+        int crcOffset = offset + size - CRC_SIZE;
+        return checksum(buffer, offset, crcOffset) == buffer.getInt(crcOffset) ? size : 0;
+    }
+
+    /**
+     * CRC32C байтов записи между полем длины и end; позиция буфера не меняется
+     */
+    private static int checksum(ByteBuffer buffer, int offset, int end) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + LENGTH_SIZE, end - offset - LENGTH_SIZE));
+        return (int) crc.getValue();
+    }
+
+    static long timestamp(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    static int typeOrdinal(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + TYPE_OFFSET);
+    }
+
+    static int ordinalOf(byte typeCode) {
+        return ORDINAL_BY_CODE[typeCode];
+    }
+
+    static boolean strategyEquals(ByteBuffer buffer, int offset, byte[] strategy) {
+        int length = buffer.get(offset + STRATEGY_LENGTH_OFFSET);
+        if (length != strategy.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + STRATEGY_OFFSET + i) != strategy[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String userId(ByteBuffer buffer, int offset) {
+        int userIdOffset = userIdLengthOffset(buffer, offset);
+        int length = buffer.getShort(userIdOffset);
+        return readString(buffer, userIdOffset + Short.BYTES, length);
+    }
+
+    static PredictionHistoryEntry decode(ByteBuffer buffer, int offset) {
+        int strategyLength = buffer.get(offset + STRATEGY_LENGTH_OFFSET);
+        String strategy = readString(buffer, offset + STRATEGY_OFFSET, strategyLength);
+        int userIdOffset = offset + STRATEGY_OFFSET + strategyLength;
+        int userIdLength = buffer.getShort(userIdOffset);
+        String userId = readString(buffer, userIdOffset + Short.BYTES, userIdLength);
+        int scores = userIdOffset + Short.BYTES + userIdLength;
+
+        return PredictionHistoryEntry.builder()
+            .userId(userId)
+            .timestamp(Instant.ofEpochMilli(timestamp(buffer, offset)))
+            .strategy(strategy)
+            .typeCode(TYPES[typeOrdinal(buffer, offset)].getCode())
+            .traitScores(new TraitVector(
+                buffer.getDouble(scores),
+                buffer.getDouble(scores + 8),
+                buffer.getDouble(scores + 16),
+                buffer.getDouble(scores + 24)))
+            .confidence(buffer.getDouble(scores + 32))
+            .bullyingRisk(buffer.getDouble(scores + 40))
+            .build();
+    }
+
+    private static int userIdLengthOffset(ByteBuffer buffer, int offset) {
+        return offset + STRATEGY_OFFSET + buffer.get(offset + STRATEGY_LENGTH_OFFSET);
+    }
+
+    private static byte[] buildOrdinalTable() {
+        byte[] ordinals = new byte[MBTITypeCode.COUNT];
+        for (MBTIType type : TYPES) {
+            ordinals[type.getCode()] = (byte) type.ordinal();
+        }
+        return ordinals;
+    }
+
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
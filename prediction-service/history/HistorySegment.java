@@ -0,0 +1,159 @@
+package com.psyche.platform.prediction.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл-сегмент журнала истории.
+ * Активный сегмент заранее расширяется до полного размера и отображается в память один раз:
+ * запись идет последовательно через канал, чтение — через отображение, которое видит
+ * те же страницы. Граница читаемых данных — логический размер size.
+ */
+final class HistorySegment {
+
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private volatile int size;
+    private volatile long maxTimestamp;
+
+    private HistorySegment(long id, Path path, FileChannel channel, MappedByteBuffer mapped, int size, long maxTimestamp) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.mapped = mapped;
+        this.size = size;
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    /**
+     * Создание нового активного сегмента, файл расширяется до capacity
+     */
+    static HistorySegment create(long id, Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.write(ByteBuffer.allocate(1), capacity - 1);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+        return new HistorySegment(id, path, channel, mapped, 0, Long.MIN_VALUE);
+    }
+
+    /**
+     * Открытие существующего сегмента; логический размер и максимальное время
+     * восстанавливаются последовательным проходом по записям с проверкой контрольных сумм.
+     * Сегмент обрывается на первой непроверенной записи (хвост после сбоя): файл обрезается
+     * до нее и снова расширяется нулями до прежнего размера, так что старые байты за границей
+     * не всплывут после следующих дописываний
+     */
+    static HistorySegment open(long id, Path path, RecordVisitor visitor) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int fileSize = (int) channel.size();
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+        int offset = 0;
+        long maxTimestamp = Long.MIN_VALUE;
+        int recordSize;
+        while ((recordSize = HistoryRecordCodec.verifiedRecordSize(mapped, offset, fileSize)) > 0) {
+            maxTimestamp = Math.max(maxTimestamp, HistoryRecordCodec.timestamp(mapped, offset));
+            if (visitor != null) {
+                visitor.visit(mapped, offset);
+            }
+            offset += recordSize;
+        }
+
+        if (offset < fileSize && !isZero(mapped, offset, fileSize)) {
+            channel.truncate(offset);
+            channel.write(ByteBuffer.allocate(1), fileSize - 1);
+            channel.force(true);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        return new HistorySegment(id, path, channel, mapped, offset, maxTimestamp);
+    }
+
+    private static boolean isZero(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Дописывает подготовленные записи; вызывается только потоком записи
+     */
+    int append(ByteBuffer records, long lastTimestamp) throws IOException {
+        int offset = size;
+        int length = records.remaining();
+        long position = offset;
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        maxTimestamp = Math.max(maxTimestamp, lastTimestamp);
+        size = offset + length;
+        return offset;
+    }
+
+    boolean hasRoom(int length) {
+        return (long) size + length <= mapped.capacity();
+    }
+
+    /**
+     * Закрытие сегмента для записи: файл обрезается до логического размера и сбрасывается на диск
+     * (сначала обрезка, чтобы на диск попал и новый размер файла)
+     */
+    void seal() throws IOException {
+        channel.truncate(size);
+        channel.force(true);
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Обход всех записей сегмента через отображение в память
+     */
+    void forEach(RecordVisitor visitor) {
+        int limit = size;
+        int offset = 0;
+        int recordSize;
+        while ((recordSize = HistoryRecordCodec.recordSize(mapped, offset, limit)) > 0) {
+            visitor.visit(mapped, offset);
+            offset += recordSize;
+        }
+    }
+
+    ByteBuffer buffer() {
+        return mapped;
+    }
+
+    long id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(ByteBuffer buffer, int offset);
+    }
+}
@@ -0,0 +1,34 @@
+package com.psyche.platform.prediction.history;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки локального хранилища истории (prediction.history.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.history")
+public class HistoryStoreProperties {
+    
+    private boolean enabled = true;
+    
+    // Каталог сегментов и размер одного сегмента (не больше 1 ГБ: смещение хранится в 31 бите)
+    private String directory = "data/history";
+    private int segmentSize = 64 * 1024 * 1024;
+    
+    // Очередь записи: при переполнении запись отбрасывается, а не блокирует ответ
+    private int writeQueueCapacity = 10_000;
+    
+    // Как часто дописанное сбрасывается на диск (fsync); 0 — после каждой пачки записей.
+    // При сбое теряется не больше этого интервала, недописанный хвост отбрасывается по CRC
+    private Duration forceInterval = Duration.ofSeconds(1);
+    
+    // Срок хранения и лимит записей на пользователя (0 — без лимита)
+    private Duration retention = Duration.ofDays(365);
+    private int maxEntriesPerUser = 0;
+    private Duration compactionInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.history;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidHistoryQueryException extends RuntimeException {
+    
+    public InvalidHistoryQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.psyche.platform.prediction.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Запись истории предсказаний пользователя
+ */
+@Data
+@Builder
+@JsonPropertyOrder({"userId", "timestamp", "strategy", "mbtiType"})
+public class PredictionHistoryEntry {
+    private String userId;
+    private Instant timestamp;
+    private String strategy;
+    @JsonIgnore
+    private byte typeCode; // упакованный тип MBTI (MBTITypeCode), в JSON — строка mbtiType
+    private TraitVector traitScores;
+    private Double confidence;
+    private Double bullyingRisk;
+    
+    @JsonProperty("mbtiType")
+    public String getMbtiType() {
+        return MBTITypeCode.name(typeCode);
+    }
+}
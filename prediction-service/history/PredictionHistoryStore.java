@@ -0,0 +1,495 @@
+package com.psyche.platform.prediction.history;
+
+import com.psyche.platform.prediction.model.MBTIResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Встроенное хранилище истории предсказаний без внешней БД.
+ * <ul>
+ *   <li>запись — последовательное дописывание в файлы-сегменты одним фоновым потоком,
+ *       вызывающий поток только кладет запись в очередь;</li>
+ *   <li>чтение — через отображенные в память сегменты по индексу позиций пользователя,
+ *       т.е. O(число записей пользователя) без сканирования журнала;</li>
+ *   <li>обслуживание — удаление сегментов старше срока хранения и переписывание
+ *       сегментов с устаревшими записями (сжатие) в том же потоке записи.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PredictionHistoryStore implements InitializingBean, DisposableBean {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    /**
+     * Согласованный снимок сегментов и индекса; заменяется целиком при смене сегмента и сжатии
+     */
+    private record StoreState(Map<Long, HistorySegment> segments,
+                              Map<String, UserHistoryIndex> index,
+                              HistorySegment active) {
+    }
+
+    private final HistoryStoreProperties properties;
+    private final BlockingQueue<PredictionHistoryEntry> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean compactionRequested = new AtomicBoolean();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private long lastAssignedTimestamp = Long.MIN_VALUE; // только поток записи
+    private long lastForce = System.nanoTime();          // только поток записи
+    private boolean unforced;                            // только поток записи
+
+    private Path directory;
+    private volatile StoreState state;
+    private volatile boolean running;
+    private Thread writer;
+    private ScheduledExecutorService maintenance;
+
+    public PredictionHistoryStore(HistoryStoreProperties properties) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getWriteQueueCapacity());
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+        state = loadState();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "prediction-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        long interval = properties.getCompactionInterval().toMillis();
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prediction-history-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleAtFixedRate(() -> compactionRequested.set(true), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Постановка записи в очередь. Не блокирует: при переполненной очереди запись отбрасывается
+     */
+    public void append(String userId, MBTIResult result) {
+        if (!running || userId == null) {
+            return;
+        }
+        // Время назначается потоком записи: так записи каждого пользователя упорядочены по времени
+        PredictionHistoryEntry entry = PredictionHistoryEntry.builder()
+            .userId(userId)
+            .strategy(result.getStrategyUsed())
+            .typeCode(result.getTypeCode())
+            .traitScores(result.getTraitScores())
+            .confidence(result.getConfidence())
+            .bullyingRisk(result.getBullyingRisk())
+            .build();
+        if (!queue.offer(entry)) {
+            long total = dropped.incrementAndGet();
+            if (Long.bitCount(total) == 1) {
+                log.warn("Очередь истории переполнена, отброшено записей: {}", total);
+            }
+        }
+    }
+
+    /**
+     * Чтение истории пользователя в хронологическом порядке.
+     * Начало периода и позиция курсора находятся бинарным поиском по времени записей,
+     * тип и стратегия проверяются по заголовку записи; разбираются только отдаваемые записи,
+     * поэтому память на запрос не зависит от размера истории.
+     *
+     * @param after курсор предыдущей страницы или null
+     * @param limit максимум записей (Integer.MAX_VALUE — без ограничения)
+     * @return курсор следующей страницы или null, если подходящих записей больше нет
+     */
+    public HistoryCursor scan(String userId, HistoryFilter filter, HistoryCursor after, int limit,
+                              Consumer<PredictionHistoryEntry> consumer) {
+        StoreState current = state;
+        UserHistoryIndex userIndex = current != null ? current.index().get(userId) : null;
+        if (userIndex == null) {
+            return null;
+        }
+        int size = userIndex.size();
+        long startMillis = filter.fromMillis();
+        int skip = 0;
+        if (after != null && after.timestamp() >= startMillis) {
+            startMillis = after.timestamp();
+            skip = after.skip();
+        }
+
+        int emitted = 0;
+        long runTimestamp = Long.MIN_VALUE;
+        int runLength = 0;
+        for (int i = lowerBound(current, userIndex, size, startMillis); i < size; i++) {
+            long position = userIndex.get(i);
+            HistorySegment segment = current.segments().get(UserHistoryIndex.segmentId(position));
+            if (segment == null) {
+                continue;
+            }
+            ByteBuffer buffer = segment.buffer();
+            int offset = UserHistoryIndex.offset(position);
+            long timestamp = HistoryRecordCodec.timestamp(buffer, offset);
+            if (timestamp > filter.toMillis()) {
+                return null;
+            }
+            if (timestamp == runTimestamp) {
+                runLength++;
+            } else {
+                runTimestamp = timestamp;
+                runLength = 1;
+            }
+            if (timestamp == startMillis && runLength <= skip) {
+                continue; // отдано на предыдущих страницах
+            }
+            if (!filter.matchesHeader(buffer, offset)) {
+                continue;
+            }
+            if (emitted == limit) {
+                return new HistoryCursor(timestamp, runLength - 1);
+            }
+            consumer.accept(HistoryRecordCodec.decode(buffer, offset));
+            emitted++;
+        }
+        return null;
+    }
+
+    /**
+     * Первый индекс записи пользователя со временем не раньше fromMillis
+     */
+    private static int lowerBound(StoreState current, UserHistoryIndex userIndex, int size, long fromMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long position = userIndex.get(mid);
+            HistorySegment segment = current.segments().get(UserHistoryIndex.segmentId(position));
+            long timestamp = segment != null
+                ? HistoryRecordCodec.timestamp(segment.buffer(), UserHistoryIndex.offset(position))
+                : Long.MIN_VALUE;
+            if (timestamp < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // ---------------------------------------------------------------- запись
+
+    private void writeLoop() {
+        List<PredictionHistoryEntry> pending = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PredictionHistoryEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.add(first);
+                    queue.drainTo(pending, 1024);
+                    writeEntries(pending);
+                    pending.clear();
+                }
+                forceIfDue();
+                if (compactionRequested.compareAndSet(true, false)) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                log.error("Ошибка записи истории предсказаний", e);
+                pending.clear();
+            }
+        }
+    }
+
+    private void writeEntries(List<PredictionHistoryEntry> entries) throws IOException {
+        writeBuffer.clear();
+        List<String> userIds = new ArrayList<>(entries.size());
+        List<Integer> relativeOffsets = new ArrayList<>(entries.size());
+        long lastTimestamp = Long.MIN_VALUE;
+
+        for (PredictionHistoryEntry entry : entries) {
+            lastAssignedTimestamp = Math.max(lastAssignedTimestamp, System.currentTimeMillis());
+            entry.setTimestamp(Instant.ofEpochMilli(lastAssignedTimestamp));
+            byte[] strategy = entry.getStrategy().getBytes(StandardCharsets.UTF_8);
+            byte[] userId = entry.getUserId().getBytes(StandardCharsets.UTF_8);
+            int recordSize = HistoryRecordCodec.encodedSize(strategy, userId);
+            if (strategy.length > Byte.MAX_VALUE || userId.length > Short.MAX_VALUE || recordSize > MAX_RECORD_SIZE) {
+                log.warn("Запись истории пользователя {} слишком велика и пропущена", entry.getUserId());
+                continue;
+            }
+            if (writeBuffer.remaining() < recordSize || !state.active().hasRoom(writeBuffer.position() + recordSize)) {
+                flush(userIds, relativeOffsets, lastTimestamp);
+                userIds.clear();
+                relativeOffsets.clear();
+                if (!state.active().hasRoom(recordSize)) {
+                    rollSegment();
+                }
+            }
+            relativeOffsets.add(writeBuffer.position());
+            userIds.add(entry.getUserId());
+            HistoryRecordCodec.encode(entry, strategy, userId, writeBuffer);
+            lastTimestamp = Math.max(lastTimestamp, entry.getTimestamp().toEpochMilli());
+        }
+        flush(userIds, relativeOffsets, lastTimestamp);
+    }
+
+    private void flush(List<String> userIds, List<Integer> relativeOffsets, long lastTimestamp) throws IOException {
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        StoreState current = state;
+        int base = current.active().append(writeBuffer, lastTimestamp);
+        writeBuffer.clear();
+        unforced = true;
+
+        // Индекс обновляется после записи: читатель никогда не увидит позицию недописанной записи
+        long segmentId = current.active().id();
+        for (int i = 0; i < userIds.size(); i++) {
+            current.index().computeIfAbsent(userIds.get(i), id -> new UserHistoryIndex())
+                .add(UserHistoryIndex.position(segmentId, base + relativeOffsets.get(i)));
+        }
+    }
+
+    /**
+     * Периодический fsync активного сегмента (prediction.history.force-interval)
+     */
+    private void forceIfDue() throws IOException {
+        long now = System.nanoTime();
+        if (unforced && now - lastForce >= properties.getForceInterval().toNanos()) {
+            state.active().force();
+            lastForce = now;
+            unforced = false;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        StoreState current = state;
+        current.active().seal();
+        HistorySegment next = createSegment(current.active().id() + 1);
+
+        Map<Long, HistorySegment> segments = new HashMap<>(current.segments());
+        segments.put(next.id(), next);
+        state = new StoreState(Map.copyOf(segments), current.index(), next);
+    }
+
+    private HistorySegment createSegment(long id) throws IOException {
+        return HistorySegment.create(id, segmentPath(id), properties.getSegmentSize());
+    }
+
+    // ---------------------------------------------------------------- загрузка и обслуживание
+
+    private StoreState loadState() throws IOException {
+        TreeMap<Long, Path> files = listSegmentFiles();
+        Map<Long, HistorySegment> segments = new HashMap<>();
+        Map<String, UserHistoryIndex> index = new ConcurrentHashMap<>();
+        HistorySegment last = null;
+
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            long id = file.getKey();
+            last = HistorySegment.open(id, file.getValue(), (buffer, offset) ->
+                index.computeIfAbsent(HistoryRecordCodec.userId(buffer, offset), userId -> new UserHistoryIndex())
+                    .add(UserHistoryIndex.position(id, offset)));
+            segments.put(id, last);
+        }
+
+        if (last == null || !last.hasRoom(MAX_RECORD_SIZE)) {
+            if (last != null) {
+                last.seal();
+            }
+            last = createSegment(last == null ? 0 : last.id() + 1);
+            segments.put(last.id(), last);
+        }
+        for (HistorySegment segment : segments.values()) {
+            lastAssignedTimestamp = Math.max(lastAssignedTimestamp, segment.maxTimestamp());
+        }
+        log.info("История предсказаний: {} сегментов, {} пользователей", segments.size(), index.size());
+        return new StoreState(Map.copyOf(segments), index, last);
+    }
+
+    /**
+     * Сжатие: выполняется потоком записи, поэтому не конкурирует с дописыванием.
+     * Сегменты целиком старше срока хранения удаляются, сегменты с частью устаревших
+     * записей (срок или лимит на пользователя) переписываются, затем индекс
+     * перестраивается и публикуется вместе с новым набором сегментов.
+     * Читатели, взявшие старый снимок, продолжают читать старые отображения.
+     */
+    private void compact() throws IOException {
+        StoreState current = state;
+        long cutoff = Instant.now().minus(properties.getRetention()).toEpochMilli();
+        Set<Long> evicted = collectEvictedByUserLimit(current);
+
+        Map<Long, HistorySegment> segments = new HashMap<>();
+        List<HistorySegment> retired = new ArrayList<>();
+        for (HistorySegment segment : new TreeMap<>(current.segments()).values()) {
+            if (segment == current.active()) {
+                segments.put(segment.id(), segment);
+            } else if (segment.maxTimestamp() < cutoff) {
+                retired.add(segment);
+            } else if (hasDeadRecords(segment, cutoff, evicted)) {
+                segments.put(segment.id(), rewrite(segment, cutoff, evicted));
+                retired.add(segment);
+            } else {
+                segments.put(segment.id(), segment);
+            }
+        }
+        if (retired.isEmpty()) {
+            return;
+        }
+
+        Map<String, UserHistoryIndex> index = new ConcurrentHashMap<>();
+        for (HistorySegment segment : new TreeMap<>(segments).values()) {
+            long id = segment.id();
+            segment.forEach((buffer, offset) ->
+                index.computeIfAbsent(HistoryRecordCodec.userId(buffer, offset), userId -> new UserHistoryIndex())
+                    .add(UserHistoryIndex.position(id, offset)));
+        }
+        state = new StoreState(Map.copyOf(segments), index, current.active());
+
+        for (HistorySegment segment : retired) {
+            segment.close();
+            if (!segments.containsKey(segment.id())) {
+                Files.deleteIfExists(segment.path());
+            }
+        }
+        log.info("Сжатие истории: переписано или удалено сегментов: {}", retired.size());
+    }
+
+    private Set<Long> collectEvictedByUserLimit(StoreState current) {
+        int limit = properties.getMaxEntriesPerUser();
+        Set<Long> evicted = new HashSet<>();
+        if (limit <= 0) {
+            return evicted;
+        }
+        for (UserHistoryIndex userIndex : current.index().values()) {
+            long[] positions = userIndex.snapshot();
+            for (int i = 0; i < positions.length - limit; i++) {
+                evicted.add(positions[i]);
+            }
+        }
+        return evicted;
+    }
+
+    private boolean hasDeadRecords(HistorySegment segment, long cutoff, Set<Long> evicted) {
+        boolean[] found = new boolean[1];
+        segment.forEach((buffer, offset) -> {
+            if (isDead(segment.id(), buffer, offset, cutoff, evicted)) {
+                found[0] = true;
+            }
+        });
+        return found[0];
+    }
+
+    private static boolean isDead(long segmentId, ByteBuffer buffer, int offset, long cutoff, Set<Long> evicted) {
+        return HistoryRecordCodec.timestamp(buffer, offset) < cutoff
+            || evicted.contains(UserHistoryIndex.position(segmentId, offset));
+    }
+
+    /**
+     * Переписывание сегмента только с живыми записями; файл подменяется атомарным переименованием
+     */
+    private HistorySegment rewrite(HistorySegment segment, long cutoff, Set<Long> evicted) throws IOException {
+        Path compacted = directory.resolve(SEGMENT_PREFIX + segment.id() + ".compacting");
+        Files.deleteIfExists(compacted);
+        HistorySegment target = HistorySegment.create(segment.id(), compacted, Math.max(segment.size(), 1));
+
+        ByteBuffer source = segment.buffer();
+        try {
+            segment.forEach((buffer, offset) -> {
+                if (isDead(segment.id(), buffer, offset, cutoff, evicted)) {
+                    return;
+                }
+                int recordSize = HistoryRecordCodec.recordSize(buffer, offset, segment.size());
+                ByteBuffer record = source.slice(offset, recordSize);
+                try {
+                    target.append(record, HistoryRecordCodec.timestamp(buffer, offset));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            target.close();
+            Files.deleteIfExists(compacted);
+            throw e.getCause();
+        }
+        target.seal();
+        target.close();
+
+        Files.move(compacted, segment.path(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return HistorySegment.open(segment.id(), segment.path(), null);
+    }
+
+    private TreeMap<Long, Path> listSegmentFiles() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    String id = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                    files.put(Long.parseLong(id), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!running) {
+            return;
+        }
+        running = false;
+        maintenance.shutdownNow();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        StoreState current = state;
+        current.active().force();
+        for (HistorySegment segment : current.segments().values()) {
+            segment.close();
+        }
+    }
+}
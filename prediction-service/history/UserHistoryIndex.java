@@ -0,0 +1,44 @@
+package com.psyche.platform.prediction.history;
+
+import java.util.Arrays;
+
+/**
+ * Позиции записей одного пользователя в хронологическом порядке.
+ * Позиция — (id сегмента << 32) | смещение в сегменте
+ */
+final class UserHistoryIndex {
+
+    private long[] positions = new long[8];
+    private int size;
+
+    synchronized void add(long position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        positions[size++] = position;
+    }
+
+    synchronized long get(int i) {
+        return positions[i];
+    }
+
+    synchronized long[] snapshot() {
+        return Arrays.copyOf(positions, size);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    static long position(long segmentId, int offset) {
+        return (segmentId << 32) | offset;
+    }
+
+    static long segmentId(long position) {
+        return position >>> 32;
+    }
+
+    static int offset(long position) {
+        return (int) position;
+    }
+}
@@ -0,0 +1,22 @@
+package com.psyche.platform.prediction.metrics;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Сводка таймера одной фазы одной стратегии (времена в микросекундах)
+ */
+@Data
+@Builder
+public class PhaseStats {
+    private String strategy;
+    private String phase;
+    private long count;
+    private double mean;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double max;
+    // Среднее выделение памяти за фазу, байт (-1 если не измерялось)
+    private double allocatedBytes;
+}
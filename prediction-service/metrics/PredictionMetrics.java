@@ -0,0 +1,172 @@
+package com.psyche.platform.prediction.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры фаз предсказания в Micrometer (видны в /actuator/metrics и /actuator/prometheus).
+ * <ul>
+ *   <li>prediction.requests — все запросы по стратегиям (без выборки);</li>
+ *   <li>prediction.phase — время фазы, теги strategy и phase, гистограмма перцентилей;</li>
+ *   <li>prediction.phase.allocated — выделенная потоком память за фазу, байт;</li>
+ *   <li>prediction.total — полное время обработки выбранных запросов.</li>
+ * </ul>
+ * Фазы замеряются только у доли запросов sampleRate: решение принимается один раз на запрос,
+ * у остальных замер — общий NOOP без аллокаций и без обращения к часам.
+ */
+@Component
+public class PredictionMetrics {
+    
+    public static final String SAMPLE_ATTRIBUTE = PredictionMetrics.class.getName() + ".SAMPLE";
+    
+    private static final PredictionPhase[] PHASES = PredictionPhase.values();
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    
+    /**
+     * Метры одной стратегии; регистрируются при первом запросе к ней
+     */
+    private record StrategyMeters(Counter requests, Timer total, Timer[] phases, DistributionSummary[] allocations) {
+    }
+    
+    private final MeterRegistry registry;
+    private final PredictionMetricsProperties properties;
+    private final Map<String, StrategyMeters> meters = new ConcurrentHashMap<>();
+    
+    public PredictionMetrics(MeterRegistry registry, PredictionMetricsProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+    
+    /**
+     * Начало замера запроса: либо новый замер (с вероятностью sampleRate), либо NOOP
+     */
+    public PredictionSample start() {
+        double rate = properties.getSampleRate();
+        if (!properties.isEnabled() || rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return PredictionSample.NOOP;
+        }
+        boolean trackAllocations = properties.isAllocationTracking() && currentThreadAllocatedBytes() >= 0;
+        return new PredictionSample(this, trackAllocations);
+    }
+    
+    public void countRequest(String strategyName) {
+        if (properties.isEnabled()) {
+            metersFor(strategyName).requests().increment();
+        }
+    }
+    
+    void record(PredictionSample sample) {
+        StrategyMeters strategy = metersFor(sample.strategy());
+        for (PredictionPhase phase : PHASES) {
+            long nanos = sample.nanos(phase);
+            if (nanos == 0) {
+                continue; // фаза в этом запросе не выполнялась
+            }
+            strategy.phases()[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            long allocated = sample.allocated(phase);
+            if (allocated >= 0) {
+                strategy.allocations()[phase.ordinal()].record(allocated);
+            }
+        }
+        strategy.total().record(sample.totalNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Сводка по всем стратегиям и фазам для /api/predictions/metrics
+     */
+    public List<PhaseStats> getPhaseStats() {
+        List<PhaseStats> stats = new ArrayList<>();
+        meters.forEach((strategyName, strategy) -> {
+            for (PredictionPhase phase : PHASES) {
+                Timer timer = strategy.phases()[phase.ordinal()];
+                if (timer.count() == 0) {
+                    continue;
+                }
+                DistributionSummary allocations = strategy.allocations()[phase.ordinal()];
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                PhaseStats.PhaseStatsBuilder builder = PhaseStats.builder()
+                    .strategy(strategyName)
+                    .phase(phase.tag())
+                    .count(snapshot.count())
+                    .mean(snapshot.mean(TimeUnit.MICROSECONDS))
+                    .max(snapshot.max(TimeUnit.MICROSECONDS))
+                    .allocatedBytes(allocations.count() > 0 ? allocations.mean() : -1);
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    double value = percentile.value(TimeUnit.MICROSECONDS);
+                    if (percentile.percentile() == 0.5) {
+                        builder.p50(value);
+                    } else if (percentile.percentile() == 0.9) {
+                        builder.p90(value);
+                    } else if (percentile.percentile() == 0.99) {
+                        builder.p99(value);
+                    }
+                }
+                stats.add(builder.build());
+            }
+        });
+        return stats;
+    }
+    
+    private StrategyMeters metersFor(String strategyName) {
+        StrategyMeters existing = meters.get(strategyName);
+        return existing != null ? existing : meters.computeIfAbsent(strategyName, this::register);
+    }
+    
+    private StrategyMeters register(String strategyName) {
+        Timer[] phases = new Timer[PHASES.length];
+        DistributionSummary[] allocations = new DistributionSummary[PHASES.length];
+        for (PredictionPhase phase : PHASES) {
+            phases[phase.ordinal()] = Timer.builder("prediction.phase")
+                .tag("strategy", strategyName)
+                .tag("phase", phase.tag())
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+            allocations[phase.ordinal()] = DistributionSummary.builder("prediction.phase.allocated")
+                .baseUnit("bytes")
+                .tag("strategy", strategyName)
+                .tag("phase", phase.tag())
+                .register(registry);
+        }
+        return new StrategyMeters(
+            Counter.builder("prediction.requests").tag("strategy", strategyName).register(registry),
+            Timer.builder("prediction.total")
+                .tag("strategy", strategyName)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry),
+            phases,
+            allocations);
+    }
+    
+    /**
+     * Выделенная текущим потоком память или -1, если JVM/поток этого не поддерживает
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+    
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+            return threads;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.metrics;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Замер фаз подключается только к одиночным расчетам
+ */
+@Configuration
+public class PredictionMetricsConfig implements WebMvcConfigurer {
+    
+    private final PredictionMetricsInterceptor interceptor;
+    
+    public PredictionMetricsConfig(PredictionMetricsInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+            .addPathPatterns("/api/predictions/calculate", "/api/predictions/calculate-advanced");
+    }
+}
@@ -0,0 +1,47 @@
+package com.psyche.platform.prediction.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Открывает замер до чтения тела запроса и закрывает его после записи ответа:
+ * для @ResponseBody сериализация выполняется до afterCompletion,
+ * поэтому остаток времени после последней отметки сервиса — фаза SERIALIZATION.
+ * Для асинхронных ответов afterCompletion вызывается только после повторной (ASYNC) диспетчеризации,
+ * а замер открывается один раз — на исходной. При повторной диспетчеризации точка отсчета
+ * памяти переносится в ее поток, чтобы SERIALIZATION не вычитала счетчики разных потоков
+ */
+@Component
+public class PredictionMetricsInterceptor implements HandlerInterceptor {
+    
+    private final PredictionMetrics metrics;
+    
+    public PredictionMetricsInterceptor(PredictionMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            if (request.getAttribute(PredictionMetrics.SAMPLE_ATTRIBUTE) instanceof PredictionSample sample) {
+                sample.resumeOnCurrentThread();
+            }
+            return true;
+        }
+        request.setAttribute(PredictionMetrics.SAMPLE_ATTRIBUTE, metrics.start());
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PredictionMetrics.SAMPLE_ATTRIBUTE) instanceof PredictionSample sample
+            && sample.isSampled() && ex == null && response.getStatus() < 400) {
+            sample.mark(PredictionPhase.SERIALIZATION);
+            sample.finish();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.psyche.platform.prediction.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки профилирования фаз предсказания (prediction.metrics.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.metrics")
+public class PredictionMetricsProperties {
+    
+    private boolean enabled = true;
+    
+    // Доля запросов с замером фаз (0..1); остальные только считаются счетчиком
+    private double sampleRate = 0.05;
+    
+    // Подсчет выделенной памяти по фазам через ThreadMXBean (только для выбранных запросов)
+    private boolean allocationTracking = true;
+}
@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.metrics;
+
+import java.util.Locale;
+
+/**
+ * Фазы обработки запроса предсказания, по которым ведутся таймеры
+ */
+public enum PredictionPhase {
+    DESERIALIZATION, // чтение тела запроса и @Valid
+    VALIDATION,
+    CACHE,          // поиск в кэше; при промахе — только накладные расходы сверх расчета
+    TRAITS,
+    RISK,
+    PUBLISH,        // история и слушатели
+    ANALYSIS,
+    UNCERTAINTY,
+    SERIALIZATION;
+    
+    private final String tag = name().toLowerCase(Locale.ROOT);
+    
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,125 @@
+package com.psyche.platform.prediction.metrics;
+
+/**
+ * Замер одного запроса: время и выделенная память по фазам.
+ * Фаза закрывается вызовом mark(phase) — ей достается все, что прошло с предыдущей отметки.
+ * Не потокобезопасен: отметки ставятся последовательно, но могут идти из разных потоков
+ * (поток контейнера, виртуальный поток расчета, поток асинхронной диспетчеризации).
+ * Счетчик выделенной памяти — свой у каждого платформенного потока, поэтому память фазы
+ * записывается, только если фаза началась и закончилась в одном платформенном потоке;
+ * фазы на виртуальных потоках и фазы, пересекшие границу потоков, остаются без замера памяти.
+ * Поэтому расчет запроса с замером памяти (tracksAllocations) AsyncPredictionService выполняет
+ * на платформенном потоке, а не на виртуальном.
+ * Для невыбранных запросов используется NOOP, и отметки ничего не стоят.
+ */
+public final class PredictionSample {
+    
+    public static final PredictionSample NOOP = new PredictionSample(null, false);
+    
+    private static final int PHASES = PredictionPhase.values().length;
+    
+    private final PredictionMetrics metrics;
+    private final boolean trackAllocations;
+    private final long[] nanos;
+    private final long[] allocated;
+    private final boolean[] allocationMeasured;
+    private final long start;
+    private long last;
+    private long lastAllocated;
+    private Thread allocationThread; // поток, в котором снят lastAllocated
+    private String strategy;
+    
+    PredictionSample(PredictionMetrics metrics, boolean trackAllocations) {
+        this.metrics = metrics;
+        this.trackAllocations = trackAllocations;
+        this.nanos = metrics != null ? new long[PHASES] : null;
+        this.allocated = trackAllocations ? new long[PHASES] : null;
+        this.allocationMeasured = trackAllocations ? new boolean[PHASES] : null;
+        if (trackAllocations) {
+            rebaseline();
+        }
+        this.start = System.nanoTime();
+        this.last = start;
+    }
+    
+    public void mark(PredictionPhase phase) {
+        if (metrics == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - last;
+        last = now;
+        if (trackAllocations) {
+            Thread previous = allocationThread;
+            long baseline = lastAllocated;
+            rebaseline();
+            if (previous == allocationThread && baseline >= 0 && lastAllocated >= 0) {
+                allocated[phase.ordinal()] += lastAllocated - baseline;
+                allocationMeasured[phase.ordinal()] = true;
+            }
+        }
+    }
+    
+    /**
+     * Новая точка отсчета памяти в текущем потоке, без закрытия фазы.
+     * Вызывается, когда обработка запроса продолжается в другом потоке
+     * (асинхронная диспетчеризация), чтобы следующая фаза замерялась целиком в нем
+     */
+    public void resumeOnCurrentThread() {
+        if (trackAllocations) {
+            rebaseline();
+        }
+    }
+    
+    private void rebaseline() {
+        Thread current = Thread.currentThread();
+        allocationThread = current;
+        // На виртуальном потоке счетчик относится к несущему потоку и смешивает чужие задачи
+        lastAllocated = current.isVirtual() ? -1 : PredictionMetrics.currentThreadAllocatedBytes();
+    }
+    
+    /**
+     * Замеряется ли память фаз; такой расчет должен идти на платформенном потоке
+     */
+    public boolean tracksAllocations() {
+        return trackAllocations;
+    }
+    
+    /**
+     * Стратегия, под тегом которой будут записаны фазы
+     */
+    public void strategy(String strategyName) {
+        if (metrics != null) {
+            this.strategy = strategyName;
+        }
+    }
+    
+    /**
+     * Публикация замера в таймеры; вызывается один раз после сериализации ответа
+     */
+    public void finish() {
+        if (metrics != null && strategy != null) {
+            metrics.record(this);
+        }
+    }
+    
+    boolean isSampled() {
+        return metrics != null;
+    }
+    
+    String strategy() {
+        return strategy;
+    }
+    
+    long nanos(PredictionPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+    
+    long allocated(PredictionPhase phase) {
+        return allocated != null && allocationMeasured[phase.ordinal()] ? allocated[phase.ordinal()] : -1;
+    }
+    
+    long totalNanos() {
+        return last - start;
+    }
+}
@@ -0,0 +1,17 @@
+package com.psyche.platform.prediction.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Строка ошибки в ответе /calculate-batch вместо результата записи.
+ * index — номер записи во входе с нуля; null, если пакет прерван целиком
+ */
+@Data
+@Builder
+public class BatchRecordError {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long index;
+    private String error;
+}
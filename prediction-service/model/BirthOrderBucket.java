@@ -0,0 +1,29 @@
+package com.psyche.platform.prediction.model;
+
+/**
+ * Группа порядка рождения: все правила стратегий различают только эти случаи
+ */
+public enum BirthOrderBucket {
+    UNKNOWN,
+    FIRST,
+    SECOND,
+    LATER;   // третий и младше
+    
+    public static BirthOrderBucket of(Integer birthOrder) {
+        return birthOrder != null ? of(birthOrder.intValue()) : UNKNOWN;
+    }
+    
+    /**
+     * Вариант без упаковки для потокового разбора; значения меньше 1 — UNKNOWN
+     */
+    public static BirthOrderBucket of(int birthOrder) {
+        if (birthOrder < 1) {
+            return UNKNOWN;
+        }
+        return switch (birthOrder) {
+            case 1 -> FIRST;
+            case 2 -> SECOND;
+            default -> LATER;
+        };
+    }
+}
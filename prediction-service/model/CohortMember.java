@@ -0,0 +1,22 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+@Data
+public class CohortMember
+{
+    // Идентификатор ребенка внутри класса (в ответе пары и кластеры ссылаются на него)
+    @NotNull
+    private String id;
+    
+    @NotNull
+    @Valid
+    private ParentsGeneticData parents;
+    
+    @NotNull
+    @Valid
+    private EnvironmentData environment;
+}
@@ -0,0 +1,25 @@
+package com.psyche.platform.prediction.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат анализа класса: индивидуальные предсказания, самые рискованные пары и кластеры
+ */
+@Data
+@Builder
+public class CohortReport {
+    private String strategyUsed;
+    private int size;
+    private Map<String, MBTIResult> members;
+    private List<RiskPair> topPairs;
+    private double clusterThreshold;
+    // Группы из двух и более детей, связанных парами с риском не ниже порога; по убыванию размера
+    private List<List<String>> clusters;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private float[][] matrix;        // только при includeMatrix, порядок строк — порядок members в запросе
+}
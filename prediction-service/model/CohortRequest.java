@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+public class CohortRequest
+{
+    @NotEmpty
+    @Valid
+    private List<CohortMember> members;
+    
+    // Сколько самых рискованных пар вернуть (null — по умолчанию)
+    private Integer topK;
+    
+    // Пары с риском не ниже порога объединяются в кластеры (null — по умолчанию)
+    private Double clusterThreshold;
+    
+    // Полная матрица N x N нужна не всегда: без нее память не зависит от N²
+    private boolean includeMatrix;
+}
@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import java.time.Instant;
+
+/**
+ * Изменение среды ребенка: заданы только изменившиеся поля, null — поле не меняется
+ */
+@Data
+public class EnvironmentChange
+{
+    private SchoolType schoolType;
+    private FamilyEnvironment familyEnvironment;
+    private Integer birthOrder;
+    private Boolean hasSiblings;
+    
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double friendsInfluence;
+    
+    // Момент изменения; по умолчанию — время получения запроса
+    private Instant at;
+}
@@ -1,43 +1,89 @@
 package com.psyche.platform.prediction.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 @Data
 public class EnvironmentData
   {
-    private Integer birthOrder;           
-    private String schoolType;           // "ACTIVE", "CALM", "STRICT"
+    private Integer birthOrder;
+    private SchoolType schoolType = SchoolType.OTHER;    // "ACTIVE", "CALM", "STRICT", "CREATIVE" (и "АКТИВНАЯ"...)
     private Double friendsInfluence;     // 0.0 - 1.0
     private Boolean hasSiblings;
-    private String familyEnvironment;    // "SUPPORTIVE", "STRICT", "NEUTRAL"
-    
+    private FamilyEnvironment familyEnvironment = FamilyEnvironment.NEUTRAL; // "SUPPORTIVE", "STRICT", "NEUTRAL"
+
+    // Производные категории: вычисляются один раз в сеттерах, а не на каждом расчете
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private BirthOrderBucket birthOrderBucket = BirthOrderBucket.UNKNOWN;
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private SiblingStatus siblingStatus = SiblingStatus.UNKNOWN;
+
+    // Влияние среды: [порядок рождения][тип школы]
+    private static final double[][] ENVIRONMENTAL_IMPACT = buildEnvironmentalImpact();
+
+    public void setBirthOrder(Integer birthOrder) {
+        this.birthOrder = birthOrder;
+        this.birthOrderBucket = BirthOrderBucket.of(birthOrder);
+    }
+
+    public void setHasSiblings(Boolean hasSiblings) {
+        this.hasSiblings = hasSiblings;
+        this.siblingStatus = SiblingStatus.of(hasSiblings);
+    }
+
+    public void setSchoolType(SchoolType schoolType) {
+        this.schoolType = schoolType != null ? schoolType : SchoolType.OTHER;
+    }
+
+    public void setFamilyEnvironment(FamilyEnvironment familyEnvironment) {
+        this.familyEnvironment = familyEnvironment != null ? familyEnvironment : FamilyEnvironment.NEUTRAL;
+    }
+
     //для расчета влияния среды
     public Double calculateEnvironmentalImpact() {
-        double baseImpact = 0.5;
-        
-        //влияние порядка рождения
-        baseImpact += calculateBirthOrderImpact();
-        
-        // Влияние школы
-        baseImpact += calculateSchoolImpact();
-        
-        return Math.max(0, Math.min(1, baseImpact));
-    }
-    
-    private Double calculateBirthOrderImpact()
+        return ENVIRONMENTAL_IMPACT[birthOrderBucket.ordinal()][schoolType.ordinal()];
+    }
+
+    private static double[][] buildEnvironmentalImpact() {
+        BirthOrderBucket[] birthOrders = BirthOrderBucket.values();
+        SchoolType[] schoolTypes = SchoolType.values();
+        double[][] impact = new double[birthOrders.length][schoolTypes.length];
+
+        for (BirthOrderBucket birthOrder : birthOrders) {
+            for (SchoolType schoolType : schoolTypes) {
+                double baseImpact = 0.5;
+
+                //влияние порядка рождения
+                baseImpact += calculateBirthOrderImpact(birthOrder);
+
+                // Влияние школы
+                baseImpact += calculateSchoolImpact(schoolType);
+
+                impact[birthOrder.ordinal()][schoolType.ordinal()] = Math.max(0, Math.min(1, baseImpact));
+            }
+        }
+        return impact;
+    }
+
+    private static double calculateBirthOrderImpact(BirthOrderBucket birthOrder)
     {
         return switch (birthOrder) {
-            case 1 -> 0.1;  // Первенец - более ответственный
-            case 2 -> -0.1; // Средний - более адаптивный  
+            case FIRST -> 0.1;   // Первенец - более ответственный
+            case SECOND -> -0.1; // Средний - более адаптивный
             default -> 0.0;
         };
     }
-    
-    private Double calculateSchoolImpact()
+
+    private static double calculateSchoolImpact(SchoolType schoolType)
     {
         return switch (schoolType) {
-            case "ACTIVE" -> 0.2;
-            case "STRICT" -> -0.1;
+            case ACTIVE -> 0.2;
+            case STRICT -> -0.1;
             default -> 0.0;
         };
     }
@@ -0,0 +1,23 @@
+package com.psyche.platform.prediction.model;
+
+/**
+ * Поле EnvironmentData, которое может измениться в хронологии ребенка.
+ * Порядковый номер — бит в маске измененных полей
+ */
+public enum EnvironmentField {
+    SCHOOL_TYPE,
+    FAMILY_ENVIRONMENT,
+    BIRTH_ORDER,
+    HAS_SIBLINGS,
+    FRIENDS_INFLUENCE;
+    
+    private static final EnvironmentField[] VALUES = values();
+    
+    public int bit() {
+        return 1 << ordinal();
+    }
+    
+    public static EnvironmentField byIndex(int index) {
+        return VALUES[index];
+    }
+}
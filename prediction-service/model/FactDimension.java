@@ -0,0 +1,13 @@
+package com.psyche.platform.prediction.model;
+
+/**
+ * Категориальное измерение хранилища фактов: по нему строится битовый индекс,
+ * по нему можно фильтровать и группировать
+ */
+public enum FactDimension {
+    MBTI_TYPE,
+    RISK_LEVEL,
+    STRATEGY,
+    SCHOOL_TYPE,
+    FAMILY_ENVIRONMENT
+}
@@ -0,0 +1,22 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Группа результата запроса к фактам: значения измерений группировки и агрегаты
+ */
+@Data
+@Builder
+public class FactGroup {
+    private Map<FactDimension, String> key;
+    private long count;
+    private double meanExtraversion;
+    private double meanIntuition;
+    private double meanThinking;
+    private double meanJudging;
+    private double meanConfidence;
+    private double meanBullyingRisk;
+}
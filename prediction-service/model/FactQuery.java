@@ -0,0 +1,40 @@
+package com.psyche.platform.prediction.model;
+
+import com.psyche.platform.shared.model.MBTIType;
+import lombok.Data;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Запрос к хранилищу фактов: фильтры (пустое или отсутствующее множество — без ограничения),
+ * диапазоны и измерения группировки.
+ * Пример: ESTJ из строгих семей с высоким риском по типам школ за 90 дней —
+ * {"mbtiTypes":["ESTJ"],"familyEnvironments":["STRICT"],"minBullyingRisk":0.7,
+ *  "from":"...","groupBy":["SCHOOL_TYPE"]}
+ */
+@Data
+public class FactQuery
+{
+    private Set<String> mbtiTypes;
+    private Set<MBTIType.RiskLevel> riskLevels;
+    private Set<String> strategies;
+    private Set<SchoolType> schoolTypes;
+    private Set<FamilyEnvironment> familyEnvironments;
+    
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double minBullyingRisk;
+    
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double maxBullyingRisk;
+    
+    private Instant from;
+    private Instant to;
+    
+    private List<FactDimension> groupBy;
+}
@@ -0,0 +1,20 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Результат запроса к фактам; группы по убыванию числа строк
+ */
+@Data
+@Builder
+public class FactQueryResult {
+    private List<FactGroup> groups;
+    private long matched;
+    // Блоки, просмотренные по индексам/колонкам, и отброшенные целиком по времени или индексам
+    private int blocksScanned;
+    private int blocksSkipped;
+    private long elapsedMicros;
+}
@@ -0,0 +1,18 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class FactStoreStats {
+    private long rows;
+    private int blocks;
+    private long columnBytes;
+    private long indexBytes;
+    private long dropped;
+    private Instant oldest;
+    private Instant newest;
+}
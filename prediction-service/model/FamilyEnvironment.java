@@ -0,0 +1,42 @@
+package com.psyche.platform.prediction.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Семейная атмосфера. Разбирается один раз при десериализации,
+ * включая русские синонимы; неизвестные значения считаются NEUTRAL
+ */
+public enum FamilyEnvironment {
+    SUPPORTIVE("ПОДДЕРЖИВАЮЩАЯ"),
+    STRICT("СТРОГАЯ"),
+    NEUTRAL("НЕЙТРАЛЬНАЯ");
+    
+    private static final Map<String, FamilyEnvironment> ALIASES = new HashMap<>();
+    
+    static {
+        for (FamilyEnvironment environment : values()) {
+            ALIASES.put(environment.name(), environment);
+            ALIASES.put(environment.russianName, environment);
+        }
+    }
+    
+    private final String russianName;
+    
+    FamilyEnvironment(String russianName) {
+        this.russianName = russianName;
+    }
+    
+    public String getRussianName() { return russianName; }
+    
+    @JsonCreator
+    public static FamilyEnvironment parse(String value) {
+        if (value == null) {
+            return NEUTRAL;
+        }
+        return ALIASES.getOrDefault(value.trim().toUpperCase(Locale.ROOT), NEUTRAL);
+    }
+}
@@ -1,23 +1,54 @@
 package com.psyche.platform.prediction.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
 import lombok.Builder;
 import lombok.Data;
-import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@JsonPropertyOrder({"mbtiType"})
 public class MBTIResult
   {
-    private String mbtiType;
-    private Map<String, Double> traitScores; 
+    @JsonIgnore
+    @Builder.Default
+    private byte typeCode = MBTITypeCode.UNKNOWN; // упакованный тип MBTI, в JSON — строка mbtiType
+    private TraitVector traitScores; // в JSON остается объектом {"E":..,"I":..,...}
     private Double confidence;
     private Double bullyingRisk;
-    private String analysis;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String analysis;         // только при ?include=analysis
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UncertaintyReport uncertainty; // только при ?include=uncertainty
+    private String strategyUsed;
+   
+    @JsonProperty("mbtiType")
+    public String getMbtiType()
+    {
+        return MBTITypeCode.name(typeCode);
+    }
+    
+    @JsonProperty("mbtiType")
+    public void setMbtiType(String mbtiType)
+    {
+        this.typeCode = mbtiType != null ? MBTITypeCode.parse(mbtiType) : MBTITypeCode.UNKNOWN;
+    }
+    
+    @JsonIgnore
+    public MBTIType getType()
+    {
+        return MBTITypeCode.toType(typeCode);
+    }
    
     public static MBTIResult createHighConfidenceResult(String type, Double confidence) 
     {
         return MBTIResult.builder()
-            .mbtiType(type)
+            .typeCode(MBTITypeCode.parse(type))
             .confidence(confidence)
             .bullyingRisk(0.0)
             .build();
@@ -0,0 +1,21 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+@Data
+public class PredictionRequest
+{
+    // Необязательный идентификатор: если задан, результат сохраняется в историю пользователя
+    private String userId;
+    
+    @NotNull
+    @Valid
+    private ParentsGeneticData parents;
+    
+    @NotNull
+    @Valid
+    private EnvironmentData environment;
+}
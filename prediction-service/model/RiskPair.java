@@ -0,0 +1,15 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Пара детей и риск буллинга при их взаимодействии
+ */
+@Data
+@AllArgsConstructor
+public class RiskPair {
+    private String first;
+    private String second;
+    private double risk;
+}
@@ -0,0 +1,44 @@
+package com.psyche.platform.prediction.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Тип школы. Строка из запроса разбирается один раз при десериализации,
+ * включая русские синонимы; неизвестные значения считаются OTHER
+ */
+public enum SchoolType {
+    ACTIVE("АКТИВНАЯ"),
+    CALM("СПОКОЙНАЯ"),
+    STRICT("СТРОГАЯ"),
+    CREATIVE("ТВОРЧЕСКАЯ"),
+    OTHER("ДРУГАЯ");
+    
+    private static final Map<String, SchoolType> ALIASES = new HashMap<>();
+    
+    static {
+        for (SchoolType type : values()) {
+            ALIASES.put(type.name(), type);
+            ALIASES.put(type.russianName, type);
+        }
+    }
+    
+    private final String russianName;
+    
+    SchoolType(String russianName) {
+        this.russianName = russianName;
+    }
+    
+    public String getRussianName() { return russianName; }
+    
+    @JsonCreator
+    public static SchoolType parse(String value) {
+        if (value == null) {
+            return OTHER;
+        }
+        return ALIASES.getOrDefault(value.trim().toUpperCase(Locale.ROOT), OTHER);
+    }
+}
@@ -0,0 +1,17 @@
+package com.psyche.platform.prediction.model;
+
+/**
+ * Наличие братьев/сестер; UNKNOWN если поле не передано
+ */
+public enum SiblingStatus {
+    UNKNOWN,
+    YES,
+    NO;
+    
+    public static SiblingStatus of(Boolean hasSiblings) {
+        if (hasSiblings == null) {
+            return UNKNOWN;
+        }
+        return hasSiblings ? YES : NO;
+    }
+}
@@ -0,0 +1,11 @@
+package com.psyche.platform.prediction.model;
+
+/**
+ * Измерение среды, перебираемое в what-if расчете
+ */
+public enum SweepDimension {
+    SCHOOL_TYPE,
+    FAMILY_ENVIRONMENT,
+    BIRTH_ORDER,
+    HAS_SIBLINGS
+}
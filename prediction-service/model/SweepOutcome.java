@@ -0,0 +1,17 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Одна ячейка what-if сетки: комбинация среды и результат для нее
+ */
+@Data
+@Builder
+public class SweepOutcome {
+    private SchoolType schoolType;
+    private FamilyEnvironment familyEnvironment;
+    private BirthOrderBucket birthOrder;
+    private SiblingStatus siblings;
+    private MBTIResult result;
+}
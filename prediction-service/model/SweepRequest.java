@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.Set;
+
+@Data
+public class SweepRequest
+{
+    @NotNull
+    @Valid
+    private ParentsGeneticData parents;
+    
+    // Базовая среда: неперебираемые измерения и влияние друзей берутся из нее
+    @NotNull
+    @Valid
+    private EnvironmentData environment;
+    
+    @NotEmpty
+    private Set<SweepDimension> vary;
+}
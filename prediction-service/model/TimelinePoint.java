@@ -0,0 +1,39 @@
+package com.psyche.platform.prediction.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Точка хронологии ребенка: среда после изменения и черты для нее
+ */
+@Data
+@Builder
+@JsonPropertyOrder({"timestamp", "mbtiType"})
+public class TimelinePoint {
+    private Instant timestamp;
+    @JsonIgnore
+    private byte typeCode;
+    private TraitVector traitScores;
+    private double confidence;
+    private double bullyingRisk;
+    private EnvironmentData environment;
+    // Поля среды, изменившиеся в этой точке; пусто для начальной точки
+    private Set<EnvironmentField> changedFields;
+    // Пересчитанные дихотомии — только в ответе на изменение
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Set<TraitVector.Dichotomy> recomputed;
+    
+    @JsonProperty("mbtiType")
+    public String getMbtiType() {
+        return MBTITypeCode.name(typeCode);
+    }
+}
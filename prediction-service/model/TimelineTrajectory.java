@@ -0,0 +1,21 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Траектория черт ребенка за период и размер хранимой хронологии
+ */
+@Data
+@Builder
+public class TimelineTrajectory {
+    private String childId;
+    private String strategy;
+    private List<TimelinePoint> points;
+    // Вся хронология, а не только период запроса
+    private int entries;
+    private int snapshots;
+    private int encodedBytes;
+}
@@ -0,0 +1,15 @@
+package com.psyche.platform.prediction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Оценка черты по выборке: среднее и границы доверительного интервала
+ */
+@Data
+@AllArgsConstructor
+public class TraitInterval {
+    private double mean;
+    private double lower;
+    private double upper;
+}
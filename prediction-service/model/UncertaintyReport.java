@@ -0,0 +1,23 @@
+package com.psyche.platform.prediction.model;
+
+import com.psyche.platform.shared.model.MBTIType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Неопределенность предсказания по методу Монте-Карло (?include=uncertainty)
+ */
+@Data
+@Builder
+public class UncertaintyReport {
+    // Запрошено и реально посчитано до срока
+    private int samplesRequested;
+    private int samplesUsed;
+    private double level;
+    // Интервалы по полюсам E, N, T, J
+    private Map<String, TraitInterval> traits;
+    // Доля выборок каждого из 16 типов (0.0 для невыпавших) в порядке MBTIType
+    private Map<MBTIType, Double> typeProbabilities;
+}
@@ -0,0 +1,31 @@
+package com.psyche.platform.prediction.service;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Асинхронные ответы MVC (StreamingResponseBody, Callable) выполняются на виртуальных потоках:
+ * медленный клиент потокового ответа блокирует только свой виртуальный поток,
+ * а запись в сокет сама задает темп чтения и расчета.
+ * Общий срок асинхронного ответа — срок потоковых ответов (prediction.async.stream-timeout);
+ * расчеты ограничены своим сроком в AsyncPredictionService
+ */
+@Configuration
+public class AsyncPredictionConfig implements WebMvcConfigurer {
+    
+    private final AsyncPredictionProperties properties;
+    
+    public AsyncPredictionConfig(AsyncPredictionProperties properties) {
+        this.properties = properties;
+    }
+    
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()));
+        configurer.setDefaultTimeout(properties.getStreamTimeout().toMillis());
+    }
+}
@@ -0,0 +1,26 @@
+package com.psyche.platform.prediction.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки неблокирующего пути запросов (prediction.async.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.async")
+public class AsyncPredictionProperties {
+    
+    // Верхняя граница одновременно выполняемых расчетов; сверх нее запрос сразу получает 503
+    private int maxInFlight = 10_000;
+    
+    // Срок одного расчета (calculate, calculate-advanced, calculate-sweep); по истечении — 503
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    
+    // Срок потоковых ответов MVC (calculate-batch, поток истории); 0 — без ограничения:
+    // ночные пакеты в сотни тысяч записей идут минутами
+    private Duration streamTimeout = Duration.ZERO;
+}
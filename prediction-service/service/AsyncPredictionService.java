@@ -0,0 +1,115 @@
+package com.psyche.platform.prediction.service;
+
+import com.psyche.platform.prediction.metrics.PredictionSample;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import com.psyche.platform.prediction.model.SweepOutcome;
+import com.psyche.platform.prediction.model.SweepRequest;
+import com.psyche.platform.prediction.strategy.PredictionTimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Неблокирующий фасад PredictionService: расчет выполняется на виртуальном потоке,
+ * вызывающий сразу получает CompletableFuture и освобождает поток контейнера.
+ * Число одновременных расчетов ограничено prediction.async.max-in-flight:
+ * сверх лимита запрос не ставится в очередь, а сразу завершается PredictionOverloadedException (503),
+ * так что перегрузка отражается клиенту и шлюзу, а не копится в памяти.
+ * Запросы с замером памяти по фазам (малая выборка) считаются на платформенных потоках:
+ * счетчик выделенной памяти виртуального потока смешивает чужие задачи несущего потока.
+ * Расчет, не завершившийся за prediction.async.request-timeout, отвечает PredictionTimeoutException (503);
+ * разрешение лимита при этом остается занятым, пока расчет действительно не закончится
+ */
+@Service
+public class AsyncPredictionService implements DisposableBean {
+    
+    private final PredictionService predictionService;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration requestTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService sampledExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "prediction-sampled");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    public AsyncPredictionService(PredictionService predictionService, AsyncPredictionProperties properties) {
+        if (properties.getMaxInFlight() < 1) {
+            throw new IllegalStateException("prediction.async.max-in-flight должен быть больше нуля");
+        }
+        this.predictionService = predictionService;
+        this.maxInFlight = properties.getMaxInFlight();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.requestTimeout = properties.getRequestTimeout();
+    }
+    
+    public CompletableFuture<MBTIResult> calculateMBTI(PredictionRequest request, Set<ResultSection> include,
+                                                       Integer samples, PredictionSample sample) {
+        return submit(() -> predictionService.calculateMBTI(request, include, samples, sample), sample);
+    }
+    
+    public CompletableFuture<MBTIResult> calculateWithStrategy(PredictionRequest request, String strategyName,
+                                                               Set<ResultSection> include, Integer samples,
+                                                               PredictionSample sample) {
+        return submit(() -> predictionService.calculateWithStrategy(request, strategyName, include, samples, sample),
+            sample);
+    }
+    
+    public CompletableFuture<List<SweepOutcome>> calculateSweep(SweepRequest request, String strategyName) {
+        return submit(() -> predictionService.calculateSweep(request, strategyName), PredictionSample.NOOP);
+    }
+    
+    /**
+     * Число расчетов, выполняемых сейчас
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> task, PredictionSample sample) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                new PredictionOverloadedException("Превышен лимит одновременных расчетов: " + maxInFlight));
+        }
+        try {
+            boolean platform = sample.tracksAllocations();
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (platform) {
+                        sample.resumeOnCurrentThread();
+                    }
+                    return task.get();
+                } finally {
+                    inFlight.release();
+                }
+            }, platform ? sampledExecutor : executor);
+            return future
+                .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> CompletableFuture.failedFuture(error instanceof TimeoutException
+                    ? new PredictionTimeoutException("Расчет не завершился за " + requestTimeout.toMillis() + " мс")
+                    : error));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(new PredictionOverloadedException("Сервис останавливается"));
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        sampledExecutor.shutdown();
+    }
+}
@@ -0,0 +1,18 @@
+package com.psyche.platform.prediction.service;
+
+import com.psyche.platform.prediction.model.MBTIResult;
+
+/**
+ * Получатель результатов пакетного расчета; вызовы идут в порядке входных записей
+ */
+public interface BatchResultSink {
+    
+    void accept(MBTIResult result);
+    
+    /**
+     * Запись пропущена: не разобрана или не прошла проверку
+     *
+     * @param index номер записи во входе, с нуля
+     */
+    void reject(long index, String reason);
+}
@@ -0,0 +1,15 @@
+package com.psyche.platform.prediction.service;
+
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.MBTIResult;
+import com.psyche.platform.prediction.model.SchoolType;
+
+/**
+ * Подписчик на каждое рассчитанное предсказание (одиночное и пакетное).
+ * Вызывается в потоке запроса, поэтому реализация должна быть быстрой и не блокирующей.
+ * Вместе с результатом передаются категории среды, по которым строится аналитика.
+ */
+public interface PredictionListener {
+    
+    void onPrediction(MBTIResult result, SchoolType schoolType, FamilyEnvironment familyEnvironment);
+}
@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PredictionOverloadedException extends RuntimeException {
+    
+    public PredictionOverloadedException(String message) {
+        super(message);
+    }
+}
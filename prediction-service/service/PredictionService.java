@@ -0,0 +1,295 @@
+package com.psyche.platform.prediction.service;
+
+import com.psyche.platform.prediction.analysis.AnalysisRenderer;
+import com.psyche.platform.prediction.cache.PredictionCache;
+import com.psyche.platform.prediction.history.HistoryCursor;
+import com.psyche.platform.prediction.history.HistoryFilter;
+import com.psyche.platform.prediction.history.HistoryPage;
+import com.psyche.platform.prediction.history.InvalidHistoryQueryException;
+import com.psyche.platform.prediction.history.PredictionHistoryEntry;
+import com.psyche.platform.prediction.history.PredictionHistoryStore;
+import com.psyche.platform.prediction.metrics.PredictionMetrics;
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import com.psyche.platform.prediction.uncertainty.UncertaintyEstimator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Service
+public class PredictionService {
+    
+    public static final String DEFAULT_STRATEGY = "GENETIC_MBTI_STRATEGY";
+    
+    public static final int MAX_HISTORY_PAGE_SIZE = 1000;
+    
+    // Размер колоночного блока: ограничивает память пакетного расчета независимо от размера пакета
+    static final int BATCH_CHUNK_SIZE = 1024;
+    
+    private final StrategyRegistry strategyRegistry;
+    private final AnalysisRenderer analysisRenderer;
+    private final PredictionCache predictionCache;
+    private final PredictionHistoryStore historyStore;
+    private final List<PredictionListener> listeners;
+    private final UncertaintyEstimator uncertaintyEstimator;
+    private final PredictionMetrics metrics;
+    
+    public PredictionService(StrategyRegistry strategyRegistry, AnalysisRenderer analysisRenderer,
+                             PredictionCache predictionCache, PredictionHistoryStore historyStore,
+                             List<PredictionListener> listeners, UncertaintyEstimator uncertaintyEstimator,
+                             PredictionMetrics metrics) {
+        this.strategyRegistry = strategyRegistry;
+        this.analysisRenderer = analysisRenderer;
+        this.predictionCache = predictionCache;
+        this.historyStore = historyStore;
+        this.listeners = List.copyOf(listeners);
+        this.uncertaintyEstimator = uncertaintyEstimator;
+        this.metrics = metrics;
+    }
+    
+    public MBTIResult calculateMBTI(PredictionRequest request, Set<ResultSection> include) {
+        return calculateWithStrategy(request, DEFAULT_STRATEGY, include, null, PredictionSample.NOOP);
+    }
+    
+    public MBTIResult calculateMBTI(PredictionRequest request, Set<ResultSection> include, Integer samples,
+                                    PredictionSample sample) {
+        return calculateWithStrategy(request, DEFAULT_STRATEGY, include, samples, sample);
+    }
+    
+    public MBTIResult calculateWithStrategy(PredictionRequest request, String strategyName, Set<ResultSection> include) {
+        return calculateWithStrategy(request, strategyName, include, null, PredictionSample.NOOP);
+    }
+    
+    /**
+     * @param samples бюджет выборок для раздела UNCERTAINTY (null — по умолчанию)
+     * @param sample  замер фаз запроса (PredictionSample.NOOP — без замера)
+     */
+    public MBTIResult calculateWithStrategy(PredictionRequest request, String strategyName,
+                                            Set<ResultSection> include, Integer samples, PredictionSample sample) {
+        MBTIPredictionStrategy strategy = resolveStrategy(strategyName);
+        metrics.countRequest(strategy.getStrategyName());
+        sample.strategy(strategy.getStrategyName());
+        ParentsGeneticData parents = request.getParents();
+        EnvironmentData environment = request.getEnvironment();
+        strategy.validateInput(parents, environment);
+        sample.mark(PredictionPhase.VALIDATION);
+        
+        MBTIResult result = strategy.isCacheable()
+            ? predictionCache.getOrCompute(strategy.getStrategyName(), parents, environment,
+                () -> strategy.predict(parents, environment, sample))
+            : strategy.predict(parents, environment, sample);
+        sample.mark(PredictionPhase.CACHE);
+        
+        // Запись в историю уходит в фоновую очередь и не задерживает ответ
+        historyStore.append(request.getUserId(), result);
+        publish(result, environment.getSchoolType(), environment.getFamilyEnvironment());
+        sample.mark(PredictionPhase.PUBLISH);
+        
+        MBTIResult response = applySections(strategy, result, include);
+        sample.mark(PredictionPhase.ANALYSIS);
+        if (include.contains(ResultSection.UNCERTAINTY)) {
+            response = response.toBuilder()
+                .uncertainty(uncertaintyEstimator.estimate(strategy, parents, environment, samples))
+                .build();
+            sample.mark(PredictionPhase.UNCERTAINTY);
+        }
+        return response;
+    }
+    
+    /**
+     * Пакетный расчет: записи читаются из итератора блоками по BATCH_CHUNK_SIZE,
+     * каждый блок считается колоночно, результаты сразу отдаются в sink.
+     * Запись, на которой next() бросает исключение или которая не проходит проверку,
+     * не прерывает пакет: накопленный блок досчитывается, и сразу за ним в sink уходит reject,
+     * так что порядок выхода совпадает с порядком входа, а отклонения не копятся в памяти.
+     * Исключение из hasNext() (вход дальше не читается) прерывает пакет. Раздел UNCERTAINTY
+     * в пакетном режиме не считается
+     */
+    public void calculateBatch(Iterator<PredictionRequest> requests, MBTIPredictionStrategy strategy,
+                               Set<ResultSection> include, BatchResultSink sink) {
+        Set<ResultSection> sections = EnumSet.noneOf(ResultSection.class);
+        sections.addAll(include);
+        sections.remove(ResultSection.UNCERTAINTY);
+        PredictionBatch batch = new PredictionBatch(BATCH_CHUNK_SIZE);
+        
+        for (long index = 0; requests.hasNext(); index++) {
+            String error;
+            PredictionRequest request = null;
+            try {
+                request = requests.next();
+                error = batchInputError(strategy, request);
+            } catch (RuntimeException e) {
+                error = "Запись не разобрана: " + rootMessage(e);
+            }
+            if (error != null) {
+                flushBatch(strategy, batch, sections, sink);
+                sink.reject(index, error);
+                continue;
+            }
+            batch.add(request.getParents(), request.getEnvironment());
+            if (batch.isFull()) {
+                flushBatch(strategy, batch, sections, sink);
+            }
+        }
+        flushBatch(strategy, batch, sections, sink);
+    }
+    
+    /**
+     * Проверка записи пакета: колоночный блок требует все оценки родителей
+     */
+    private static String batchInputError(MBTIPredictionStrategy strategy, PredictionRequest request) {
+        if (request == null) {
+            return "Пустая запись";
+        }
+        try {
+            strategy.validateInput(request.getParents(), request.getEnvironment());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        ParentsGeneticData parents = request.getParents();
+        if (parents.getFatherExtraversion() == null || parents.getFatherIntuition() == null
+            || parents.getFatherThinking() == null || parents.getFatherJudging() == null
+            || parents.getMotherExtraversion() == null || parents.getMotherIntuition() == null
+            || parents.getMotherThinking() == null || parents.getMotherJudging() == null) {
+            return "Не заданы все оценки родителей";
+        }
+        return null;
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+    
+    /**
+     * What-if сетка: перебор выбранных измерений среды при фиксированных родителях.
+     * Средние родителей считаются один раз, каждая ячейка сетки — строка колоночного блока,
+     * которая отличается только индексом ячейки среды, поэтому на ячейку пересчитывается
+     * лишь средовая часть. Результаты гипотетические: в историю и аналитику не попадают.
+     * Сортировка — по возрастанию риска буллинга
+     */
+    public List<SweepOutcome> calculateSweep(SweepRequest request, String strategyName) {
+        MBTIPredictionStrategy strategy = resolveStrategy(strategyName);
+        ParentsGeneticData parents = request.getParents();
+        EnvironmentData environment = request.getEnvironment();
+        strategy.validateInput(parents, environment);
+        Set<SweepDimension> vary = request.getVary();
+        
+        SchoolType[] schoolTypes = vary.contains(SweepDimension.SCHOOL_TYPE)
+            ? SchoolType.values() : new SchoolType[]{environment.getSchoolType()};
+        FamilyEnvironment[] families = vary.contains(SweepDimension.FAMILY_ENVIRONMENT)
+            ? FamilyEnvironment.values() : new FamilyEnvironment[]{environment.getFamilyEnvironment()};
+        BirthOrderBucket[] birthOrders = vary.contains(SweepDimension.BIRTH_ORDER)
+            ? new BirthOrderBucket[]{BirthOrderBucket.FIRST, BirthOrderBucket.SECOND, BirthOrderBucket.LATER}
+            : new BirthOrderBucket[]{environment.getBirthOrderBucket()};
+        SiblingStatus[] siblingStatuses = vary.contains(SweepDimension.HAS_SIBLINGS)
+            ? new SiblingStatus[]{SiblingStatus.YES, SiblingStatus.NO}
+            : new SiblingStatus[]{environment.getSiblingStatus()};
+        
+        double parentE = (parents.getFatherExtraversion() + parents.getMotherExtraversion()) / 2;
+        double parentN = (parents.getFatherIntuition() + parents.getMotherIntuition()) / 2;
+        double parentT = (parents.getFatherThinking() + parents.getMotherThinking()) / 2;
+        double parentJ = (parents.getFatherJudging() + parents.getMotherJudging()) / 2;
+        double friends = environment.getFriendsInfluence() != null ? environment.getFriendsInfluence() : 0.0;
+        
+        int cells = schoolTypes.length * families.length * birthOrders.length * siblingStatuses.length;
+        PredictionBatch batch = new PredictionBatch(cells);
+        List<SweepOutcome.SweepOutcomeBuilder> outcomes = new ArrayList<>(cells);
+        for (SchoolType schoolType : schoolTypes) {
+            for (FamilyEnvironment family : families) {
+                for (BirthOrderBucket birthOrder : birthOrders) {
+                    for (SiblingStatus siblings : siblingStatuses) {
+                        batch.add(parentE, parentN, parentT, parentJ,
+                            PredictionBatch.environmentCell(schoolType, family, birthOrder, siblings), friends);
+                        outcomes.add(SweepOutcome.builder()
+                            .schoolType(schoolType)
+                            .familyEnvironment(family)
+                            .birthOrder(birthOrder)
+                            .siblings(siblings));
+                    }
+                }
+            }
+        }
+        
+        strategy.scoreBatch(batch);
+        List<SweepOutcome> results = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            results.add(outcomes.get(i).result(batch.toResult(i, strategy.getStrategyName())).build());
+        }
+        results.sort(Comparator.comparingDouble(outcome -> outcome.getResult().getBullyingRisk()));
+        return results;
+    }
+    
+    private void flushBatch(MBTIPredictionStrategy strategy, PredictionBatch batch,
+                            Set<ResultSection> include, BatchResultSink sink) {
+        if (batch.size() == 0) {
+            return;
+        }
+        strategy.scoreBatch(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            MBTIResult result = batch.toResult(i, strategy.getStrategyName());
+            publish(result, batch.schoolType(i), batch.familyEnvironment(i));
+            sink.accept(applySections(strategy, result, include));
+        }
+        batch.clear();
+    }
+    
+    private void publish(MBTIResult result, SchoolType schoolType, FamilyEnvironment familyEnvironment) {
+        for (PredictionListener listener : listeners) {
+            listener.onPrediction(result, schoolType, familyEnvironment);
+        }
+    }
+    
+    /**
+     * Необязательные разделы считаются только если клиент их запросил.
+     * Результат может лежать в кэше, поэтому разделы добавляются в копию
+     */
+    private MBTIResult applySections(MBTIPredictionStrategy strategy, MBTIResult result, Set<ResultSection> include) {
+        if (include.contains(ResultSection.ANALYSIS)) {
+            return result.toBuilder()
+                .analysis(analysisRenderer.render(strategy, result))
+                .build();
+        }
+        return result;
+    }
+    
+    /**
+     * Страница истории пользователя; cursor — непрозрачный курсор из предыдущей страницы
+     */
+    public HistoryPage getUserHistory(String userId, HistoryFilter filter, String cursor, int limit) {
+        if (limit < 1) {
+            throw new InvalidHistoryQueryException("limit должен быть положительным");
+        }
+        int pageSize = Math.min(limit, MAX_HISTORY_PAGE_SIZE);
+        List<PredictionHistoryEntry> items = new ArrayList<>(pageSize);
+        HistoryCursor next = historyStore.scan(userId, filter, HistoryCursor.decode(cursor), pageSize, items::add);
+        return new HistoryPage(items, next != null ? next.encode() : null);
+    }
+    
+    /**
+     * Потоковое чтение всей (отфильтрованной) истории: записи передаются по одной
+     */
+    public void streamUserHistory(String userId, HistoryFilter filter, Consumer<PredictionHistoryEntry> consumer) {
+        historyStore.scan(userId, filter, null, Integer.MAX_VALUE, consumer);
+    }
+    
+    /**
+     * Поиск стратегии по имени; неизвестное имя — UnknownStrategyException (400)
+     */
+    public MBTIPredictionStrategy resolveStrategy(String strategyName) {
+        return strategyRegistry.resolve(strategyName);
+    }
+}
@@ -0,0 +1,32 @@
+package com.psyche.platform.prediction.service;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Необязательные разделы результата, включаемые параметром ?include=...
+ */
+public enum ResultSection {
+    ANALYSIS,
+    UNCERTAINTY;
+    
+    public static Set<ResultSection> parse(Collection<String> include) {
+        Set<ResultSection> sections = EnumSet.noneOf(ResultSection.class);
+        if (include == null) {
+            return sections;
+        }
+        for (String value : include) {
+            for (String part : value.split(",")) {
+                String name = part.trim().toUpperCase(Locale.ROOT);
+                for (ResultSection section : values()) {
+                    if (section.name().equals(name)) {
+                        sections.add(section);
+                    }
+                }
+            }
+        }
+        return sections;
+    }
+}
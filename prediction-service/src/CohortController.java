@@ -0,0 +1,32 @@
+package com.psyche.platform.prediction;
+
+import com.psyche.platform.prediction.cohort.CohortAnalyzer;
+import com.psyche.platform.prediction.model.CohortReport;
+import com.psyche.platform.prediction.model.CohortRequest;
+import com.psyche.platform.prediction.service.PredictionService;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/predictions/cohort")
+public class CohortController {
+    
+    private final PredictionService predictionService;
+    private final CohortAnalyzer cohortAnalyzer;
+    
+    public CohortController(PredictionService predictionService, CohortAnalyzer cohortAnalyzer) {
+        this.predictionService = predictionService;
+        this.cohortAnalyzer = cohortAnalyzer;
+    }
+    
+    /**
+     * Анализ класса: индивидуальные результаты, top-k рискованных пар, кластеры
+     * и (по includeMatrix) полная матрица риска взаимодействия
+     */
+    @PostMapping("/analyze")
+    public CohortReport analyze(@RequestBody @Valid CohortRequest request,
+                                @RequestParam(defaultValue = PredictionService.DEFAULT_STRATEGY) String strategy) {
+        return cohortAnalyzer.analyze(request, predictionService.resolveStrategy(strategy));
+    }
+}
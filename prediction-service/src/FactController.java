@@ -0,0 +1,36 @@
+package com.psyche.platform.prediction;
+
+import com.psyche.platform.prediction.facts.PredictionFactStore;
+import com.psyche.platform.prediction.model.FactQuery;
+import com.psyche.platform.prediction.model.FactQueryResult;
+import com.psyche.platform.prediction.model.FactStoreStats;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/predictions/facts")
+public class FactController {
+    
+    private final PredictionFactStore factStore;
+    
+    public FactController(PredictionFactStore factStore) {
+        this.factStore = factStore;
+    }
+    
+    /**
+     * Фильтр, группировка и средние по фактам предсказаний
+     */
+    @PostMapping("/query")
+    public FactQueryResult query(@RequestBody @Valid FactQuery query) {
+        return factStore.query(query);
+    }
+    
+    /**
+     * Объем хранилища: строки, блоки, память колонок и индексов
+     */
+    @GetMapping("/stats")
+    public FactStoreStats getStats() {
+        return factStore.getStats();
+    }
+}
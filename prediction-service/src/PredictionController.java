@@ -1,33 +1,298 @@
 package com.psyche.platform.prediction;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.psyche.platform.prediction.analytics.PopulationAnalytics;
+import com.psyche.platform.prediction.analytics.PopulationSnapshot;
+import com.psyche.platform.prediction.cache.PredictionCache;
+import com.psyche.platform.prediction.cache.PredictionCacheStats;
+import com.psyche.platform.prediction.history.HistoryFilter;
+import com.psyche.platform.prediction.history.HistoryPage;
+import com.psyche.platform.prediction.history.PredictionHistoryEntry;
+import com.psyche.platform.prediction.metrics.PhaseStats;
+import com.psyche.platform.prediction.metrics.PredictionMetrics;
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
 import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.service.AsyncPredictionService;
+import com.psyche.platform.prediction.service.BatchResultSink;
 import com.psyche.platform.prediction.service.PredictionService;
+import com.psyche.platform.prediction.service.ResultSection;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import javax.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/predictions")
 public class PredictionController {
     
     private final PredictionService predictionService;
+    private final AsyncPredictionService asyncPredictionService;
+    private final ObjectMapper objectMapper;
+    private final PredictionCache predictionCache;
+    private final PopulationAnalytics populationAnalytics;
+    private final PredictionMetrics predictionMetrics;
     
-    public PredictionController(PredictionService predictionService) {
+    public PredictionController(PredictionService predictionService, AsyncPredictionService asyncPredictionService,
+                                ObjectMapper objectMapper, PredictionCache predictionCache,
+                                PopulationAnalytics populationAnalytics, PredictionMetrics predictionMetrics) {
         this.predictionService = predictionService;
+        this.asyncPredictionService = asyncPredictionService;
+        this.objectMapper = objectMapper;
+        this.predictionCache = predictionCache;
+        this.populationAnalytics = populationAnalytics;
+        this.predictionMetrics = predictionMetrics;
     }
     
+    /**
+     * ?include=analysis,uncertainty; samples — бюджет выборок для uncertainty.
+     * Расчеты возвращают CompletableFuture: поток контейнера освобождается сразу,
+     * ответ пишется по завершении расчета на виртуальном потоке
+     */
     @PostMapping("/calculate")
-    public MBTIResult calculatePrediction(@RequestBody @Valid PredictionRequest request) {
-        return predictionService.calculateMBTI(request);
+    public CompletableFuture<MBTIResult> calculatePrediction(@RequestBody @Valid PredictionRequest request,
+                                          @RequestParam(required = false) List<String> include,
+                                          @RequestParam(required = false) Integer samples,
+                                          @RequestAttribute(name = PredictionMetrics.SAMPLE_ATTRIBUTE, required = false) PredictionSample sample) {
+        PredictionSample phases = sampleOrNoop(sample);
+        phases.mark(PredictionPhase.DESERIALIZATION);
+        return asyncPredictionService.calculateMBTI(request, ResultSection.parse(include), samples, phases);
     }
     
     @PostMapping("/calculate-advanced")
-    public MBTIResult calculateAdvanced(@RequestBody @Valid PredictionRequest request,
-                                      @RequestParam String strategy) {
-        return predictionService.calculateWithStrategy(request, strategy);
+    public CompletableFuture<MBTIResult> calculateAdvanced(@RequestBody @Valid PredictionRequest request,
+                                      @RequestParam String strategy,
+                                      @RequestParam(required = false) List<String> include,
+                                      @RequestParam(required = false) Integer samples,
+                                      @RequestAttribute(name = PredictionMetrics.SAMPLE_ATTRIBUTE, required = false) PredictionSample sample) {
+        PredictionSample phases = sampleOrNoop(sample);
+        phases.mark(PredictionPhase.DESERIALIZATION);
+        return asyncPredictionService.calculateWithStrategy(request, strategy, ResultSection.parse(include), samples, phases);
     }
     
+    private static PredictionSample sampleOrNoop(PredictionSample sample) {
+        return sample != null ? sample : PredictionSample.NOOP;
+    }
+    
+    /**
+     * What-if сетка по измерениям среды из vary; ответ отсортирован по возрастанию риска буллинга
+     */
+    @PostMapping("/calculate-sweep")
+    public CompletableFuture<List<SweepOutcome>> calculateSweep(@RequestBody @Valid SweepRequest request,
+                                                                @RequestParam(defaultValue = PredictionService.DEFAULT_STRATEGY) String strategy) {
+        return asyncPredictionService.calculateSweep(request, strategy);
+    }
+    
+    /**
+     * Пакетный расчет: тело — NDJSON или JSON-массив пар parents/environment,
+     * ответ — NDJSON, результаты пишутся по мере расчета.
+     * Некорректная запись дает на своем месте строку {"index":n,"error":"..."}, и пакет продолжается.
+     * NDJSON разбирается построчно, поэтому и синтаксическая ошибка — ошибка одной записи;
+     * в JSON-массиве после синтаксической ошибки читать дальше нельзя, и пакет прерывается.
+     * Если пакет прерван целиком, последней строкой идет ошибка без index.
+     * Запрос читается потоково, поэтому память не зависит от размера пакета
+     */
+    @PostMapping(value = "/calculate-batch",
+                 consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateBatch(InputStream body,
+                                                                @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                @RequestParam(defaultValue = PredictionService.DEFAULT_STRATEGY) String strategy,
+                                                                @RequestParam(required = false) List<String> include) {
+        // Стратегия проверяется до начала потоковой передачи, пока еще можно ответить 400
+        MBTIPredictionStrategy resolved = predictionService.resolveStrategy(strategy);
+        Set<ResultSection> sections = ResultSection.parse(include);
+        ObjectReader reader = objectMapper.readerFor(PredictionRequest.class);
+        boolean lineDelimited = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+        ObjectWriter writer = objectMapper.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("\n");
+        
+        StreamingResponseBody stream = out -> {
+            // readValues разворачивает корневой JSON-массив
+            Iterator<PredictionRequest> requests = lineDelimited
+                ? new LineDelimitedRequests(body, reader)
+                : reader.readValues(body);
+            try (SequenceWriter results = writer.writeValues(new BufferedOutputStream(out))) {
+                try {
+                    predictionService.calculateBatch(requests, resolved, sections, new BatchResultSink() {
+                        @Override
+                        public void accept(MBTIResult result) {
+                            write(results, result);
+                        }
+                        
+                        @Override
+                        public void reject(long index, String reason) {
+                            write(results, BatchRecordError.builder().index(index).error(reason).build());
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    // Статус 200 уже отправлен: обрыв виден клиенту последней строкой, а не молчаливым концом потока
+                    try {
+                        results.write(BatchRecordError.builder().error("Пакет прерван: " + e.getMessage()).build());
+                    } catch (IOException writeFailure) {
+                        e.addSuppressed(writeFailure);
+                    }
+                    throw e;
+                }
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(stream);
+    }
+    
+    private static void write(SequenceWriter results, Object line) {
+        try {
+            results.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Записи NDJSON по строкам: каждая строка разбирается отдельно, ошибка разбора
+     * бросается из next() и не мешает читать следующие строки. Пустые строки пропускаются
+     */
+    private static final class LineDelimitedRequests implements Iterator<PredictionRequest> {
+        
+        private final BufferedReader lines;
+        private final ObjectReader reader;
+        private String nextLine;
+        
+        LineDelimitedRequests(InputStream body, ObjectReader reader) {
+            this.lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            this.reader = reader;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = lines.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public PredictionRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    /**
+     * Сводка таймеров фаз по стратегиям (перцентили в микросекундах, выделение памяти в байтах)
+     */
+    @GetMapping("/metrics")
+    public List<PhaseStats> getPhaseMetrics() {
+        return predictionMetrics.getPhaseStats();
+    }
+    
+    @GetMapping("/cache/stats")
+    public List<PredictionCacheStats> getCacheStats() {
+        return predictionCache.getStats();
+    }
+    
+    /**
+     * Агрегаты популяции за скользящее окно, заканчивающееся сейчас (?window=PT5M)
+     */
+    @GetMapping("/analytics")
+    public PopulationSnapshot getAnalytics(@RequestParam(defaultValue = "PT5M") Duration window) {
+        return populationAnalytics.getSliding(window);
+    }
+    
+    /**
+     * Последние завершенные окна фиксированной длительности (?window=PT1M&count=10)
+     */
+    @GetMapping("/analytics/tumbling")
+    public List<PopulationSnapshot> getTumblingAnalytics(@RequestParam(defaultValue = "PT1M") Duration window,
+                                                         @RequestParam(defaultValue = "10") int count) {
+        return populationAnalytics.getTumbling(window, count);
+    }
+    
+    /**
+     * История постранично: ?cursor=...&limit=...; фильтры mbtiType, strategy, from, to (ISO-8601)
+     */
     @GetMapping("/history/{userId}")
-    public Object getPredictionHistory(@PathVariable String userId) {
-        return predictionService.getUserHistory(userId);
+    public HistoryPage getPredictionHistory(@PathVariable String userId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "100") int limit,
+                                            @RequestParam(required = false) String mbtiType,
+                                            @RequestParam(required = false) String strategy,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        HistoryFilter filter = HistoryFilter.of(mbtiType, strategy, from, to);
+        return predictionService.getUserHistory(userId, filter, cursor, limit);
+    }
+    
+    /**
+     * Вся история в NDJSON: записи читаются и пишутся по одной, память не зависит от объема истории
+     */
+    @GetMapping(value = "/history/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPredictionHistory(@PathVariable String userId,
+                                                                         @RequestParam(required = false) String mbtiType,
+                                                                         @RequestParam(required = false) String strategy,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        HistoryFilter filter = HistoryFilter.of(mbtiType, strategy, from, to);
+        ObjectWriter writer = objectMapper.writerFor(PredictionHistoryEntry.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("\n");
+        
+        StreamingResponseBody stream = out -> {
+            try (SequenceWriter entries = writer.writeValues(new BufferedOutputStream(out))) {
+                predictionService.streamUserHistory(userId, filter, entry -> {
+                    try {
+                        entries.write(entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(stream);
     }
 }
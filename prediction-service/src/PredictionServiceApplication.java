@@ -2,6 +2,7 @@ package com.psyche.platform.prediction;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cache.annotation.EnableCaching;
 
@@ -10,8 +11,13 @@ import org.springframework.cache.annotation.EnableCaching;
 @EnableCaching
 public class PredictionServiceApplication 
 {
+    private static final int STARTUP_STEPS = 8192;
+    
     public static void main(String[] args)
   {
-        SpringApplication.run(PredictionServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(PredictionServiceApplication.class);
+        // Буфер шагов старта для разбивки по фазам (StartupProfile)
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 }
@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction;
+
+import com.psyche.platform.prediction.warmup.StartupProfile;
+import com.psyche.platform.prediction.warmup.StartupReport;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/predictions/startup")
+public class StartupController {
+    
+    private final StartupProfile startupProfile;
+    
+    public StartupController(StartupProfile startupProfile) {
+        this.startupProfile = startupProfile;
+    }
+    
+    /**
+     * Разбивка времени старта экземпляра по фазам и итог прогрева
+     */
+    @GetMapping
+    public StartupReport getStartupReport() {
+        return startupProfile.getReport();
+    }
+}
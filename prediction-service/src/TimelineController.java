@@ -0,0 +1,58 @@
+package com.psyche.platform.prediction;
+
+import com.psyche.platform.prediction.model.EnvironmentChange;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import com.psyche.platform.prediction.model.TimelinePoint;
+import com.psyche.platform.prediction.model.TimelineTrajectory;
+import com.psyche.platform.prediction.service.PredictionService;
+import com.psyche.platform.prediction.timeline.TimelineStore;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/predictions/timeline")
+public class TimelineController {
+    
+    private final TimelineStore timelineStore;
+    
+    public TimelineController(TimelineStore timelineStore) {
+        this.timelineStore = timelineStore;
+    }
+    
+    /**
+     * Начало хронологии ребенка: родители и начальная среда; ?at= — момент начальной точки (ISO-8601)
+     */
+    @PostMapping("/{childId}")
+    public TimelinePoint createTimeline(@PathVariable String childId,
+                                        @RequestBody @Valid PredictionRequest request,
+                                        @RequestParam(defaultValue = PredictionService.DEFAULT_STRATEGY) String strategy,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        return timelineStore.create(childId, request, strategy, at);
+    }
+    
+    /**
+     * Изменение среды: пересчитываются только черты, зависящие от изменившихся полей
+     */
+    @PostMapping("/{childId}/changes")
+    public TimelinePoint applyChange(@PathVariable String childId, @RequestBody @Valid EnvironmentChange change) {
+        return timelineStore.applyChange(childId, change);
+    }
+    
+    /**
+     * Траектория черт за период (?from=...&to=..., ISO-8601)
+     */
+    @GetMapping("/{childId}")
+    public TimelineTrajectory getTrajectory(@PathVariable String childId,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return timelineStore.getTrajectory(childId, from, to);
+    }
+    
+    @DeleteMapping("/{childId}")
+    public void deleteTimeline(@PathVariable String childId) {
+        timelineStore.delete(childId);
+    }
+}
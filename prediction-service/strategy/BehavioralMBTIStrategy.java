@@ -1,95 +1,161 @@
 package com.psyche.platform.prediction.strategy;
 
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
 import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.TraitVector;
+import com.psyche.platform.shared.model.TraitVector.Dichotomy;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Поведенческая стратегия расчета MBTI 
  * Основана на наблюдаемых поведенческих паттернах
  */
 @Component
-public class BehavioralMBTIStrategy implements MBTIPredictionStrategy {
+public class BehavioralMBTIStrategy implements IncrementalMBTIStrategy {
+    
+    private static final double BEHAVIORAL_INTUITION = 0.6;
+    private static final double BEHAVIORAL_CONFIDENCE = 0.75; // Поведенческий анализ обычно менее точен
+    
+    // Факторы среды в таблице (индексы в ячейке)
+    private static final int F_EXTRAVERSION_BASE = 0;
+    private static final int F_JUDGING = 1;
+    private static final int F_RISK_ENV = 2;
+    private static final int FACTOR_COUNT = 3;
+    
+    // Строится один раз при создании бина
+    private final EnvironmentFactorTable factors =
+        EnvironmentFactorTable.build(FACTOR_COUNT, this::computeEnvironmentFactors);
     
     @Override
     public MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment) {
+        return predict(parents, environment, PredictionSample.NOOP);
+    }
+    
+    @Override
+    public MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment, PredictionSample sample) {
         validateInput(parents, environment);
+        sample.mark(PredictionPhase.VALIDATION);
+        
+        TraitVector traitScores = calculateTraits(parents, environment);
+        byte typeCode = traitScores.packedType();
+        sample.mark(PredictionPhase.TRAITS);
         
-        Map<String, Double> traitScores = calculateBehavioralTraits(parents, environment);
-        String mbtiType = determineMBTIType(traitScores);
+        double bullyingRisk = calculateBullyingRisk(traitScores, environment);
+        sample.mark(PredictionPhase.RISK);
         
         return MBTIResult.builder()
-            .mbtiType(mbtiType)
+            .typeCode(typeCode)
             .traitScores(traitScores)
-            .confidence(0.75) // Поведенческий анализ обычно менее точен
-            .bullyingRisk(calculateBehavioralBullyingRisk(traitScores, environment))
-            .analysis("Поведенческий анализ на основе паттернов взаимодействия")
+            .confidence(BEHAVIORAL_CONFIDENCE)
+            .bullyingRisk(bullyingRisk)
             .strategyUsed(getStrategyName())
             .build();
     }
     
-    private Map<String, Double> calculateBehavioralTraits(ParentsGeneticData parents, EnvironmentData environment) {
-        Map<String, Double> traits = new HashMap<>();
+    @Override
+    public TraitVector calculateTraits(ParentsGeneticData parents, EnvironmentData environment) {
+        int cell = EnvironmentFactorTable.cellIndex(environment);
+        double friendsInfluence = environment.getFriendsInfluence() != null ? environment.getFriendsInfluence() : 0.0;
         
         // Упрощенный поведенческий анализ
-        traits.put("E", estimateBehavioralExtraversion(environment));
-        traits.put("I", 1 - traits.get("E"));
-        traits.put("N", 0.6); // Поведенчески сложно определить
-        traits.put("S", 0.4);
-        traits.put("T", estimateBehavioralThinking(parents, environment));
-        traits.put("F", 1 - traits.get("T"));
-        traits.put("J", estimateBehavioralJudging(environment));
-        traits.put("P", 1 - traits.get("J"));
-        
-        return traits;
+        return new TraitVector(
+            estimateBehavioralExtraversion(cell, friendsInfluence),
+            BEHAVIORAL_INTUITION, // Поведенчески сложно определить
+            estimateBehavioralThinking((parents.getFatherThinking() + parents.getMotherThinking()) / 2),
+            factors.get(cell, F_JUDGING));
     }
     
-    private Double estimateBehavioralExtraversion(EnvironmentData environment) {
-        double base = 0.5;
-        if ("ACTIVE".equalsIgnoreCase(environment.getSchoolType())) {
-            base += 0.3;
+    /**
+     * Колоночный расчет блока по примитивным массивам
+     */
+    @Override
+    public void scoreBatch(PredictionBatch batch) {
+        int size = batch.size();
+        int[] cells = batch.environmentCell;
+        for (int i = 0; i < size; i++) {
+            int cell = cells[i];
+            double extraversion = estimateBehavioralExtraversion(cell, batch.friendsInfluence[i]);
+            batch.extraversion[i] = extraversion;
+            batch.intuition[i] = BEHAVIORAL_INTUITION;
+            batch.thinking[i] = estimateBehavioralThinking(batch.parentThinking[i]);
+            batch.judging[i] = factors.get(cell, F_JUDGING);
+            batch.bullyingRisk[i] = calculateBullyingRisk(extraversion, cell);
+            batch.confidence[i] = BEHAVIORAL_CONFIDENCE;
         }
-        if (environment.getFriendsInfluence() != null && environment.getFriendsInfluence() > 0.7) {
+    }
+    
+    @Override
+    public double scoreDichotomy(Dichotomy dichotomy, double parentAverage, int cell, double friendsInfluence) {
+        return switch (dichotomy) {
+            case EI -> estimateBehavioralExtraversion(cell, friendsInfluence);
+            case NS -> BEHAVIORAL_INTUITION;
+            case TF -> estimateBehavioralThinking(parentAverage);
+            case JP -> factors.get(cell, F_JUDGING);
+        };
+    }
+    
+    /**
+     * Зависимости дихотомий от полей среды (см. computeEnvironmentFactors);
+     * порядок рождения и братья/сестры на черты не влияют
+     */
+    @Override
+    public int dependentDichotomies(EnvironmentField field) {
+        return switch (field) {
+            case SCHOOL_TYPE, FRIENDS_INFLUENCE -> 1 << Dichotomy.EI.ordinal();
+            case FAMILY_ENVIRONMENT -> 1 << Dichotomy.JP.ordinal();
+            case BIRTH_ORDER, HAS_SIBLINGS -> 0;
+        };
+    }
+    
+    @Override
+    public double calculateConfidence(TraitVector traits) {
+        return BEHAVIORAL_CONFIDENCE;
+    }
+    
+    private double estimateBehavioralExtraversion(int cell, double friendsInfluence) {
+        double base = factors.get(cell, F_EXTRAVERSION_BASE);
+        if (friendsInfluence > 0.7) {
             base += 0.2;
         }
         return normalizeScore(base);
     }
     
-    private Double estimateBehavioralThinking(ParentsGeneticData parents, EnvironmentData environment) {
+    private double estimateBehavioralThinking(double geneticT) {
         // Наследование поведенческих паттернов от родителей
-        double geneticT = (parents.getFatherThinking() + parents.getMotherThinking()) / 2;
         return geneticT * 0.8; // Сильное генетическое влияние на мышление
     }
     
-    private Double estimateBehavioralJudging(EnvironmentData environment) {
+    /**
+     * Правила влияния среды. Выполняются только при построении таблицы факторов
+     */
+    private void computeEnvironmentFactors(SchoolType schoolType, FamilyEnvironment familyEnvironment,
+                                           BirthOrderBucket birthOrder, SiblingStatus siblings, double[] out) {
+        out[F_EXTRAVERSION_BASE] = schoolType == SchoolType.ACTIVE ? 0.8 : 0.5;
+        out[F_JUDGING] = estimateBehavioralJudging(familyEnvironment);
+        // Поведенческий риск выше в строгих средах
+        out[F_RISK_ENV] = familyEnvironment == FamilyEnvironment.STRICT ? 0.3 : 0.0;
+    }
+    
+    private double estimateBehavioralJudging(FamilyEnvironment familyEnvironment) {
         double base = 0.5;
-        if ("STRICT".equalsIgnoreCase(environment.getFamilyEnvironment())) {
+        if (familyEnvironment == FamilyEnvironment.STRICT) {
             base += 0.4;
         }
         return normalizeScore(base);
     }
     
-    private Double calculateBehavioralBullyingRisk(Map<String, Double> traitScores, EnvironmentData environment) {
-        // Поведенческий риск выше в строгих средах
-        double risk = traitScores.get("E") > 0.7 ? 0.4 : 0.1;
-        if ("STRICT".equalsIgnoreCase(environment.getFamilyEnvironment())) {
-            risk += 0.3;
-        }
-        return normalizeScore(risk);
+    @Override
+    public double calculateBullyingRisk(TraitVector traitScores, EnvironmentData environment) {
+        return calculateBullyingRisk(traitScores.extraversion(), EnvironmentFactorTable.cellIndex(environment));
     }
     
-    private String determineMBTIType(Map<String, Double> traitScores) {
-        StringBuilder mbti = new StringBuilder();
-        mbti.append(traitScores.get("E") >= 0.5 ? "E" : "I");
-        mbti.append(traitScores.get("N") >= 0.5 ? "N" : "S");
-        mbti.append(traitScores.get("T") >= 0.5 ? "T" : "F");
-        mbti.append(traitScores.get("J") >= 0.5 ? "J" : "P");
-        return mbti.toString();
+    private double calculateBullyingRisk(double extraversion, int cell) {
+        double risk = extraversion > 0.7 ? 0.4 : 0.1;
+        return normalizeScore(risk + factors.get(cell, F_RISK_ENV));
     }
     
-    private Double normalizeScore(Double score) {
+    private double normalizeScore(double score) {
         return Math.max(0.0, Math.min(1.0, score));
     }
     
@@ -98,6 +164,11 @@ public class BehavioralMBTIStrategy implements MBTIPredictionStrategy {
         return "BEHAVIORAL_MBTI_STRATEGY";
     }
     
+    @Override
+    public String getFixedAnalysis() {
+        return "Поведенческий анализ на основе паттернов взаимодействия";
+    }
+    
     @Override
     public String getDescription() {
         return "Поведенческий анализ на основе наблюдаемых паттернов";
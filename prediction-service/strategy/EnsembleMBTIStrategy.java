@@ -0,0 +1,227 @@
+package com.psyche.platform.prediction.strategy;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.TraitVector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ансамблевая стратегия: запускает все зарегистрированные стратегии параллельно
+ * на виртуальных потоках и взвешенно объединяет их векторы черт.
+ * Стратегии, не успевшие к сроку запроса, отбрасываются — результат строится
+ * по тем, что завершились вовремя.
+ * Упавшие стратегии тоже отбрасываются (с записью в лог); если упали все, наружу уходит их ошибка,
+ * а не таймаут.
+ * Создается реестром стратегий, а не как отдельный бин, чтобы не попасть в собственный список участников.
+ */
+@Slf4j
+public class EnsembleMBTIStrategy implements MBTIPredictionStrategy {
+
+    public static final String NAME = "ENSEMBLE";
+
+    private final List<MBTIPredictionStrategy> members;
+    private final double[] weights;
+    private final EnsembleProperties properties;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Стратегии с нулевым весом в ансамбль не входят и не запускаются
+     */
+    EnsembleMBTIStrategy(List<MBTIPredictionStrategy> members, EnsembleProperties properties) {
+        List<MBTIPredictionStrategy> weighted = new ArrayList<>(members.size());
+        List<Double> memberWeights = new ArrayList<>(members.size());
+        for (MBTIPredictionStrategy member : members) {
+            double weight = Math.max(0.0, properties.weightOf(member.getStrategyName()));
+            if (weight > 0.0) {
+                weighted.add(member);
+                memberWeights.add(weight);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalStateException("prediction.ensemble: сумма весов стратегий должна быть больше нуля");
+        }
+        this.members = List.copyOf(weighted);
+        this.properties = properties;
+        this.weights = memberWeights.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @Override
+    public MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment) {
+        validateInput(parents, environment);
+
+        List<Future<MBTIResult>> futures = new ArrayList<>(members.size());
+        for (MBTIPredictionStrategy member : members) {
+            futures.add(executor.submit(() -> member.predict(parents, environment)));
+        }
+
+        long deadline = System.nanoTime() + properties.getDeadline().toNanos();
+        TraitVector merged = new TraitVector();
+        double confidence = 0.0;
+        double bullyingRisk = 0.0;
+        double totalWeight = 0.0;
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int i = 0; i < futures.size(); i++) {
+            MBTIResult result = awaitMember(i, futures.get(i), deadline, failures);
+            if (result == null) {
+                continue;
+            }
+            accumulate(merged, result.getTraitScores(), weights[i]);
+            confidence += result.getConfidence() * weights[i];
+            bullyingRisk += result.getBullyingRisk() * weights[i];
+            totalWeight += weights[i];
+        }
+
+        if (totalWeight == 0.0) {
+            if (failures.size() == members.size()) {
+                throw allFailed(failures);
+            }
+            throw new PredictionTimeoutException("Ни одна стратегия ансамбля не завершилась за "
+                + properties.getDeadline().toMillis() + " мс");
+        }
+
+        scale(merged, totalWeight);
+        return MBTIResult.builder()
+            .typeCode(merged.packedType())
+            .traitScores(merged)
+            .confidence(confidence / totalWeight)
+            .bullyingRisk(bullyingRisk / totalWeight)
+            .strategyUsed(getStrategyName())
+            .build();
+    }
+
+    /**
+     * Результат участника или null, если он не успел к сроку или упал (ошибка добавляется в failures)
+     */
+    private MBTIResult awaitMember(int member, Future<MBTIResult> future, long deadline, List<Throwable> failures) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Стратегия {} упала и исключена из ансамбля", members.get(member).getStrategyName(), e.getCause());
+            failures.add(e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        }
+    }
+
+    /**
+     * Все участники упали: наружу уходит первая ошибка как есть (например, IllegalArgumentException
+     * на некорректный вход остается 400), остальные — подавленными
+     */
+    private static RuntimeException allFailed(List<Throwable> failures) {
+        Throwable first = failures.get(0);
+        RuntimeException error = first instanceof RuntimeException runtime
+            ? runtime
+            : new IllegalStateException("Все стратегии ансамбля завершились с ошибкой", first);
+        for (int i = 1; i < failures.size(); i++) {
+            error.addSuppressed(failures.get(i));
+        }
+        return error;
+    }
+
+    @Override
+    public TraitVector calculateTraits(ParentsGeneticData parents, EnvironmentData environment) {
+        TraitVector merged = new TraitVector();
+        double totalWeight = 0.0;
+        for (int i = 0; i < members.size(); i++) {
+            accumulate(merged, members.get(i).calculateTraits(parents, environment), weights[i]);
+            totalWeight += weights[i];
+        }
+        return scale(merged, totalWeight);
+    }
+
+    @Override
+    public double calculateBullyingRisk(TraitVector traits, EnvironmentData environment) {
+        double risk = 0.0;
+        double totalWeight = 0.0;
+        for (int i = 0; i < members.size(); i++) {
+            risk += members.get(i).calculateBullyingRisk(traits, environment) * weights[i];
+            totalWeight += weights[i];
+        }
+        return totalWeight > 0 ? risk / totalWeight : 0.0;
+    }
+
+    /**
+     * Пакетный режим без срока: стратегии считают блок по очереди, выходы накапливаются с весами
+     */
+    @Override
+    public void scoreBatch(PredictionBatch batch) {
+        int size = batch.size();
+        double[][] sums = new double[6][size];
+        double totalWeight = 0.0;
+
+        for (int m = 0; m < members.size(); m++) {
+            double weight = weights[m];
+            members.get(m).scoreBatch(batch);
+            for (int i = 0; i < size; i++) {
+                sums[0][i] += batch.extraversion[i] * weight;
+                sums[1][i] += batch.intuition[i] * weight;
+                sums[2][i] += batch.thinking[i] * weight;
+                sums[3][i] += batch.judging[i] * weight;
+                sums[4][i] += batch.bullyingRisk[i] * weight;
+                sums[5][i] += batch.confidence[i] * weight;
+            }
+            totalWeight += weight;
+        }
+
+        for (int i = 0; i < size; i++) {
+            batch.extraversion[i] = sums[0][i] / totalWeight;
+            batch.intuition[i] = sums[1][i] / totalWeight;
+            batch.thinking[i] = sums[2][i] / totalWeight;
+            batch.judging[i] = sums[3][i] / totalWeight;
+            batch.bullyingRisk[i] = sums[4][i] / totalWeight;
+            batch.confidence[i] = sums[5][i] / totalWeight;
+        }
+    }
+
+    private static void accumulate(TraitVector target, TraitVector source, double weight) {
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            TraitVector.Dichotomy dichotomy = TraitVector.Dichotomy.byIndex(d);
+            target.set(dichotomy, target.get(dichotomy) + source.get(dichotomy) * weight);
+        }
+    }
+
+    private static TraitVector scale(TraitVector target, double totalWeight) {
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            TraitVector.Dichotomy dichotomy = TraitVector.Dichotomy.byIndex(d);
+            target.set(dichotomy, target.get(dichotomy) / totalWeight);
+        }
+        return target;
+    }
+
+    /**
+     * Результат зависит от того, какие стратегии успели к сроку, поэтому не кэшируется
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return NAME;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Взвешенный ансамбль всех стратегий с ограничением по времени";
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.psyche.platform.prediction.strategy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки режима ENSEMBLE (prediction.ensemble.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.ensemble")
+public class EnsembleProperties {
+    
+    // Срок на весь запрос: стратегии, не успевшие к нему, в результат не попадают
+    private Duration deadline = Duration.ofMillis(200);
+    
+    // Вес стратегии по имени; для не указанных стратегий используется defaultWeight
+    private Map<String, Double> weights = new HashMap<>();
+    private double defaultWeight = 1.0;
+    
+    public double weightOf(String strategyName) {
+        return weights.getOrDefault(strategyName, defaultWeight);
+    }
+}
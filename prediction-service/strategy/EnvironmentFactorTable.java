@@ -0,0 +1,82 @@
+package com.psyche.platform.prediction.strategy;
+
+import com.psyche.platform.prediction.model.*;
+
+/**
+ * Плотная таблица факторов среды для одной стратегии.
+ * Все категориальные входы (школа, семья, порядок рождения, братья/сестры) образуют
+ * небольшое конечное множество ячеек, поэтому правила стратегии вычисляются один раз
+ * при старте, а на запрос остается только индексация массива по ordinal.
+ */
+final class EnvironmentFactorTable {
+
+    private static final SchoolType[] SCHOOL_TYPE_VALUES = SchoolType.values();
+    private static final FamilyEnvironment[] FAMILY_ENVIRONMENT_VALUES = FamilyEnvironment.values();
+    private static final int SCHOOL_TYPES = SCHOOL_TYPE_VALUES.length;
+    private static final int FAMILY_ENVIRONMENTS = FAMILY_ENVIRONMENT_VALUES.length;
+    private static final int BIRTH_ORDERS = BirthOrderBucket.values().length;
+    private static final int SIBLING_STATUSES = SiblingStatus.values().length;
+
+    static final int CELLS = SCHOOL_TYPES * FAMILY_ENVIRONMENTS * BIRTH_ORDERS * SIBLING_STATUSES;
+
+    /**
+     * Правило стратегии: заполняет factors для одной комбинации категорий
+     */
+    @FunctionalInterface
+    interface CellRule {
+        void compute(SchoolType schoolType, FamilyEnvironment familyEnvironment,
+                     BirthOrderBucket birthOrder, SiblingStatus siblings, double[] factors);
+    }
+
+    private final int factorCount;
+    private final double[] table;
+
+    private EnvironmentFactorTable(int factorCount, double[] table) {
+        this.factorCount = factorCount;
+        this.table = table;
+    }
+
+    static EnvironmentFactorTable build(int factorCount, CellRule rule) {
+        double[] table = new double[CELLS * factorCount];
+        double[] factors = new double[factorCount];
+
+        for (SchoolType schoolType : SchoolType.values()) {
+            for (FamilyEnvironment familyEnvironment : FamilyEnvironment.values()) {
+                for (BirthOrderBucket birthOrder : BirthOrderBucket.values()) {
+                    for (SiblingStatus siblings : SiblingStatus.values()) {
+                        rule.compute(schoolType, familyEnvironment, birthOrder, siblings, factors);
+                        int offset = cellIndex(schoolType, familyEnvironment, birthOrder, siblings) * factorCount;
+                        System.arraycopy(factors, 0, table, offset, factorCount);
+                    }
+                }
+            }
+        }
+        return new EnvironmentFactorTable(factorCount, table);
+    }
+
+    static int cellIndex(EnvironmentData environment) {
+        return cellIndex(environment.getSchoolType(), environment.getFamilyEnvironment(),
+            environment.getBirthOrderBucket(), environment.getSiblingStatus());
+    }
+
+    static int cellIndex(SchoolType schoolType, FamilyEnvironment familyEnvironment,
+                         BirthOrderBucket birthOrder, SiblingStatus siblings) {
+        return ((schoolType.ordinal() * FAMILY_ENVIRONMENTS + familyEnvironment.ordinal())
+            * BIRTH_ORDERS + birthOrder.ordinal()) * SIBLING_STATUSES + siblings.ordinal();
+    }
+
+    /**
+     * Обратное разложение индекса ячейки (для категорий, не хранящихся отдельно)
+     */
+    static SchoolType schoolType(int cell) {
+        return SCHOOL_TYPE_VALUES[cell / (FAMILY_ENVIRONMENTS * BIRTH_ORDERS * SIBLING_STATUSES)];
+    }
+
+    static FamilyEnvironment familyEnvironment(int cell) {
+        return FAMILY_ENVIRONMENT_VALUES[cell / (BIRTH_ORDERS * SIBLING_STATUSES) % FAMILY_ENVIRONMENTS];
+    }
+
+    double get(int cell, int factor) {
+        return table[cell * factorCount + factor];
+    }
+}
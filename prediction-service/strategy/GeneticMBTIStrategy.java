@@ -1,220 +1,284 @@
 package com.psyche.platform.prediction.strategy;
 
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
 import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.TraitVector;
+import com.psyche.platform.shared.model.TraitVector.Dichotomy;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Генетическая стратегия расчета MBTI на основе формулы:
  * P(Trait_i) = w_g × G_i + w_e × E_i
  * где 40% - генетика родителей, 60% - влияние среды
  */
 @Component
-public class GeneticMBTIStrategy implements MBTIPredictionStrategy {
+public class GeneticMBTIStrategy implements IncrementalMBTIStrategy {
     
     // Веса влияния (40% генетика, 60% среда)
-    private static final Double GENETIC_WEIGHT = 0.4;
-    private static final Double ENVIRONMENT_WEIGHT = 0.6;
+    private static final double GENETIC_WEIGHT = 0.4;
+    private static final double ENVIRONMENT_WEIGHT = 0.6;
     
     // Пороги для определения рисков
-    private static final Double HIGH_EXTROVERSION_THRESHOLD = 0.7;
-    private static final Double LOW_EMPATHY_THRESHOLD = 0.3;
-    private static final Double HIGH_BULLYING_RISK_THRESHOLD = 0.7;
+    private static final double HIGH_EXTROVERSION_THRESHOLD = 0.7;
+    private static final double LOW_EMPATHY_THRESHOLD = 0.3;
+    
+    // Факторы среды в таблице (индексы в ячейке)
+    private static final int F_EXTRAVERSION_BASE = 0;
+    private static final int F_INTUITION_ENV = 1;
+    private static final int F_THINKING_ENV = 2;
+    private static final int F_JUDGING_ENV = 3;
+    private static final int F_RISK_ENV = 4;
+    private static final int FACTOR_COUNT = 5;
+    
+    // Строится один раз при создании бина
+    private final EnvironmentFactorTable factors =
+        EnvironmentFactorTable.build(FACTOR_COUNT, this::computeEnvironmentFactors);
     
     @Override
     public MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment) {
+        return predict(parents, environment, PredictionSample.NOOP);
+    }
+    
+    @Override
+    public MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment, PredictionSample sample) {
         validateInput(parents, environment);
+        sample.mark(PredictionPhase.VALIDATION);
+        
+        TraitVector traitScores = calculateTraits(parents, environment);
+        byte typeCode = traitScores.packedType();
+        sample.mark(PredictionPhase.TRAITS);
         
-        Map<String, Double> traitScores = calculateAllTraits(parents, environment);
-        String mbtiType = determineMBTIType(traitScores);
-        Double bullyingRisk = calculateBullyingRisk(traitScores, environment);
-        String analysis = generateDetailedAnalysis(mbtiType, traitScores, bullyingRisk);
+        double bullyingRisk = calculateBullyingRisk(traitScores, environment);
+        double confidence = calculateConfidence(traitScores);
+        sample.mark(PredictionPhase.RISK);
         
         return MBTIResult.builder()
-            .mbtiType(mbtiType)
+            .typeCode(typeCode)
             .traitScores(traitScores)
-            .confidence(calculateConfidence(traitScores))
+            .confidence(confidence)
             .bullyingRisk(bullyingRisk)
-            .analysis(analysis)
             .strategyUsed(getStrategyName())
             .build();
     }
     
     /**
-     * Расчет всех 8 черт MBTI (4 дихотомии)
+     * Расчет всех 8 черт MBTI (4 дихотомии, противоположные полюса = 1 - score)
      */
-    private Map<String, Double> calculateAllTraits(ParentsGeneticData parents, EnvironmentData environment) {
-        Map<String, Double> traits = new HashMap<>();
-        
-        // Extraversion/Introversion
-        traits.put("E", calculateExtraversion(parents, environment));
-        traits.put("I", 1 - traits.get("E"));
-        
-        // Intuition/Sensing
-        traits.put("N", calculateIntuition(parents, environment));
-        traits.put("S", 1 - traits.get("N"));
+    @Override
+    public TraitVector calculateTraits(ParentsGeneticData parents, EnvironmentData environment) {
+        int cell = EnvironmentFactorTable.cellIndex(environment);
+        double friendsInfluence = environment.getFriendsInfluence() != null ? environment.getFriendsInfluence() : 0.0;
         
-        // Thinking/Feeling
-        traits.put("T", calculateThinking(parents, environment));
-        traits.put("F", 1 - traits.get("T"));
+        return new TraitVector(
+            // Extraversion/Introversion
+            calculateExtraversion(calculateGeneticExtraversion(parents), cell, friendsInfluence),
+            // Intuition/Sensing
+            calculateIntuition((parents.getFatherIntuition() + parents.getMotherIntuition()) / 2, cell),
+            // Thinking/Feeling
+            calculateThinking((parents.getFatherThinking() + parents.getMotherThinking()) / 2, cell),
+            // Judging/Perceiving
+            calculateJudging((parents.getFatherJudging() + parents.getMotherJudging()) / 2, cell));
+    }
+    
+    /**
+     * Колоночный расчет блока: те же формулы, но цикл идет по примитивным массивам
+     */
+    @Override
+    public void scoreBatch(PredictionBatch batch) {
+        int size = batch.size();
+        int[] cells = batch.environmentCell;
+        double[] extraversion = batch.extraversion;
+        double[] intuition = batch.intuition;
+        double[] thinking = batch.thinking;
+        double[] judging = batch.judging;
         
-        // Judging/Perceiving
-        traits.put("J", calculateJudging(parents, environment));
-        traits.put("P", 1 - traits.get("J"));
+        for (int i = 0; i < size; i++) {
+            int cell = cells[i];
+            extraversion[i] = calculateExtraversion(batch.parentExtraversion[i], cell, batch.friendsInfluence[i]);
+            intuition[i] = calculateIntuition(batch.parentIntuition[i], cell);
+            thinking[i] = calculateThinking(batch.parentThinking[i], cell);
+            judging[i] = calculateJudging(batch.parentJudging[i], cell);
+        }
         
-        return traits;
+        for (int i = 0; i < size; i++) {
+            batch.bullyingRisk[i] = calculateBullyingRisk(extraversion[i], thinking[i], cells[i]);
+            batch.confidence[i] = normalizeScore(
+                (Math.abs(extraversion[i] - 0.5) + Math.abs(intuition[i] - 0.5)
+                    + Math.abs(thinking[i] - 0.5) + Math.abs(judging[i] - 0.5)) / TraitVector.DICHOTOMIES * 2);
+        }
+    }
+    
+    @Override
+    public double scoreDichotomy(Dichotomy dichotomy, double parentAverage, int cell, double friendsInfluence) {
+        return switch (dichotomy) {
+            case EI -> calculateExtraversion(parentAverage, cell, friendsInfluence);
+            case NS -> calculateIntuition(parentAverage, cell);
+            case TF -> calculateThinking(parentAverage, cell);
+            case JP -> calculateJudging(parentAverage, cell);
+        };
+    }
+    
+    /**
+     * Зависимости дихотомий от полей среды (см. computeEnvironmentFactors и calculateExtraversion)
+     */
+    @Override
+    public int dependentDichotomies(EnvironmentField field) {
+        return switch (field) {
+            case SCHOOL_TYPE -> bit(Dichotomy.EI) | bit(Dichotomy.NS);
+            case FAMILY_ENVIRONMENT -> bit(Dichotomy.TF) | bit(Dichotomy.JP);
+            case BIRTH_ORDER, HAS_SIBLINGS, FRIENDS_INFLUENCE -> bit(Dichotomy.EI);
+        };
+    }
+    
+    private static int bit(Dichotomy dichotomy) {
+        return 1 << dichotomy.ordinal();
     }
     
     /**
      * Расчет экстраверсии: E = (G_E * 0.4) + (E_E * 0.6)
      */
-    private Double calculateExtraversion(ParentsGeneticData parents, EnvironmentData environment) {
-        Double geneticE = calculateGeneticExtraversion(parents);
-        Double environmentE = calculateEnvironmentalExtraversion(environment);
+    private double calculateExtraversion(double geneticE, int cell, double friendsInfluence) {
+        // Влияние друзей непрерывно, поэтому добавляется к табличной базе на запросе
+        double environmentE = normalizeScore(factors.get(cell, F_EXTRAVERSION_BASE) + friendsInfluence * 0.2);
         
         return applyWeights(geneticE, environmentE);
     }
     
-    private Double calculateGeneticExtraversion(ParentsGeneticData parents) {
+    private double calculateGeneticExtraversion(ParentsGeneticData parents) {
         return (parents.getFatherExtraversion() + parents.getMotherExtraversion()) / 2;
     }
     
-    private Double calculateEnvironmentalExtraversion(EnvironmentData environment) {
+    /**
+     * Расчет интуиции (Intuition): меньше зависит от среды, больше от генетики
+     */
+    private double calculateIntuition(double geneticN, int cell) {
+        return (geneticN * 0.7) + factors.get(cell, F_INTUITION_ENV);
+    }
+    
+    /**
+     * Расчет мышления (Thinking)
+     */
+    private double calculateThinking(double geneticT, int cell) {
+        return (geneticT * 0.6) + factors.get(cell, F_THINKING_ENV);
+    }
+    
+    /**
+     * Расчет суждения (Judging)
+     */
+    private double calculateJudging(double geneticJ, int cell) {
+        return (geneticJ * 0.5) + factors.get(cell, F_JUDGING_ENV);
+    }
+    
+    /**
+     * Правила влияния среды. Выполняются только при построении таблицы факторов
+     */
+    private void computeEnvironmentFactors(SchoolType schoolType, FamilyEnvironment familyEnvironment,
+                                           BirthOrderBucket birthOrder, SiblingStatus siblings, double[] out) {
+        out[F_EXTRAVERSION_BASE] = getEnvironmentalExtraversionBase(schoolType, birthOrder, siblings);
+        out[F_INTUITION_ENV] = 0.3 * getEnvironmentalCreativity(schoolType);
+        out[F_THINKING_ENV] = getEnvironmentalThinking(familyEnvironment) * 0.4;
+        out[F_JUDGING_ENV] = getEnvironmentalJudging(familyEnvironment) * 0.5;
+        out[F_RISK_ENV] = getEnvironmentalBullyingRisk(familyEnvironment, siblings);
+    }
+    
+    private double getEnvironmentalExtraversionBase(SchoolType schoolType, BirthOrderBucket birthOrder, SiblingStatus siblings) {
         double base = 0.5;
         
         // Порядок рождения: первенцы часто более экстравертны
-        if (environment.getBirthOrder() == 1) {
+        if (birthOrder == BirthOrderBucket.FIRST) {
             base += 0.15;
-        } else if (environment.getBirthOrder() >= 3) {
+        } else if (birthOrder == BirthOrderBucket.LATER) {
             base -= 0.1; // Младшие дети могут быть более адаптивными
         }
         
         // Влияние типа школы
-        base += getSchoolExtraversionImpact(environment.getSchoolType());
-        
-        // Влияние друзей
-        if (environment.getFriendsInfluence() != null) {
-            base += environment.getFriendsInfluence() * 0.2;
-        }
+        base += getSchoolExtraversionImpact(schoolType);
         
         // Наличие братьев/сестер
-        if (Boolean.TRUE.equals(environment.getHasSiblings())) {
+        if (siblings == SiblingStatus.YES) {
             base += 0.1; // Социальное взаимодействие
         }
         
-        return normalizeScore(base);
+        return base;
     }
     
-    private Double getSchoolExtraversionImpact(String schoolType) {
-        return switch (schoolType != null ? schoolType.toUpperCase() : "NEUTRAL") {
-            case "ACTIVE", "АКТИВНАЯ" -> 0.25;
-            case "STRICT", "СТРОГАЯ" -> -0.15;
-            case "CREATIVE", "ТВОРЧЕСКАЯ" -> 0.1;
+    private double getSchoolExtraversionImpact(SchoolType schoolType) {
+        return switch (schoolType) {
+            case ACTIVE -> 0.25;
+            case STRICT -> -0.15;
+            case CREATIVE -> 0.1;
             default -> 0.0;
         };
     }
     
-    /**
-     * Расчет интуиции (Intuition)
-     */
-    private Double calculateIntuition(ParentsGeneticData parents, EnvironmentData environment) {
-        Double geneticN = (parents.getFatherIntuition() + parents.getMotherIntuition()) / 2;
-        // Интуиция меньше зависит от среды, больше от генетики
-        return (geneticN * 0.7) + (0.3 * getEnvironmentalCreativity(environment));
-    }
-    
-    private Double getEnvironmentalCreativity(EnvironmentData environment) {
+    private double getEnvironmentalCreativity(SchoolType schoolType) {
         double base = 0.5;
-        if ("CREATIVE".equalsIgnoreCase(environment.getSchoolType())) {
+        if (schoolType == SchoolType.CREATIVE) {
             base += 0.2;
         }
         return normalizeScore(base);
     }
     
-    /**
-     * Расчет мышления (Thinking)
-     */
-    private Double calculateThinking(ParentsGeneticData parents, EnvironmentData environment) {
-        Double geneticT = (parents.getFatherThinking() + parents.getMotherThinking()) / 2;
-        Double environmentT = getEnvironmentalThinking(environment);
-        
-        return (geneticT * 0.6) + (environmentT * 0.4);
-    }
-    
-    private Double getEnvironmentalThinking(EnvironmentData environment) {
+    private double getEnvironmentalThinking(FamilyEnvironment familyEnvironment) {
         double base = 0.5;
-        if ("STRICT".equalsIgnoreCase(environment.getFamilyEnvironment())) {
+        if (familyEnvironment == FamilyEnvironment.STRICT) {
             base += 0.15; // Строгое воспитание развивает аналитическое мышление
         }
         return base;
     }
     
-    /**
-     * Расчет суждения (Judging)
-     */
-    private Double calculateJudging(ParentsGeneticData parents, EnvironmentData environment) {
-        Double geneticJ = (parents.getFatherJudging() + parents.getMotherJudging()) / 2;
-        Double environmentJ = getEnvironmentalJudging(environment);
-        
-        return (geneticJ * 0.5) + (environmentJ * 0.5);
-    }
-    
-    private Double getEnvironmentalJudging(EnvironmentData environment) {
+    private double getEnvironmentalJudging(FamilyEnvironment familyEnvironment) {
         double base = 0.5;
-        if ("STRICT".equalsIgnoreCase(environment.getFamilyEnvironment())) {
+        if (familyEnvironment == FamilyEnvironment.STRICT) {
             base += 0.25; // Строгая среда усиливает Judging
-        } else if ("SUPPORTIVE".equalsIgnoreCase(environment.getFamilyEnvironment())) {
+        } else if (familyEnvironment == FamilyEnvironment.SUPPORTIVE) {
             base -= 0.1; // Поддерживающая среда может развивать Perceiving
         }
         return normalizeScore(base);
     }
     
-    /**
-     * Определение типа MBTI на основе scores
-     */
-    private String determineMBTIType(Map<String, Double> traitScores) {
-        StringBuilder mbti = new StringBuilder();
+    private double getEnvironmentalBullyingRisk(FamilyEnvironment familyEnvironment, SiblingStatus siblings) {
+        double risk = 0.0;
         
-        // E/I
-        mbti.append(traitScores.get("E") >= 0.5 ? "E" : "I");
-        // N/S
-        mbti.append(traitScores.get("N") >= 0.5 ? "N" : "S");
-        // T/F
-        mbti.append(traitScores.get("T") >= 0.5 ? "T" : "F");
-        // J/P
-        mbti.append(traitScores.get("J") >= 0.5 ? "J" : "P");
+        // Агрессивная среда увеличивает риск
+        if (familyEnvironment == FamilyEnvironment.STRICT) {
+            risk += 0.2;
+        }
+        
+        // Отсутствие братьев/сестер может увеличивать риск
+        if (siblings == SiblingStatus.NO) {
+            risk += 0.1;
+        }
         
-        return mbti.toString();
+        return risk;
     }
     
     /**
      * Расчет риска буллинга на основе черт личности
      */
-    private Double calculateBullyingRisk(Map<String, Double> traitScores, EnvironmentData environment) {
+    @Override
+    public double calculateBullyingRisk(TraitVector traitScores, EnvironmentData environment) {
+        return calculateBullyingRisk(traitScores.extraversion(), traitScores.thinking(),
+            EnvironmentFactorTable.cellIndex(environment));
+    }
+    
+    private double calculateBullyingRisk(double extraversion, double thinking, int cell) {
+        double feeling = 1 - thinking;
         double risk = 0.0;
         
         // Высокая экстраверсия + низкая эмпатия = основной риск
-        if (traitScores.get("E") > HIGH_EXTROVERSION_THRESHOLD && 
-            traitScores.get("F") < LOW_EMPATHY_THRESHOLD) {
+        if (extraversion > HIGH_EXTROVERSION_THRESHOLD && feeling < LOW_EMPATHY_THRESHOLD) {
             risk += 0.6;
         }
         
         // Высокое мышление + низкая эмпатия
-        if (traitScores.get("T") > 0.8 && traitScores.get("F") < 0.4) {
+        if (thinking > 0.8 && feeling < 0.4) {
             risk += 0.3;
         }
         
-        // Агрессивная среда увеличивает риск
-        if ("STRICT".equalsIgnoreCase(environment.getFamilyEnvironment())) {
-            risk += 0.2;
-        }
-        
-        // Отсутствие братьев/сестер может увеличивать риск
-        if (Boolean.FALSE.equals(environment.getHasSiblings())) {
-            risk += 0.1;
-        }
+        // Вклад среды (строгая семья, отсутствие братьев/сестер) берется из таблицы
+        risk += factors.get(cell, F_RISK_ENV);
         
         return normalizeScore(risk);
     }
@@ -222,80 +286,18 @@ public class GeneticMBTIStrategy implements MBTIPredictionStrategy {
     /**
      * Расчет уверенности предсказания
      */
-    private Double calculateConfidence(Map<String, Double> traitScores) {
+    @Override
+    public double calculateConfidence(TraitVector traitScores) {
         // Уверенность выше когда черты ярко выражены
-        double avgDeviation = traitScores.values().stream()
-            .mapToDouble(score -> Math.abs(score - 0.5))
-            .average()
-            .orElse(0.0);
-        
-        return normalizeScore(avgDeviation * 2);
-    }
-    
-    /**
-     * Генерация детального анализа
-     */
-    private String generateDetailedAnalysis(String mbtiType, Map<String, Double> traitScores, Double bullyingRisk) {
-        StringBuilder analysis = new StringBuilder();
-        
-        analysis.append("🎭 ДЕТАЛЬНЫЙ АНАЛИЗ ЛИЧНОСТИ\n\n");
-        analysis.append("Тип MBTI: ").append(mbtiType).append("\n");
-        analysis.append(String.format("Уверенность предсказания: %.0f%%\n\n", calculateConfidence(traitScores) * 100));
-        
-        // Анализ по дихотомиям
-        analysis.append("📊 РАСПРЕДЕЛЕНИЕ ЧЕРТ:\n");
-        analysis.append(String.format("• Экстраверсия (E): %.0f%% / Интроверсия (I): %.0f%%\n", 
-            traitScores.get("E") * 100, traitScores.get("I") * 100));
-        analysis.append(String.format("• Интуиция (N): %.0f%% / Сенсорика (S): %.0f%%\n", 
-            traitScores.get("N") * 100, traitScores.get("S") * 100));
-        analysis.append(String.format("• Мышление (T): %.0f%% / Чувство (F): %.0f%%\n", 
-            traitScores.get("T") * 100, traitScores.get("F") * 100));
-        analysis.append(String.format("• Суждение (J): %.0f%% / Восприятие (P): %.0f%%\n\n", 
-            traitScores.get("J") * 100, traitScores.get("P") * 100));
-        
-        // Анализ риска буллинга
-        analysis.append("⚠️  АНАЛИЗ РИСКОВ:\n");
-        if (bullyingRisk > HIGH_BULLYING_RISK_THRESHOLD) {
-            analysis.append("• ВЫСОКИЙ РИСК БУЛЛИНГА (").append(String.format("%.0f%%", bullyingRisk * 100)).append(")\n");
-            analysis.append("• Может проявлять агрессию к сверстникам\n");
-            analysis.append("• Склонен к доминированию в группе\n");
-            analysis.append("🎯 Рекомендации: развитие эмпатии, командный спорт, работа с психологом\n");
-        } else if (bullyingRisk > 0.4) {
-            analysis.append("• СРЕДНИЙ РИСК БУЛЛИНГА (").append(String.format("%.0f%%", bullyingRisk * 100)).append(")\n");
-            analysis.append("• В конфликтных ситуациях может проявлять агрессию\n");
-            analysis.append("🎯 Рекомендации: учить конструктивному разрешению конфликтов\n");
-        } else {
-            analysis.append("• НИЗКИЙ РИСК БУЛЛИНГА (").append(String.format("%.0f%%", bullyingRisk * 100)).append(")\n");
-            analysis.append("• Скорее всего, будет мирно взаимодействовать со сверстниками\n");
-        }
-        
-        // Особенности типа
-        analysis.append("\n💫 ОСОБЕННОСТИ ТИПА ").append(mbtiType).append(":\n");
-        analysis.append(getTypeDescription(mbtiType));
-        
-        return analysis.toString();
-    }
-    
-    private String getTypeDescription(String mbtiType) {
-        return switch (mbtiType) {
-            case "ENTJ" -> "• Прирожденный лидер, стратег\n• Решителен, любит challenges\n• Может быть слишком критичным";
-            case "ENFJ" -> "• Вдохновитель, харизматичный\n• Чуткий к эмоциям других\n• Старается угодить всем";
-            case "INTJ" -> "• Стратег, независимый мыслитель\n• Целеустремленный, перфекционист\n• Может быть отстраненным";
-            case "ENTP" -> "• Новатор, любит дебаты\n• Быстро думает, предприимчивый\n• Может быть противоречивым";
-            case "ESTJ" -> "• Организатор, практичный\n• Ответственный, традиционный\n• Может быть жестким";
-            case "ESFJ" -> "• Заботливый, популярный\n• Ответственный, гармоничный\n• Чувствителен к критике";
-            case "ISTJ" -> "• Ответственный, реалистичный\n• Трудолюбивый, традиционный\n• Может сопротивляться изменениям";
-            case "ISFJ" -> "• Защитник, преданный\n• Теплый, практичный\n• Избегает конфликтов";
-            default -> "• Уникальное сочетание черт личности";
-        };
+        return normalizeScore(traitScores.meanDeviation() * 2);
     }
     
     // Вспомогательные методы
-    private Double applyWeights(Double genetic, Double environmental) {
+    private double applyWeights(double genetic, double environmental) {
         return (genetic * GENETIC_WEIGHT) + (environmental * ENVIRONMENT_WEIGHT);
     }
     
-    private Double normalizeScore(Double score) {
+    private double normalizeScore(double score) {
         return Math.max(0.0, Math.min(1.0, score));
     }
     
@@ -0,0 +1,41 @@
+package com.psyche.platform.prediction.strategy;
+
+import com.psyche.platform.prediction.model.EnvironmentField;
+import com.psyche.platform.prediction.model.ParentsGeneticData;
+import com.psyche.platform.shared.model.TraitVector;
+
+/**
+ * Стратегия, черты которой раскладываются по дихотомиям: значение дихотомии зависит
+ * только от средней оценки родителей по этой дихотомии и от среды.
+ * Позволяет при изменении одного поля среды пересчитать лишь зависящие от него
+ * дихотомии, не трогая генетические средние и остальные черты.
+ */
+public interface IncrementalMBTIStrategy extends MBTIPredictionStrategy {
+    
+    int ALL_DICHOTOMIES = (1 << TraitVector.DICHOTOMIES) - 1;
+    
+    /**
+     * Маска дихотомий (бит Dichotomy.ordinal()), значение которых зависит от поля среды.
+     * Должна соответствовать правилам факторов среды стратегии
+     */
+    int dependentDichotomies(EnvironmentField field);
+    
+    /**
+     * Значение одной дихотомии; cell — PredictionBatch.environmentCell(...)
+     */
+    double scoreDichotomy(TraitVector.Dichotomy dichotomy, double parentAverage, int cell, double friendsInfluence);
+    
+    double calculateConfidence(TraitVector traits);
+    
+    /**
+     * Средние оценки родителей по дихотомиям в порядке Dichotomy.ordinal()
+     */
+    static double[] parentAverages(ParentsGeneticData parents) {
+        return new double[]{
+            (parents.getFatherExtraversion() + parents.getMotherExtraversion()) / 2,
+            (parents.getFatherIntuition() + parents.getMotherIntuition()) / 2,
+            (parents.getFatherThinking() + parents.getMotherThinking()) / 2,
+            (parents.getFatherJudging() + parents.getMotherJudging()) / 2
+        };
+    }
+}
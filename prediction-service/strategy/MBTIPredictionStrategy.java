@@ -1,12 +1,59 @@
 package com.psyche.platform.prediction.strategy;
 
+import com.psyche.platform.prediction.metrics.PredictionPhase;
+import com.psyche.platform.prediction.metrics.PredictionSample;
 import com.psyche.platform.prediction.model.MBTIResult;
 import com.psyche.platform.prediction.model.ParentsGeneticData;
 import com.psyche.platform.prediction.model.EnvironmentData;
+import com.psyche.platform.shared.model.TraitVector;
 
 // Strategy Pattern
 public interface MBTIPredictionStrategy 
 {
     MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment);
+    
+    /**
+     * Расчет с отметками фаз; стратегии без собственной разбивки относят весь расчет к TRAITS
+     */
+    default MBTIResult predict(ParentsGeneticData parents, EnvironmentData environment, PredictionSample sample) {
+        MBTIResult result = predict(parents, environment);
+        sample.mark(PredictionPhase.TRAITS);
+        return result;
+    }
+    
+    /**
+     * Расчет вектора черт — внутреннее представление, общее для всех стратегий
+     */
+    TraitVector calculateTraits(ParentsGeneticData parents, EnvironmentData environment);
+    
+    double calculateBullyingRisk(TraitVector traits, EnvironmentData environment);
+    
+    /**
+     * Колоночный расчет блока записей: заполняет выходные колонки batch
+     */
+    void scoreBatch(PredictionBatch batch);
+    
     String getStrategyName();
+    
+    String getDescription();
+    
+    /**
+     * Постоянный текст анализа стратегии; null — использовать детальный шаблон
+     */
+    default String getFixedAnalysis() {
+        return null;
+    }
+    
+    /**
+     * Можно ли кэшировать результат по входам (детерминирован ли расчет)
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+    
+    default void validateInput(ParentsGeneticData parents, EnvironmentData environment) {
+        if (parents == null || environment == null) {
+            throw new IllegalArgumentException("Данные родителей и среды обязательны");
+        }
+    }
 }
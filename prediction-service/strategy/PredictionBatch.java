@@ -0,0 +1,156 @@
+package com.psyche.platform.prediction.strategy;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.TraitVector;
+
+/**
+ * Колоночный (struct-of-arrays) блок записей для пакетного расчета.
+ * Входные данные раскладываются по примитивным массивам один раз при загрузке,
+ * после чего стратегия считает весь блок в плотном цикле без обращения к объектам.
+ * Блок переиспользуется: clear() сбрасывает размер, массивы не пересоздаются.
+ */
+public final class PredictionBatch {
+
+    private final int capacity;
+    private int size;
+
+    // Входные колонки: средние значения родителей
+    final double[] parentExtraversion;
+    final double[] parentIntuition;
+    final double[] parentThinking;
+    final double[] parentJudging;
+
+    // Входные колонки: среда (категории свернуты в индекс ячейки EnvironmentFactorTable)
+    final int[] environmentCell;
+    final double[] friendsInfluence;
+
+    // Выходные колонки
+    final double[] extraversion;
+    final double[] intuition;
+    final double[] thinking;
+    final double[] judging;
+    final double[] bullyingRisk;
+    final double[] confidence;
+
+    public PredictionBatch(int capacity) {
+        this.capacity = capacity;
+        this.parentExtraversion = new double[capacity];
+        this.parentIntuition = new double[capacity];
+        this.parentThinking = new double[capacity];
+        this.parentJudging = new double[capacity];
+        this.environmentCell = new int[capacity];
+        this.friendsInfluence = new double[capacity];
+        this.extraversion = new double[capacity];
+        this.intuition = new double[capacity];
+        this.thinking = new double[capacity];
+        this.judging = new double[capacity];
+        this.bullyingRisk = new double[capacity];
+        this.confidence = new double[capacity];
+    }
+
+    /**
+     * Добавление записи в блок; false если блок заполнен
+     */
+    public boolean add(ParentsGeneticData parents, EnvironmentData environment) {
+        return add(
+            (parents.getFatherExtraversion() + parents.getMotherExtraversion()) / 2,
+            (parents.getFatherIntuition() + parents.getMotherIntuition()) / 2,
+            (parents.getFatherThinking() + parents.getMotherThinking()) / 2,
+            (parents.getFatherJudging() + parents.getMotherJudging()) / 2,
+            environmentCell(environment),
+            environment.getFriendsInfluence() != null ? environment.getFriendsInfluence() : 0.0);
+    }
+
+    /**
+     * Добавление уже разложенной записи (средние родителей, ячейка среды);
+     * используется, когда входы генерируются без объектов модели
+     */
+    public boolean add(double parentE, double parentN, double parentT, double parentJ,
+                       int cell, double friends) {
+        if (size == capacity) {
+            return false;
+        }
+        int i = size++;
+        parentExtraversion[i] = parentE;
+        parentIntuition[i] = parentN;
+        parentThinking[i] = parentT;
+        parentJudging[i] = parentJ;
+        environmentCell[i] = cell;
+        friendsInfluence[i] = friends;
+        return true;
+    }
+
+    /**
+     * Индекс ячейки категориальных факторов среды для add(...)
+     */
+    public static int environmentCell(EnvironmentData environment) {
+        return EnvironmentFactorTable.cellIndex(environment);
+    }
+
+    public static int environmentCell(SchoolType schoolType, FamilyEnvironment familyEnvironment,
+                                      BirthOrderBucket birthOrder, SiblingStatus siblings) {
+        return EnvironmentFactorTable.cellIndex(schoolType, familyEnvironment, birthOrder, siblings);
+    }
+
+    /**
+     * Сборка результата для i-й записи после scoreBatch
+     */
+    public MBTIResult toResult(int i, String strategyName) {
+        TraitVector traits = new TraitVector(extraversion[i], intuition[i], thinking[i], judging[i]);
+        return MBTIResult.builder()
+            .typeCode(traits.packedType())
+            .traitScores(traits)
+            .confidence(confidence[i])
+            .bullyingRisk(bullyingRisk[i])
+            .strategyUsed(strategyName)
+            .build();
+    }
+
+    public double extraversion(int i) {
+        return extraversion[i];
+    }
+
+    public double intuition(int i) {
+        return intuition[i];
+    }
+
+    public double thinking(int i) {
+        return thinking[i];
+    }
+
+    public double judging(int i) {
+        return judging[i];
+    }
+
+    public SchoolType schoolType(int i) {
+        return EnvironmentFactorTable.schoolType(environmentCell[i]);
+    }
+
+    public FamilyEnvironment familyEnvironment(int i) {
+        return EnvironmentFactorTable.familyEnvironment(environmentCell[i]);
+    }
+
+    public double confidence(int i) {
+        return confidence[i];
+    }
+
+    public double bullyingRisk(int i) {
+        return bullyingRisk[i];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+}
@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.strategy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PredictionTimeoutException extends RuntimeException {
+    
+    public PredictionTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.psyche.platform.prediction.strategy;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Неизменяемый реестр стратегий, собираемый при старте.
+ * Стратегия по имени находится одним поиском в Map; неизвестное имя отклоняется
+ * до начала любых расчетов. Дополнительно регистрирует режим ENSEMBLE.
+ */
+@Component
+public class StrategyRegistry implements DisposableBean {
+    
+    private final List<MBTIPredictionStrategy> strategies;
+    private final EnsembleMBTIStrategy ensemble;
+    private final Map<String, MBTIPredictionStrategy> byName;
+    
+    public StrategyRegistry(List<MBTIPredictionStrategy> strategies, EnsembleProperties ensembleProperties) {
+        this.strategies = List.copyOf(strategies);
+        this.ensemble = new EnsembleMBTIStrategy(this.strategies, ensembleProperties);
+        
+        Map<String, MBTIPredictionStrategy> names = new HashMap<>();
+        for (MBTIPredictionStrategy strategy : this.strategies) {
+            register(names, strategy);
+        }
+        register(names, ensemble);
+        this.byName = Map.copyOf(names);
+    }
+    
+    private static void register(Map<String, MBTIPredictionStrategy> names, MBTIPredictionStrategy strategy) {
+        MBTIPredictionStrategy previous = names.putIfAbsent(strategy.getStrategyName(), strategy);
+        if (previous != null) {
+            throw new IllegalStateException("Две стратегии с именем " + strategy.getStrategyName());
+        }
+    }
+    
+    public MBTIPredictionStrategy resolve(String strategyName) {
+        MBTIPredictionStrategy strategy = strategyName != null ? byName.get(strategyName) : null;
+        if (strategy == null) {
+            throw new UnknownStrategyException(strategyName);
+        }
+        return strategy;
+    }
+    
+    /**
+     * Базовые стратегии (без ансамбля)
+     */
+    public List<MBTIPredictionStrategy> getStrategies() {
+        return strategies;
+    }
+    
+    /**
+     * Имена всех доступных режимов, включая ENSEMBLE
+     */
+    public Set<String> getStrategyNames() {
+        return byName.keySet();
+    }
+    
+    @Override
+    public void destroy() {
+        ensemble.shutdown();
+    }
+}
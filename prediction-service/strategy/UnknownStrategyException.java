@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.strategy;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownStrategyException extends RuntimeException {
+    
+    public UnknownStrategyException(String strategyName) {
+        super("Неизвестная стратегия: " + strategyName);
+    }
+}
@@ -0,0 +1,343 @@
+package com.psyche.platform.prediction.timeline;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.strategy.IncrementalMBTIStrategy;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import com.psyche.platform.shared.model.TraitVector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Хронология одного ребенка: текущее состояние и дельта-журнал всех точек.
+ * Источник истины — файл хронологии (TimelineFile), объект лишь держит прочитанную его часть:
+ * перед каждой операцией дочитываются кадры, дописанные с тех пор (в том числе другим экземпляром
+ * сервиса с тем же каталогом), а при пересоздании файла журнал читается заново.
+ * Изменение дописывается под блокировкой файла и сбрасывается на диск (fsync) до ответа.
+ * Родители фиксируются при создании, поэтому генетические средние считаются один раз.
+ * При изменении среды стратегия с разложением по дихотомиям (IncrementalMBTIStrategy)
+ * пересчитывает только дихотомии, зависящие от изменившихся полей; риск и уверенность
+ * выводятся из вектора черт и пересчитываются всегда. Прочие стратегии (ENSEMBLE)
+ * считаются целиком. Операции одного ребенка в процессе идут по очереди под общим монитором.
+ */
+final class ChildTimeline {
+
+    /**
+     * Действие с открытым и уже дочитанным файлом хронологии
+     */
+    @FunctionalInterface
+    private interface FileOperation<T> {
+        T apply(FileChannel channel) throws IOException;
+    }
+
+    private final String childId;
+    private final Path file;
+    private final Object monitor;
+    private final StrategyRegistry strategies;
+    private final int snapshotInterval;
+
+    // Прочитанное из файла; заменяется целиком, если файл пересоздан
+    private long generation;
+    private MBTIPredictionStrategy strategy;
+    private ParentsGeneticData parents;
+    private double[] parentAverages;
+    private TimelineLog log;
+    private final TimelineState current = new TimelineState();
+    private long fileSize = -1; // конец прочитанных кадров; -1 — перечитать файл целиком
+
+    /**
+     * @param monitor общий для всех объектов этого ребенка в процессе: блокировка файла
+     *                принадлежит процессу и не упорядочивает его собственные потоки
+     */
+    ChildTimeline(String childId, Path file, Object monitor, StrategyRegistry strategies, int snapshotInterval) {
+        this.childId = childId;
+        this.file = file;
+        this.monitor = monitor;
+        this.strategies = strategies;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Создание файла хронологии; ошибка, если у ребенка он уже есть
+     */
+    TimelinePoint create(MBTIPredictionStrategy strategy, ParentsGeneticData parents,
+                         EnvironmentData environment, long timestamp) {
+        strategy.validateInput(parents, environment);
+        TimelineState initial = TimelineState.of(environment);
+        initial.setResult(strategy.predict(parents, environment));
+        TimelineLog created = new TimelineLog();
+        created.appendSnapshot(timestamp, 0, initial);
+        TimelineFile.Header header = new TimelineFile.Header(
+            ThreadLocalRandom.current().nextLong(), strategy.getStrategyName(), parents);
+
+        synchronized (monitor) {
+            // Файл пишется под временным именем и появляется под своим уже целым (жесткая ссылка
+            // не заменяет существующий файл), поэтому пустой файл хронологии бывает только после удаления
+            Path temporary = file.resolveSibling(file.getFileName() + "." + Long.toHexString(header.generation()) + ".tmp");
+            long end;
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    end = TimelineFile.writeHeader(channel, header, created.lastEntry());
+                    channel.force(true);
+                }
+                try {
+                    Files.createLink(file, temporary);
+                } catch (FileAlreadyExistsException e) {
+                    if (!removeTombstone()) {
+                        throw new InvalidTimelineRequestException("Хронология ребенка " + childId + " уже существует");
+                    }
+                    Files.createLink(file, temporary);
+                }
+            } catch (FileAlreadyExistsException e) {
+                throw new InvalidTimelineRequestException("Хронология ребенка " + childId + " уже существует");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deleteQuietly(temporary);
+            }
+            install(header, strategy, created, end);
+            return currentPoint();
+        }
+    }
+
+    /**
+     * Удаление файла хронологии под исключительной блокировкой. Перед удалением файл обрезается
+     * до нуля: кто открыл его раньше и ждет блокировки, увидит пустой файл и ответит "не найдена",
+     * а не допишет изменение в уже удаленный файл
+     *
+     * @return false, если хронологии не было
+     */
+    boolean delete() {
+        synchronized (monitor) {
+            release();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                boolean existed = channel.size() > 0;
+                channel.truncate(0);
+                channel.force(true);
+                Files.delete(file);
+                return existed;
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Пустой файл, оставшийся от удаления, прерванного сбоем, удаляется; true, если файла больше нет
+     */
+    private boolean removeTombstone() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            if (channel.size() > 0) {
+                return false;
+            }
+            Files.delete(file);
+            return true;
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // временный файл без ссылки из каталога хронологий ни на что не влияет
+        }
+    }
+
+    TimelinePoint apply(EnvironmentChange change, long timestamp) {
+        return withFile(true, channel -> {
+            if (timestamp < log.lastTimestamp()) {
+                throw new InvalidTimelineRequestException("Изменение раньше последней точки хронологии "
+                    + childId + ": изменения принимаются только по порядку времени");
+            }
+            // Пока изменение не записано, память расходится с файлом: при сбое он будет перечитан
+            long position = fileSize;
+            fileSize = -1;
+            int fields = current.apply(change);
+            if (fields == 0) {
+                // Среда не изменилась: точка не записывается
+                fileSize = position;
+                TimelinePoint unchanged = currentPoint();
+                unchanged.setRecomputed(Set.of());
+                return unchanged;
+            }
+
+            double[] previousTraits = current.traits.clone();
+            double previousRisk = current.bullyingRisk;
+            double previousConfidence = current.confidence;
+            int recomputed = recompute(fields);
+
+            if (log.deltasSinceSnapshot() + 1 >= snapshotInterval) {
+                log.appendSnapshot(timestamp, fields, current);
+            } else {
+                log.appendDelta(timestamp, fields, current,
+                    TimelineLog.valueMask(previousTraits, previousRisk, previousConfidence, current));
+            }
+            long end = TimelineFile.append(channel, position, log.lastEntry());
+            channel.force(false);
+            fileSize = end;
+
+            TimelinePoint point = current.toPoint(timestamp, fields);
+            point.setRecomputed(dichotomies(recomputed));
+            return point;
+        });
+    }
+
+    /**
+     * Пересчет после изменения полей fields; возвращает маску пересчитанных дихотомий
+     */
+    private int recompute(int fields) {
+        EnvironmentData environment = current.toEnvironment();
+        if (!(strategy instanceof IncrementalMBTIStrategy incremental)) {
+            current.setResult(strategy.predict(parents, environment));
+            return IncrementalMBTIStrategy.ALL_DICHOTOMIES;
+        }
+
+        int dichotomies = 0;
+        for (EnvironmentField field : EnvironmentField.values()) {
+            if ((fields & field.bit()) != 0) {
+                dichotomies |= incremental.dependentDichotomies(field);
+            }
+        }
+        int cell = PredictionBatch.environmentCell(environment);
+        double friends = current.friends();
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            if ((dichotomies & (1 << d)) != 0) {
+                current.traits[d] = incremental.scoreDichotomy(
+                    TraitVector.Dichotomy.byIndex(d), parentAverages[d], cell, friends);
+            }
+        }
+        TraitVector traits = current.traitVector();
+        current.bullyingRisk = incremental.calculateBullyingRisk(traits, environment);
+        current.confidence = incremental.calculateConfidence(traits);
+        return dichotomies;
+    }
+
+    TimelineTrajectory trajectory(long from, long to) {
+        return withFile(false, channel -> {
+            List<TimelinePoint> points = new ArrayList<>();
+            log.replay(from, to, (timestamp, fieldMask, state) -> points.add(state.toPoint(timestamp, fieldMask)));
+            return TimelineTrajectory.builder()
+                .childId(childId)
+                .strategy(strategy.getStrategyName())
+                .points(points)
+                .entries(log.entries())
+                .snapshots(log.snapshots())
+                .encodedBytes(log.size())
+                .build();
+        });
+    }
+
+    private TimelinePoint currentPoint() {
+        return current.toPoint(log.lastTimestamp(), 0);
+    }
+
+    /**
+     * Операция над дочитанным файлом; запись — под исключительной блокировкой файла
+     */
+    private <T> T withFile(boolean write, FileOperation<T> operation) {
+        synchronized (monitor) {
+            try (FileChannel channel = write
+                     ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                     : FileChannel.open(file, StandardOpenOption.READ);
+                 FileLock lock = write ? channel.lock() : null) {
+                sync(channel, write);
+                return operation.apply(channel);
+            } catch (NoSuchFileException e) {
+                release();
+                throw new TimelineNotFoundException(childId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Догоняет файл: дочитывает новые кадры или, если файл пересоздан, читает его заново.
+     * Пишущий обрезает непроверенный хвост (недописанный кадр после сбоя), чтобы дописать
+     * следующий кадр сразу за последним целым
+     */
+    private void sync(FileChannel channel, boolean write) throws IOException {
+        long size = channel.size();
+        if (fileSize >= 0 && size >= fileSize && TimelineFile.generation(channel) == generation) {
+            if (size > fileSize) {
+                fileSize = TimelineFile.readFrames(channel, fileSize, log::appendEncoded);
+                restoreCurrent();
+            }
+        } else {
+            reload(channel);
+        }
+        if (write && size > fileSize) {
+            channel.truncate(fileSize);
+        }
+    }
+
+    private void reload(FileChannel channel) throws IOException {
+        TimelineFile.Header[] header = new TimelineFile.Header[1];
+        TimelineLog loaded = new TimelineLog();
+        long end = TimelineFile.readFrames(channel, 0, frame -> {
+            if (header[0] == null) {
+                header[0] = TimelineFile.readHeader(frame);
+            } else {
+                loaded.appendEncoded(frame);
+            }
+        });
+        if (header[0] == null || loaded.entries() == 0) {
+            // Создатель еще не дописал файл или он поврежден целиком
+            release();
+            throw new TimelineNotFoundException(childId);
+        }
+        install(header[0], strategies.resolve(header[0].strategy()), loaded, end);
+    }
+
+    private void install(TimelineFile.Header header, MBTIPredictionStrategy strategy, TimelineLog log, long end) {
+        this.generation = header.generation();
+        this.strategy = strategy;
+        this.parents = header.parents();
+        this.parentAverages = IncrementalMBTIStrategy.parentAverages(parents);
+        this.log = log;
+        this.fileSize = end;
+        restoreCurrent();
+    }
+
+    /**
+     * Текущее состояние — последняя точка журнала
+     */
+    private void restoreCurrent() {
+        log.replay(log.lastTimestamp(), Long.MAX_VALUE, (timestamp, fieldMask, state) -> current.copyFrom(state));
+    }
+
+    private void release() {
+        log = null;
+        fileSize = -1;
+    }
+
+    private static Set<TraitVector.Dichotomy> dichotomies(int mask) {
+        Set<TraitVector.Dichotomy> dichotomies = EnumSet.noneOf(TraitVector.Dichotomy.class);
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            if ((mask & (1 << d)) != 0) {
+                dichotomies.add(TraitVector.Dichotomy.byIndex(d));
+            }
+        }
+        return dichotomies;
+    }
+}
@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.timeline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTimelineRequestException extends RuntimeException {
+    
+    public InvalidTimelineRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,163 @@
+package com.psyche.platform.prediction.timeline;
+
+import com.psyche.platform.prediction.model.ParentsGeneticData;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Файл хронологии одного ребенка: последовательность кадров
+ * <pre>
+ * кадр:      [int длина содержимого][содержимое][int CRC32C содержимого]
+ * заголовок: [long поколение][short длина][стратегия UTF-8][8 оценок родителей double, NaN — не задана]
+ * </pre>
+ * Первый кадр — заголовок, каждый следующий — одна запись TimelineLog как есть.
+ * Поколение — случайное число при создании: по нему читатель отличает пересозданный файл
+ * от дописанного. Чтение обрывается на первом непроверенном кадре (недописанный хвост).
+ */
+final class TimelineFile {
+
+    private static final String SUFFIX = ".timeline";
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int CRC_SIZE = Integer.BYTES;
+    private static final int MAX_FRAME_SIZE = 64 * 1024;
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int PARENT_SCORES = 8;
+
+    record Header(long generation, String strategy, ParentsGeneticData parents) {
+    }
+
+    private TimelineFile() {
+    }
+
+    /**
+     * Путь файла ребенка: идентификатор в base64url, чтобы любой childId был допустимым именем файла
+     */
+    static Path path(Path directory, String childId) {
+        String name = Base64.getUrlEncoder().withoutPadding().encodeToString(childId.getBytes(StandardCharsets.UTF_8));
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new InvalidTimelineRequestException("Слишком длинный идентификатор ребенка");
+        }
+        return directory.resolve(name + SUFFIX);
+    }
+
+    /**
+     * Кадр заголовка и кадр первой записи с позиции 0; возвращает конец записанного
+     */
+    static long writeHeader(FileChannel channel, Header header, ByteBuffer firstEntry) throws IOException {
+        byte[] strategy = header.strategy().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + Short.BYTES + strategy.length + PARENT_SCORES * Double.BYTES);
+        payload.putLong(header.generation());
+        payload.putShort((short) strategy.length);
+        payload.put(strategy);
+        for (Double score : parentScores(header.parents())) {
+            payload.putDouble(score != null ? score : Double.NaN);
+        }
+        long end = append(channel, 0, payload.flip());
+        return append(channel, end, firstEntry);
+    }
+
+    /**
+     * Дописывание кадра с позиции position; возвращает конец кадра. fsync — на вызывающем
+     */
+    static long append(FileChannel channel, long position, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + length + CRC_SIZE);
+        frame.putInt(length);
+        frame.putInt(LENGTH_SIZE + length, checksum(payload));
+        frame.put(payload);
+        frame.position(0);
+        long at = position;
+        while (frame.hasRemaining()) {
+            at += channel.write(frame, at);
+        }
+        return at;
+    }
+
+    /**
+     * Поколение файла без чтения всего заголовка
+     */
+    static long generation(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        readFully(channel, buffer, LENGTH_SIZE);
+        return buffer.getLong(0);
+    }
+
+    static Header readHeader(ByteBuffer payload) {
+        long generation = payload.getLong();
+        byte[] strategy = new byte[payload.getShort()];
+        payload.get(strategy);
+        Double[] scores = new Double[PARENT_SCORES];
+        for (int i = 0; i < PARENT_SCORES; i++) {
+            double score = payload.getDouble();
+            scores[i] = Double.isNaN(score) ? null : score;
+        }
+        ParentsGeneticData parents = new ParentsGeneticData();
+        parents.setFatherExtraversion(scores[0]);
+        parents.setFatherIntuition(scores[1]);
+        parents.setFatherThinking(scores[2]);
+        parents.setFatherJudging(scores[3]);
+        parents.setMotherExtraversion(scores[4]);
+        parents.setMotherIntuition(scores[5]);
+        parents.setMotherThinking(scores[6]);
+        parents.setMotherJudging(scores[7]);
+        return new Header(generation, new String(strategy, StandardCharsets.UTF_8), parents);
+    }
+
+    /**
+     * Проверенные кадры файла с позиции from; содержимое каждого передается в frames.
+     * Возвращает конец последнего проверенного кадра
+     */
+    static long readFrames(FileChannel channel, long from, Consumer<ByteBuffer> frames) throws IOException {
+        long size = channel.size();
+        if (size <= from) {
+            return from;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - from));
+        readFully(channel, buffer, from);
+        int offset = 0;
+        while (buffer.limit() - offset >= LENGTH_SIZE + CRC_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > MAX_FRAME_SIZE || length > buffer.limit() - offset - LENGTH_SIZE - CRC_SIZE) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(offset + LENGTH_SIZE, length);
+            if (checksum(payload.duplicate()) != buffer.getInt(offset + LENGTH_SIZE + length)) {
+                break;
+            }
+            frames.accept(payload);
+            offset += LENGTH_SIZE + length + CRC_SIZE;
+        }
+        return from + offset;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Файл хронологии короче ожидаемого");
+            }
+        }
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static Double[] parentScores(ParentsGeneticData parents) {
+        return new Double[] {
+            parents.getFatherExtraversion(), parents.getFatherIntuition(),
+            parents.getFatherThinking(), parents.getFatherJudging(),
+            parents.getMotherExtraversion(), parents.getMotherIntuition(),
+            parents.getMotherThinking(), parents.getMotherJudging()
+        };
+    }
+}
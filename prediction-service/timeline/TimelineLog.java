@@ -0,0 +1,355 @@
+package com.psyche.platform.prediction.timeline;
+
+import com.psyche.platform.prediction.model.EnvironmentField;
+import com.psyche.platform.prediction.model.FamilyEnvironment;
+import com.psyche.platform.prediction.model.SchoolType;
+import com.psyche.platform.shared.model.TraitVector;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Дельта-кодированный журнал хронологии одного ребенка в растущем массиве байт.
+ * <pre>
+ * снимок: [1][время, мс varint][маска полей][школа][семья][порядок рождения][братья/сестры][друзья double]
+ *         [4 черты double][риск double][уверенность double]
+ * дельта: [2][приращение времени varint][маска полей][только измененные поля]
+ *         [маска значений][только изменившиеся черты, риск, уверенность]
+ * </pre>
+ * Порядок рождения — zigzag varint + 1 (0 — не задан), братья/сестры — 0/1/2 (не задано/да/нет),
+ * влияние друзей NaN — не задано. Для каждого снимка хранится его смещение и время,
+ * поэтому чтение с момента from начинается с ближайшего снимка, а не с начала журнала.
+ * Каждая запись самодостаточна при известном предыдущем времени: файл хронологии (TimelineFile)
+ * хранит их по одной в кадре, и журнал восстанавливается дописыванием тех же байт.
+ */
+final class TimelineLog {
+
+    private static final byte SNAPSHOT = 1;
+    private static final byte DELTA = 2;
+    private static final int RISK_BIT = 1 << TraitVector.DICHOTOMIES;
+    private static final int CONFIDENCE_BIT = RISK_BIT << 1;
+    private static final int INITIAL_CAPACITY = 128;
+
+    private static final SchoolType[] SCHOOL_TYPES = SchoolType.values();
+    private static final FamilyEnvironment[] FAMILY_ENVIRONMENTS = FamilyEnvironment.values();
+
+    /**
+     * Получатель развернутых точек при чтении; state переиспользуется между вызовами
+     */
+    @FunctionalInterface
+    interface PointVisitor {
+        void visit(long timestamp, int fieldMask, TimelineState state);
+    }
+
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int entries;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private int lastEntryOffset;
+    private int deltasSinceSnapshot;
+
+    private int[] snapshotOffsets = new int[4];
+    private long[] snapshotTimestamps = new long[4];
+    private int snapshots;
+
+    void appendSnapshot(long timestamp, int fieldMask, TimelineState state) {
+        addSnapshot(size, timestamp);
+        lastEntryOffset = size;
+
+        writeByte(SNAPSHOT);
+        writeVarLong(timestamp);
+        writeByte(fieldMask);
+        writeByte(state.schoolType.ordinal());
+        writeByte(state.familyEnvironment.ordinal());
+        writeBirthOrder(state.birthOrder);
+        writeSiblings(state.hasSiblings);
+        writeDouble(state.friendsInfluence != null ? state.friendsInfluence : Double.NaN);
+        for (double trait : state.traits) {
+            writeDouble(trait);
+        }
+        writeDouble(state.bullyingRisk);
+        writeDouble(state.confidence);
+        finishEntry(timestamp, true);
+    }
+
+    /**
+     * valueMask: биты 0-3 — изменившиеся дихотомии, далее риск и уверенность
+     */
+    void appendDelta(long timestamp, int fieldMask, TimelineState state, int valueMask) {
+        lastEntryOffset = size;
+        writeByte(DELTA);
+        writeVarLong(timestamp - lastTimestamp);
+        writeByte(fieldMask);
+        if ((fieldMask & EnvironmentField.SCHOOL_TYPE.bit()) != 0) {
+            writeByte(state.schoolType.ordinal());
+        }
+        if ((fieldMask & EnvironmentField.FAMILY_ENVIRONMENT.bit()) != 0) {
+            writeByte(state.familyEnvironment.ordinal());
+        }
+        if ((fieldMask & EnvironmentField.BIRTH_ORDER.bit()) != 0) {
+            writeBirthOrder(state.birthOrder);
+        }
+        if ((fieldMask & EnvironmentField.HAS_SIBLINGS.bit()) != 0) {
+            writeSiblings(state.hasSiblings);
+        }
+        if ((fieldMask & EnvironmentField.FRIENDS_INFLUENCE.bit()) != 0) {
+            writeDouble(state.friendsInfluence);
+        }
+        writeByte(valueMask);
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            if ((valueMask & (1 << d)) != 0) {
+                writeDouble(state.traits[d]);
+            }
+        }
+        if ((valueMask & RISK_BIT) != 0) {
+            writeDouble(state.bullyingRisk);
+        }
+        if ((valueMask & CONFIDENCE_BIT) != 0) {
+            writeDouble(state.confidence);
+        }
+        finishEntry(timestamp, false);
+    }
+
+    /**
+     * Дописывание уже закодированной записи (из файла хронологии)
+     */
+    void appendEncoded(ByteBuffer entry) {
+        int length = entry.remaining();
+        ensureCapacity(length);
+        lastEntryOffset = size;
+        entry.get(data, size, length);
+        size += length;
+
+        int[] position = {lastEntryOffset + 1};
+        long time = readVarLong(position);
+        boolean snapshot = data[lastEntryOffset] == SNAPSHOT;
+        long timestamp = snapshot ? time : lastTimestamp + time;
+        if (snapshot) {
+            addSnapshot(lastEntryOffset, timestamp);
+        }
+        finishEntry(timestamp, snapshot);
+    }
+
+    /**
+     * Байты последней записи — то, что дописывается в файл хронологии
+     */
+    ByteBuffer lastEntry() {
+        return ByteBuffer.wrap(data, lastEntryOffset, size - lastEntryOffset);
+    }
+
+    /**
+     * Маска значений дельты: что изменилось между двумя состояниями
+     */
+    static int valueMask(double[] previousTraits, double previousRisk, double previousConfidence, TimelineState state) {
+        int mask = 0;
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            if (Double.compare(previousTraits[d], state.traits[d]) != 0) {
+                mask |= 1 << d;
+            }
+        }
+        if (Double.compare(previousRisk, state.bullyingRisk) != 0) {
+            mask |= RISK_BIT;
+        }
+        if (Double.compare(previousConfidence, state.confidence) != 0) {
+            mask |= CONFIDENCE_BIT;
+        }
+        return mask;
+    }
+
+    /**
+     * Проигрывание точек с временем в [from, to] начиная с последнего снимка не позже from
+     */
+    void replay(long from, long to, PointVisitor visitor) {
+        if (entries == 0) {
+            return;
+        }
+        // Последний снимок строго раньше from: точки с временем from могут стоять и перед снимком
+        int low = 0;
+        int high = snapshots;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (snapshotTimestamps[middle] < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int first = Math.max(0, low - 1);
+
+        TimelineState state = new TimelineState();
+        int[] position = {snapshotOffsets[first]};
+        long timestamp = 0;
+        while (position[0] < size) {
+            byte kind = data[position[0]++];
+            int fieldMask;
+            if (kind == SNAPSHOT) {
+                timestamp = readVarLong(position);
+                fieldMask = data[position[0]++];
+                readSnapshot(position, state);
+            } else {
+                timestamp += readVarLong(position);
+                fieldMask = data[position[0]++];
+                readDelta(position, fieldMask, state);
+            }
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                visitor.visit(timestamp, fieldMask, state);
+            }
+        }
+    }
+
+    private void readSnapshot(int[] position, TimelineState state) {
+        state.schoolType = SCHOOL_TYPES[data[position[0]++]];
+        state.familyEnvironment = FAMILY_ENVIRONMENTS[data[position[0]++]];
+        state.birthOrder = readBirthOrder(position);
+        state.hasSiblings = readSiblings(position);
+        double friends = readDouble(position);
+        state.friendsInfluence = Double.isNaN(friends) ? null : friends;
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            state.traits[d] = readDouble(position);
+        }
+        state.bullyingRisk = readDouble(position);
+        state.confidence = readDouble(position);
+    }
+
+    private void readDelta(int[] position, int fieldMask, TimelineState state) {
+        if ((fieldMask & EnvironmentField.SCHOOL_TYPE.bit()) != 0) {
+            state.schoolType = SCHOOL_TYPES[data[position[0]++]];
+        }
+        if ((fieldMask & EnvironmentField.FAMILY_ENVIRONMENT.bit()) != 0) {
+            state.familyEnvironment = FAMILY_ENVIRONMENTS[data[position[0]++]];
+        }
+        if ((fieldMask & EnvironmentField.BIRTH_ORDER.bit()) != 0) {
+            state.birthOrder = readBirthOrder(position);
+        }
+        if ((fieldMask & EnvironmentField.HAS_SIBLINGS.bit()) != 0) {
+            state.hasSiblings = readSiblings(position);
+        }
+        if ((fieldMask & EnvironmentField.FRIENDS_INFLUENCE.bit()) != 0) {
+            state.friendsInfluence = readDouble(position);
+        }
+        int valueMask = data[position[0]++];
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            if ((valueMask & (1 << d)) != 0) {
+                state.traits[d] = readDouble(position);
+            }
+        }
+        if ((valueMask & RISK_BIT) != 0) {
+            state.bullyingRisk = readDouble(position);
+        }
+        if ((valueMask & CONFIDENCE_BIT) != 0) {
+            state.confidence = readDouble(position);
+        }
+    }
+
+    private void addSnapshot(int offset, long timestamp) {
+        if (snapshots == snapshotOffsets.length) {
+            snapshotOffsets = Arrays.copyOf(snapshotOffsets, snapshots * 2);
+            snapshotTimestamps = Arrays.copyOf(snapshotTimestamps, snapshots * 2);
+        }
+        snapshotOffsets[snapshots] = offset;
+        snapshotTimestamps[snapshots] = timestamp;
+        snapshots++;
+    }
+
+    private void finishEntry(long timestamp, boolean snapshot) {
+        lastTimestamp = timestamp;
+        deltasSinceSnapshot = snapshot ? 0 : deltasSinceSnapshot + 1;
+        entries++;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int entries() {
+        return entries;
+    }
+
+    int snapshots() {
+        return snapshots;
+    }
+
+    int deltasSinceSnapshot() {
+        return deltasSinceSnapshot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void writeBirthOrder(Integer birthOrder) {
+        writeVarLong(birthOrder == null ? 0 : ((birthOrder << 1) ^ (birthOrder >> 31)) + 1L);
+    }
+
+    private Integer readBirthOrder(int[] position) {
+        long value = readVarLong(position);
+        if (value == 0) {
+            return null;
+        }
+        int zigzag = (int) (value - 1);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private void writeSiblings(Boolean hasSiblings) {
+        writeByte(hasSiblings == null ? 0 : hasSiblings ? 1 : 2);
+    }
+
+    private Boolean readSiblings(int[] position) {
+        return switch (data[position[0]++]) {
+            case 1 -> Boolean.TRUE;
+            case 2 -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        data[size++] = (byte) value;
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    private long readVarLong(int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private void writeDouble(double value) {
+        ensureCapacity(Long.BYTES);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            data[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private double readDouble(int[] position) {
+        long bits = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            bits = (bits << 8) | (data[position[0]++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+}
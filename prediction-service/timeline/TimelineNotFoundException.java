@@ -0,0 +1,12 @@
+package com.psyche.platform.prediction.timeline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TimelineNotFoundException extends RuntimeException {
+    
+    public TimelineNotFoundException(String childId) {
+        super("Хронология ребенка " + childId + " не найдена");
+    }
+}
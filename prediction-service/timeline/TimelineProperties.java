@@ -0,0 +1,23 @@
+package com.psyche.platform.prediction.timeline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки хронологий развития ребенка (prediction.timeline.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.timeline")
+public class TimelineProperties {
+    
+    // Полный снимок после стольких дельт: чтение с произвольного момента разворачивает не больше них
+    private int snapshotInterval = 16;
+    
+    // Каталог файлов хронологий; может быть общим томом нескольких экземпляров
+    private String directory = "data/timelines";
+    
+    // Сколько хронологий держать в памяти; вытесненные перечитываются из файла при обращении
+    private int maxChildren = 100_000;
+}
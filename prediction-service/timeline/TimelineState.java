@@ -0,0 +1,124 @@
+package com.psyche.platform.prediction.timeline;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.shared.model.TraitVector;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Развернутое состояние хронологии в одной точке: среда и результат для нее.
+ * Изменяемое: им пользуются и запись (текущее состояние ребенка), и чтение (проигрывание журнала)
+ */
+final class TimelineState {
+
+    SchoolType schoolType = SchoolType.OTHER;
+    FamilyEnvironment familyEnvironment = FamilyEnvironment.NEUTRAL;
+    Integer birthOrder;
+    Boolean hasSiblings;
+    Double friendsInfluence;
+
+    final double[] traits = new double[TraitVector.DICHOTOMIES];
+    double bullyingRisk;
+    double confidence;
+
+    static TimelineState of(EnvironmentData environment) {
+        TimelineState state = new TimelineState();
+        state.schoolType = environment.getSchoolType();
+        state.familyEnvironment = environment.getFamilyEnvironment();
+        state.birthOrder = environment.getBirthOrder();
+        state.hasSiblings = environment.getHasSiblings();
+        state.friendsInfluence = environment.getFriendsInfluence();
+        return state;
+    }
+
+    void copyFrom(TimelineState other) {
+        schoolType = other.schoolType;
+        familyEnvironment = other.familyEnvironment;
+        birthOrder = other.birthOrder;
+        hasSiblings = other.hasSiblings;
+        friendsInfluence = other.friendsInfluence;
+        System.arraycopy(other.traits, 0, traits, 0, traits.length);
+        bullyingRisk = other.bullyingRisk;
+        confidence = other.confidence;
+    }
+
+    /**
+     * Применяет изменение среды; возвращает маску полей, значение которых действительно изменилось
+     */
+    int apply(EnvironmentChange change) {
+        int fields = 0;
+        if (change.getSchoolType() != null && change.getSchoolType() != schoolType) {
+            schoolType = change.getSchoolType();
+            fields |= EnvironmentField.SCHOOL_TYPE.bit();
+        }
+        if (change.getFamilyEnvironment() != null && change.getFamilyEnvironment() != familyEnvironment) {
+            familyEnvironment = change.getFamilyEnvironment();
+            fields |= EnvironmentField.FAMILY_ENVIRONMENT.bit();
+        }
+        if (change.getBirthOrder() != null && !change.getBirthOrder().equals(birthOrder)) {
+            birthOrder = change.getBirthOrder();
+            fields |= EnvironmentField.BIRTH_ORDER.bit();
+        }
+        if (change.getHasSiblings() != null && !change.getHasSiblings().equals(hasSiblings)) {
+            hasSiblings = change.getHasSiblings();
+            fields |= EnvironmentField.HAS_SIBLINGS.bit();
+        }
+        if (change.getFriendsInfluence() != null && !change.getFriendsInfluence().equals(friendsInfluence)) {
+            friendsInfluence = change.getFriendsInfluence();
+            fields |= EnvironmentField.FRIENDS_INFLUENCE.bit();
+        }
+        return fields;
+    }
+
+    void setResult(MBTIResult result) {
+        TraitVector scores = result.getTraitScores();
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            traits[d] = scores.get(TraitVector.Dichotomy.byIndex(d));
+        }
+        bullyingRisk = result.getBullyingRisk();
+        confidence = result.getConfidence();
+    }
+
+    double friends() {
+        return friendsInfluence != null ? friendsInfluence : 0.0;
+    }
+
+    TraitVector traitVector() {
+        return new TraitVector(traits[0], traits[1], traits[2], traits[3]);
+    }
+
+    EnvironmentData toEnvironment() {
+        EnvironmentData environment = new EnvironmentData();
+        environment.setSchoolType(schoolType);
+        environment.setFamilyEnvironment(familyEnvironment);
+        environment.setBirthOrder(birthOrder);
+        environment.setHasSiblings(hasSiblings);
+        environment.setFriendsInfluence(friendsInfluence);
+        return environment;
+    }
+
+    TimelinePoint toPoint(long timestamp, int fieldMask) {
+        TraitVector scores = traitVector();
+        return TimelinePoint.builder()
+            .timestamp(Instant.ofEpochMilli(timestamp))
+            .typeCode(scores.packedType())
+            .traitScores(scores)
+            .confidence(confidence)
+            .bullyingRisk(bullyingRisk)
+            .environment(toEnvironment())
+            .changedFields(fields(fieldMask))
+            .build();
+    }
+
+    static Set<EnvironmentField> fields(int fieldMask) {
+        Set<EnvironmentField> fields = EnumSet.noneOf(EnvironmentField.class);
+        for (EnvironmentField field : EnvironmentField.values()) {
+            if ((fieldMask & field.bit()) != 0) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+}
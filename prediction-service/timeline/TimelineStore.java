@@ -0,0 +1,113 @@
+package com.psyche.platform.prediction.timeline;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psyche.platform.prediction.model.EnvironmentChange;
+import com.psyche.platform.prediction.model.PredictionRequest;
+import com.psyche.platform.prediction.model.TimelinePoint;
+import com.psyche.platform.prediction.model.TimelineTrajectory;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Хронологии развития детей в файлах каталога prediction.timeline.directory, по файлу на ребенка.
+ * Каждая хронология хранится дельта-кодированным журналом (TimelineLog) с периодическими
+ * полными снимками: изменение одного поля среды занимает десятки байт вместо полного
+ * MBTIResult, а чтение траектории — проигрывание журнала без расчета стратегий.
+ * Изменение подтверждается только после fsync, поэтому хронологии переживают перезапуск.
+ * В памяти держится не больше prediction.timeline.max-children хронологий (Caffeine):
+ * вытесненная перечитывается из файла при следующем обращении, новые хронологии не отклоняются.
+ * Каталог может быть общим для нескольких экземпляров: запись идет под блокировкой файла,
+ * а перед каждой операцией хронология дочитывает чужие изменения.
+ */
+@Component
+public class TimelineStore implements InitializingBean {
+    
+    private static final int MONITORS = 256;
+    
+    private final StrategyRegistry strategyRegistry;
+    private final TimelineProperties properties;
+    private final Cache<String, ChildTimeline> timelines;
+    private final Object[] monitors = new Object[MONITORS];
+    private Path directory;
+    
+    public TimelineStore(StrategyRegistry strategyRegistry, TimelineProperties properties) {
+        if (properties.getSnapshotInterval() < 1) {
+            throw new IllegalStateException("prediction.timeline.snapshot-interval должен быть больше нуля");
+        }
+        this.strategyRegistry = strategyRegistry;
+        this.properties = properties;
+        this.timelines = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxChildren())
+            .build();
+        for (int i = 0; i < MONITORS; i++) {
+            monitors[i] = new Object();
+        }
+    }
+    
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+    }
+    
+    /**
+     * Новая хронология: родители и начальная среда из запроса, стратегия фиксируется на всю хронологию
+     */
+    public TimelinePoint create(String childId, PredictionRequest request, String strategyName, Instant at) {
+        MBTIPredictionStrategy strategy = strategyRegistry.resolve(strategyName);
+        long timestamp = (at != null ? at : Instant.now()).toEpochMilli();
+        ChildTimeline created = newTimeline(childId);
+        TimelinePoint point = created.create(strategy, request.getParents(), request.getEnvironment(), timestamp);
+        timelines.put(childId, created);
+        return point;
+    }
+    
+    public TimelinePoint applyChange(String childId, EnvironmentChange change) {
+        long timestamp = (change.getAt() != null ? change.getAt() : Instant.now()).toEpochMilli();
+        return timeline(childId).apply(change, timestamp);
+    }
+    
+    /**
+     * Траектория за [from, to]; границы необязательны
+     */
+    public TimelineTrajectory getTrajectory(String childId, Instant from, Instant to) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        if (fromMillis > toMillis) {
+            throw new InvalidTimelineRequestException("from позже to");
+        }
+        return timeline(childId).trajectory(fromMillis, toMillis);
+    }
+    
+    public void delete(String childId) {
+        timelines.invalidate(childId);
+        if (!newTimeline(childId).delete()) {
+            throw new TimelineNotFoundException(childId);
+        }
+    }
+    
+    /**
+     * Хронология из памяти или, если вытеснена, новый объект: он прочитает файл при первой операции
+     */
+    private ChildTimeline timeline(String childId) {
+        return timelines.get(childId, this::newTimeline);
+    }
+    
+    private ChildTimeline newTimeline(String childId) {
+        return new ChildTimeline(childId, TimelineFile.path(directory, childId), monitor(childId),
+            strategyRegistry, properties.getSnapshotInterval());
+    }
+    
+    private Object monitor(String childId) {
+        return monitors[Math.floorMod(childId.hashCode(), MONITORS)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.psyche.platform.prediction.uncertainty;
+
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.shared.model.MBTITypeCode;
+import com.psyche.platform.shared.model.TraitVector;
+
+/**
+ * Накопитель выборок одной задачи: гистограммы черт и счетчики типов.
+ * Каждая задача заполняет свой экземпляр без синхронизации, в конце они сливаются.
+ */
+final class SampleAccumulator {
+
+    static final int BINS = 200;
+
+    final long[][] histograms = new long[TraitVector.DICHOTOMIES][BINS];
+    final double[] sums = new double[TraitVector.DICHOTOMIES];
+    final long[] typeCounts = new long[MBTITypeCode.COUNT];
+    int samples;
+
+    void add(PredictionBatch batch) {
+        int size = batch.size();
+        for (int i = 0; i < size; i++) {
+            double e = batch.extraversion(i);
+            double n = batch.intuition(i);
+            double t = batch.thinking(i);
+            double j = batch.judging(i);
+            record(0, e);
+            record(1, n);
+            record(2, t);
+            record(3, j);
+            typeCounts[MBTITypeCode.of(e, n, t, j)]++;
+        }
+        samples += size;
+    }
+
+    private void record(int dichotomy, double value) {
+        histograms[dichotomy][(int) Math.max(0, Math.min(BINS - 1, value * BINS))]++;
+        sums[dichotomy] += value;
+    }
+
+    void merge(SampleAccumulator other) {
+        for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+            for (int b = 0; b < BINS; b++) {
+                histograms[d][b] += other.histograms[d][b];
+            }
+            sums[d] += other.sums[d];
+        }
+        for (int i = 0; i < typeCounts.length; i++) {
+            typeCounts[i] += other.typeCounts[i];
+        }
+        samples += other.samples;
+    }
+
+    /**
+     * Квантиль черты по гистограмме (середина интервала, точность 1/BINS)
+     */
+    double quantile(int dichotomy, double q) {
+        long target = Math.max(1, (long) Math.ceil(q * samples));
+        long cumulative = 0;
+        long[] histogram = histograms[dichotomy];
+        for (int b = 0; b < BINS; b++) {
+            cumulative += histogram[b];
+            if (cumulative >= target) {
+                return (b + 0.5) / BINS;
+            }
+        }
+        return 1.0;
+    }
+
+    double mean(int dichotomy) {
+        return samples > 0 ? sums[dichotomy] / samples : 0.0;
+    }
+}
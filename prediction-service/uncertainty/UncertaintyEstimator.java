@@ -0,0 +1,178 @@
+package com.psyche.platform.prediction.uncertainty;
+
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.strategy.MBTIPredictionStrategy;
+import com.psyche.platform.prediction.strategy.PredictionBatch;
+import com.psyche.platform.shared.model.MBTIType;
+import com.psyche.platform.shared.model.TraitVector;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Оценка неопределенности методом Монте-Карло.
+ * Анкетные оценки родителей и влияние друзей зашумляются нормальным шумом,
+ * возмущенные входы считаются пакетно через scoreBatch стратегии.
+ * Бюджет выборок делится между задачами отдельного ForkJoinPool; у каждой задачи
+ * свой поток SplittableRandom, полученный split() от корневого, и свой накопитель,
+ * поэтому задачи не разделяют состояние. Задачи проверяют срок между блоками
+ * и возвращают то, что успели посчитать.
+ */
+@Component
+public class UncertaintyEstimator implements DisposableBean {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    // Запас ожидания сверх срока: задача заканчивает текущий блок
+    private static final long GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final UncertaintyProperties properties;
+    private final ForkJoinPool pool;
+
+    public UncertaintyEstimator(UncertaintyProperties properties) {
+        this.properties = properties;
+        int parallelism = properties.getParallelism() > 0
+            ? properties.getParallelism()
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("prediction-uncertainty-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @param samples запрошенный бюджет выборок или null (значение по умолчанию)
+     */
+    public UncertaintyReport estimate(MBTIPredictionStrategy strategy, ParentsGeneticData parents,
+                                      EnvironmentData environment, Integer samples) {
+        int requested = budget(samples);
+        long deadline = System.nanoTime() + properties.getDeadline().toNanos();
+
+        double[] parentScores = {
+            parents.getFatherExtraversion(), parents.getMotherExtraversion(),
+            parents.getFatherIntuition(), parents.getMotherIntuition(),
+            parents.getFatherThinking(), parents.getMotherThinking(),
+            parents.getFatherJudging(), parents.getMotherJudging()
+        };
+        int cell = PredictionBatch.environmentCell(environment);
+        double friends = environment.getFriendsInfluence() != null ? environment.getFriendsInfluence() : 0.0;
+
+        int taskCount = Math.min(pool.getParallelism(), (requested + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        SplittableRandom root = new SplittableRandom();
+        List<ForkJoinTask<SampleAccumulator>> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            int share = requested / taskCount + (t < requested % taskCount ? 1 : 0);
+            SplittableRandom random = root.split();
+            tasks.add(pool.submit(() -> sample(strategy, parentScores, cell, friends, share, random, deadline)));
+        }
+
+        SampleAccumulator total = new SampleAccumulator();
+        for (ForkJoinTask<SampleAccumulator> task : tasks) {
+            SampleAccumulator partial = await(task, deadline);
+            if (partial != null) {
+                total.merge(partial);
+            }
+        }
+        return report(requested, total);
+    }
+
+    private SampleAccumulator sample(MBTIPredictionStrategy strategy, double[] parentScores, int cell,
+                                     double friends, int count, SplittableRandom random, long deadline) {
+        double parentNoise = properties.getParentNoise();
+        double friendsNoise = properties.getFriendsNoise();
+        PredictionBatch batch = new PredictionBatch(Math.min(CHUNK_SIZE, count));
+        SampleAccumulator accumulator = new SampleAccumulator();
+
+        int remaining = count;
+        while (remaining > 0 && System.nanoTime() < deadline) {
+            int chunk = Math.min(remaining, batch.capacity());
+            for (int i = 0; i < chunk; i++) {
+                batch.add(
+                    perturbedMean(parentScores[0], parentScores[1], parentNoise, random),
+                    perturbedMean(parentScores[2], parentScores[3], parentNoise, random),
+                    perturbedMean(parentScores[4], parentScores[5], parentNoise, random),
+                    perturbedMean(parentScores[6], parentScores[7], parentNoise, random),
+                    cell,
+                    perturb(friends, friendsNoise, random));
+            }
+            strategy.scoreBatch(batch);
+            accumulator.add(batch);
+            batch.clear();
+            remaining -= chunk;
+        }
+        return accumulator;
+    }
+
+    private static double perturbedMean(double father, double mother, double sigma, SplittableRandom random) {
+        return (perturb(father, sigma, random) + perturb(mother, sigma, random)) / 2;
+    }
+
+    private static double perturb(double value, double sigma, SplittableRandom random) {
+        return Math.max(0.0, Math.min(1.0, value + random.nextGaussian() * sigma));
+    }
+
+    private SampleAccumulator await(ForkJoinTask<SampleAccumulator> task, long deadline) {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()) + GRACE_NANOS, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка при расчете выборки", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+            return null;
+        }
+    }
+
+    private UncertaintyReport report(int requested, SampleAccumulator total) {
+        double level = properties.getLevel();
+        double tail = (1 - level) / 2;
+        Map<String, TraitInterval> traits = new LinkedHashMap<>();
+        Map<MBTIType, Double> probabilities = new LinkedHashMap<>();
+
+        if (total.samples > 0) {
+            for (int d = 0; d < TraitVector.DICHOTOMIES; d++) {
+                traits.put(TraitVector.Dichotomy.byIndex(d).getPoleCode(), new TraitInterval(
+                    total.mean(d), total.quantile(d, tail), total.quantile(d, 1 - tail)));
+            }
+            // Все 16 типов в порядке объявления MBTIType, невыпавшие — с нулевой вероятностью
+            for (MBTIType type : MBTIType.values()) {
+                probabilities.put(type, (double) total.typeCounts[type.getCode()] / total.samples);
+            }
+        }
+
+        return UncertaintyReport.builder()
+            .samplesRequested(requested)
+            .samplesUsed(total.samples)
+            .level(level)
+            .traits(traits)
+            .typeProbabilities(probabilities)
+            .build();
+    }
+
+    private int budget(Integer samples) {
+        if (samples == null) {
+            return Math.min(properties.getDefaultSamples(), properties.getMaxSamples());
+        }
+        return Math.max(1, Math.min(samples, properties.getMaxSamples()));
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package com.psyche.platform.prediction.uncertainty;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки оценки неопределенности (prediction.uncertainty.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.uncertainty")
+public class UncertaintyProperties {
+    
+    // Бюджет выборок на запрос: по умолчанию и верхняя граница для ?samples=
+    private int defaultSamples = 2_000;
+    private int maxSamples = 50_000;
+    
+    // Срок на запрос: выборки, не посчитанные к сроку, в оценку не входят
+    private Duration deadline = Duration.ofMillis(100);
+    
+    // Стандартное отклонение шума анкетных оценок родителей и влияния друзей
+    private double parentNoise = 0.1;
+    private double friendsNoise = 0.1;
+    
+    // Уровень доверительного интервала
+    private double level = 0.95;
+    
+    // Потоки отдельного пула (0 — половина ядер), чтобы обычные запросы не оставались без CPU
+    private int parallelism = 0;
+}
@@ -0,0 +1,297 @@
+package com.psyche.platform.prediction.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psyche.platform.prediction.PredictionController;
+import com.psyche.platform.prediction.analytics.PopulationAnalytics;
+import com.psyche.platform.prediction.codec.PredictionBinaryCodec;
+import com.psyche.platform.prediction.facts.PredictionFactStore;
+import com.psyche.platform.prediction.model.*;
+import com.psyche.platform.prediction.service.BatchResultSink;
+import com.psyche.platform.prediction.service.PredictionService;
+import com.psyche.platform.prediction.service.ResultSection;
+import com.psyche.platform.prediction.strategy.StrategyRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогрев горячих путей до того, как экземпляр станет виден в discovery.
+ * <p>
+ * Выполняется как SmartLifecycle с отрицательной фазой: контекст стартует фазы по возрастанию,
+ * поэтому прогрев завершается раньше веб-сервера и авто-регистрации в discovery (обе стартуют
+ * в фазах не ниже нулевой). Пока идет прогрев, экземпляр не принимает трафик и не зарегистрирован.
+ * <p>
+ * Синтетические запросы перебирают все стратегии, типы школ, семейные атмосферы, порядки рождения
+ * и варианты наличия братьев/сестер и проходят тот же путь, что и HTTP-запрос после Tomcat:
+ * разбор JSON, контроллер, асинхронный сервис, кэш, стратегия, JSON- и бинарная сериализация ответа.
+ * Прогрев идет раундами, пока среднее время запроса не перестанет меняться и JIT-компиляция
+ * не затихнет, но не дольше prediction.warmup.max-duration.
+ */
+@Slf4j
+@Component
+public class PredictionWarmup implements SmartLifecycle {
+
+    // Раньше WebServerStartStopLifecycle и авто-регистрации в discovery
+    public static final int PHASE = -100;
+
+    private static final String STEP_NAME = "prediction.warmup";
+    private static final int BATCH_SIZE = 256;
+    private static final int UNCERTAINTY_SAMPLES = 64;
+    private static final long SEED = 0x5EEDL;
+
+    private static final SchoolType[] SCHOOL_TYPES = SchoolType.values();
+    private static final FamilyEnvironment[] FAMILY_ENVIRONMENTS = FamilyEnvironment.values();
+    private static final Integer[] BIRTH_ORDERS = {1, 2, 3, 4, null};
+    private static final Boolean[] SIBLINGS = {Boolean.TRUE, Boolean.FALSE, null};
+    private static final int ENVIRONMENT_CELLS =
+        SCHOOL_TYPES.length * FAMILY_ENVIRONMENTS.length * BIRTH_ORDERS.length * SIBLINGS.length;
+
+    private final PredictionController predictionController;
+    private final PredictionService predictionService;
+    private final StrategyRegistry strategyRegistry;
+    private final PopulationAnalytics populationAnalytics;
+    private final PredictionFactStore factStore;
+    private final ObjectMapper objectMapper;
+    private final ApplicationStartup applicationStartup;
+    private final WarmupProperties properties;
+
+    private final OutputStream discard = OutputStream.nullOutputStream();
+    private final DataOutputStream binaryOut = new DataOutputStream(discard);
+
+    private volatile boolean running;
+    private volatile WarmupReport report = WarmupReport.builder().compilationMillis(-1).build();
+
+    public PredictionWarmup(PredictionController predictionController, PredictionService predictionService,
+                            StrategyRegistry strategyRegistry, PopulationAnalytics populationAnalytics,
+                            PredictionFactStore factStore, ObjectMapper objectMapper,
+                            ApplicationStartup applicationStartup, WarmupProperties properties) {
+        this.predictionController = predictionController;
+        this.predictionService = predictionService;
+        this.strategyRegistry = strategyRegistry;
+        this.populationAnalytics = populationAnalytics;
+        this.factStore = factStore;
+        this.objectMapper = objectMapper;
+        this.applicationStartup = applicationStartup;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (properties.isEnabled()) {
+            StartupStep step = applicationStartup.start(STEP_NAME);
+            try {
+                report = warmUp();
+                step.tag("requests", Long.toString(report.getRequests()));
+                step.tag("stabilized", Boolean.toString(report.isStabilized()));
+            } catch (IOException | RuntimeException e) {
+                // Неудачный прогрев не должен мешать старту: экземпляр просто начнет холодным
+                log.warn("Прогрев прерван, экземпляр регистрируется без него", e);
+                step.tag("failed", e.getClass().getSimpleName());
+            } finally {
+                step.end();
+                populationAnalytics.clear();
+                factStore.clear();
+            }
+        }
+        running = true;
+    }
+
+    private WarmupReport warmUp() throws IOException {
+        List<String> strategies = new ArrayList<>(strategyRegistry.getStrategyNames());
+        strategies.sort(null);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compilationTimed = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+
+        double[] recentMeans = new double[Math.max(1, properties.getStableRounds())];
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + properties.getMaxDuration().toNanos();
+        long compilationAtStart = compilationTimed ? compiler.getTotalCompilationTime() : 0;
+        long iteration = 0;
+        int rounds = 0;
+        double firstRoundNanos = 0;
+        double lastRoundNanos = 0;
+        boolean stabilized = false;
+
+        while (true) {
+            long compilationBefore = compilationTimed ? compiler.getTotalCompilationTime() : 0;
+            long roundStart = System.nanoTime();
+            for (int i = 0; i < properties.getRoundSize(); i++, iteration++) {
+                warmUpRequest(nextRequest(random, iteration), strategies, iteration);
+            }
+            long roundNanos = System.nanoTime() - roundStart;
+            warmUpBatch(random, strategies.get(rounds % strategies.size()), iteration);
+
+            lastRoundNanos = (double) roundNanos / properties.getRoundSize();
+            if (rounds == 0) {
+                firstRoundNanos = lastRoundNanos;
+            }
+            recentMeans[rounds % recentMeans.length] = lastRoundNanos;
+            rounds++;
+
+            // Доля времени раунда, ушедшая на компиляцию (компилятор работает в своих потоках,
+            // поэтому это косвенный признак: горячие пути скомпилированы, когда компиляция затихла)
+            long compiledMillis = compilationTimed ? compiler.getTotalCompilationTime() - compilationBefore : 0;
+            boolean compilationQuiet = compiledMillis
+                <= properties.getMaxCompilationShare() * TimeUnit.NANOSECONDS.toMillis(roundNanos);
+
+            if (iteration >= properties.getMinRequests() && rounds >= recentMeans.length
+                && compilationQuiet && isStable(recentMeans)) {
+                stabilized = true;
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        WarmupReport result = WarmupReport.builder()
+            .enabled(true)
+            .stabilized(stabilized)
+            .rounds(rounds)
+            .requests(iteration)
+            .durationMillis(durationMillis)
+            .firstRoundMicros(firstRoundNanos / 1_000)
+            .lastRoundMicros(lastRoundNanos / 1_000)
+            .compilationMillis(compilationTimed ? compiler.getTotalCompilationTime() - compilationAtStart : -1)
+            .build();
+        if (stabilized) {
+            log.info("Прогрев завершен: {} запросов за {} мс, {} -> {} мкс/запрос",
+                iteration, durationMillis, Math.round(result.getFirstRoundMicros()), Math.round(result.getLastRoundMicros()));
+        } else {
+            log.warn("Прогрев остановлен по лимиту {} без стабилизации: {} запросов, последний раунд {} мкс/запрос",
+                properties.getMaxDuration(), iteration, Math.round(result.getLastRoundMicros()));
+        }
+        return result;
+    }
+
+    /**
+     * Один запрос по пути HTTP: JSON тела -> контроллер -> JSON и бинарный ответ.
+     * Стратегия меняется на каждом запросе, разделы analysis/uncertainty — реже,
+     * чтобы дорогая оценка неопределенности не вытесняла основной путь
+     */
+    private void warmUpRequest(PredictionRequest request, List<String> strategies, long iteration) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(request);
+        PredictionRequest parsed = objectMapper.readValue(body, PredictionRequest.class);
+
+        // Сдвиг на каждом полном обходе среды, чтобы каждая ячейка попала во все стратегии
+        String strategy = strategies.get((int) ((iteration + iteration / ENVIRONMENT_CELLS) % strategies.size()));
+        List<String> include = null;
+        Integer samples = null;
+        if (iteration % 16 == 0) {
+            include = List.of("analysis,uncertainty");
+            samples = UNCERTAINTY_SAMPLES;
+        } else if (iteration % 2 == 1) {
+            include = List.of("analysis");
+        }
+
+        MBTIResult result = predictionController.calculateAdvanced(parsed, strategy, include, samples, null).join();
+        discard.write(objectMapper.writeValueAsBytes(result));
+        PredictionBinaryCodec.writeResult(result, binaryOut);
+    }
+
+    /**
+     * Небольшой пакет через колоночный путь /calculate-batch
+     */
+    private void warmUpBatch(SplittableRandom random, String strategy, long iteration) {
+        List<PredictionRequest> requests = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            requests.add(nextRequest(random, iteration + i));
+        }
+        Iterator<PredictionRequest> iterator = requests.iterator();
+        predictionService.calculateBatch(iterator, predictionService.resolveStrategy(strategy),
+            Set.of(ResultSection.ANALYSIS), new BatchResultSink() {
+                @Override
+                public void accept(MBTIResult result) {
+                    try {
+                        PredictionBinaryCodec.writeResult(result, binaryOut);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                @Override
+                public void reject(long index, String reason) {
+                    throw new IllegalStateException("Синтетическая запись прогрева отклонена: " + reason);
+                }
+            });
+    }
+
+    /**
+     * Синтетический запрос: категории среды перебираются по номеру итерации
+     * (все сочетания встречаются каждые ENVIRONMENT_CELLS запросов), родители и влияние друзей случайны
+     */
+    private static PredictionRequest nextRequest(SplittableRandom random, long iteration) {
+        ParentsGeneticData parents = new ParentsGeneticData();
+        parents.setFatherExtraversion(random.nextDouble());
+        parents.setFatherIntuition(random.nextDouble());
+        parents.setFatherThinking(random.nextDouble());
+        parents.setFatherJudging(random.nextDouble());
+        parents.setMotherExtraversion(random.nextDouble());
+        parents.setMotherIntuition(random.nextDouble());
+        parents.setMotherThinking(random.nextDouble());
+        parents.setMotherJudging(random.nextDouble());
+
+        long cell = iteration;
+        EnvironmentData environment = new EnvironmentData();
+        environment.setSchoolType(SCHOOL_TYPES[(int) (cell % SCHOOL_TYPES.length)]);
+        cell /= SCHOOL_TYPES.length;
+        environment.setFamilyEnvironment(FAMILY_ENVIRONMENTS[(int) (cell % FAMILY_ENVIRONMENTS.length)]);
+        cell /= FAMILY_ENVIRONMENTS.length;
+        environment.setBirthOrder(BIRTH_ORDERS[(int) (cell % BIRTH_ORDERS.length)]);
+        cell /= BIRTH_ORDERS.length;
+        environment.setHasSiblings(SIBLINGS[(int) (cell % SIBLINGS.length)]);
+        environment.setFriendsInfluence(random.nextDouble());
+
+        // userId не задается: синтетические результаты не попадают в историю
+        PredictionRequest request = new PredictionRequest();
+        request.setParents(parents);
+        request.setEnvironment(environment);
+        return request;
+    }
+
+    /**
+     * Разброс средних последних раундов относительно их минимума не больше tolerance
+     */
+    private boolean isStable(double[] recentMeans) {
+        double min = Arrays.stream(recentMeans).min().orElse(0);
+        double max = Arrays.stream(recentMeans).max().orElse(0);
+        return min > 0 && (max - min) / min <= properties.getTolerance();
+    }
+
+    public WarmupReport getReport() {
+        return report;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
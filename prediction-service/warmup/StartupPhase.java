@@ -0,0 +1,16 @@
+package com.psyche.platform.prediction.warmup;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Фаза старта: шаг ApplicationStartup (или отдельный бин) с суммарным временем.
+ * Шаги вложены друг в друга, поэтому их времена не складываются
+ */
+@Data
+@Builder
+public class StartupPhase {
+    private String name;
+    private int count;
+    private long totalMillis;
+}
@@ -0,0 +1,107 @@
+package com.psyche.platform.prediction.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбивка времени старта по фазам, снимаемая один раз по ApplicationReadyEvent.
+ * Фазы берутся из буфера BufferingApplicationStartup (его ставит PredictionServiceApplication):
+ * шаги с одинаковым именем суммируются, отдельно выделяются самые медленные бины.
+ * Буфер не опустошается, поэтому /actuator/startup при наличии продолжает работать
+ */
+@Slf4j
+@Component
+public class StartupProfile implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+    private static final int SLOWEST_BEANS = 10;
+
+    private final ApplicationStartup applicationStartup;
+    private final PredictionWarmup predictionWarmup;
+
+    private volatile StartupReport report;
+
+    public StartupProfile(ApplicationStartup applicationStartup, PredictionWarmup predictionWarmup) {
+        this.applicationStartup = applicationStartup;
+        this.predictionWarmup = predictionWarmup;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Map<String, long[]> phases = new LinkedHashMap<>();
+        Map<String, long[]> beans = new LinkedHashMap<>();
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            for (StartupTimeline.TimelineEvent timelineEvent : buffering.getBufferedTimeline().getEvents()) {
+                StartupStep step = timelineEvent.getStartupStep();
+                long millis = timelineEvent.getDuration().toMillis();
+                accumulate(phases, step.getName(), millis);
+                if (BEAN_STEP.equals(step.getName())) {
+                    String beanName = tag(step, "beanName");
+                    if (beanName != null) {
+                        accumulate(beans, beanName, millis);
+                    }
+                }
+            }
+        }
+
+        List<StartupPhase> slowestBeans = toPhases(beans);
+        report = StartupReport.builder()
+            .jvmUptimeMillis(ManagementFactory.getRuntimeMXBean().getUptime())
+            .phases(toPhases(phases))
+            .slowestBeans(slowestBeans.subList(0, Math.min(SLOWEST_BEANS, slowestBeans.size())))
+            .warmup(predictionWarmup.getReport())
+            .build();
+
+        log.info("Старт за {} мс (прогрев {} мс, стабилизирован: {})", report.getJvmUptimeMillis(),
+            report.getWarmup().getDurationMillis(), report.getWarmup().isStabilized());
+        for (StartupPhase phase : report.getPhases()) {
+            log.debug("Фаза старта {}: {} шагов, {} мс", phase.getName(), phase.getCount(), phase.getTotalMillis());
+        }
+    }
+
+    private static void accumulate(Map<String, long[]> totals, String name, long millis) {
+        long[] total = totals.computeIfAbsent(name, key -> new long[2]);
+        total[0]++;
+        total[1] += millis;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static List<StartupPhase> toPhases(Map<String, long[]> totals) {
+        List<StartupPhase> phases = new ArrayList<>(totals.size());
+        totals.forEach((name, total) -> phases.add(StartupPhase.builder()
+            .name(name)
+            .count((int) total[0])
+            .totalMillis(total[1])
+            .build()));
+        phases.sort(Comparator.comparingLong(StartupPhase::getTotalMillis).reversed());
+        return phases;
+    }
+
+    /**
+     * null до ApplicationReadyEvent
+     */
+    public StartupReport getReport() {
+        return report;
+    }
+}
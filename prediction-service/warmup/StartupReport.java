@@ -0,0 +1,25 @@
+package com.psyche.platform.prediction.warmup;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Разбивка времени старта экземпляра по фазам
+ */
+@Data
+@Builder
+public class StartupReport {
+    
+    // От запуска JVM до ApplicationReadyEvent
+    private long jvmUptimeMillis;
+    
+    // Фазы контекста Spring, по убыванию времени; пусто, если запись шагов не включена
+    private List<StartupPhase> phases;
+    
+    // Самые медленные в создании бины
+    private List<StartupPhase> slowestBeans;
+    
+    private WarmupReport warmup;
+}
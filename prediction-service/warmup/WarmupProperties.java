@@ -0,0 +1,36 @@
+package com.psyche.platform.prediction.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки прогрева перед регистрацией в discovery (prediction.warmup.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "prediction.warmup")
+public class WarmupProperties {
+    
+    private boolean enabled = true;
+    
+    // Жесткий предел прогрева: по его истечении экземпляр регистрируется даже без стабилизации
+    private Duration maxDuration = Duration.ofSeconds(60);
+    
+    // Минимум запросов до проверки стабильности (порог компиляции C2 — порядка 10^4 вызовов)
+    private int minRequests = 20_000;
+    
+    // Запросов в одном раунде замера
+    private int roundSize = 1_000;
+    
+    // Сколько последних раундов должны совпасть по среднему времени
+    private int stableRounds = 3;
+    
+    // Допустимый разброс среднего времени запроса между стабильными раундами (доля)
+    private double tolerance = 0.10;
+    
+    // Доля времени раунда, которую может занимать JIT-компиляция, чтобы считать пути скомпилированными
+    private double maxCompilationShare = 0.05;
+}
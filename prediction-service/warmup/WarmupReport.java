@@ -0,0 +1,24 @@
+package com.psyche.platform.prediction.warmup;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Итог прогрева: стабилизировалось ли время запроса и сколько это заняло
+ */
+@Data
+@Builder
+public class WarmupReport {
+    private boolean enabled;
+    private boolean stabilized;
+    private int rounds;
+    private long requests;
+    private long durationMillis;
+    
+    // Среднее время запроса в первом и последнем раунде
+    private double firstRoundMicros;
+    private double lastRoundMicros;
+    
+    // Время JIT-компиляции за весь прогрев (-1, если JVM его не сообщает)
+    private long compilationMillis;
+}
@@ -2,46 +2,60 @@ package com.psyche.platform.shared.model;
 
 /**
  * Enum типов MBTI с описаниями
- * Используется во всех микросервисах
+ * Используется во всех микросервисах.
+ * Для хранения и передачи тип упаковывается в код MBTITypeCode (один байт)
  */
 public enum MBTIType {
-    ISTJ("Инспектор", "Ответственный, организованный, практичный"),
-    ISFJ("Защитник", "Преданный, теплый, ответственный"),
-    INFJ("Советник", "Проницательный, вдохновляющий, настойчивый"),
-    INTJ("Стратег", "Инновационный, независимый, решительный"),
-    ISTP("Мастер",", "Спонтанный, логичный, эффективный"),
-    ISFP("Композитор", "Дружелюбный, чувствительный, скромный"),
-    INFP("Целитель", "Идеалистический, empathetic, творческий"),
-    INTP("Архитектор", "Логичный, оригинальный, любознательный"),
-    ESTP("Делец", "Энергичный, практичный, спонтанный"),
-    ESFP("Развлекатель", "Общительный, дружелюбный, щедрый"),
-    ENFP("Борец", "Энтузиаст, творческий, общительный"),
-    ENTP("Новатор", "Изобретательный, умный, прямой"),
-    ESTJ("Администратор", "Практичный, ответственный, организованный"),
-    ESFJ("Консул", "Заботливый, популярный, гармоничный"),
-    ENFJ("Наставник", "Харизматичный, вдохновляющий, тактичный"),
-    ENTJ("Командир", "Решительный, лидерский, стратегический");
+    ISTJ("Инспектор", "Ответственный, организованный, практичный", RiskLevel.LOW),
+    ISFJ("Защитник", "Преданный, теплый, ответственный", RiskLevel.LOW),
+    INFJ("Советник", "Проницательный, вдохновляющий, настойчивый", RiskLevel.LOW),
+    INTJ("Стратег", "Инновационный, независимый, решительный", RiskLevel.MEDIUM),
+    ISTP("Мастер", "Спонтанный, логичный, эффективный", RiskLevel.LOW),
+    ISFP("Композитор", "Дружелюбный, чувствительный, скромный", RiskLevel.LOW),
+    INFP("Целитель", "Идеалистический, empathetic, творческий", RiskLevel.LOW),
+    INTP("Архитектор", "Логичный, оригинальный, любознательный", RiskLevel.LOW),
+    ESTP("Делец", "Энергичный, практичный, спонтанный", RiskLevel.HIGH),
+    ESFP("Развлекатель", "Общительный, дружелюбный, щедрый", RiskLevel.LOW),
+    ENFP("Борец", "Энтузиаст, творческий, общительный", RiskLevel.LOW),
+    ENTP("Новатор", "Изобретательный, умный, прямой", RiskLevel.MEDIUM),
+    ESTJ("Администратор", "Практичный, ответственный, организованный", RiskLevel.HIGH),
+    ESFJ("Консул", "Заботливый, популярный, гармоничный", RiskLevel.LOW),
+    ENFJ("Наставник", "Харизматичный, вдохновляющий, тактичный", RiskLevel.LOW),
+    ENTJ("Командир", "Решительный, лидерский, стратегический", RiskLevel.HIGH);
     
     private final String title;
     private final String description;
+    private final RiskLevel bullyingRisk;
+    private final byte code;
     
-    MBTIType(String title, String description) {
+    MBTIType(String title, String description, RiskLevel bullyingRisk) {
         this.title = title;
         this.description = description;
+        this.bullyingRisk = bullyingRisk;
+        this.code = packName(name());
     }
     
     public String getTitle() { return title; }
     public String getDescription() { return description; }
     
     /**
-     * Определяет группу риска буллинга для типа
+     * Группа риска буллинга для типа
      */
-    public RiskLevel getBullyingRisk() {
-        return switch (this) {
-            case ENTJ, ESTJ, ESTP -> RiskLevel.HIGH;
-            case ENTP, INTJ -> RiskLevel.MEDIUM;
-            default -> RiskLevel.LOW;
-        };
+    public RiskLevel getBullyingRisk() { return bullyingRisk; }
+    
+    /**
+     * Упакованный код типа (см. MBTITypeCode)
+     */
+    public byte getCode() { return code; }
+    
+    public static MBTIType fromCode(int code) {
+        return MBTITypeCode.toType(code);
+    }
+    
+    // Не через MBTITypeCode: его таблицы строятся из values() и еще недоступны при инициализации enum
+    private static byte packName(String name) {
+        return (byte) ((name.charAt(0) == 'E' ? 8 : 0) | (name.charAt(1) == 'N' ? 4 : 0)
+            | (name.charAt(2) == 'T' ? 2 : 0) | (name.charAt(3) == 'J' ? 1 : 0));
     }
     
     public enum RiskLevel {
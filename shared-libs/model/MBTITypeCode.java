@@ -0,0 +1,107 @@
+package com.psyche.platform.shared.model;
+
+/**
+ * Упакованный код типа MBTI: по биту на дихотомию (E=8, N=4, T=2, J=1), 16 значений в одном байте.
+ * Тип и его справочные данные достаются по коду из таблиц за O(1), без разбора строк.
+ * Используется во всех микросервисах
+ */
+public final class MBTITypeCode {
+
+    public static final int COUNT = 16;
+
+    /**
+     * Тип не определен (например, результат собран без расчета черт)
+     */
+    public static final byte UNKNOWN = -1;
+
+    public static final int EXTRAVERSION = 8;
+    public static final int INTUITION = 4;
+    public static final int THINKING = 2;
+    public static final int JUDGING = 1;
+
+    // Бит первого полюса по индексу дихотомии TraitVector (E/I, N/S, T/F, J/P)
+    private static final int[] POLE_BITS = {EXTRAVERSION, INTUITION, THINKING, JUDGING};
+
+    private static final MBTIType[] TYPES = new MBTIType[COUNT];
+    private static final String[] NAMES = new String[COUNT];
+    private static final MBTIType.RiskLevel[] RISK_LEVELS = new MBTIType.RiskLevel[COUNT];
+
+    static {
+        for (MBTIType type : MBTIType.values()) {
+            int code = type.getCode();
+            TYPES[code] = type;
+            NAMES[code] = type.name();
+            RISK_LEVELS[code] = type.getBullyingRisk();
+        }
+    }
+
+    private MBTITypeCode() {
+    }
+
+    /**
+     * Код по первым полюсам дихотомий: полюс выбирается при score >= 0.5
+     */
+    public static byte of(double extraversion, double intuition, double thinking, double judging) {
+        return (byte) ((extraversion >= 0.5 ? EXTRAVERSION : 0)
+            | (intuition >= 0.5 ? INTUITION : 0)
+            | (thinking >= 0.5 ? THINKING : 0)
+            | (judging >= 0.5 ? JUDGING : 0));
+    }
+
+    /**
+     * Разбор четырехбуквенной записи; как и MBTIType.valueOf, бросает IllegalArgumentException
+     */
+    public static byte parse(String name) {
+        if (name == null || name.length() != 4) {
+            throw new IllegalArgumentException("Некорректный тип MBTI: " + name);
+        }
+        int code = 0;
+        for (int i = 0; i < TraitVector.DICHOTOMIES; i++) {
+            TraitVector.Dichotomy dichotomy = TraitVector.Dichotomy.byIndex(i);
+            char letter = name.charAt(i);
+            if (letter == dichotomy.getPole()) {
+                code |= POLE_BITS[i];
+            } else if (letter != dichotomy.getOpposite()) {
+                throw new IllegalArgumentException("Некорректный тип MBTI: " + name);
+            }
+        }
+        return (byte) code;
+    }
+
+    public static boolean isValid(int code) {
+        return code >= 0 && code < COUNT;
+    }
+
+    /**
+     * Тип по коду; null для UNKNOWN
+     */
+    public static MBTIType toType(int code) {
+        return isValid(code) ? TYPES[code] : null;
+    }
+
+    /**
+     * Имя типа по коду без создания строки; null для UNKNOWN
+     */
+    public static String name(int code) {
+        return isValid(code) ? NAMES[code] : null;
+    }
+
+    public static MBTIType.RiskLevel riskLevel(int code) {
+        return RISK_LEVELS[code];
+    }
+
+    public static String title(int code) {
+        return TYPES[code].getTitle();
+    }
+
+    public static String description(int code) {
+        return TYPES[code].getDescription();
+    }
+
+    /**
+     * Выбран ли первый полюс дихотомии (E, N, T, J) в типе
+     */
+    public static boolean hasPole(int code, TraitVector.Dichotomy dichotomy) {
+        return (code & POLE_BITS[dichotomy.ordinal()]) != 0;
+    }
+}
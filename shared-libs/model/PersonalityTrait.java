@@ -1,61 +1,103 @@
 package com.psyche.platform.shared.model;
 
-import lombok.Builder;
-import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 /**
- * Модель черты личности для использования во всех микросервисах
+ * Модель черты личности для использования во всех микросервисах.
+ * Экземпляр хранит только индекс в TraitCatalog и значение; код, название, описание,
+ * вес и категория берутся из канонического описания каталога.
+ * JSON читается по category, code и score; name, description и weight при чтении
+ * игнорируются — они всегда берутся из каталога
  */
-@Data
-@Builder
-public class PersonalityTrait {
-    private String code;          // E, I, N, S, T, F, J, P
-    private String name;          // Extraversion, Introversion, etc.
-    private String description;   // Описание черты
-    private Double score;         // 0.0 - 1.0
-    private Double weight;        // Вес в расчетах
-    private TraitCategory category;
+@JsonIgnoreProperties(value = {"name", "description", "weight"}, allowGetters = true)
+@JsonPropertyOrder({"code", "name", "description", "score", "weight", "category"})
+public final class PersonalityTrait {
+    
+    private final int index;
+    private final double score;   // 0.0 - 1.0
+    
+    private PersonalityTrait(int index, double score) {
+        this.index = index;
+        this.score = score;
+    }
+    
+    public static PersonalityTrait of(int catalogIndex, double score) {
+        TraitCatalog.get(catalogIndex); // проверка индекса
+        return new PersonalityTrait(catalogIndex, score);
+    }
+    
+    public static PersonalityTrait of(TraitCategory category, String code, double score) {
+        return new PersonalityTrait(TraitCatalog.indexOf(category, code), score);
+    }
+    
+    /**
+     * Чтение из JSON; категория по умолчанию — MBTI
+     */
+    @JsonCreator
+    public static PersonalityTrait fromJson(@JsonProperty("category") TraitCategory category,
+                                            @JsonProperty("code") String code,
+                                            @JsonProperty("score") double score) {
+        return of(category != null ? category : TraitCategory.MBTI, code, score);
+    }
     
     /**
      * Factory Method для создания черт MBTI
      */
     public static PersonalityTrait createMBTITrait(String code, Double score) {
-        return PersonalityTrait.builder()
-            .code(code)
-            .name(getTraitName(code))
-            .description(getTraitDescription(code))
-            .score(score)
-            .weight(1.0)
-            .category(TraitCategory.MBTI)
-            .build();
+        return of(TraitCategory.MBTI, code, score);
     }
     
-    private static String getTraitName(String code) {
-        return switch (code) {
-            case "E" -> "Extraversion";
-            case "I" -> "Introversion";
-            case "N" -> "Intuition";
-            case "S" -> "Sensing";
-            case "T" -> "Thinking";
-            case "F" -> "Feeling";
-            case "J" -> "Judging";
-            case "P" -> "Perceiving";
-            default -> "Unknown";
-        };
+    /**
+     * Обе черты дихотомии MBTI из вектора без поиска по коду
+     */
+    public static PersonalityTrait mbtiPole(TraitVector traits, TraitVector.Dichotomy dichotomy) {
+        return new PersonalityTrait(TraitCatalog.mbtiPole(dichotomy), traits.get(dichotomy));
     }
     
-    private static String getTraitDescription(String code) {
-        return switch (code) {
-            case "E" -> "Ориентация на внешний мир, общительность";
-            case "I" -> "Ориентация на внутренний мир, глубина";
-            case "N" -> "Фокусировка на идеях и возможностях";
-            case "S" -> "Фокусировка на фактах и реальности";
-            case "T" -> "Принятие решений на основе логики";
-            case "F" -> "Принятие решений на основе ценностей";
-            case "J" -> "Предпочтение структуры и планирования";
-            case "P" -> "Предпочтение гибкости и спонтанности";
-            default -> "Неизвестная черта";
-        };
+    public static PersonalityTrait mbtiOpposite(TraitVector traits, TraitVector.Dichotomy dichotomy) {
+        return new PersonalityTrait(TraitCatalog.mbtiOpposite(dichotomy), traits.getOpposite(dichotomy));
+    }
+    
+    @JsonIgnore
+    public int getIndex() { return index; }
+    
+    @JsonIgnore
+    public TraitDefinition getDefinition() { return TraitCatalog.get(index); }
+    
+    public String getCode() { return getDefinition().code(); }
+    public String getName() { return getDefinition().name(); }
+    public String getDescription() { return getDefinition().description(); }
+    public double getScore() { return score; }
+    public double getWeight() { return getDefinition().weight(); }
+    public TraitCategory getCategory() { return getDefinition().category(); }
+    
+    public PersonalityTrait withScore(double traitScore) {
+        return new PersonalityTrait(index, traitScore);
+    }
+    
+    public static PersonalityTraitBuilder builder() {
+        return new PersonalityTraitBuilder();
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PersonalityTrait other)) return false;
+        return index == other.index && Double.compare(score, other.score) == 0;
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * index + Double.hashCode(score);
+    }
+    
+    @Override
+    public String toString() {
+        return "PersonalityTrait(" + getCategory() + ":" + getCode() + "=" + score + ")";
     }
     
     public enum TraitCategory {
@@ -69,24 +111,35 @@ public class PersonalityTrait {
      * Builder Pattern для сложного создания объектов
      */
     public static class PersonalityTraitBuilder {
+        private TraitCategory category = TraitCategory.MBTI;
         private String code;
-        private String name;
-        private Double score = 0.5;
-        private Double weight = 1.0;
+        private double score = 0.5;
         
-        public PersonalityTraitBuilder withCode(String traitCode) {
+        public PersonalityTraitBuilder category(TraitCategory traitCategory) {
+            this.category = traitCategory;
+            return this;
+        }
+        
+        public PersonalityTraitBuilder code(String traitCode) {
             this.code = traitCode;
-            this.name = getTraitName(traitCode);
             return this;
         }
         
-        public PersonalityTraitBuilder withScore(Double traitScore) {
-            this.score = Math.max(0.0, Math.min(1.0, traitScore));
+        public PersonalityTraitBuilder withCode(String traitCode) {
+            return code(traitCode);
+        }
+        
+        public PersonalityTraitBuilder score(Double traitScore) {
+            this.score = traitScore;
             return this;
         }
         
+        public PersonalityTraitBuilder withScore(Double traitScore) {
+            return score(Math.max(0.0, Math.min(1.0, traitScore)));
+        }
+        
         public PersonalityTrait build() {
-            return new PersonalityTrait(code, name, getTraitDescription(code), score, weight, TraitCategory.MBTI);
+            return of(category, code, score);
         }
     }
 }
@@ -0,0 +1,137 @@
+package com.psyche.platform.shared.model;
+
+import com.psyche.platform.shared.model.PersonalityTrait.TraitCategory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый каталог черт всех моделей личности (MBTI, Big Five, темпераменты).
+ * Метаданные черты (код, название, описание, вес) хранятся здесь в единственном экземпляре,
+ * а PersonalityTrait несет только индекс в каталоге и значение.
+ * Черты одной категории лежат подряд; новая модель добавляется блоком в load().
+ */
+public final class TraitCatalog {
+
+    private static final TraitDefinition[] DEFINITIONS;
+    private static final int[] FIRST_INDEX = new int[TraitCategory.values().length];
+    private static final int[] COUNT = new int[TraitCategory.values().length];
+    private static final Map<TraitCategory, Map<String, Integer>> INDEX_BY_CODE = new EnumMap<>(TraitCategory.class);
+    private static final Map<TraitCategory, List<TraitDefinition>> BY_CATEGORY = new EnumMap<>(TraitCategory.class);
+
+    static {
+        List<TraitDefinition> definitions = new ArrayList<>();
+        load(definitions);
+        DEFINITIONS = definitions.toArray(new TraitDefinition[0]);
+
+        for (TraitCategory category : TraitCategory.values()) {
+            Map<String, Integer> codes = new HashMap<>();
+            List<TraitDefinition> members = new ArrayList<>();
+            FIRST_INDEX[category.ordinal()] = DEFINITIONS.length;
+            for (TraitDefinition definition : DEFINITIONS) {
+                if (definition.category() == category) {
+                    if (members.isEmpty()) {
+                        FIRST_INDEX[category.ordinal()] = definition.index();
+                    }
+                    codes.put(definition.code(), definition.index());
+                    members.add(definition);
+                }
+            }
+            COUNT[category.ordinal()] = members.size();
+            INDEX_BY_CODE.put(category, Map.copyOf(codes));
+            BY_CATEGORY.put(category, Collections.unmodifiableList(members));
+        }
+    }
+
+    private TraitCatalog() {
+    }
+
+    private static void load(List<TraitDefinition> definitions) {
+        // MBTI: пары полюсов в порядке дихотомий TraitVector, индекс полюса = 2 * дихотомия
+        add(definitions, TraitCategory.MBTI, "E", "Extraversion", "Ориентация на внешний мир, общительность");
+        add(definitions, TraitCategory.MBTI, "I", "Introversion", "Ориентация на внутренний мир, глубина");
+        add(definitions, TraitCategory.MBTI, "N", "Intuition", "Фокусировка на идеях и возможностях");
+        add(definitions, TraitCategory.MBTI, "S", "Sensing", "Фокусировка на фактах и реальности");
+        add(definitions, TraitCategory.MBTI, "T", "Thinking", "Принятие решений на основе логики");
+        add(definitions, TraitCategory.MBTI, "F", "Feeling", "Принятие решений на основе ценностей");
+        add(definitions, TraitCategory.MBTI, "J", "Judging", "Предпочтение структуры и планирования");
+        add(definitions, TraitCategory.MBTI, "P", "Perceiving", "Предпочтение гибкости и спонтанности");
+
+        // Big Five (OCEAN)
+        add(definitions, TraitCategory.BIG_FIVE, "O", "Openness", "Открытость опыту, любознательность");
+        add(definitions, TraitCategory.BIG_FIVE, "C", "Conscientiousness", "Добросовестность, самоорганизация");
+        add(definitions, TraitCategory.BIG_FIVE, "E", "Extraversion", "Энергичность, общительность");
+        add(definitions, TraitCategory.BIG_FIVE, "A", "Agreeableness", "Доброжелательность, склонность к сотрудничеству");
+        add(definitions, TraitCategory.BIG_FIVE, "N", "Neuroticism", "Эмоциональная неустойчивость, тревожность");
+
+        // Темпераменты
+        add(definitions, TraitCategory.TEMPERAMENT, "SANGUINE", "Sanguine", "Живой, подвижный, легко переключается");
+        add(definitions, TraitCategory.TEMPERAMENT, "CHOLERIC", "Choleric", "Энергичный, вспыльчивый, напористый");
+        add(definitions, TraitCategory.TEMPERAMENT, "PHLEGMATIC", "Phlegmatic", "Спокойный, уравновешенный, медлительный");
+        add(definitions, TraitCategory.TEMPERAMENT, "MELANCHOLIC", "Melancholic", "Чувствительный, впечатлительный, сдержанный");
+    }
+
+    private static void add(List<TraitDefinition> definitions, TraitCategory category,
+                            String code, String name, String description) {
+        definitions.add(new TraitDefinition(definitions.size(), category, code, name, description, 1.0));
+    }
+
+    public static TraitDefinition get(int index) {
+        return DEFINITIONS[index];
+    }
+
+    public static int size() {
+        return DEFINITIONS.length;
+    }
+
+    /**
+     * Индекс черты по коду внутри категории (коды разных моделей могут совпадать, например E)
+     */
+    public static int indexOf(TraitCategory category, String code) {
+        Integer index = INDEX_BY_CODE.get(category).get(code);
+        if (index == null) {
+            throw new IllegalArgumentException("Неизвестная черта " + category + ": " + code);
+        }
+        return index;
+    }
+
+    public static boolean contains(TraitCategory category, String code) {
+        return code != null && INDEX_BY_CODE.get(category).containsKey(code);
+    }
+
+    public static List<TraitDefinition> definitions(TraitCategory category) {
+        return BY_CATEGORY.get(category);
+    }
+
+    /**
+     * Индекс i-й черты категории; черты категории занимают непрерывный диапазон
+     */
+    public static int indexOf(TraitCategory category, int position) {
+        if (position < 0 || position >= COUNT[category.ordinal()]) {
+            throw new IndexOutOfBoundsException("Черта " + position + " вне категории " + category);
+        }
+        return FIRST_INDEX[category.ordinal()] + position;
+    }
+
+    public static int count(TraitCategory category) {
+        return COUNT[category.ordinal()];
+    }
+
+    /**
+     * Индекс первого полюса дихотомии MBTI (E, N, T, J) без поиска по коду
+     */
+    public static int mbtiPole(TraitVector.Dichotomy dichotomy) {
+        return FIRST_INDEX[TraitCategory.MBTI.ordinal()] + 2 * dichotomy.ordinal();
+    }
+
+    /**
+     * Индекс противоположного полюса дихотомии MBTI (I, S, F, P)
+     */
+    public static int mbtiOpposite(TraitVector.Dichotomy dichotomy) {
+        return mbtiPole(dichotomy) + 1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.psyche.platform.shared.model;
+
+/**
+ * Каноническое описание черты в каталоге TraitCatalog.
+ * Создается один раз при загрузке каталога и разделяется всеми экземплярами PersonalityTrait
+ */
+public record TraitDefinition(int index,
+                              PersonalityTrait.TraitCategory category,
+                              String code,
+                              String name,
+                              String description,
+                              double weight) {
+}
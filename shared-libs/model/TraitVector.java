@@ -0,0 +1,207 @@
+package com.psyche.platform.shared.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Вектор черт MBTI с фиксированной раскладкой по дихотомиям.
+ * Хранит только первый полюс каждой дихотомии (E, N, T, J) в примитивном массиве,
+ * противоположный полюс (I, S, F, P) всегда равен 1 - score.
+ * В JSON выглядит так же, как прежний Map traitScores: {"E":0.7,"I":0.3,...}
+ */
+@JsonSerialize(using = TraitVector.Serializer.class)
+@JsonDeserialize(using = TraitVector.Deserializer.class)
+public final class TraitVector {
+
+    /**
+     * Дихотомии MBTI в порядке записи типа (E/I, N/S, T/F, J/P)
+     */
+    public enum Dichotomy {
+        EI('E', 'I'),
+        NS('N', 'S'),
+        TF('T', 'F'),
+        JP('J', 'P');
+
+        private static final Dichotomy[] VALUES = values();
+
+        private final char pole;
+        private final char opposite;
+        private final String poleCode;
+        private final String oppositeCode;
+
+        Dichotomy(char pole, char opposite) {
+            this.pole = pole;
+            this.opposite = opposite;
+            this.poleCode = String.valueOf(pole);
+            this.oppositeCode = String.valueOf(opposite);
+        }
+
+        public char getPole() { return pole; }
+        public char getOpposite() { return opposite; }
+        public String getPoleCode() { return poleCode; }
+        public String getOppositeCode() { return oppositeCode; }
+
+        public static Dichotomy byIndex(int index) {
+            return VALUES[index];
+        }
+    }
+
+    public static final int DICHOTOMIES = 4;
+
+    private final double[] scores = new double[DICHOTOMIES];
+
+    public TraitVector() {
+    }
+
+    public TraitVector(double extraversion, double intuition, double thinking, double judging) {
+        scores[0] = extraversion;
+        scores[1] = intuition;
+        scores[2] = thinking;
+        scores[3] = judging;
+    }
+
+    public double get(Dichotomy dichotomy) {
+        return scores[dichotomy.ordinal()];
+    }
+
+    public double getOpposite(Dichotomy dichotomy) {
+        return 1 - scores[dichotomy.ordinal()];
+    }
+
+    public TraitVector set(Dichotomy dichotomy, double score) {
+        scores[dichotomy.ordinal()] = score;
+        return this;
+    }
+
+    public double extraversion() { return scores[0]; }
+    public double introversion() { return 1 - scores[0]; }
+    public double intuition() { return scores[1]; }
+    public double sensing() { return 1 - scores[1]; }
+    public double thinking() { return scores[2]; }
+    public double feeling() { return 1 - scores[2]; }
+    public double judging() { return scores[3]; }
+    public double perceiving() { return 1 - scores[3]; }
+
+    /**
+     * Значение по буквенному коду полюса (E, I, N, S, T, F, J, P), NaN для неизвестного кода
+     */
+    public double score(char code) {
+        for (int i = 0; i < DICHOTOMIES; i++) {
+            Dichotomy d = Dichotomy.byIndex(i);
+            if (d.pole == code) {
+                return scores[i];
+            }
+            if (d.opposite == code) {
+                return 1 - scores[i];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Средняя удаленность черт от 0.5 (для пары полюсов она одинакова)
+     */
+    public double meanDeviation() {
+        double sum = 0.0;
+        for (double score : scores) {
+            sum += Math.abs(score - 0.5);
+        }
+        return sum / DICHOTOMIES;
+    }
+
+    /**
+     * Упакованный код типа (MBTITypeCode): полюс выбирается при score >= 0.5
+     */
+    public byte packedType() {
+        return MBTITypeCode.of(scores[0], scores[1], scores[2], scores[3]);
+    }
+
+    /**
+     * Четырехбуквенный тип; строка берется из таблицы MBTITypeCode, а не собирается заново
+     */
+    public String typeCode() {
+        return MBTITypeCode.name(packedType());
+    }
+
+    public TraitVector copy() {
+        return new TraitVector(scores[0], scores[1], scores[2], scores[3]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TraitVector other)) return false;
+        return Arrays.equals(scores, other.scores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(scores);
+    }
+
+    @Override
+    public String toString() {
+        return "TraitVector(E=" + scores[0] + ", N=" + scores[1] + ", T=" + scores[2] + ", J=" + scores[3] + ")";
+    }
+
+    /**
+     * Пишет все 8 полюсов напрямую в генератор, без промежуточного Map
+     */
+    public static class Serializer extends JsonSerializer<TraitVector> {
+        @Override
+        public void serialize(TraitVector value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < DICHOTOMIES; i++) {
+                Dichotomy d = Dichotomy.byIndex(i);
+                gen.writeNumberField(d.poleCode, value.scores[i]);
+                gen.writeNumberField(d.oppositeCode, 1 - value.scores[i]);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Читает прежнюю форму traitScores. Если передан только противоположный полюс,
+     * основной восстанавливается как 1 - score
+     */
+    public static class Deserializer extends JsonDeserializer<TraitVector> {
+        @Override
+        public TraitVector deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (TraitVector) ctxt.handleUnexpectedToken(TraitVector.class, p);
+            }
+            TraitVector vector = new TraitVector();
+            boolean[] hasPole = new boolean[DICHOTOMIES];
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                if (name.length() != 1) {
+                    p.skipChildren();
+                    continue;
+                }
+                double value = p.getValueAsDouble();
+                char code = name.charAt(0);
+                for (int i = 0; i < DICHOTOMIES; i++) {
+                    Dichotomy d = Dichotomy.byIndex(i);
+                    if (d.pole == code) {
+                        vector.scores[i] = value;
+                        hasPole[i] = true;
+                    } else if (d.opposite == code && !hasPole[i]) {
+                        vector.scores[i] = 1 - value;
+                    }
+                }
+            }
+            return vector;
+        }
+    }
+}
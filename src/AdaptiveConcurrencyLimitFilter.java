@@ -0,0 +1,158 @@
+package com.psyche.platform.apigateway;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный лимит одновременных запросов к prediction-service (градиентный алгоритм).
+ * Базовая задержка — медленно догоняющий минимум средних задержек окна; пока текущая задержка
+ * в пределах tolerance от базовой, лимит растет на sqrt(limit), при росте очереди в сервисе
+ * он уменьшается пропорционально отношению задержек, при 5xx — мультипликативно.
+ * Запросы сверх лимита сразу получают 503 в шлюзе и не доходят до circuit breaker.
+ * На запрос — два атомарных инкремента и запись в LongAdder; пересчет лимита делает
+ * один поток раз в окно через tryLock.
+ * Потоковые эндпоинты (excluded-paths) проходят мимо лимита и не дают замеров задержки.
+ */
+@Component
+public class AdaptiveConcurrencyLimitFilter implements GatewayFilter {
+    
+    public static final String LIMIT_HEADER = "X-Concurrency-Limit";
+    
+    private final ConcurrencyLimitProperties properties;
+    private final List<PathPattern> excludedPaths;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    
+    private volatile int limit;
+    private volatile long windowStart = System.nanoTime();
+    
+    // Изменяются только под updateLock
+    private double estimatedLimit;
+    private double baselineRtt;
+    
+    public AdaptiveConcurrencyLimitFilter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.excludedPaths = properties.getExcludedPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled() || isExcluded(exchange)) {
+            return chain.filter(exchange);
+        }
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(LIMIT_HEADER, String.valueOf(limit));
+            response.getHeaders().set("Retry-After", "1");
+            return response.setComplete();
+        }
+        peakInFlight.accumulateAndGet(current, Math::max);
+        
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            inFlight.decrementAndGet();
+            HttpStatus status = exchange.getResponse().getStatusCode();
+            if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+                drops.increment();
+            } else if (signal == SignalType.ON_COMPLETE) {
+                rttSum.add(System.nanoTime() - start);
+                samples.increment();
+            }
+            maybeUpdateLimit();
+        });
+    }
+    
+    private boolean isExcluded(ServerWebExchange exchange) {
+        for (PathPattern path : excludedPaths) {
+            if (path.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void maybeUpdateLimit() {
+        long now = System.nanoTime();
+        if (now - windowStart < properties.getWindow().toNanos()) {
+            return;
+        }
+        if (samples.sum() < properties.getMinWindowSamples() && drops.sum() == 0) {
+            return;
+        }
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - windowStart >= properties.getWindow().toNanos()) {
+                updateLimit();
+                windowStart = now;
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+    
+    private void updateLimit() {
+        long count = samples.sumThenReset();
+        long sum = rttSum.sumThenReset();
+        long dropCount = drops.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        double current = estimatedLimit;
+        double next;
+        
+        if (dropCount > 0) {
+            next = current * 0.9;
+        } else if (count == 0) {
+            return;
+        } else {
+            double shortRtt = (double) sum / count;
+            baselineRtt = baselineRtt == 0 ? shortRtt : Math.min(shortRtt, baselineRtt * 0.99 + shortRtt * 0.01);
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * baselineRtt / shortRtt));
+            next = current * gradient + Math.sqrt(current);
+            if (peak < current / 2) {
+                next = Math.min(next, current); // сервис недогружен — задержка ничего не говорит о емкости
+            }
+        }
+        
+        double smoothing = properties.getSmoothing();
+        next = current * (1 - smoothing) + next * smoothing;
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), next));
+        limit = (int) estimatedLimit;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
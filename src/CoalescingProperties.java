@@ -0,0 +1,29 @@
+package com.psyche.platform.apigateway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки объединения одинаковых запросов (gateway.coalescing.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+    
+    private boolean enabled = true;
+    
+    // Только JSON-расчеты с ответом целиком; потоковые эндпоинты (batch, stream) не объединяются
+    private List<String> paths = new ArrayList<>(List.of(
+        "/api/predictions/calculate",
+        "/api/predictions/calculate-advanced",
+        "/api/predictions/calculate-sweep",
+        "/api/predictions/cohort/analyze"));
+    
+    // Тела больше этого размера (или без Content-Length) проходят без объединения
+    private int maxBodySize = 256 * 1024;
+}
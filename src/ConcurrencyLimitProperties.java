@@ -0,0 +1,40 @@
+package com.psyche.platform.apigateway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки адаптивного ограничения параллельных запросов (gateway.concurrency.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.concurrency")
+public class ConcurrencyLimitProperties {
+    
+    private boolean enabled = true;
+    
+    // Потоковые эндпоинты законно работают минутами: их задержка не говорит о перегрузке,
+    // поэтому они не ограничиваются и не попадают в замеры
+    private List<String> excludedPaths = new ArrayList<>(List.of(
+        "/api/predictions/calculate-batch",
+        "/api/predictions/history/*/stream"));
+    
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 500;
+    
+    // Окно сбора задержек между пересчетами лимита
+    private Duration window = Duration.ofMillis(100);
+    private int minWindowSamples = 10;
+    
+    // Во сколько раз задержка может превышать базовую до начала снижения лимита
+    private double tolerance = 1.5;
+    
+    // Доля нового значения при сглаживании лимита
+    private double smoothing = 0.2;
+}
@@ -1,23 +1,78 @@
 package com.psyche.platform.apigateway;
 
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Mono;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 
 @Configuration
 public class GatewayConfig {
     
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, RequestCoalescingFilter coalescingFilter,
+                                           LocalTokenBucketRateLimiter rateLimiter, KeyResolver userKeyResolver,
+                                           AdaptiveConcurrencyLimitFilter concurrencyLimitFilter) {
         return builder.routes()
             .route("user-service", r -> r.path("/api/users/**")
+                .filters(f -> f.requestRateLimiter(c -> c.setRateLimiter(rateLimiter).setKeyResolver(userKeyResolver)))
                 .uri("lb://user-service"))
             .route("prediction-service", r -> r.path("/api/predictions/**")
-                .filters(f -> f.circuitBreaker(c -> c.setName("predictionCB")))
+                .filters(f -> f.filter(coalescingFilter)
+                    .requestRateLimiter(c -> c.setRateLimiter(rateLimiter).setKeyResolver(userKeyResolver))
+                    .filter(concurrencyLimitFilter)
+                    .circuitBreaker(c -> c.setName("predictionCB")))
                 .uri("lb://prediction-service"))
             .route("analytics-service", r -> r.path("/api/analytics/**")
+                .filters(f -> f.requestRateLimiter(c -> c.setRateLimiter(rateLimiter).setKeyResolver(userKeyResolver)))
                 .uri("lb://analytics-service"))
             .build();
     }
+    
+    /**
+     * Ключ лимита: выданный API-ключ (проверяется по gateway.rate-limit.api-keys), иначе адрес клиента.
+     * Заголовки пользователя и Authorization шлюз не проверяет, поэтому ключом лимита не служат:
+     * иначе новый X-User-Id на каждый запрос давал бы новую корзину.
+     * За балансировщиком адрес берется из X-Forwarded-For (gateway.rate-limit.trusted-proxy-hops),
+     * а не из соединения, иначе все клиенты делили бы корзину балансировщика.
+     * IPv6-клиент считается по префиксу /64: адреса внутри своей подсети он выбирает сам
+     */
+    @Bean
+    public KeyResolver userKeyResolver(RateLimitProperties properties) {
+        RemoteAddressResolver addressResolver = properties.getTrustedProxyHops() > 0
+            ? XForwardedRemoteAddressResolver.maxTrustedIndex(properties.getTrustedProxyHops())
+            : new RemoteAddressResolver() { };
+        return exchange -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String apiKey = request.getHeaders().getFirst("X-API-Key");
+            if (apiKey != null && properties.getApiKeys().contains(apiKey)) {
+                return Mono.just("key:" + apiKey);
+            }
+            InetSocketAddress remote = addressResolver.resolve(exchange);
+            return Mono.just(addressKey(remote != null ? remote.getAddress() : null));
+        };
+    }
+    
+    private static String addressKey(InetAddress address) {
+        if (address == null) {
+            return "ip:unknown";
+        }
+        if (address instanceof Inet6Address) {
+            byte[] bytes = address.getAddress();
+            StringBuilder prefix = new StringBuilder("ip6:");
+            for (int i = 0; i < 8; i += 2) {
+                prefix.append(Integer.toHexString(((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF))).append(':');
+            }
+            return prefix.append(":/64").toString();
+        }
+        return "ip:" + address.getHostAddress();
+    }
 }
@@ -0,0 +1,142 @@
+package com.psyche.platform.apigateway;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket в памяти шлюза, без Redis: отдельная корзина на пару (маршрут, ключ пользователя).
+ * Проверка — поиск корзины в ConcurrentHashMap и короткая синхронизированная секция
+ * на корзине одного пользователя, т.е. пользователи друг с другом не конкурируют.
+ * Лимит действует на экземпляр шлюза; при нескольких экземплярах он умножается на их число.
+ * Число корзин ограничено max-buckets: при достижении предела удаляется десятая часть корзин,
+ * дольше всех не использовавшихся (LRU пачкой, чтобы не сортировать на каждый новый ключ).
+ * Поток случайных ключей не раздувает память и вытесняет сам себя, а не забирает
+ * общую корзину у новых клиентов.
+ */
+@Component
+public class LocalTokenBucketRateLimiter implements RateLimiter<RateLimitProperties.Limit>, DisposableBean {
+    
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    
+    private static final int EVICTION_DIVISOR = 10;
+    
+    private final RateLimitProperties properties;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintenance;
+    
+    public LocalTokenBucketRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-rate-limit-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, properties.getIdleTimeout().toMillis() / 2);
+        maintenance.scheduleAtFixedRate(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (!properties.isEnabled()) {
+            return Mono.just(new Response(true, Map.of()));
+        }
+        RateLimitProperties.Limit limit = properties.limitFor(routeId);
+        String key = routeId + '\u0000' + id;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.getMaxBuckets()) {
+                evictLeastRecentlyUsed();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getBurstCapacity(), System.nanoTime()));
+        }
+        long remaining = bucket.tryAcquire(limit.getReplenishRate(), limit.getBurstCapacity(), System.nanoTime());
+        return Mono.just(new Response(remaining >= 0, Map.of(
+            REMAINING_HEADER, String.valueOf(Math.max(0, remaining)),
+            REPLENISH_RATE_HEADER, String.valueOf(limit.getReplenishRate()),
+            BURST_CAPACITY_HEADER, String.valueOf(limit.getBurstCapacity()))));
+    }
+    
+    /**
+     * Удаление десятой части корзин с самым давним последним обращением
+     */
+    private synchronized void evictLeastRecentlyUsed() {
+        if (buckets.size() < properties.getMaxBuckets()) {
+            return; // другой поток уже освободил место
+        }
+        long[] lastUsed = buckets.values().stream().mapToLong(TokenBucket::lastUsed).sorted().toArray();
+        if (lastUsed.length == 0) {
+            return;
+        }
+        long threshold = lastUsed[Math.max(1, lastUsed.length / EVICTION_DIVISOR) - 1];
+        buckets.values().removeIf(bucket -> bucket.lastUsed() <= threshold);
+    }
+    
+    private void evictIdle() {
+        long idleSince = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        buckets.values().removeIf(bucket -> bucket.lastUsed() < idleSince);
+    }
+    
+    @Override
+    public Map<String, RateLimitProperties.Limit> getConfig() {
+        return properties.getRoutes();
+    }
+    
+    @Override
+    public Class<RateLimitProperties.Limit> getConfigClass() {
+        return RateLimitProperties.Limit.class;
+    }
+    
+    @Override
+    public RateLimitProperties.Limit newConfig() {
+        return new RateLimitProperties.Limit();
+    }
+    
+    @Override
+    public void destroy() {
+        maintenance.shutdownNow();
+    }
+    
+    /**
+     * Корзина одного пользователя; токены пополняются лениво при обращении
+     */
+    private static final class TokenBucket {
+        
+        private double tokens;
+        private long lastRefill;
+        private volatile long lastUsed;
+        
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+            this.lastUsed = now;
+        }
+        
+        /**
+         * @return оставшиеся токены или -1, если запрос не пропущен
+         */
+        synchronized long tryAcquire(double replenishRate, int burstCapacity, long now) {
+            tokens = Math.min(burstCapacity, tokens + (now - lastRefill) * replenishRate / 1e9);
+            lastRefill = now;
+            lastUsed = now;
+            if (tokens < 1) {
+                return -1;
+            }
+            tokens -= 1;
+            return (long) tokens;
+        }
+        
+        long lastUsed() {
+            return lastUsed;
+        }
+    }
+}
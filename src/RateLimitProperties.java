@@ -0,0 +1,59 @@
+package com.psyche.platform.apigateway;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Настройки локального ограничения частоты запросов (gateway.rate-limit.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    
+    // Лимит по умолчанию: пополнение в секунду и емкость корзины (допустимый всплеск)
+    private Limit defaults = new Limit(20, 40);
+    
+    // Лимиты по id маршрута (user-service, prediction-service, analytics-service)
+    private Map<String, Limit> routes = new HashMap<>();
+    
+    // Корзины без запросов дольше этого срока удаляются
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    
+    // Жесткий предел числа корзин; при его достижении удаляются давно не использованные корзины
+    private int maxBuckets = 100_000;
+    
+    // Выданные API-ключи: только они дают собственную корзину, остальные клиенты считаются по адресу
+    private Set<String> apiKeys = new HashSet<>();
+    
+    // Число доверенных прокси (балансировщиков) перед шлюзом: адрес клиента берется из X-Forwarded-For
+    // на столько позиций от конца; 0 — заголовок не доверяется, берется адрес соединения
+    private int trustedProxyHops = 0;
+    
+    @Data
+    public static class Limit {
+        private double replenishRate;
+        private int burstCapacity;
+        
+        public Limit() {
+        }
+        
+        public Limit(double replenishRate, int burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+    }
+    
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+}
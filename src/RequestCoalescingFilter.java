@@ -0,0 +1,263 @@
+package com.psyche.platform.apigateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight для маршрута предсказаний: если точно такой же запрос того же пользователя
+ * уже выполняется, новый запрос не идет в сервис, а ждет ответ первого и получает его копию.
+ * <p>
+ * Ключ — SHA-256 от учетных данных (Authorization, Cookie, X-API-Key, X-User-Id), согласуемых
+ * форматов (Accept, Content-Type), метода, пути с query и нормализованного тела (JSON с
+ * отсортированными ключами), поэтому ответы разных пользователей и разных форматов никогда
+ * не смешиваются, а повторы с другим порядком полей объединяются.
+ * Запросы без учетных данных не объединяются: отличить одного анонимного клиента от другого нельзя.
+ * Фильтр стоит перед circuit breaker: объединенные дубликаты не нагружают predictionCB.
+ */
+@Component
+public class RequestCoalescingFilter implements GatewayFilter, Ordered {
+    
+    public static final String COALESCED_HEADER = "X-Coalesced";
+    
+    private static final List<String> IDENTITY_HEADERS =
+        List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE, "X-API-Key", "X-User-Id");
+    
+    // Один и тот же запрос в разных форматах (JSON, application/x-psyche-prediction) — разные ответы
+    private static final List<String> FORMAT_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE);
+    
+    /**
+     * Ответ ведущего запроса, который получают присоединившиеся
+     */
+    private record CapturedResponse(HttpStatus status, HttpHeaders headers, byte[] body) {
+    }
+    
+    private final CoalescingProperties properties;
+    private final ObjectMapper canonicalMapper;
+    private final List<PathPattern> paths;
+    private final Map<String, Sinks.One<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    
+    public RequestCoalescingFilter(CoalescingProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.canonicalMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.paths = properties.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!isEligible(request)) {
+            return chain.filter(exchange);
+        }
+        return DataBufferUtils.join(request.getBody(), properties.getMaxBodySize())
+            .map(RequestCoalescingFilter::drain)
+            .defaultIfEmpty(new byte[0])
+            .flatMap(body -> coalesce(exchange, chain, body));
+    }
+    
+    private Mono<Void> coalesce(ServerWebExchange exchange, GatewayFilterChain chain, byte[] body) {
+        ServerHttpRequest request = replay(exchange.getRequest(), exchange.getResponse().bufferFactory(), body);
+        ServerWebExchange replayed = exchange.mutate().request(request).build();
+        String key = key(exchange.getRequest(), body);
+        
+        Sinks.One<CapturedResponse> flight = Sinks.one();
+        Sinks.One<CapturedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            // Если ведущий запрос завершился без ответа (ошибка, отмена) — идем в сервис сами
+            return leader.asMono()
+                .flatMap(response -> write(exchange.getResponse(), response))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(replayed)));
+        }
+        
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), flight);
+        return chain.filter(replayed.mutate().response(response).build())
+            .doFinally(signal -> {
+                inFlight.remove(key, flight);
+                flight.tryEmitEmpty();
+            });
+    }
+    
+    private boolean isEligible(ServerHttpRequest request) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.POST && method != HttpMethod.GET) {
+            return false;
+        }
+        long contentLength = request.getHeaders().getContentLength();
+        if (method == HttpMethod.POST && (contentLength < 0 || contentLength > properties.getMaxBodySize())) {
+            return false;
+        }
+        if (!hasIdentity(request)) {
+            return false;
+        }
+        for (PathPattern path : paths) {
+            if (path.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean hasIdentity(ServerHttpRequest request) {
+        for (String header : IDENTITY_HEADERS) {
+            if (!request.getHeaders().getOrEmpty(header).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String key(ServerHttpRequest request, byte[] body) {
+        MessageDigest digest = sha256();
+        update(digest, request, IDENTITY_HEADERS);
+        update(digest, request, FORMAT_HEADERS);
+        update(digest, request.getMethod().name());
+        update(digest, request.getURI().getRawPath());
+        update(digest, String.valueOf(request.getURI().getRawQuery()));
+        digest.update(normalize(request, body));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+    
+    /**
+     * JSON приводится к каноническому виду (ключи по алфавиту, без пробелов);
+     * тело, которое не разбирается как JSON, сравнивается побайтно
+     */
+    private byte[] normalize(ServerHttpRequest request, byte[] body) {
+        MediaType contentType = request.getHeaders().getContentType();
+        if (body.length == 0 || contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return body;
+        }
+        try {
+            Object tree = canonicalMapper.readValue(body, Object.class);
+            return canonicalMapper.writeValueAsBytes(tree);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+    
+    private static void update(MessageDigest digest, ServerHttpRequest request, List<String> headers) {
+        for (String header : headers) {
+            update(digest, header);
+            for (String value : request.getHeaders().getOrEmpty(header)) {
+                update(digest, value);
+            }
+        }
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static byte[] drain(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+    
+    private static ServerHttpRequest replay(ServerHttpRequest request, DataBufferFactory bufferFactory, byte[] body) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(bufferFactory.wrap(body)));
+            }
+        };
+    }
+    
+    private static Mono<Void> write(ServerHttpResponse response, CapturedResponse captured) {
+        response.setStatusCode(captured.status());
+        response.getHeaders().putAll(captured.headers());
+        response.getHeaders().set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(captured.body())));
+    }
+    
+    /**
+     * Число запросов, получивших ответ другого запроса
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    /**
+     * Пишет ответ ведущего запроса клиенту и одновременно сохраняет его копию для ожидающих
+     */
+    private static final class CapturingResponse extends ServerHttpResponseDecorator {
+        
+        private final Sinks.One<CapturedResponse> flight;
+        
+        CapturingResponse(ServerHttpResponse delegate, Sinks.One<CapturedResponse> flight) {
+            super(delegate);
+            this.flight = flight;
+        }
+        
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = drain(joined);
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(getHeaders());
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                HttpStatus status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                flight.tryEmitValue(new CapturedResponse(status, headers, bytes));
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+    
+    @Override
+    public int getOrder() {
+        // Раньше circuit breaker маршрута
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}